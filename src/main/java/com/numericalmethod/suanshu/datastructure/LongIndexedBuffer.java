@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.datastructure;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This is a buffer of 8-byte elements, {@code double}s or {@code long}s, indexed by {@code long}.
+ * A Java array or {@code ByteBuffer} holds at most 2<sup>31</sup> - 1 elements or bytes,
+ * so the buffer is split into chunks of {@code 2^chunkShift} elements each;
+ * an element never straddles two chunks.
+ * The chunks live outside the Java heap, e.g., in a memory-mapped file,
+ * so that the garbage collector neither copies nor scans them however big they are.
+ * <p/>
+ * The elements are stored in little-endian byte order, which is the native order on the common platforms,
+ * so that the file format is portable and the access is fast.
+ * The buffer is not thread-safe for concurrent writes to the same element;
+ * concurrent reads, and writes to different elements, are safe.
+ *
+ * @author Haksun Li
+ */
+public class LongIndexedBuffer {
+
+    /**
+     * the default chunk size: 2<sup>27</sup> elements, i.e., 1 GB
+     */
+    public static final int DEFAULT_CHUNK_SHIFT = 27;
+    /**
+     * the byte order of the elements
+     */
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private final ByteBuffer[] chunks;
+    private final long length;
+    private final int shift;
+    private final long mask;
+
+    /**
+     * Wrap chunks of bytes as a buffer.
+     *
+     * @param chunks     the chunks; all but the last must hold exactly {@code 2^chunkShift} elements
+     * @param length     the number of elements
+     * @param chunkShift the base 2 logarithm of the number of elements in a chunk
+     */
+    public LongIndexedBuffer(ByteBuffer[] chunks, long length, int chunkShift) {
+        SuanShuUtils.assertArgument(0 < chunkShift && chunkShift <= DEFAULT_CHUNK_SHIFT, "0 < chunkShift <= 27");
+        SuanShuUtils.assertArgument(chunks.length == nChunks(length, chunkShift), "wrong number of chunks");
+
+        this.chunks = chunks;
+        this.length = length;
+        this.shift = chunkShift;
+        this.mask = (1L << chunkShift) - 1;
+
+        for (ByteBuffer chunk : chunks) {
+            chunk.order(BYTE_ORDER);
+        }
+    }
+
+    /**
+     * Map a region of a file into memory.
+     * The mapping stays valid after the channel is closed.
+     *
+     * @param channel    a file channel
+     * @param mode       {@code READ_ONLY}, {@code READ_WRITE} or {@code PRIVATE} (copy-on-write)
+     * @param position   the position in the file of the first element, in bytes
+     * @param length     the number of elements
+     * @param chunkShift the base 2 logarithm of the number of elements in a chunk
+     * @return the mapped buffer
+     * @throws IOException if the file cannot be mapped
+     */
+    public static LongIndexedBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long length, int chunkShift) throws IOException {
+        int n = nChunks(length, chunkShift);
+        ByteBuffer[] chunks = new ByteBuffer[n];
+        for (int k = 0; k < n; ++k) {
+            long first = (long) k << chunkShift;
+            long size = Math.min(1L << chunkShift, length - first);
+            chunks[k] = channel.map(mode, position + (first << 3), size << 3);
+        }
+
+        return new LongIndexedBuffer(chunks, length, chunkShift);
+    }
+
+    /**
+     * Map a region of a file into memory, using the {@link #DEFAULT_CHUNK_SHIFT}.
+     *
+     * @param channel  a file channel
+     * @param mode     {@code READ_ONLY}, {@code READ_WRITE} or {@code PRIVATE} (copy-on-write)
+     * @param position the position in the file of the first element, in bytes
+     * @param length   the number of elements
+     * @return the mapped buffer
+     * @throws IOException if the file cannot be mapped
+     */
+    public static LongIndexedBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long length) throws IOException {
+        return map(channel, mode, position, length, DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Allocate a buffer of zeros in direct (off-heap) memory.
+     * The memory is released when the buffer is garbage collected.
+     * The total size is limited by the JVM option {@code -XX:MaxDirectMemorySize}.
+     *
+     * @param length     the number of elements
+     * @param chunkShift the base 2 logarithm of the number of elements in a chunk
+     * @return the allocated buffer
+     */
+    public static LongIndexedBuffer allocateDirect(long length, int chunkShift) {
+        int n = nChunks(length, chunkShift);
+        ByteBuffer[] chunks = new ByteBuffer[n];
+        for (int k = 0; k < n; ++k) {
+            long first = (long) k << chunkShift;
+            long size = Math.min(1L << chunkShift, length - first);
+            chunks[k] = ByteBuffer.allocateDirect((int) (size << 3));
+        }
+
+        return new LongIndexedBuffer(chunks, length, chunkShift);
+    }
+
+    /**
+     * Allocate a buffer of zeros in direct (off-heap) memory, using the {@link #DEFAULT_CHUNK_SHIFT}.
+     *
+     * @param length the number of elements
+     * @return the allocated buffer
+     */
+    public static LongIndexedBuffer allocateDirect(long length) {
+        return allocateDirect(length, DEFAULT_CHUNK_SHIFT);
+    }
+
+    private static int nChunks(long length, int chunkShift) {
+        SuanShuUtils.assertArgument(length >= 0, "length >= 0");
+        long n = (length + (1L << chunkShift) - 1) >>> chunkShift;
+        SuanShuUtils.assertArgument(n <= Integer.MAX_VALUE, "too many chunks");
+        return (int) n;
+    }
+
+    /**
+     * Get the number of elements.
+     *
+     * @return the number of elements
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Check whether the buffer is read-only.
+     *
+     * @return {@code true} if the buffer is read-only
+     */
+    public boolean isReadOnly() {
+        return chunks.length > 0 && chunks[0].isReadOnly();
+    }
+
+    /**
+     * Get an element as a {@code double}.
+     *
+     * @param i the index, from 0
+     * @return the <i>i</i>-th element
+     */
+    public double getDouble(long i) {
+        return chunks[(int) (i >>> shift)].getDouble((int) (i & mask) << 3);
+    }
+
+    /**
+     * Set an element as a {@code double}.
+     *
+     * @param i     the index, from 0
+     * @param value the value
+     */
+    public void setDouble(long i, double value) {
+        chunks[(int) (i >>> shift)].putDouble((int) (i & mask) << 3, value);
+    }
+
+    /**
+     * Get an element as a {@code long}.
+     *
+     * @param i the index, from 0
+     * @return the <i>i</i>-th element
+     */
+    public long getLong(long i) {
+        return chunks[(int) (i >>> shift)].getLong((int) (i & mask) << 3);
+    }
+
+    /**
+     * Set an element as a {@code long}.
+     *
+     * @param i     the index, from 0
+     * @param value the value
+     */
+    public void setLong(long i, long value) {
+        chunks[(int) (i >>> shift)].putLong((int) (i & mask) << 3, value);
+    }
+
+    /**
+     * Copy consecutive elements, as {@code double}s, into an array.
+     *
+     * @param from   the index of the first element to copy
+     * @param dest   the destination array
+     * @param offset the index in {@code dest} of the first copied element
+     * @param n      the number of elements to copy
+     */
+    public void getDoubles(long from, double[] dest, int offset, int n) {
+        while (n > 0) {
+            int k = (int) (from & mask);
+            int m = (int) Math.min(n, (1L << shift) - k);
+            DoubleBuffer view = chunks[(int) (from >>> shift)].duplicate().order(BYTE_ORDER).asDoubleBuffer();
+            view.position(k);
+            view.get(dest, offset, m);
+            from += m;
+            offset += m;
+            n -= m;
+        }
+    }
+
+    /**
+     * Copy consecutive elements, as {@code double}s, from an array.
+     *
+     * @param from   the index of the first element to write
+     * @param src    the source array
+     * @param offset the index in {@code src} of the first element to copy
+     * @param n      the number of elements to copy
+     */
+    public void setDoubles(long from, double[] src, int offset, int n) {
+        while (n > 0) {
+            int k = (int) (from & mask);
+            int m = (int) Math.min(n, (1L << shift) - k);
+            DoubleBuffer view = chunks[(int) (from >>> shift)].duplicate().order(BYTE_ORDER).asDoubleBuffer();
+            view.position(k);
+            view.put(src, offset, m);
+            from += m;
+            offset += m;
+            n -= m;
+        }
+    }
+
+    /**
+     * Write the changes to a memory-mapped file to the storage device.
+     * This does nothing for a buffer not backed by a file.
+     */
+    public void force() {
+        for (ByteBuffer chunk : chunks) {
+            if (chunk instanceof MappedByteBuffer && !chunk.isReadOnly()) {
+                ((MappedByteBuffer) chunk).force();
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@
  */
 package com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles;
 
+import com.numericalmethod.suanshu.dsp.univariate.transform.FFT;
 import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
 import java.util.Arrays;
 
@@ -34,13 +35,26 @@ import java.util.Arrays;
  * When a symmetric window is used and the filter length is even, more of the filter is forward in time than backward.
  *
  * <p>
+ * Optionally, a long filter is applied by {@link FFT#convolve(double[], double[]) FFT convolution} in <i>O(n log n)</i>,
+ * instead of in <i>O(np)</i> by summation.
+ * The rounding error of an FFT convolution is relative to the largest terms of the whole series, not of each window.
+ * When the series has a wide dynamic range, e.g., a few spikes among small values,
+ * the outputs far from the spikes lose most of their significant digits.
+ * Summation is therefore the default.
+ *
+ * <p>
  * The R equivalent function is {@code filter}.
  *
  * @author Haksun Li
+ * @see com.numericalmethod.suanshu.stats.descriptive.rolling.RollingMean
  */
 public class MovingAverage implements Filter {
 
     private static final long serialVersionUID = -3117753900715895615L;
+    /**
+     * the filter length from which the filter is applied by FFT convolution, if enabled
+     */
+    private static final int FFT_FILTER_LENGTH = 64;
 
     /**
      * the types of moving average filtering available
@@ -60,20 +74,33 @@ public class MovingAverage implements Filter {
 
     private final Side side;
     private final double[] filter;
+    private final boolean useFFT;
 
     /**
      * Construct a moving average filter.
      *
      * @param filter the filter coefficients in reverse time order
      * @param side   specify the data window to use
+     * @param useFFT {@code true} to apply a long filter by FFT convolution, trading accuracy for speed
      */
-    public MovingAverage(double[] filter, Side side) {
+    public MovingAverage(double[] filter, Side side, boolean useFFT) {
         this.filter = Arrays.copyOf(filter, filter.length);
         this.side = side;
+        this.useFFT = useFFT;
+    }
+
+    /**
+     * Construct a moving average filter, applied by summation.
+     *
+     * @param filter the filter coefficients in reverse time order
+     * @param side   specify the data window to use
+     */
+    public MovingAverage(double[] filter, Side side) {
+        this(filter, side, false);
     }
 
     /**
-     * Construct a moving average filter using a symmetric window.
+     * Construct a moving average filter using a symmetric window, applied by summation.
      *
      * @param filter the filter coefficients in reverse time order
      */
@@ -82,7 +109,7 @@ public class MovingAverage implements Filter {
     }
 
     @Override
-    public double[] transform(double[] x) {//TODO: anyway to construct a 'transformed' signal dynamically (w/o processing the whole data set in memory)?
+    public double[] transform(double[] x) {//for a stream of equally weighted past values, see RollingMean
         final int nObs = x.length;
         final int q = (filter.length - 1) / 2;//round down b/c when the filter length is even, more of the filter is forward in time than backward
 
@@ -93,15 +120,51 @@ public class MovingAverage implements Filter {
         final int end = side == Side.PAST ? nObs : nObs - (filter.length / 2);
         final int offset = side == Side.PAST ? filter.length - 1 : q;
 
-        for (int i = begin; i < end; ++i) {
-            double sum = 0.;
-            for (int j = 0; j < filter.length; ++j) {
-                sum += x[i - offset + j] * filter[filter.length - j - 1];
+        if (useFFT && filter.length >= FFT_FILTER_LENGTH && begin < end) {
+            //a NaN or infinity spreads to every output of an FFT convolution; convolve with 0s and sum the windows containing them
+            double[] finite = x;
+            boolean[] isSummed = null;
+            for (int k = 0; k < nObs; ++k) {
+                if (Double.isNaN(x[k]) || Double.isInfinite(x[k])) {
+                    if (isSummed == null) {
+                        finite = Arrays.copyOf(x, nObs);
+                        isSummed = new boolean[nObs];
+                    }
+                    finite[k] = 0;
+                    //x[k] is in the windows of i - offset <= k < i - offset + p
+                    for (int i = Math.max(begin, k + offset - filter.length + 1); i <= k + offset && i < end; ++i) {
+                        isSummed[i] = true;
+                    }
+                }
+            }
+
+            //y[i] = Σ_j x[i - offset + j] * f[p - 1 - j] is the full convolution at i - offset + p - 1
+            double[] c = FFT.convolve(finite, filter);
+            for (int i = begin; i < end; ++i) {
+                mtHat[i] = isSummed != null && isSummed[i] ? sum(x, i - offset) : c[i - offset + filter.length - 1];
             }
+            return mtHat;
+        }
 
-            mtHat[i] = sum;
+        for (int i = begin; i < end; ++i) {
+            mtHat[i] = sum(x, i - offset);
         }
 
         return mtHat;
     }
+
+    /**
+     * Apply the filter to a window of the data by summation.
+     *
+     * @param x    the data
+     * @param from the index of the first data point in the window
+     * @return the filtered value
+     */
+    private double sum(double[] x, int from) {
+        double sum = 0.;
+        for (int j = 0; j < filter.length; ++j) {
+            sum += x[from + j] * filter[filter.length - j - 1];
+        }
+        return sum;
+    }
 }
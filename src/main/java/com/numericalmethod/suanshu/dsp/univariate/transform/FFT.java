@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.dsp.univariate.transform;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.number.complex.Complex;
+import java.util.Arrays;
+
+/**
+ * The Fast Fourier Transform (FFT) computes the Discrete Fourier Transform (DFT)
+ * <blockquote><i>
+ * X<sub>k</sub> = Σ<sub>t=0</sub><sup>n-1</sup> x<sub>t</sub> e<sup>-2πi tk/n</sup>, k = 0, ..., n-1
+ * </i></blockquote>
+ * in <i>O(n log n)</i>.
+ * A length that is a power of 2 is transformed by the iterative radix-2 Cooley-Tukey algorithm.
+ * Any other length is transformed by Bluestein's algorithm,
+ * which expresses the DFT as a convolution that is computed by radix-2 transforms.
+ * A real input of an even length is packed into a complex input of half the length.
+ *
+ * <p>
+ * The sines and cosines for a length are computed once at construction;
+ * an instance can then be used by many threads concurrently.
+ *
+ * <p>
+ * The R equivalent function is {@code fft}.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"J. W. Cooley, and J. W. Tukey, "An algorithm for the machine calculation of complex Fourier series," Mathematics of Computation, 19, 297–301, 1965."
+ * <li>"L. I. Bluestein, "A linear filtering approach to the computation of discrete Fourier transform," IEEE Transactions on Audio and Electroacoustics, 18 (4), 451–455, 1970."
+ * <li><a href="http://en.wikipedia.org/wiki/Fast_Fourier_transform">Wikipedia: Fast Fourier transform</a>
+ * </ul>
+ */
+public class FFT {
+
+    /** the length of the transform */
+    private final int n;
+    /** the length of the radix-2 transforms; {@code n} if {@code n} is a power of 2 */
+    private final int m;
+    /** cos(2πk/m) and sin(2πk/m), k = 0, ..., m/2 - 1 */
+    private final double[] cos;
+    private final double[] sin;
+    /** the bit reversal permutation of 0, ..., m-1 */
+    private final int[] reverse;
+    /** the chirp, exp(-πi k<sup>2</sup>/n), for Bluestein's algorithm */
+    private final double[] chirpRe;
+    private final double[] chirpIm;
+    /** the transform of the conjugate chirp, for Bluestein's algorithm */
+    private final double[] kernelRe;
+    private final double[] kernelIm;
+    /** the transform of half the length, for a real input */
+    private final FFT half;
+    /** cos(2πk/n) and sin(2πk/n), k = 0, ..., n/2 - 1, for a real input */
+    private final double[] realCos;
+    private final double[] realSin;
+
+    /**
+     * Construct an FFT of a given length.
+     *
+     * @param n the length of the transform
+     */
+    public FFT(int n) {
+        this(n, true);
+    }
+
+    private FFT(int n, boolean real) {
+        SuanShuUtils.assertArgument(n > 0, "n must be positive");
+        this.n = n;
+        this.m = isPowerOf2(n) ? n : nextPowerOf2(2 * n - 1);
+
+        cos = new double[m / 2];
+        sin = new double[m / 2];
+        for (int k = 0; k < m / 2; ++k) {
+            double angle = 2 * Math.PI * k / m;
+            cos[k] = Math.cos(angle);
+            sin[k] = Math.sin(angle);
+        }
+
+        reverse = new int[m];
+        int bits = Integer.numberOfTrailingZeros(m);
+        for (int i = 0; i < m; ++i) {
+            reverse[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+
+        if (m != n) {
+            chirpRe = new double[n];
+            chirpIm = new double[n];
+            for (int k = 0; k < n; ++k) {
+                double angle = Math.PI * (((long) k * k) % (2L * n)) / n;//reduce k^2 mod 2n for accuracy
+                chirpRe[k] = Math.cos(angle);
+                chirpIm[k] = -Math.sin(angle);
+            }
+
+            kernelRe = new double[m];
+            kernelIm = new double[m];
+            kernelRe[0] = chirpRe[0];
+            kernelIm[0] = -chirpIm[0];
+            for (int k = 1; k < n; ++k) {
+                kernelRe[k] = kernelRe[m - k] = chirpRe[k];
+                kernelIm[k] = kernelIm[m - k] = -chirpIm[k];
+            }
+            radix2(kernelRe, kernelIm);
+        } else {
+            chirpRe = chirpIm = kernelRe = kernelIm = null;
+        }
+
+        if (real && n % 2 == 0 && n >= 4) {
+            half = new FFT(n / 2, false);
+            realCos = new double[n / 2];
+            realSin = new double[n / 2];
+            for (int k = 0; k < n / 2; ++k) {
+                double angle = 2 * Math.PI * k / n;
+                realCos[k] = Math.cos(angle);
+                realSin[k] = Math.sin(angle);
+            }
+        } else {
+            half = null;
+            realCos = realSin = null;
+        }
+    }
+
+    /**
+     * Get the length of the transform.
+     *
+     * @return the length
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Compute the DFT of a complex input in place.
+     *
+     * @param re the real parts of the input; replaced by the real parts of the output
+     * @param im the imaginary parts of the input; replaced by the imaginary parts of the output
+     */
+    public void transform(double[] re, double[] im) {
+        SuanShuUtils.assertArgument(re.length == n && im.length == n, "the input length must be %d", n);
+
+        if (m == n) {
+            radix2(re, im);
+        } else {
+            bluestein(re, im);
+        }
+    }
+
+    /**
+     * Compute the inverse DFT
+     * <blockquote><i>
+     * x<sub>t</sub> = 1/n Σ<sub>k=0</sub><sup>n-1</sup> X<sub>k</sub> e<sup>2πi tk/n</sup>
+     * </i></blockquote>
+     * of a complex input in place.
+     *
+     * @param re the real parts of the input; replaced by the real parts of the output
+     * @param im the imaginary parts of the input; replaced by the imaginary parts of the output
+     */
+    public void inverse(double[] re, double[] im) {
+        //conj(DFT(conj(X))) / n
+        for (int k = 0; k < im.length; ++k) {
+            im[k] = -im[k];
+        }
+        transform(re, im);
+        for (int t = 0; t < n; ++t) {
+            re[t] /= n;
+            im[t] = -im[t] / n;
+        }
+    }
+
+    /**
+     * Compute the DFT of a real input.
+     *
+     * @param x  the real input
+     * @param re the real parts of the output
+     * @param im the imaginary parts of the output
+     */
+    public void transform(double[] x, double[] re, double[] im) {
+        SuanShuUtils.assertArgument(x.length == n && re.length == n && im.length == n, "the input length must be %d", n);
+
+        if (half == null) {
+            System.arraycopy(x, 0, re, 0, n);
+            Arrays.fill(im, 0);
+            transform(re, im);
+            return;
+        }
+
+        //z_t = x_{2t} + i x_{2t+1}, t = 0, ..., N-1
+        final int N = n / 2;
+        double[] zRe = new double[N];
+        double[] zIm = new double[N];
+        for (int t = 0; t < N; ++t) {
+            zRe[t] = x[2 * t];
+            zIm[t] = x[2 * t + 1];
+        }
+        half.transform(zRe, zIm);
+
+        //X_k = E_k + w^k O_k, X_{k+N} = E_k - w^k O_k, where E and O are the DFTs of the even and odd samples
+        for (int k = 0; k < N; ++k) {
+            int j = k == 0 ? 0 : N - k;
+            double eRe = 0.5 * (zRe[k] + zRe[j]);
+            double eIm = 0.5 * (zIm[k] - zIm[j]);
+            double oRe = 0.5 * (zIm[k] + zIm[j]);
+            double oIm = -0.5 * (zRe[k] - zRe[j]);
+            double tRe = realCos[k] * oRe + realSin[k] * oIm;//w^k = exp(-2πik/n)
+            double tIm = realCos[k] * oIm - realSin[k] * oRe;
+            re[k] = eRe + tRe;
+            im[k] = eIm + tIm;
+            re[k + N] = eRe - tRe;
+            im[k + N] = eIm - tIm;
+        }
+    }
+
+    /**
+     * Compute the DFT of a real input.
+     *
+     * @param x the real input
+     * @return <i>X<sub>0</sub>, ..., X<sub>n-1</sub></i>
+     */
+    public Complex[] transform(double[] x) {
+        double[] re = new double[n];
+        double[] im = new double[n];
+        transform(x, re, im);
+
+        Complex[] X = new Complex[n];
+        for (int k = 0; k < n; ++k) {
+            X[k] = new Complex(re[k], im[k]);
+        }
+        return X;
+    }
+
+    /**
+     * Compute the linear convolution of two sequences,
+     * <blockquote><i>
+     * c<sub>j</sub> = Σ<sub>k</sub> a<sub>k</sub> b<sub>j-k</sub>, j = 0, ..., n<sub>a</sub> + n<sub>b</sub> - 2
+     * </i></blockquote>
+     * in <i>O((n<sub>a</sub> + n<sub>b</sub>) log(n<sub>a</sub> + n<sub>b</sub>))</i>.
+     * The two real sequences are transformed together as one complex sequence.
+     * {@code b} is first scaled by a power of 2 to the magnitude of {@code a}, exactly,
+     * so that the rounding errors of the larger sequence do not swamp the smaller one.
+     *
+     * @param a a sequence
+     * @param b a sequence
+     * @return the convolution of {@code a} and {@code b}
+     */
+    public static double[] convolve(double[] a, double[] b) {
+        SuanShuUtils.assertArgument(a.length > 0 && b.length > 0, "the sequences must not be empty");
+
+        final int length = a.length + b.length - 1;
+        final int N = nextPowerOf2(length);
+        double[] re = new double[N];
+        double[] im = new double[N];
+        System.arraycopy(a, 0, re, 0, a.length);
+        final int shift = exponentOfMax(a) - exponentOfMax(b);
+        for (int i = 0; i < b.length; ++i) {
+            im[i] = Math.scalb(b[i], shift);
+        }
+
+        FFT fft = new FFT(N, false);
+        fft.transform(re, im);
+
+        //A_k = (Z_k + conj(Z_{N-k})) / 2, B_k = (Z_k - conj(Z_{N-k})) / 2i; C_k = A_k B_k
+        double[] cRe = new double[N];
+        double[] cIm = new double[N];
+        for (int k = 0; k < N; ++k) {
+            int j = k == 0 ? 0 : N - k;
+            double aRe = 0.5 * (re[k] + re[j]);
+            double aIm = 0.5 * (im[k] - im[j]);
+            double bRe = 0.5 * (im[k] + im[j]);
+            double bIm = -0.5 * (re[k] - re[j]);
+            cRe[k] = aRe * bRe - aIm * bIm;
+            cIm[k] = aRe * bIm + aIm * bRe;
+        }
+        fft.inverse(cRe, cIm);
+
+        double[] c = new double[length];
+        for (int i = 0; i < length; ++i) {
+            c[i] = Math.scalb(cRe[i], -shift);
+        }
+        return c;
+    }
+
+    /**
+     * Get the binary exponent of the largest magnitude in a sequence.
+     *
+     * @param x a sequence
+     * @return the unbiased exponent; 0 if the sequence is all 0s or has a NaN or an infinity
+     */
+    private static int exponentOfMax(double[] x) {
+        double max = 0;
+        for (int i = 0; i < x.length; ++i) {
+            max = Math.max(max, Math.abs(x[i]));
+        }
+        return max > 0 && max <= Double.MAX_VALUE ? Math.getExponent(max) : 0;
+    }
+
+    /**
+     * Compute the cross-correlation of two sequences for all lags,
+     * <blockquote><i>
+     * r<sub>k</sub> = Σ<sub>t</sub> x<sub>t</sub> y<sub>t+k</sub>, k = -(n<sub>x</sub> - 1), ..., n<sub>y</sub> - 1
+     * </i></blockquote>
+     * by FFT.
+     *
+     * @param x a sequence
+     * @param y a sequence
+     * @return <i>r<sub>k</sub></i> at index <i>k + n<sub>x</sub> - 1</i>
+     */
+    public static double[] correlate(double[] x, double[] y) {
+        double[] reversed = new double[x.length];
+        for (int t = 0; t < x.length; ++t) {
+            reversed[t] = x[x.length - 1 - t];
+        }
+        return convolve(reversed, y);
+    }
+
+    /**
+     * Check whether a number is a power of 2.
+     *
+     * @param n a positive number
+     * @return {@code true} if {@code n} is a power of 2
+     */
+    public static boolean isPowerOf2(int n) {
+        return n > 0 && (n & (n - 1)) == 0;
+    }
+
+    /**
+     * Get the smallest power of 2 that is at least {@code n}.
+     *
+     * @param n a positive number
+     * @return the next power of 2
+     */
+    public static int nextPowerOf2(int n) {
+        SuanShuUtils.assertArgument(n > 0 && n <= (1 << 30), "n must be in [1, 2^30]");
+        return isPowerOf2(n) ? n : Integer.highestOneBit(n) << 1;
+    }
+
+    /**
+     * The iterative radix-2 Cooley-Tukey transform of length {@code m}, in place.
+     */
+    private void radix2(double[] re, double[] im) {
+        for (int i = 0; i < m; ++i) {
+            int j = reverse[i];
+            if (i < j) {
+                double tmp = re[i];
+                re[i] = re[j];
+                re[j] = tmp;
+                tmp = im[i];
+                im[i] = im[j];
+                im[j] = tmp;
+            }
+        }
+
+        for (int size = 2; size <= m; size <<= 1) {
+            final int halfSize = size >> 1;
+            final int step = m / size;
+            for (int i = 0; i < m; i += size) {
+                for (int j = 0, k = 0; j < halfSize; ++j, k += step) {
+                    final int a = i + j;
+                    final int b = a + halfSize;
+                    final double wRe = cos[k];
+                    final double wIm = -sin[k];
+                    final double tRe = re[b] * wRe - im[b] * wIm;
+                    final double tIm = re[b] * wIm + im[b] * wRe;
+                    re[b] = re[a] - tRe;
+                    im[b] = im[a] - tIm;
+                    re[a] += tRe;
+                    im[a] += tIm;
+                }
+            }
+        }
+    }
+
+    /**
+     * Bluestein's transform: X_k = w_k Σ_t (x_t w_t) conj(w_{k-t}), where w_k = exp(-πi k<sup>2</sup>/n).
+     */
+    private void bluestein(double[] re, double[] im) {
+        double[] aRe = new double[m];
+        double[] aIm = new double[m];
+        for (int t = 0; t < n; ++t) {
+            aRe[t] = re[t] * chirpRe[t] - im[t] * chirpIm[t];
+            aIm[t] = re[t] * chirpIm[t] + im[t] * chirpRe[t];
+        }
+        radix2(aRe, aIm);
+
+        //the circular convolution with the kernel, inverted by conj(DFT(conj(.))) / m
+        for (int k = 0; k < m; ++k) {
+            double pRe = aRe[k] * kernelRe[k] - aIm[k] * kernelIm[k];
+            double pIm = aRe[k] * kernelIm[k] + aIm[k] * kernelRe[k];
+            aRe[k] = pRe;
+            aIm[k] = -pIm;
+        }
+        radix2(aRe, aIm);
+
+        for (int k = 0; k < n; ++k) {
+            double cRe = aRe[k] / m;
+            double cIm = -aIm[k] / m;
+            re[k] = cRe * chirpRe[k] - cIm * chirpIm[k];
+            im[k] = cRe * chirpIm[k] + cIm * chirpRe[k];
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.io;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This is the fixed-size header of the SuanShu binary data files.
+ * The file layout is:
+ * <pre>
+ * offset  size  content
+ *  0       8    magic number, "SUANSHU" followed by a 0 byte
+ *  8       4    format version
+ * 12       4    content type, e.g., {@link #DENSE_MATRIX}
+ * 16       8    the first dimension, e.g., the number of rows
+ * 24       8    the second dimension, e.g., the number of columns
+ * 32      32    reserved, 0
+ * 64            the data, 8 bytes per element
+ * </pre>
+ * All numbers are in little-endian byte order.
+ * The data start at an 8-byte boundary so that they can be memory-mapped and accessed directly.
+ *
+ * @author Haksun Li
+ */
+public class BinaryFileHeader {
+
+    /**
+     * the size of the header in bytes; the data start at this position
+     */
+    public static final int SIZE = 64;
+    /**
+     * the current format version
+     */
+    public static final int VERSION = 1;
+    /**
+     * a dense matrix; the entries are stored row by row
+     */
+    public static final int DENSE_MATRIX = 1;
+    /**
+     * a univariate time series; the {@code long} timestamps are stored, followed by the {@code double} values
+     */
+    public static final int TIME_SERIES = 2;
+    private static final byte[] MAGIC = {'S', 'U', 'A', 'N', 'S', 'H', 'U', 0};
+    /** the content type */
+    public final int type;
+    /** the first dimension */
+    public final long dim1;
+    /** the second dimension */
+    public final long dim2;
+
+    /**
+     * Construct a header.
+     *
+     * @param type the content type
+     * @param dim1 the first dimension
+     * @param dim2 the second dimension
+     */
+    public BinaryFileHeader(int type, long dim1, long dim2) {
+        this.type = type;
+        this.dim1 = dim1;
+        this.dim2 = dim2;
+    }
+
+    /**
+     * Write the header at the beginning of a file.
+     *
+     * @param channel a file channel
+     * @throws IOException if the header cannot be written
+     */
+    public void write(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE).order(LongIndexedBuffer.BYTE_ORDER);
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(type);
+        buffer.putLong(dim1);
+        buffer.putLong(dim2);
+        buffer.position(0);
+
+        int position = 0;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Read the header at the beginning of a file.
+     *
+     * @param channel a file channel
+     * @return the header
+     * @throws IOException if the file is not a SuanShu binary data file or is of an unsupported version
+     */
+    public static BinaryFileHeader read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE).order(LongIndexedBuffer.BYTE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IOException("the file is too short to be a SuanShu binary data file");
+            }
+        }
+        buffer.flip();
+
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                throw new IOException("not a SuanShu binary data file");
+            }
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("unsupported version %d", version));
+        }
+
+        int type = buffer.getInt();
+        long dim1 = buffer.getLong();
+        long dim2 = buffer.getLong();
+        return new BinaryFileHeader(type, dim1, dim2);
+    }
+
+    /**
+     * Check that the header describes the expected content and that the file is big enough for it.
+     *
+     * @param type        the expected content type
+     * @param nElements   the number of 8-byte data elements that the header implies
+     * @param channel     the file channel
+     * @throws IOException if the content type is not as expected or the file is truncated
+     */
+    void check(int type, long nElements, FileChannel channel) throws IOException {
+        if (this.type != type) {
+            throw new IOException(String.format("the file content type is %d, not %d", this.type, type));
+        }
+        if (channel.size() < SIZE + 8 * nElements) {
+            throw new IOException(String.format("the file is truncated: %d bytes for %d elements", channel.size(), nElements));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.io;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.OffHeapDenseMatrix;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class reads and writes a matrix in a binary file that can be memory-mapped.
+ * The file consists of a {@link BinaryFileHeader} followed by the entries, row by row, as little-endian {@code double}s.
+ * An opened matrix is an {@link OffHeapDenseMatrix} that reads the file on demand through the operating system page cache;
+ * hence, opening a file takes constant time and memory, regardless of the size of the matrix.
+ * <p/>
+ * A multivariate time series, e.g.,
+ * {@link com.numericalmethod.suanshu.stats.timeseries.multivariate.realtime.SimpleMultiVariateTimeSeries},
+ * can be persisted as its matrix of observations.
+ *
+ * @author Haksun Li
+ */
+public class MatrixFile {
+
+    /**
+     * the number of bytes written at a time
+     */
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private MatrixFile() {
+        // utility class has no instance
+    }
+
+    /**
+     * Write a matrix to a file. The rows are streamed to the file, so no copy of the matrix is made.
+     *
+     * @param A    a matrix
+     * @param file a file; it is overwritten
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Matrix A, File file) throws IOException {
+        final int nRows = A.nRows();
+        final int nCols = A.nCols();
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            channel.truncate(0);
+            new BinaryFileHeader(BinaryFileHeader.DENSE_MATRIX, nRows, nCols).write(channel);
+            channel.position(BinaryFileHeader.SIZE);
+
+            ByteBuffer bytes = ByteBuffer.allocate(IO_BUFFER_SIZE).order(LongIndexedBuffer.BYTE_ORDER);
+            DoubleBuffer doubles = bytes.asDoubleBuffer();
+            for (int i = 1; i <= nRows; ++i) {
+                for (int j = 1; j <= nCols; ++j) {
+                    if (!doubles.hasRemaining()) {
+                        flush(channel, bytes, doubles);
+                    }
+                    doubles.put(A.get(i, j));
+                }
+            }
+            flush(channel, bytes, doubles);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Open a matrix file for read only.
+     *
+     * @param file a matrix file
+     * @return the matrix, mapped to the file
+     * @throws IOException if the file cannot be read or is not a matrix file
+     */
+    public static OffHeapDenseMatrix open(File file) throws IOException {
+        return open(file, false);
+    }
+
+    /**
+     * Open a matrix file. If writable, changes to the matrix are written to the file.
+     *
+     * @param file     a matrix file
+     * @param writable {@code true} if the matrix can be modified
+     * @return the matrix, mapped to the file
+     * @throws IOException if the file cannot be read or is not a matrix file
+     */
+    public static OffHeapDenseMatrix open(File file, boolean writable) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, writable ? "rw" : "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            BinaryFileHeader header = BinaryFileHeader.read(channel);
+            if (header.dim1 > Integer.MAX_VALUE || header.dim2 > Integer.MAX_VALUE || header.dim1 < 0 || header.dim2 < 0) {
+                throw new IOException(String.format("invalid matrix dimension %d x %d", header.dim1, header.dim2));
+            }
+            long length = header.dim1 * header.dim2;
+            header.check(BinaryFileHeader.DENSE_MATRIX, length, channel);
+
+            LongIndexedBuffer data = LongIndexedBuffer.map(
+                    channel,
+                    writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    BinaryFileHeader.SIZE,
+                    length);
+            return new OffHeapDenseMatrix(data, (int) header.dim1, (int) header.dim2);
+        } finally {
+            raf.close();// the mapping remains valid
+        }
+    }
+
+    /**
+     * Create a matrix file of zeros and open it for read and write.
+     * This is the way to construct a matrix bigger than the heap.
+     *
+     * @param file  a file; it is overwritten
+     * @param nRows the number of rows
+     * @param nCols the number of columns
+     * @return the matrix, mapped to the file
+     * @throws IOException if the file cannot be written
+     */
+    public static OffHeapDenseMatrix create(File file, int nRows, int nCols) throws IOException {
+        SuanShuUtils.assertArgument(nRows > 0 && nCols > 0, "the matrix dimension must be positive");
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            channel.truncate(0);
+            new BinaryFileHeader(BinaryFileHeader.DENSE_MATRIX, nRows, nCols).write(channel);
+
+            long length = (long) nRows * nCols;
+            raf.setLength(BinaryFileHeader.SIZE + 8 * length);
+            LongIndexedBuffer data = LongIndexedBuffer.map(channel, FileChannel.MapMode.READ_WRITE, BinaryFileHeader.SIZE, length);
+            return new OffHeapDenseMatrix(data, nRows, nCols);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Write the {@code double}s in a buffer to the channel at its current position, then clear the buffer.
+     */
+    static void flush(FileChannel channel, ByteBuffer bytes, DoubleBuffer doubles) throws IOException {
+        bytes.position(0);
+        bytes.limit(doubles.position() << 3);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+        doubles.clear();
+    }
+}
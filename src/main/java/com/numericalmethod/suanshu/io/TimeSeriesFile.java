@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.io;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.ColumnarTimeSeries;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.GenericTimeTimeSeries;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.TimeSeries;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import org.joda.time.DateTime;
+
+/**
+ * This class reads and writes a univariate time series in a binary file that can be memory-mapped.
+ * The file consists of a {@link BinaryFileHeader} followed by the timestamps, as little-endian {@code long}s,
+ * then the values, as little-endian {@code double}s.
+ * An opened time series is a {@link ColumnarTimeSeries} that reads the file on demand
+ * through the operating system page cache; hence, opening a file takes constant time and memory,
+ * regardless of the length of the series.
+ * <p/>
+ * {@code DateTime} timestamps are stored as the milliseconds since the epoch.
+ *
+ * @author Haksun Li
+ */
+public class TimeSeriesFile {
+
+    /**
+     * the number of bytes written at a time
+     */
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private TimeSeriesFile() {
+        // utility class has no instance
+    }
+
+    /**
+     * Write a time series to a file.
+     * The series is streamed to the file, so no copy of the series is made.
+     *
+     * @param ts   a time series, e.g., a {@link ColumnarTimeSeries}, whose timestamps are the milliseconds since the epoch
+     * @param file a file; it is overwritten
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(TimeSeries<Long, ? extends TimeSeries.Entry<Long>> ts, File file) throws IOException {
+        final int size = ts.size();
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            channel.truncate(0);
+            new BinaryFileHeader(BinaryFileHeader.TIME_SERIES, size, 1).write(channel);
+            channel.position(BinaryFileHeader.SIZE);
+
+            ByteBuffer bytes = ByteBuffer.allocate(IO_BUFFER_SIZE).order(LongIndexedBuffer.BYTE_ORDER);
+            LongBuffer longs = bytes.asLongBuffer();
+            for (TimeSeries.Entry<Long> entry : ts) {
+                if (!longs.hasRemaining()) {
+                    flush(channel, bytes, longs);
+                }
+                longs.put(entry.getTime());
+            }
+            flush(channel, bytes, longs);
+
+            DoubleBuffer doubles = bytes.asDoubleBuffer();
+            for (TimeSeries.Entry<Long> entry : ts) {
+                if (!doubles.hasRemaining()) {
+                    MatrixFile.flush(channel, bytes, doubles);
+                }
+                doubles.put(entry.getValue());
+            }
+            MatrixFile.flush(channel, bytes, doubles);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Write a {@code DateTime} time series to a file.
+     *
+     * @param ts   a {@code DateTime} time series
+     * @param file a file; it is overwritten
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(GenericTimeTimeSeries<DateTime> ts, File file) throws IOException {
+        write(new ColumnarTimeSeries(ts), file);
+    }
+
+    /**
+     * Open a time series file for read only.
+     *
+     * @param file a time series file
+     * @return the time series, mapped to the file
+     * @throws IOException if the file cannot be read or is not a time series file
+     */
+    public static ColumnarTimeSeries open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            BinaryFileHeader header = BinaryFileHeader.read(channel);
+            if (header.dim1 > Integer.MAX_VALUE || header.dim1 < 0 || header.dim2 != 1) {
+                throw new IOException(String.format("invalid time series dimension %d x %d", header.dim1, header.dim2));
+            }
+            int size = (int) header.dim1;
+            header.check(BinaryFileHeader.TIME_SERIES, 2L * size, channel);
+
+            LongIndexedBuffer data = LongIndexedBuffer.map(channel, FileChannel.MapMode.READ_ONLY, BinaryFileHeader.SIZE, 2L * size);
+            return new ColumnarTimeSeries(data, size);
+        } finally {
+            raf.close();// the mapping remains valid
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer bytes, LongBuffer longs) throws IOException {
+        bytes.position(0);
+        bytes.limit(longs.position() << 3);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+        longs.clear();
+    }
+}
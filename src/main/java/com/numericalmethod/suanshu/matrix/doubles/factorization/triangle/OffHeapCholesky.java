@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.matrix.doubles.factorization.triangle;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.OffHeapDenseMatrix;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.number.DoubleUtils;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+
+/**
+ * This is the Cholesky decomposition, <i>A = L * L<sup>t</sup></i>, of a matrix too big for the heap.
+ * The factor <i>L</i> is an {@link OffHeapDenseMatrix} and may overwrite <i>A</i>, so that no extra memory is needed.
+ * <p/>
+ * This implementation uses the right-looking blocked algorithm.
+ * For each block column, the diagonal block is factorized on the heap,
+ * the panel below it is solved against the diagonal block,
+ * and then the trailing submatrix is updated, tile by tile and in parallel.
+ * Only the lower triangle of <i>A</i> is read; the symmetry of <i>A</i> is not checked.
+ *
+ * @author Haksun Li
+ * @see Cholesky
+ * @see "G. H. Golub, and C. F. Van Loan, "Section 4.2.8," Matrix Computations, 3rd ed., 1996."
+ */
+public class OffHeapCholesky {
+
+    /**
+     * the width of a block column
+     */
+    private static final int BLOCK = 128;
+    /**
+     * the number of rows processed by a task
+     */
+    private static final int ROW_BLOCK = 64;
+    /**
+     * for parallel algorithm execution
+     */
+    private static final int LENGTH_THRESHOLD = 100 * 100;
+    /** the resultant lower triangular matrix */
+    private final OffHeapDenseMatrix L;
+    private final LongIndexedBuffer data;
+    private final int n;
+
+    /**
+     * Run the Cholesky decomposition on a copy of a real, symmetric (hence square), and positive definite matrix.
+     *
+     * @param A a real, symmetric (hence square), and positive definite matrix
+     * @throws RuntimeException if <i>A</i> is not positive definite matrix
+     */
+    public OffHeapCholesky(Matrix A) {
+        this(new OffHeapDenseMatrix(A), true);
+    }
+
+    /**
+     * Run the Cholesky decomposition on a real, symmetric (hence square), and positive definite matrix.
+     *
+     * @param A         a real, symmetric (hence square), and positive definite matrix
+     * @param overwrite {@code true} if <i>A</i> is overwritten by <i>L</i>; otherwise, <i>A</i> is copied first
+     * @throws RuntimeException if <i>A</i> is not positive definite matrix
+     */
+    public OffHeapCholesky(OffHeapDenseMatrix A, boolean overwrite) {
+        SuanShuUtils.assertArgument(A.nRows() == A.nCols(), "Cholesky decomposition applies to only square matrix");
+
+        this.L = overwrite ? A : A.deepCopy();
+        this.data = L.buffer();
+        this.n = L.nRows();
+
+        run();
+    }
+
+    /**
+     * Get the lower triangular matrix <i>L</i>.
+     * The matrix is not copied.
+     *
+     * @return <i>L</i>
+     */
+    public OffHeapDenseMatrix L() {
+        return L;
+    }
+
+    /**
+     * Get the transpose of the lower triangular matrix, <i>L'</i>.
+     * The transpose is upper triangular.
+     *
+     * @return <i>L'</i>
+     */
+    public OffHeapDenseMatrix Lt() {
+        return L.t();
+    }
+
+    /**
+     * Solve <i>A * x = b</i> by the forward substitution <i>L * y = b</i>
+     * and the backward substitution <i>L' * x = y</i>.
+     * Each substitution reads <i>L</i> once, row by row.
+     *
+     * @param b a vector
+     * @return <i>x</i>
+     */
+    public Vector solve(Vector b) {
+        SuanShuUtils.assertArgument(b.size() == n, "the vector size must equal the matrix dimension");
+
+        double[] x = b.toArray();
+        double[] row = new double[n];
+
+        for (int i = 0; i < n; ++i) {// L * y = b
+            data.getDoubles((long) i * n, row, 0, i + 1);
+            double value = x[i];
+            for (int k = 0; k < i; ++k) {
+                value -= row[k] * x[k];
+            }
+            x[i] = value / row[i];
+        }
+
+        for (int i = n - 1; i >= 0; --i) {// L' * x = y, using the i-th column of L' = the i-th row of L
+            data.getDoubles((long) i * n, row, 0, i + 1);
+            x[i] /= row[i];
+            for (int k = 0; k < i; ++k) {
+                x[k] -= row[k] * x[i];
+            }
+        }
+
+        return new DenseVector(x);
+    }
+
+    private void run() {
+        for (int c0 = 0; c0 < n; c0 += BLOCK) {
+            final int k0 = c0;
+            final int kb = Math.min(BLOCK, n - k0);
+            final double[] D = factorizeDiagonalBlock(k0, kb);
+
+            final int r0 = k0 + kb;
+            if (r0 < n) {
+                final int nBlocks = (n - r0 + ROW_BLOCK - 1) / ROW_BLOCK;
+                final boolean parallel = (long) (n - r0) * kb >= LENGTH_THRESHOLD;
+                try {
+                    // the panel: L21 = A21 * inv(L11')
+                    ParallelExecutor.getInstance().conditionalForLoop(
+                            parallel, 0, nBlocks,
+                            new LoopBody() {
+
+                                @Override
+                                public void run(int block) throws Exception {
+                                    double[] x = new double[kb];
+                                    int end = Math.min(r0 + (block + 1) * ROW_BLOCK, n);
+                                    for (int i = r0 + block * ROW_BLOCK; i < end; ++i) {
+                                        data.getDoubles(index(i, k0), x, 0, kb);
+                                        for (int j = 0; j < kb; ++j) {
+                                            double value = x[j];
+                                            for (int k = 0; k < j; ++k) {
+                                                value -= x[k] * D[j * kb + k];
+                                            }
+                                            x[j] = value / D[j * kb + j];
+                                        }
+                                        data.setDoubles(index(i, k0), x, 0, kb);
+                                    }
+                                }
+                            });
+
+                    // the trailing submatrix: A22 -= L21 * L21', the lower triangle only
+                    ParallelExecutor.getInstance().conditionalForLoop(
+                            parallel, 0, nBlocks,
+                            new LoopBody() {
+
+                                @Override
+                                public void run(int block) throws Exception {
+                                    updateTrailingRows(r0 + block * ROW_BLOCK, k0, kb);
+                                }
+                            });
+                } catch (MultipleExecutionException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        }
+
+        zeroUpperTriangle();
+    }
+
+    /**
+     * Factorize the diagonal block at (k0, k0) of size kb on the heap.
+     *
+     * @return the factor, row by row
+     */
+    private double[] factorizeDiagonalBlock(int k0, int kb) {
+        double[] D = new double[kb * kb];
+        for (int i = 0; i < kb; ++i) {
+            data.getDoubles(index(k0 + i, k0), D, i * kb, kb);
+        }
+
+        for (int i = 0; i < kb; ++i) {
+            for (int j = 0; j < i; ++j) {
+                double value = D[i * kb + j];
+                for (int k = 0; k < j; ++k) {
+                    value -= D[i * kb + k] * D[j * kb + k];
+                }
+                D[i * kb + j] = value / D[j * kb + j];
+            }
+
+            double value = D[i * kb + i];
+            for (int k = 0; k < i; ++k) {
+                value -= D[i * kb + k] * D[i * kb + k];
+            }
+
+            if (DoubleUtils.compare(value, 0, 0) <= 0) {
+                throw new RuntimeException("A is not positive definite");
+            }
+            D[i * kb + i] = Math.sqrt(value);
+
+            for (int j = i + 1; j < kb; ++j) {
+                D[i * kb + j] = 0;
+            }
+        }
+
+        for (int i = 0; i < kb; ++i) {
+            data.setDoubles(index(k0 + i, k0), D, i * kb, kb);
+        }
+
+        return D;
+    }
+
+    /**
+     * Update the lower triangle of the rows [i0, i0 + {@link #ROW_BLOCK}) of the trailing submatrix
+     * using the panel columns [k0, k0 + kb).
+     */
+    private void updateTrailingRows(int i0, int k0, int kb) {
+        final int r0 = k0 + kb;
+        final int mi = Math.min(ROW_BLOCK, n - i0);
+        double[] Li = new double[ROW_BLOCK * kb];
+        double[] Lj = new double[ROW_BLOCK * kb];
+        double[] segment = new double[ROW_BLOCK];
+
+        for (int i = 0; i < mi; ++i) {
+            data.getDoubles(index(i0 + i, k0), Li, i * kb, kb);
+        }
+
+        for (int j0 = r0; j0 < i0 + mi; j0 += ROW_BLOCK) {
+            final int mj = Math.min(ROW_BLOCK, i0 + mi - j0);
+            for (int j = 0; j < mj; ++j) {
+                data.getDoubles(index(j0 + j, k0), Lj, j * kb, kb);
+            }
+
+            for (int i = 0; i < mi; ++i) {
+                final int nj = Math.min(mj, i0 + i - j0 + 1);// the columns up to the diagonal
+                if (nj <= 0) {
+                    continue;
+                }
+
+                data.getDoubles(index(i0 + i, j0), segment, 0, nj);
+                for (int j = 0; j < nj; ++j) {
+                    double sum = 0;
+                    for (int k = 0; k < kb; ++k) {
+                        sum += Li[i * kb + k] * Lj[j * kb + k];
+                    }
+                    segment[j] -= sum;
+                }
+                data.setDoubles(index(i0 + i, j0), segment, 0, nj);
+            }
+        }
+    }
+
+    private void zeroUpperTriangle() {
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(
+                    (long) n * n >= LENGTH_THRESHOLD,
+                    0, (n + ROW_BLOCK - 1) / ROW_BLOCK,
+                    new LoopBody() {
+
+                        @Override
+                        public void run(int block) throws Exception {
+                            double[] zeros = new double[n];
+                            int end = Math.min((block + 1) * ROW_BLOCK, n);
+                            for (int i = block * ROW_BLOCK; i < end; ++i) {
+                                data.setDoubles(index(i, i + 1), zeros, 0, n - i - 1);
+                            }
+                        }
+                    });
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Get the buffer index of the entry at the 0-based position (i, j).
+     */
+    private long index(int i, int j) {
+        return (long) i * n + j;
+    }
+}
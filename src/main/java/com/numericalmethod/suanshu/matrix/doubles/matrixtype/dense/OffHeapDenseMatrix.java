@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import com.numericalmethod.suanshu.matrix.MatrixAccessException;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.operation.MatrixUtils;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.io.ObjectStreamException;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.datastructure.DimensionCheck.throwIfDifferentDimension;
+import static com.numericalmethod.suanshu.datastructure.DimensionCheck.throwIfIncompatible4Multiplication;
+
+/**
+ * This dense matrix stores its entries, row by row, in a {@link LongIndexedBuffer} outside the Java heap,
+ * either in direct memory or in a memory-mapped file.
+ * The number of entries is not limited to 2<sup>31</sup> - 1 as in {@link DenseMatrix},
+ * e.g., a 50,000 x 50,000 matrix takes 20 GB,
+ * and the garbage collector neither copies nor scans the entries, so the pauses do not grow with the matrix.
+ * <p/>
+ * The operations stream through the buffer in blocks of rows, in parallel,
+ * and the operations that return a matrix, e.g., {@link #multiply(Matrix)}, {@link #add(Matrix)} and {@link #t()},
+ * return an {@code OffHeapDenseMatrix} in direct memory.
+ * The direct memory available is limited by the JVM option {@code -XX:MaxDirectMemorySize}.
+ * Use {@link #toDense()} to copy a small enough matrix onto the heap.
+ * <p/>
+ * Java serialization writes a {@link DenseMatrix} copy.
+ * To persist a big matrix, use {@link com.numericalmethod.suanshu.io.MatrixFile} instead.
+ *
+ * @author Haksun Li
+ * @see com.numericalmethod.suanshu.matrix.doubles.factorization.triangle.OffHeapCholesky
+ */
+public class OffHeapDenseMatrix implements Matrix, Densifiable {
+
+    private static final long serialVersionUID = 3560826224286648342L;
+    /**
+     * for parallel algorithm execution
+     */
+    private static final int LENGTH_THRESHOLD = 100 * 100;
+    /**
+     * the number of rows processed by a task
+     */
+    private static final int ROW_BLOCK = 64;
+    /**
+     * the number of columns of a tile in the blocked multiplication and transposition
+     */
+    private static final int COL_BLOCK = 256;
+    /**
+     * the length of the inner products computed on a tile in the blocked multiplication
+     */
+    private static final int DEPTH_BLOCK = 256;
+    private final LongIndexedBuffer data;
+    private final int nRows;
+    private final int nCols;
+
+    /**
+     * Wrap a buffer as a matrix. The buffer is not copied.
+     *
+     * @param data  the entries, row by row
+     * @param nRows the number of rows
+     * @param nCols the number of columns
+     */
+    public OffHeapDenseMatrix(LongIndexedBuffer data, int nRows, int nCols) {
+        SuanShuUtils.assertArgument(data.length() == (long) nRows * nCols, "the data length does not match the matrix dimension");
+
+        this.data = data;
+        this.nRows = nRows;
+        this.nCols = nCols;
+    }
+
+    /**
+     * Construct a 0 matrix of dimension <i>nRows * nCols</i> in direct memory.
+     *
+     * @param nRows the number of rows
+     * @param nCols the number of columns
+     */
+    public OffHeapDenseMatrix(int nRows, int nCols) {
+        this(LongIndexedBuffer.allocateDirect((long) nRows * nCols), nRows, nCols);
+    }
+
+    /**
+     * Copy any matrix into direct memory.
+     *
+     * @param A a matrix
+     */
+    public OffHeapDenseMatrix(final Matrix A) {
+        this(A.nRows(), A.nCols());
+
+        forEachRowBlock(new LoopBody() {
+
+            @Override
+            public void run(int block) throws Exception {
+                double[] row = new double[nCols];
+                int end = Math.min((block + 1) * ROW_BLOCK, nRows);
+                for (int i = block * ROW_BLOCK; i < end; ++i) {
+                    getRow(A, i + 1, row);
+                    data.setDoubles(index(i + 1, 1), row, 0, nCols);
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the buffer that stores the entries, row by row.
+     * Modifying the buffer modifies this matrix.
+     *
+     * @return the entries, row by row
+     */
+    public LongIndexedBuffer buffer() {
+        return data;
+    }
+
+    @Override
+    public int nRows() {
+        return nRows;
+    }
+
+    @Override
+    public int nCols() {
+        return nCols;
+    }
+
+    private long index(int i, int j) {
+        return (long) (i - 1) * nCols + (j - 1);
+    }
+
+    @Override
+    public void set(int i, int j, double value) throws MatrixAccessException {
+        if (data.isReadOnly()) {
+            throw new MatrixAccessException("the matrix is read-only");
+        }
+
+        data.setDouble(index(i, j), value);
+    }
+
+    @Override
+    public double get(int i, int j) throws MatrixAccessException {
+        return data.getDouble(index(i, j));
+    }
+
+    /**
+     * Copy a row into an array, without allocating any object.
+     *
+     * @param i    the row index
+     * @param dest an array of length at least {@link #nCols()}
+     */
+    public void getRow(int i, double[] dest) {
+        data.getDoubles(index(i, 1), dest, 0, nCols);
+    }
+
+    /**
+     * Copy a row of any matrix into an array.
+     */
+    private static void getRow(Matrix A, int i, double[] dest) {
+        if (A instanceof OffHeapDenseMatrix) {
+            ((OffHeapDenseMatrix) A).getRow(i, dest);
+        } else {
+            for (int j = 1; j <= A.nCols(); ++j) {
+                dest[j - 1] = A.get(i, j);
+            }
+        }
+    }
+
+    @Override
+    public Vector getRow(int i) throws MatrixAccessException {
+        if (i < 1 || i > nRows) {
+            throw new MatrixAccessException(String.format("invalid row index %d", i));
+        }
+
+        double[] row = new double[nCols];
+        getRow(i, row);
+        return new DenseVector(row);
+    }
+
+    @Override
+    public Vector getColumn(int j) throws MatrixAccessException {
+        if (j < 1 || j > nCols) {
+            throw new MatrixAccessException(String.format("invalid column index %d", j));
+        }
+
+        double[] column = new double[nRows];
+        for (int i = 1; i <= nRows; ++i) {
+            column[i - 1] = get(i, j);
+        }
+        return new DenseVector(column);
+    }
+
+    @Override
+    public Vector multiply(Vector v) {
+        throwIfIncompatible4Multiplication(this, v);
+
+        final double[] x = v.toArray();
+        final double[] result = new double[nRows];
+        forEachRowBlock(new LoopBody() {
+
+            @Override
+            public void run(int block) throws Exception {
+                double[] row = new double[nCols];
+                int end = Math.min((block + 1) * ROW_BLOCK, nRows);
+                for (int i = block * ROW_BLOCK; i < end; ++i) {
+                    getRow(i + 1, row);
+                    double sum = 0.;
+                    for (int j = 0; j < nCols; ++j) {
+                        sum += row[j] * x[j];
+                    }
+                    result[i] = sum;
+                }
+            }
+        });
+
+        return new DenseVector(result);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The product is computed tile by tile so that the working set of a task, about 1 MB, stays in the cache.
+     * The tiles of a matrix on the heap are read entry by entry, without copying the whole matrix into direct memory.
+     *
+     * @return the product, an {@code OffHeapDenseMatrix}
+     */
+    @Override
+    public OffHeapDenseMatrix multiply(final Matrix that) {
+        throwIfIncompatible4Multiplication(this, that);
+
+        final int N = that.nCols();
+        final LongIndexedBuffer B = that instanceof OffHeapDenseMatrix ? ((OffHeapDenseMatrix) that).data : null;
+        final OffHeapDenseMatrix result = new OffHeapDenseMatrix(nRows, N);
+        final LongIndexedBuffer C = result.data;
+
+        forEachRowBlock(new LoopBody() {
+
+            @Override
+            public void run(int block) throws Exception {
+                final int i0 = block * ROW_BLOCK;
+                final int mi = Math.min(ROW_BLOCK, nRows - i0);
+                double[] a = new double[ROW_BLOCK * DEPTH_BLOCK];
+                double[] b = new double[DEPTH_BLOCK * COL_BLOCK];
+                double[] c = new double[ROW_BLOCK * COL_BLOCK];
+
+                for (int j0 = 0; j0 < N; j0 += COL_BLOCK) {
+                    final int nj = Math.min(COL_BLOCK, N - j0);
+                    Arrays.fill(c, 0);
+
+                    for (int k0 = 0; k0 < nCols; k0 += DEPTH_BLOCK) {
+                        final int nk = Math.min(DEPTH_BLOCK, nCols - k0);
+                        for (int i = 0; i < mi; ++i) {
+                            data.getDoubles(index(i0 + i + 1, k0 + 1), a, i * nk, nk);
+                        }
+                        for (int k = 0; k < nk; ++k) {
+                            if (B != null) {
+                                B.getDoubles((long) (k0 + k) * N + j0, b, k * nj, nj);
+                            } else {
+                                for (int j = 0; j < nj; ++j) {
+                                    b[k * nj + j] = that.get(k0 + k + 1, j0 + j + 1);
+                                }
+                            }
+                        }
+
+                        for (int i = 0; i < mi; ++i) {
+                            final int ci = i * nj;
+                            final int ai = i * nk;
+                            for (int k = 0; k < nk; ++k) {
+                                final double aik = a[ai + k];
+                                final int bk = k * nj;
+                                for (int j = 0; j < nj; ++j) {
+                                    c[ci + j] += aik * b[bk + j];
+                                }
+                            }
+                        }
+                    }
+
+                    for (int i = 0; i < mi; ++i) {
+                        C.setDoubles((long) (i0 + i) * N + j0, c, i * nj, nj);
+                    }
+                }
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public OffHeapDenseMatrix add(Matrix that) {
+        throwIfDifferentDimension(this, that);
+        return combine(1, that, 1);
+    }
+
+    @Override
+    public OffHeapDenseMatrix minus(Matrix that) {
+        throwIfDifferentDimension(this, that);
+        return combine(1, that, -1);
+    }
+
+    @Override
+    public OffHeapDenseMatrix scaled(double c) {
+        return combine(c, null, 0);
+    }
+
+    @Override
+    public OffHeapDenseMatrix opposite() {
+        return scaled(-1);
+    }
+
+    /**
+     * Compute <i>a * this + b * that</i>, row by row.
+     *
+     * @param a    the coefficient of this matrix
+     * @param that a matrix of the same dimension, or {@code null} for 0
+     * @param b    the coefficient of {@code that}
+     * @return the linear combination
+     */
+    private OffHeapDenseMatrix combine(final double a, final Matrix that, final double b) {
+        final OffHeapDenseMatrix result = new OffHeapDenseMatrix(nRows, nCols);
+
+        forEachRowBlock(new LoopBody() {
+
+            @Override
+            public void run(int block) throws Exception {
+                double[] row = new double[nCols];
+                double[] other = new double[nCols];
+                int end = Math.min((block + 1) * ROW_BLOCK, nRows);
+                for (int i = block * ROW_BLOCK; i < end; ++i) {
+                    getRow(i + 1, row);
+                    if (that != null) {
+                        getRow(that, i + 1, other);
+                    }
+                    for (int j = 0; j < nCols; ++j) {
+                        row[j] = a * row[j] + b * other[j];
+                    }
+                    result.data.setDoubles(index(i + 1, 1), row, 0, nCols);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The matrix is transposed tile by tile.
+     *
+     * @return the transpose, an {@code OffHeapDenseMatrix}
+     */
+    @Override
+    public OffHeapDenseMatrix t() {
+        final OffHeapDenseMatrix result = new OffHeapDenseMatrix(nCols, nRows);
+
+        forEachRowBlock(new LoopBody() {
+
+            @Override
+            public void run(int block) throws Exception {
+                final int i0 = block * ROW_BLOCK;
+                final int mi = Math.min(ROW_BLOCK, nRows - i0);
+                double[] tile = new double[ROW_BLOCK * COL_BLOCK];
+                double[] column = new double[ROW_BLOCK];
+
+                for (int j0 = 0; j0 < nCols; j0 += COL_BLOCK) {
+                    final int nj = Math.min(COL_BLOCK, nCols - j0);
+                    for (int i = 0; i < mi; ++i) {
+                        data.getDoubles(index(i0 + i + 1, j0 + 1), tile, i * nj, nj);
+                    }
+                    for (int j = 0; j < nj; ++j) {
+                        for (int i = 0; i < mi; ++i) {
+                            column[i] = tile[i * nj + j];
+                        }
+                        result.data.setDoubles(result.index(j0 + j + 1, i0 + 1), column, 0, mi);
+                    }
+                }
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public OffHeapDenseMatrix ZERO() {
+        return new OffHeapDenseMatrix(nRows, nCols);
+    }
+
+    @Override
+    public OffHeapDenseMatrix ONE() {
+        OffHeapDenseMatrix result = new OffHeapDenseMatrix(nRows, nCols);
+        for (int i = 1; i <= Math.min(nRows, nCols); ++i) {
+            result.set(i, i, 1);
+        }
+        return result;
+    }
+
+    /**
+     * Copy this matrix into direct memory.
+     *
+     * @return an {@code OffHeapDenseMatrix} copy
+     */
+    @Override
+    public OffHeapDenseMatrix deepCopy() {
+        return new OffHeapDenseMatrix(this);
+    }
+
+    /**
+     * Copy this matrix onto the heap.
+     * This is applicable only to a matrix of fewer than 2<sup>31</sup> entries that fits in the heap.
+     *
+     * @return a {@link DenseMatrix} copy
+     */
+    @Override
+    public DenseMatrix toDense() {
+        SuanShuUtils.assertArgument(data.length() < Integer.MAX_VALUE, "the matrix is too big for a DenseMatrix");
+
+        double[] entries = new double[(int) data.length()];
+        data.getDoubles(0, entries, 0, entries.length);
+        return new DenseMatrix(entries, nRows, nCols);
+    }
+
+    private void forEachRowBlock(LoopBody body) {
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(
+                    (long) nRows * nCols >= LENGTH_THRESHOLD,
+                    0, (nRows + ROW_BLOCK - 1) / ROW_BLOCK,
+                    body);
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return toDense();
+    }
+
+    @Override
+    public String toString() {
+        return MatrixUtils.toString(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final OffHeapDenseMatrix other = (OffHeapDenseMatrix) obj;
+        if (this.nRows != other.nRows || this.nCols != other.nCols) {
+            return false;
+        }
+        final long length = data.length();
+        for (long k = 0; k < length; ++k) {
+            if (Double.compare(this.data.getDouble(k), other.data.getDouble(k)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 29 * hash + this.nRows;
+        hash = 29 * hash + this.nCols;
+        return hash;
+    }
+}
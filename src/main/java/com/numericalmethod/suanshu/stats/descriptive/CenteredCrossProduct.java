@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+
+import static java.lang.Math.min;
+
+/**
+ * This class computes the sample covariances of all pairs of columns of a matrix
+ * as the centered cross product <i>X'X / (n - 1)</i>,
+ * where <i>X</i> is the matrix with the column means subtracted.
+ *
+ * <p>
+ * The columns are copied once into contiguous arrays and centered in place;
+ * the means of the columns longer than a chunk of rows are refined by a second pass to reduce the rounding errors.
+ * A matrix of at most a chunk of rows thus gets the same covariances as {@link Covariance} computes pair by pair.
+ * The upper triangle of the cross product is divided into tiles of columns,
+ * and each tile is accumulated over chunks of rows so that the columns of a tile stay in the cache.
+ * The tiles are independent and are computed in parallel.
+ *
+ * <p>
+ * When the observations are pairwise complete, a missing value ({@code NaN}) excludes an observation
+ * only from the pairs involving its column, as R's {@code cov(x, use = "pairwise.complete.obs")} does.
+ * The cross products, the sums and the counts over the common observations of every pair
+ * are accumulated in the same tile pass.
+ *
+ * @author Haksun Li
+ */
+class CenteredCrossProduct {
+
+    /**
+     * the number of columns in a tile
+     */
+    private static final int TILE = 48;
+    /**
+     * the number of rows in a chunk
+     */
+    private static final int CHUNK = 1024;
+    /**
+     * the minimum amount of work, <i>n * p * p</i>, to run in parallel
+     */
+    private static final long PARALLEL_THRESHOLD = 1L << 20;
+    private final int n;
+    private final int p;
+    private final boolean isPairwiseComplete;
+    /**
+     * the centered columns; missing values are replaced by 0
+     */
+    private final double[][] x;
+    /**
+     * the indicators of the present values, if pairwise complete
+     */
+    private final double[][] present;
+    private final double[][] cov;
+
+    /**
+     * Compute the covariances of the columns of a matrix.
+     *
+     * @param A                  a matrix
+     * @param isPairwiseComplete {@code true} if a missing value excludes an observation only from the pairs involving its column;
+     *                           {@code false} if a missing value gives {@code NaN} covariances for its column
+     * @param isParallel         {@code true} if to run in parallel cores
+     */
+    CenteredCrossProduct(Matrix A, boolean isPairwiseComplete, boolean isParallel) {
+        this.n = A.nRows();
+        this.p = A.nCols();
+        this.isPairwiseComplete = isPairwiseComplete;
+        this.x = new double[p][n];
+        this.present = isPairwiseComplete ? new double[p][n] : null;
+        this.cov = new double[p][p];
+
+        for (int k = 0; k < n; ++k) {
+            for (int i = 0; i < p; ++i) {
+                x[i][k] = A.get(k + 1, i + 1);
+            }
+        }
+
+        for (int i = 0; i < p; ++i) {
+            center(i);
+        }
+
+        try {
+            crossProduct(isParallel && (long) n * p * p >= PARALLEL_THRESHOLD);
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException("failed to compute the cross product in parallel", ex);
+        }
+    }
+
+    /**
+     * Get the covariance matrix.
+     *
+     * @return the covariance matrix, as a 2D array
+     */
+    double[][] covariance() {
+        return cov;
+    }
+
+    private void center(int i) {
+        final double[] xi = x[i];
+
+        int m = 0;
+        double sum = 0;
+        for (int k = 0; k < n; ++k) {
+            if (!isPairwiseComplete || !Double.isNaN(xi[k])) {
+                sum += xi[k];
+                ++m;
+            }
+        }
+        double mean = sum / m;
+
+        if (n > CHUNK) {//a short column keeps the summation order of Covariance, hence the same covariances to the last bit
+            double correction = 0;
+            for (int k = 0; k < n; ++k) {
+                if (!isPairwiseComplete || !Double.isNaN(xi[k])) {
+                    correction += xi[k] - mean;
+                }
+            }
+            mean += correction / m;
+        }
+
+        for (int k = 0; k < n; ++k) {
+            if (isPairwiseComplete) {
+                boolean isPresent = !Double.isNaN(xi[k]);
+                present[i][k] = isPresent ? 1 : 0;
+                xi[k] = isPresent ? xi[k] - mean : 0;
+            } else {
+                xi[k] -= mean;
+            }
+        }
+    }
+
+    private void crossProduct(boolean isParallel) throws MultipleExecutionException {
+        final int nTiles = (p + TILE - 1) / TILE;
+        final int[] rowTile = new int[nTiles * (nTiles + 1) / 2];
+        final int[] colTile = new int[rowTile.length];
+        for (int a = 0, t = 0; a < nTiles; ++a) {
+            for (int b = a; b < nTiles; ++b, ++t) {
+                rowTile[t] = a;
+                colTile[t] = b;
+            }
+        }
+
+        ParallelExecutor.getInstance().conditionalForLoop(isParallel, 0, rowTile.length,
+                new LoopBody() {
+
+            @Override
+            public void run(int t) throws Exception {
+                tile(rowTile[t] * TILE, colTile[t] * TILE);
+            }
+        });
+    }
+
+    /**
+     * Compute the covariances between the columns in {@code [i0, i0 + TILE)} and those in {@code [j0, j0 + TILE)}.
+     *
+     * @param i0 the first column of the row tile
+     * @param j0 the first column of the column tile, {@code j0 >= i0}
+     */
+    private void tile(int i0, int j0) {
+        final int i1 = min(i0 + TILE, p);
+        final int j1 = min(j0 + TILE, p);
+
+        double[][] sxy = new double[i1 - i0][j1 - j0];
+        double[][] sx = isPairwiseComplete ? new double[i1 - i0][j1 - j0] : null;
+        double[][] sy = isPairwiseComplete ? new double[i1 - i0][j1 - j0] : null;
+        double[][] m = isPairwiseComplete ? new double[i1 - i0][j1 - j0] : null;
+
+        for (int k0 = 0; k0 < n; k0 += CHUNK) {
+            final int k1 = min(k0 + CHUNK, n);
+            for (int i = i0; i < i1; ++i) {
+                final double[] xi = x[i];
+                for (int j = i0 == j0 ? i : j0; j < j1; ++j) {
+                    final double[] xj = x[j];
+                    double s = 0;
+                    for (int k = k0; k < k1; ++k) {
+                        s += xi[k] * xj[k];
+                    }
+                    sxy[i - i0][j - j0] += s;
+
+                    if (isPairwiseComplete) {
+                        final double[] ii = present[i];
+                        final double[] ij = present[j];
+                        double s1 = 0, s2 = 0, s3 = 0;
+                        for (int k = k0; k < k1; ++k) {
+                            s1 += xi[k] * ij[k];
+                            s2 += ii[k] * xj[k];
+                            s3 += ii[k] * ij[k];
+                        }
+                        sx[i - i0][j - j0] += s1;
+                        sy[i - i0][j - j0] += s2;
+                        m[i - i0][j - j0] += s3;
+                    }
+                }
+            }
+        }
+
+        for (int i = i0; i < i1; ++i) {
+            for (int j = i0 == j0 ? i : j0; j < j1; ++j) {
+                double c;
+                if (isPairwiseComplete) {
+                    double mij = m[i - i0][j - j0];
+                    c = mij >= 2
+                        ? (sxy[i - i0][j - j0] - sx[i - i0][j - j0] * sy[i - i0][j - j0] / mij) / (mij - 1)
+                        : Double.NaN;
+                } else {
+                    c = sxy[i - i0][j - j0] / (n - 1);
+                }
+                cov[i][j] = c;
+                cov[j][i] = c;
+            }
+        }
+    }
+}
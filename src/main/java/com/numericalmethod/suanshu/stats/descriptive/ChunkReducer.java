@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import java.io.Serializable;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.min;
+
+/**
+ * This is the chunk-and-merge loop shared by {@link StatisticReducer} and {@link PairedStatisticReducer}.
+ * The statistic of each chunk is computed independently, in parallel, and the partial statistics are merged pairwise.
+ *
+ * @param <T> the type of the statistic
+ * @author Haksun Li
+ */
+class ChunkReducer<T extends Mergeable<T>> implements Serializable {
+
+    private static final long serialVersionUID = 7316053581244926601L;
+
+    /**
+     * Adds a chunk of a sample to a statistic.
+     *
+     * @param <T> the type of the statistic
+     */
+    interface Chunk<T> {
+
+        /**
+         * Update a statistic with a chunk of the sample.
+         *
+         * @param stat   the statistic of the chunk
+         * @param from   the index of the first data point of the chunk
+         * @param length the number of data points in the chunk
+         */
+        void addTo(T stat, int from, int length);
+    }
+
+    private final MergeableStatisticFactory<T> factory;
+    private final int chunkSize;
+    private final boolean isParallel;
+
+    /**
+     * Construct a chunk-and-merge loop.
+     *
+     * @param factory    constructs an empty statistic for each chunk; it is called concurrently when running in parallel
+     * @param chunkSize  the number of data points in a chunk
+     * @param isParallel {@code true} if to run in parallel cores
+     */
+    ChunkReducer(MergeableStatisticFactory<T> factory, int chunkSize, boolean isParallel) {
+        assertArgument(chunkSize > 0, "chunkSize > 0");
+        this.factory = factory;
+        this.chunkSize = chunkSize;
+        this.isParallel = isParallel;
+    }
+
+    /**
+     * Compute the statistic of a sample of <i>n</i> data points, chunk by chunk.
+     *
+     * @param n     the number of data points
+     * @param chunk adds a chunk of the sample to a statistic
+     * @return the statistic
+     */
+    T reduce(final int n, final Chunk<T> chunk) {
+        final int nChunks = (n + chunkSize - 1) / chunkSize;
+        if (nChunks <= 1) {
+            T stat = factory.getStatistic();
+            chunk.addTo(stat, 0, n);
+            return stat;
+        }
+
+        final Object[] partial = new Object[nChunks];
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(isParallel, 0, nChunks,
+                    new LoopBody() {
+
+                @Override
+                public void run(int c) throws Exception {
+                    int from = c * chunkSize;
+                    T stat = factory.getStatistic();
+                    chunk.addTo(stat, from, min(chunkSize, n - from));
+                    partial[c] = stat;
+                }
+            });
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException("failed to compute the statistic in parallel", ex);
+        }
+
+        //merge pairwise: 0 <- 1, 2 <- 3, ...; then 0 <- 2, 4 <- 6, ...
+        for (int step = 1; step < nChunks; step *= 2) {
+            for (int c = 0; c + step < nChunks; c += 2 * step) {
+                get(partial, c).merge(get(partial, c + step));
+            }
+        }
+
+        return get(partial, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T get(Object[] partial, int c) {
+        return (T) partial[c];
+    }
+}
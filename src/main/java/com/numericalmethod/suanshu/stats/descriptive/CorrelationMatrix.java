@@ -50,18 +50,23 @@ public class CorrelationMatrix extends DenseMatrix {
         super(cor(cov));
     }
 
-    private static DenseMatrix cor(Matrix cov) {
+    private static double[][] cor(Matrix cov) {
         SuanShuUtils.assertArgument(IsMatrix.symmetric(cov, 0), "the covariance matrix must be symmetric");
 
         final int nRows = cov.nRows();
         final int nCols = cov.nCols();
         final Vector diag = diagonal(cov);
 
-        DenseMatrix cor = new DenseMatrix(nRows, nCols);
-        for (int i = 1; i <= cov.nCols(); ++i) {
-            for (int j = i; j <= cov.nRows(); ++j) {
-                cor.set(i, j, cov.get(i, j) / sqrt(diag.get(i)) / sqrt(diag.get(j)));
-                cor.set(j, i, cov.get(i, j) / sqrt(diag.get(i)) / sqrt(diag.get(j)));
+        double[] sd = new double[nRows];
+        for (int i = 1; i <= nRows; ++i) {
+            sd[i - 1] = sqrt(diag.get(i));
+        }
+
+        double[][] cor = new double[nRows][nCols];
+        for (int i = 1; i <= nRows; ++i) {
+            for (int j = i; j <= nCols; ++j) {
+                cor[i - 1][j - 1] = cov.get(i, j) / sd[i - 1] / sd[j - 1];
+                cor[j - 1][i - 1] = cor[i - 1][j - 1];
             }
         }
 
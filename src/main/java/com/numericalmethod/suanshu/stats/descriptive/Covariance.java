@@ -33,7 +33,9 @@ import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
  * Cov(X, Y) = E[(X - E(X)) * (Y - E(Y))]
  * </i></blockquote>
  * Note that this implementation uses <i>N - 1</i> as the denominator to give an unbiased estimator of the covariance for i.i.d. observations.
- * This implementation uses Pébay's update formula to incrementally compute the new statistic.
+ * This implementation uses Pébay's update formula to incrementally compute the new statistic,
+ * and to merge the statistic of another sample.
+ * {@link #add(double, double)} and {@link #addAll(double[], double[], int, int)} update the statistic in place without allocating any object.
  *
  * @author Haksun Li
  * @see
@@ -42,7 +44,7 @@ import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
  * <li><a href="http://en.wikipedia.org/wiki/Correlation">Wikipedia: Correlation</a>
  * </ul>
  */
-public class Covariance implements Statistic {
+public class Covariance implements MergeablePairedStatistic<Covariance> {
 
     private static final long serialVersionUID = -6084782176984650071L;
     private long N = 0;
@@ -75,10 +77,10 @@ public class Covariance implements Statistic {
      */
     public Covariance(Covariance that) {
         this.N = that.N;
-        this.mean1 = that.mean1;
-        this.var1 = that.var1;
-        this.mean2 = that.mean2;
-        this.var2 = that.var2;
+        this.mean1 = new Mean(that.mean1);
+        this.var1 = new Variance(that.var1);
+        this.mean2 = new Mean(that.mean2);
+        this.var2 = new Variance(that.var2);
         this.sum = that.sum;
     }
 
@@ -117,17 +119,7 @@ public class Covariance implements Statistic {
     public void addData(double... data) {
         SuanShuUtils.assertArgument(data.length % 2 == 0, "there must be an even number of data points");
 
-        double[][] dataArr = new double[2][data.length / 2];
-        int i = 0;
-        for (int j = 0; i < data.length / 2; ++j, ++i) {
-            dataArr[0][j] = data[i];
-        }
-
-        for (int j = 0; i < data.length; ++j, ++i) {
-            dataArr[1][j] = data[i];
-        }
-
-        addData(dataArr);
+        addAll(data, 0, data, data.length / 2, data.length / 2);
     }
 
     /**
@@ -140,26 +132,111 @@ public class Covariance implements Statistic {
         SuanShuUtils.assertArgument(data.length == 2, "there must be a pair of data");
         SuanShuUtils.assertArgument(data[0].length == data[1].length, "there must be a pair of data of the same length");
 
+        addAll(data[0], data[1], 0, data[0].length);
+    }
+
+    /**
+     * Update the covariance statistic with a pair of data points, without allocating any object.
+     *
+     * @param x a data point of the first variable
+     * @param y a data point of the second variable
+     */
+    public void add(double x, double y) {
         //base case
         if (N == 0) {
-            N = data[0].length;
-            mean1.addData(data[0]);
-            var1.addData(data[0]);
-            mean2.addData(data[1]);
-            var2.addData(data[1]);
-
-            double mu1 = mean1.value();
-            double mu2 = mean2.value();
+            N = 1;
+            mean1.add(x);
+            var1.add(x);
+            mean2.add(y);
+            var2.add(y);
             sum = 0;
-            for (int i = 0; i < N; ++i) {
-                sum += (data[0][i] - mu1) * (data[1][i] - mu2);
-            }
+            return;
+        }
+
+        double dx = x - mean1.value();
+        mean1.add(x);
+        var1.add(x);
+        mean2.add(y);
+        var2.add(y);
+        sum += dx * (y - mean2.value());
+        ++N;
+    }
+
+    /**
+     * Update the covariance statistic with the same range of two arrays, without allocating any object.
+     *
+     * @param x      the data of the first variable
+     * @param y      the data of the second variable
+     * @param offset the index of the first pair of data points
+     * @param length the number of pairs of data points
+     */
+    public void addAll(double[] x, double[] y, int offset, int length) {
+        addAll(x, offset, y, offset, length);
+    }
+
+    /**
+     * Update the covariance statistic with a range of each of two arrays, without allocating any object.
+     *
+     * @param x       the data of the first variable
+     * @param xOffset the index of the first data point of the first variable
+     * @param y       the data of the second variable
+     * @param yOffset the index of the first data point of the second variable
+     * @param length  the number of pairs of data points
+     */
+    @Override
+    public void addAll(double[] x, int xOffset, double[] y, int yOffset, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        //the statistics of the new data
+        double sum1 = 0, sum2 = 0;
+        for (int i = 0; i < length; ++i) {
+            sum1 += x[xOffset + i];
+            sum2 += y[yOffset + i];
+        }
+        double mu1 = sum1 / length;
+        double mu2 = sum2 / length;
+        double s = 0;
+        for (int i = 0; i < length; ++i) {
+            s += (x[xOffset + i] - mu1) * (y[yOffset + i] - mu2);
+        }
+
+        //base case
+        if (N == 0) {
+            N = length;
+            sum = s;
+        } else {//Pébay's update formula.
+            long Nboth = this.N + length;
+            double correction = ((double) this.N / Nboth) * length;
+            correction *= (mu1 - mean1.value()) * (mu2 - mean2.value());
+            this.sum += s + correction;
+            this.N = Nboth;
+        }
+
+        mean1.addAll(x, xOffset, length);
+        var1.addAll(x, xOffset, length);
+        mean2.addAll(y, yOffset, length);
+        var2.addAll(y, yOffset, length);
+    }
+
+    @Override
+    public void merge(Covariance that) {
+        if (that.N == 0) {
+            return;
+        }
 
+        if (this.N == 0) {
+            this.N = that.N;
+            this.mean1 = new Mean(that.mean1);
+            this.var1 = new Variance(that.var1);
+            this.mean2 = new Mean(that.mean2);
+            this.var2 = new Variance(that.var2);
+            this.sum = that.sum;
             return;
         }
 
         //Pébay's update formula.
-        Covariance that = new Covariance(data);
         long Nboth = this.N + that.N;
         double dMean1 = that.mean1.value() - this.mean1.value();
         double dMean2 = that.mean2.value() - this.mean2.value();
@@ -167,8 +244,10 @@ public class Covariance implements Statistic {
         correction *= dMean1 * dMean2;
         this.sum += that.sum + correction;
 
-        mean1.addData(data[0]);
-        mean2.addData(data[1]);
+        mean1.merge(that.mean1);
+        var1.merge(that.var1);
+        mean2.merge(that.mean2);
+        var2.merge(that.var2);
         this.N = Nboth;
     }
 
@@ -28,6 +28,11 @@ import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
 /**
  * This class computes the Covariance matrix of a matrix,
  * where the <i>(i, j)</i> entry is the covariance of the <i>i</i>-th column and <i>j</i>-th column of the matrix.
+ * The matrix is computed as the centered cross product of the columns, in blocks,
+ * and in parallel only for a matrix big enough to pay for the threads.
+ * For columns of up to 1024 rows, the covariances are the same, to the last bit, as {@link Covariance} computes pair by pair.
+ * For longer columns, the sums are accumulated in a different order, so the covariances may differ in the last few bits;
+ * {@link #pairByPair(Matrix)} computes them exactly as {@link Covariance} does, at a much higher cost.
  * <p/>
  * The R equivalent function is {@code cov}.
  *
@@ -39,28 +44,59 @@ public class CovarianceMatrix extends DenseMatrix {
 
     /**
      * Construct the covariance matrix of a matrix.
+     * A missing value ({@code NaN}) gives {@code NaN} covariances for its column.
      *
      * @param A a matrix
      */
     public CovarianceMatrix(Matrix A) {
-        super(A.nCols(), A.nCols());
+        this(A, false, true);
+    }
+
+    /**
+     * Construct the covariance matrix of a matrix.
+     *
+     * @param A                  a matrix
+     * @param isPairwiseComplete {@code true} if a missing value ({@code NaN}) excludes an observation
+     *                           only from the pairs involving its column, i.e., R's {@code use = "pairwise.complete.obs"};
+     *                           {@code false} if a missing value gives {@code NaN} covariances for its column
+     * @param isParallel         {@code true} if to run in parallel cores when the matrix is big enough
+     */
+    public CovarianceMatrix(Matrix A, boolean isPairwiseComplete, boolean isParallel) {
+        super(new CenteredCrossProduct(A, isPairwiseComplete, isParallel).covariance());
+    }
+
+    private CovarianceMatrix(double[][] cov) {
+        super(cov);
+    }
 
-        for (int i = 1; i <= A.nCols(); ++i) {
-            for (int j = i; j <= A.nCols(); ++j) {
-                double[] data1 = new double[A.nRows()];
-                for (int k = 1; k <= A.nRows(); ++k) {
-                    data1[k - 1] = A.get(k, i);
-                }
+    /**
+     * Compute the covariance matrix of a matrix pair by pair of columns by {@link Covariance}, in the calling thread.
+     * This gives the same covariances, to the last bit, as the earlier versions,
+     * but takes <i>O(p<sup>2</sup>)</i> objects and no advantage of the cache.
+     *
+     * @param A a matrix
+     * @return the covariance matrix
+     */
+    public static CovarianceMatrix pairByPair(Matrix A) {
+        final int n = A.nRows();
+        final int p = A.nCols();
 
-                double[] data2 = new double[A.nRows()];
-                for (int k = 1; k <= A.nRows(); ++k) {
-                    data2[k - 1] = A.get(k, j);
-                }
+        double[][] columns = new double[p][n];
+        for (int k = 0; k < n; ++k) {
+            for (int i = 0; i < p; ++i) {
+                columns[i][k] = A.get(k + 1, i + 1);
+            }
+        }
 
-                Covariance cov = new Covariance(new double[][]{data1, data2});
-                super.set(i, j, cov.value());
-                super.set(j, i, cov.value());
+        double[][] cov = new double[p][p];
+        for (int i = 0; i < p; ++i) {
+            for (int j = i; j < p; ++j) {
+                Covariance c = new Covariance(new double[][]{columns[i], columns[j]});
+                cov[i][j] = c.value();
+                cov[j][i] = cov[i][j];
             }
         }
+
+        return new CovarianceMatrix(cov);
     }
 }
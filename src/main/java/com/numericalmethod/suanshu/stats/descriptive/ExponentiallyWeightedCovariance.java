@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.pow;
+
+/**
+ * This class computes the exponentially weighted covariance matrix of a stream of multivariate observations.
+ * The <i>k</i>-th most recent observation, counting from 0, has the weight <i>λ<sup>k</sup></i>.
+ * The weighted means and co-moments are updated by West's weighted version of Welford's algorithm,
+ * so that each observation costs <i>O(p<sup>2</sup>)</i> and no observation is stored.
+ * The covariance matrix is the weighted co-moment matrix divided by the sum of the weights.
+ *
+ * <p>
+ * Two estimators of consecutive segments of the stream can be merged,
+ * e.g., to aggregate the segments of a long history computed in parallel.
+ *
+ * @author Haksun Li
+ * @see "D. H. D. West. Updating Mean and Variance Estimates: An Improved Method. Communications of the ACM, 22(9): 532-535. 1979."
+ */
+public class ExponentiallyWeightedCovariance implements Serializable {
+
+    private static final long serialVersionUID = -6227620406317294016L;
+    private final int p;
+    private final double lambda;
+    private long N = 0;
+    /**
+     * the sum of the weights
+     */
+    private double W = 0;
+    private final double[] mean;
+    /**
+     * the weighted co-moments; only the upper triangle is kept
+     */
+    private final double[][] C;
+    private final double[] d;
+
+    /**
+     * Construct an empty exponentially weighted covariance estimator.
+     *
+     * @param p      the dimension of an observation
+     * @param lambda the decay factor, in <i>(0, 1]</i>, e.g., 0.94 for RiskMetrics daily data;
+     *               1 gives equal weights
+     */
+    public ExponentiallyWeightedCovariance(int p, double lambda) {
+        assertArgument(p > 0, "p > 0");
+        assertArgument(lambda > 0 && lambda <= 1, "0 < lambda <= 1");
+
+        this.p = p;
+        this.lambda = lambda;
+        this.mean = new double[p];
+        this.C = new double[p][p];
+        this.d = new double[p];
+    }
+
+    /**
+     * Update the estimator with the most recent observation.
+     *
+     * @param x an observation
+     */
+    public void addData(double... x) {
+        assertArgument(x.length == p, "the observation must have dimension %d", p);
+
+        ++N;
+        W = lambda * W + 1;
+        for (int i = 0; i < p; ++i) {
+            d[i] = x[i] - mean[i];
+            mean[i] += d[i] / W;
+        }
+
+        for (int i = 0; i < p; ++i) {
+            final double di = d[i];
+            final double[] Ci = C[i];
+            for (int j = i; j < p; ++j) {
+                Ci[j] = lambda * Ci[j] + di * (x[j] - mean[j]);
+            }
+        }
+    }
+
+    /**
+     * Merge the statistics of the segment of the stream that immediately follows the observations of this estimator,
+     * as if this estimator has seen the observations of both segments, in order.
+     *
+     * @param later an estimator, with the same decay factor, of the following segment
+     */
+    public void merge(ExponentiallyWeightedCovariance later) {
+        assertArgument(this.p == later.p, "the dimensions must be the same");
+        assertArgument(this.lambda == later.lambda, "the decay factors must be the same");
+        if (later.N == 0) {
+            return;
+        }
+
+        final double decay = pow(lambda, later.N);//the weights of this segment decay over the later segment
+        final double Wa = decay * W;
+        final double w = W + later.W == 0 ? 0 : Wa * later.W / (Wa + later.W);
+        for (int i = 0; i < p; ++i) {
+            d[i] = later.mean[i] - mean[i];
+        }
+
+        for (int i = 0; i < p; ++i) {
+            for (int j = i; j < p; ++j) {
+                C[i][j] = decay * C[i][j] + later.C[i][j] + d[i] * d[j] * w;
+            }
+            mean[i] += d[i] * later.W / (Wa + later.W);
+        }
+
+        W = Wa + later.W;
+        N += later.N;
+    }
+
+    /**
+     * Get the number of observations.
+     *
+     * @return the number of observations
+     */
+    public long N() {
+        return N;
+    }
+
+    /**
+     * Get the exponentially weighted means.
+     *
+     * @return the means
+     */
+    public double[] mean() {
+        return Arrays.copyOf(mean, p);
+    }
+
+    /**
+     * Get the exponentially weighted covariance matrix.
+     *
+     * @return the covariance matrix
+     */
+    public DenseMatrix covariance() {
+        double[][] S = new double[p][p];
+        for (int i = 0; i < p; ++i) {
+            for (int j = i; j < p; ++j) {
+                S[i][j] = C[i][j] / W;
+                S[j][i] = S[i][j];
+            }
+        }
+        return new DenseMatrix(S);
+    }
+}
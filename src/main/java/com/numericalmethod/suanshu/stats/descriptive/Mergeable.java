@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+/**
+ * A mergeable statistic can combine the statistic of another sample into itself,
+ * as if it has seen the data of both samples.
+ * The statistics of the parts of a big sample can therefore be computed independently, e.g., in parallel,
+ * and then merged, without re-feeding the raw data or sharing a lock.
+ * <p/>
+ * How the parts of a sample are fed is left to the sub-interfaces:
+ * {@link MergeableStatistic} for one sample and {@link MergeablePairedStatistic} for two paired samples.
+ *
+ * @param <T> the type of the statistic
+ * @author Haksun Li
+ * @see "Pébay, Philippe, "Formulas for Robust, One-Pass Parallel Computation of Covariances and Arbitrary-Order Statistical Moments," Technical Report SAND2008-6212, Sandia National Laboratories, 2008."
+ */
+public interface Mergeable<T extends Mergeable<T>> extends Statistic {
+
+    /**
+     * Merge the statistic of another, disjoint sample into this statistic.
+     * {@code that} is not modified.
+     *
+     * @param that the statistic of another sample
+     */
+    public void merge(T that);
+}
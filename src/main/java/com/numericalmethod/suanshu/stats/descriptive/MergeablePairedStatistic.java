@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+/**
+ * A mergeable paired statistic is computed from two samples of the same size, taken pair by pair,
+ * e.g., a {@link Covariance}.
+ * It is not a {@link MergeableStatistic}, whose ranges of one array would not hold matching pairs.
+ *
+ * @param <T> the type of the statistic
+ * @author Haksun Li
+ * @see PairedStatisticReducer
+ */
+public interface MergeablePairedStatistic<T extends MergeablePairedStatistic<T>> extends Mergeable<T> {
+
+    /**
+     * Update the statistic with a range of each of two arrays, without copying the data.
+     *
+     * @param x       the data of the first variable
+     * @param xOffset the index of the first data point of the first variable
+     * @param y       the data of the second variable
+     * @param yOffset the index of the first data point of the second variable
+     * @param length  the number of pairs of data points
+     */
+    public void addAll(double[] x, int xOffset, double[] y, int yOffset, int length);
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+/**
+ * A mergeable statistic of one sample can be updated with a range of an array without copying it,
+ * so that the chunks of a big sample can be computed independently and then {@linkplain #merge merged}.
+ *
+ * @param <T> the type of the statistic
+ * @author Haksun Li
+ * @see StatisticReducer
+ */
+public interface MergeableStatistic<T extends MergeableStatistic<T>> extends Mergeable<T> {
+
+    /**
+     * Update the statistic with a range of an array, as {@code addData(Arrays.copyOfRange(data, offset, offset + length))} does,
+     * but without copying the data.
+     *
+     * @param data   the data
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    public void addAll(double[] data, int offset, int length);
+}
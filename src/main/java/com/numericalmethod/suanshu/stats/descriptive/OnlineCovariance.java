@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+
+/**
+ * This class computes the covariance matrix of a stream of multivariate observations, one observation at a time.
+ * Each observation is a rank-1 update of the co-moment matrix by Welford's algorithm, costing <i>O(p<sup>2</sup>)</i>.
+ * Two estimators of disjoint samples, e.g., computed in parallel, can be merged by Chan's formula.
+ * The covariance matrix uses <i>N - 1</i> as the denominator, the same as {@link CovarianceMatrix}.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"B. P. Welford. Note on a Method for Calculating Corrected Sums of Squares and Products. Technometrics, 4(3): 419-420. 1962."</li>
+ * <li>"T. F. Chan, G. H. Golub and R. J. LeVeque. Updating Formulae and a Pairwise Algorithm for Computing Sample Variances. Technical Report STAN-CS-79-773, Stanford University. 1979."</li>
+ * </ul>
+ */
+public class OnlineCovariance implements Serializable {
+
+    private static final long serialVersionUID = 3097264113618534017L;
+    /**
+     * the dimension
+     */
+    final int p;
+    /**
+     * the number of observations
+     */
+    long N = 0;
+    /**
+     * the means
+     */
+    final double[] mean;
+    /**
+     * the co-moments, sums of the products of the deviations from the means; only the upper triangle is kept
+     */
+    final double[][] C;
+    /**
+     * a working array
+     */
+    private final double[] d;
+
+    /**
+     * Construct an empty covariance estimator.
+     *
+     * @param p the dimension of an observation
+     */
+    public OnlineCovariance(int p) {
+        assertArgument(p > 0, "p > 0");
+        this.p = p;
+        this.mean = new double[p];
+        this.C = new double[p][p];
+        this.d = new double[p];
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param that an {@code OnlineCovariance} instance
+     */
+    public OnlineCovariance(OnlineCovariance that) {
+        this(that.p);
+        this.N = that.N;
+        System.arraycopy(that.mean, 0, this.mean, 0, p);
+        for (int i = 0; i < p; ++i) {
+            System.arraycopy(that.C[i], 0, this.C[i], 0, p);
+        }
+    }
+
+    /**
+     * Update the estimator with an observation.
+     *
+     * @param x an observation
+     */
+    public void addData(double... x) {
+        assertArgument(x.length == p, "the observation must have dimension %d", p);
+
+        ++N;
+        for (int i = 0; i < p; ++i) {
+            d[i] = x[i] - mean[i];
+            mean[i] += d[i] / N;
+        }
+
+        for (int i = 0; i < p; ++i) {
+            final double di = d[i];
+            final double[] Ci = C[i];
+            for (int j = i; j < p; ++j) {
+                Ci[j] += di * (x[j] - mean[j]);
+            }
+        }
+    }
+
+    /**
+     * Update the estimator with observations.
+     *
+     * @param data the observations; {@code data[k]} is the <i>k</i>-th observation
+     */
+    public void addData(double[][] data) {
+        for (double[] x : data) {
+            addData(x);
+        }
+    }
+
+    /**
+     * Merge the statistics of another sample into this estimator,
+     * as if this estimator has seen the observations of both samples.
+     *
+     * @param that an estimator of another sample
+     */
+    public void merge(OnlineCovariance that) {
+        assertArgument(this.p == that.p, "the dimensions must be the same");
+        if (that.N == 0) {
+            return;
+        }
+
+        final long n = this.N + that.N;
+        final double w = (double) this.N * that.N / n;
+        for (int i = 0; i < p; ++i) {
+            d[i] = that.mean[i] - this.mean[i];
+        }
+
+        for (int i = 0; i < p; ++i) {
+            for (int j = i; j < p; ++j) {
+                C[i][j] += that.C[i][j] + d[i] * d[j] * w;
+            }
+            mean[i] += d[i] * that.N / n;
+        }
+
+        this.N = n;
+    }
+
+    /**
+     * Get the number of observations.
+     *
+     * @return the number of observations
+     */
+    public long N() {
+        return N;
+    }
+
+    /**
+     * Get the means.
+     *
+     * @return the means
+     */
+    public double[] mean() {
+        return Arrays.copyOf(mean, p);
+    }
+
+    /**
+     * Get the (unbiased) covariance matrix.
+     *
+     * @return the covariance matrix
+     */
+    public DenseMatrix covariance() {
+        return new DenseMatrix(comoments(1. / (N - 1)));
+    }
+
+    /**
+     * Get the co-moment matrix, scaled.
+     *
+     * @param scale the scaling factor
+     * @return the full, symmetric, scaled co-moment matrix
+     */
+    double[][] comoments(double scale) {
+        double[][] S = new double[p][p];
+        for (int i = 0; i < p; ++i) {
+            for (int j = i; j < p; ++j) {
+                S[i][j] = C[i][j] * scale;
+                S[j][i] = S[i][j];
+            }
+        }
+        return S;
+    }
+}
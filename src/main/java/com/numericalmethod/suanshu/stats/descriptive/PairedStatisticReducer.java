@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import java.io.Serializable;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+
+/**
+ * This class computes a {@link MergeablePairedStatistic} of two big paired samples, e.g., a {@link Covariance},
+ * in the same way as {@link StatisticReducer} does for one sample.
+ * A chunk is a range of pairs of data points, read from the same indices of both samples.
+ * <p/>
+ * A paired statistic is not a {@link MergeableStatistic}, so it cannot be passed to {@link StatisticReducer},
+ * whose chunks are plain ranges of one array and hence would not hold matching pairs.
+ *
+ * @param <T> the type of the statistic
+ * @author Haksun Li
+ */
+public class PairedStatisticReducer<T extends MergeablePairedStatistic<T>> implements Serializable {
+
+    private static final long serialVersionUID = 5083125974626154281L;
+    private final ChunkReducer<T> reducer;
+
+    /**
+     * Construct a reducer of a paired statistic.
+     *
+     * @param factory    constructs an empty statistic for each chunk; it is called concurrently when running in parallel
+     * @param chunkSize  the number of pairs of data points in a chunk
+     * @param isParallel {@code true} if to run in parallel cores
+     */
+    public PairedStatisticReducer(MergeableStatisticFactory<T> factory, int chunkSize, boolean isParallel) {
+        this.reducer = new ChunkReducer<T>(factory, chunkSize, isParallel);
+    }
+
+    /**
+     * Construct a parallel reducer of a paired statistic, with chunks of 2<sup>16</sup> pairs of data points.
+     *
+     * @param factory constructs an empty statistic for each chunk; it is called concurrently
+     */
+    public PairedStatisticReducer(MergeableStatisticFactory<T> factory) {
+        this(factory, 1 << 16, true);
+    }
+
+    /**
+     * Compute the statistic of two paired samples.
+     *
+     * @param x the first sample
+     * @param y the second sample, of the same size
+     * @return the statistic
+     */
+    public T reduce(final double[] x, final double[] y) {
+        assertArgument(x.length == y.length, "the two samples must have the same size");
+
+        return reducer.reduce(x.length, new ChunkReducer.Chunk<T>() {
+
+            @Override
+            public void addTo(T stat, int from, int length) {
+                stat.addAll(x, from, y, from, length);//no copy of the chunk
+            }
+        });
+    }
+
+    /**
+     * Compute the statistic of two paired samples concatenated into one array,
+     * as in {@link Covariance#addData(double...)}.
+     * The first half of the array is the first sample; the second half is the second sample.
+     *
+     * @param data a data array concatenating two samples of the same size
+     * @return the statistic
+     */
+    public T reduce(final double[] data) {
+        assertArgument(data.length % 2 == 0, "there must be an even number of data points");
+
+        final int half = data.length / 2;
+        return reducer.reduce(half, new ChunkReducer.Chunk<T>() {
+
+            @Override
+            public void addTo(T stat, int from, int length) {
+                stat.addAll(data, from, data, half + from, length);//no copy of the chunk
+            }
+        });
+    }
+}
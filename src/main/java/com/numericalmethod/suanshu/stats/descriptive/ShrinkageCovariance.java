@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.min;
+
+/**
+ * This class computes, in one pass over a stream of multivariate observations,
+ * the covariance matrix shrunk towards a scaled identity matrix,
+ * <blockquote><i>
+ * Σ = (1 - s) * S + s * μ * I, μ = tr(S) / p
+ * </i></blockquote>
+ * where <i>S</i> is the maximum likelihood estimate of the covariance matrix (with <i>N</i> as the denominator)
+ * and <i>s</i> is the shrinkage intensity.
+ * The shrunk matrix is well-conditioned, e.g., for a Cholesky decomposition, even when <i>p</i> is close to or bigger than <i>N</i>.
+ * Two shrinkage intensities are available:
+ * <ul>
+ * <li>Ledoit-Wolf, which estimates the optimal intensity from the variance of the entries of <i>S</i>;</li>
+ * <li>oracle approximating shrinkage (OAS), which assumes Gaussian observations and converges faster for small samples.</li>
+ * </ul>
+ *
+ * <p>
+ * The Ledoit-Wolf intensity needs the sums <i>Σ<sub>k</sub> (x<sub>ki</sub> - m<sub>i</sub>)<sup>2</sup> (x<sub>kj</sub> - m<sub>j</sub>)<sup>2</sup></i>
+ * around the final means <i>m</i>, which are not known in one pass.
+ * This implementation accumulates the third and fourth order product sums of the observations shifted by the first observation,
+ * and re-centers them when the intensity is requested.
+ * Each observation still costs <i>O(p<sup>2</sup>)</i>, and estimators of disjoint samples can be merged.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"O. Ledoit and M. Wolf. A well-conditioned estimator for large-dimensional covariance matrices. Journal of Multivariate Analysis, 88(2): 365-411. 2004."</li>
+ * <li>"Y. Chen, A. Wiesel, Y. C. Eldar and A. O. Hero. Shrinkage Algorithms for MMSE Covariance Estimation. IEEE Transactions on Signal Processing, 58(10): 5016-5029. 2010."</li>
+ * </ul>
+ */
+public class ShrinkageCovariance extends OnlineCovariance {
+
+    private static final long serialVersionUID = -4421797209418290212L;
+    /**
+     * the shift, i.e., the first observation
+     */
+    private final double[] K;
+    /**
+     * <i>Σ z<sub>i</sub><sup>2</sup> z<sub>j</sub><sup>2</sup></i> of the shifted observations <i>z = x - K</i>; only the upper triangle is kept
+     */
+    private final double[][] Q4;
+    /**
+     * <i>Σ z<sub>i</sub><sup>2</sup> z<sub>j</sub></i> of the shifted observations <i>z = x - K</i>
+     */
+    private final double[][] Q3;
+    private final double[] z;
+
+    /**
+     * Construct an empty shrinkage covariance estimator.
+     *
+     * @param p the dimension of an observation
+     */
+    public ShrinkageCovariance(int p) {
+        super(p);
+        this.K = new double[p];
+        this.Q4 = new double[p][p];
+        this.Q3 = new double[p][p];
+        this.z = new double[p];
+    }
+
+    @Override
+    public void addData(double... x) {
+        if (N == 0) {
+            assertArgument(x.length == p, "the observation must have dimension %d", p);
+            System.arraycopy(x, 0, K, 0, p);
+        }
+
+        super.addData(x);
+
+        for (int i = 0; i < p; ++i) {
+            z[i] = x[i] - K[i];
+        }
+
+        for (int i = 0; i < p; ++i) {
+            final double zi2 = z[i] * z[i];
+            final double[] Q3i = Q3[i];
+            final double[] Q4i = Q4[i];
+            for (int j = 0; j < p; ++j) {
+                Q3i[j] += zi2 * z[j];
+            }
+            for (int j = i; j < p; ++j) {
+                Q4i[j] += zi2 * z[j] * z[j];
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param that a {@code ShrinkageCovariance} of another sample
+     */
+    @Override
+    public void merge(OnlineCovariance that) {
+        assertArgument(that instanceof ShrinkageCovariance, "can only merge with a ShrinkageCovariance");
+        ShrinkageCovariance other = (ShrinkageCovariance) that;
+        assertArgument(this.p == other.p, "the dimensions must be the same");
+        if (other.N == 0) {
+            return;
+        }
+
+        if (this.N == 0) {
+            System.arraycopy(other.K, 0, K, 0, p);
+            for (int i = 0; i < p; ++i) {
+                System.arraycopy(other.Q3[i], 0, Q3[i], 0, p);
+                System.arraycopy(other.Q4[i], 0, Q4[i], 0, p);
+            }
+        } else {
+            //re-express the sums of the other sample in the shift of this sample
+            double[] e = new double[p];
+            for (int i = 0; i < p; ++i) {
+                e[i] = other.K[i] - this.K[i];
+            }
+            double[][] Q2 = other.secondOrder();
+            double[] S1 = other.firstOrder();
+
+            for (int i = 0; i < p; ++i) {
+                for (int j = 0; j < p; ++j) {
+                    Q3[i][j] += shift3(other.Q3, Q2, S1, other.N, e, i, j);
+                }
+                for (int j = i; j < p; ++j) {
+                    Q4[i][j] += shift4(other.Q4, other.Q3, Q2, S1, other.N, e, i, j);
+                }
+            }
+        }
+
+        super.merge(that);
+    }
+
+    /**
+     * Get the maximum likelihood estimate of the covariance matrix, with <i>N</i> as the denominator.
+     *
+     * @return the maximum likelihood estimate of the covariance matrix
+     */
+    public DenseMatrix mleCovariance() {
+        return new DenseMatrix(comoments(1. / N));
+    }
+
+    /**
+     * Get the Ledoit-Wolf shrinkage intensity.
+     *
+     * @return the Ledoit-Wolf shrinkage intensity, in <i>[0, 1]</i>
+     */
+    public double ledoitWolfShrinkage() {
+        final double[][] S = comoments(1. / N);
+        final double mu = trace(S) / p;
+
+        double delta2 = 0;//||S - μI||^2
+        double normS2 = 0;//||S||^2
+        for (int i = 0; i < p; ++i) {
+            for (int j = 0; j < p; ++j) {
+                double dij = S[i][j] - (i == j ? mu : 0);
+                delta2 += dij * dij;
+                normS2 += S[i][j] * S[i][j];
+            }
+        }
+        if (delta2 == 0) {
+            return 0;
+        }
+
+        //Σ_k ||y_k y_k' - S||^2 = Σ_ij Σ_k (y_ki y_kj)^2 - N ||S||^2, where y = x - m
+        double[][] Q2 = secondOrder();
+        double[] S1 = firstOrder();
+        double[] a = new double[p];
+        for (int i = 0; i < p; ++i) {
+            a[i] = K[i] - mean[i];
+        }
+        double sum4 = 0;
+        for (int i = 0; i < p; ++i) {
+            sum4 += shift4(Q4, Q3, Q2, S1, N, a, i, i);
+            for (int j = i + 1; j < p; ++j) {
+                sum4 += 2 * shift4(Q4, Q3, Q2, S1, N, a, i, j);
+            }
+        }
+        double beta2 = (sum4 - N * normS2) / ((double) N * N);
+
+        return min(beta2, delta2) / delta2;
+    }
+
+    /**
+     * Get the Ledoit-Wolf shrunk covariance matrix.
+     *
+     * @return the Ledoit-Wolf shrunk covariance matrix
+     */
+    public DenseMatrix ledoitWolf() {
+        return shrink(ledoitWolfShrinkage());
+    }
+
+    /**
+     * Get the oracle approximating shrinkage (OAS) intensity.
+     *
+     * @return the OAS intensity, in <i>[0, 1]</i>
+     */
+    public double oasShrinkage() {
+        final double[][] S = comoments(1. / N);
+        final double mu = trace(S) / p;
+
+        double alpha = 0;//the mean of the squared entries
+        for (int i = 0; i < p; ++i) {
+            for (int j = 0; j < p; ++j) {
+                alpha += S[i][j] * S[i][j];
+            }
+        }
+        alpha /= (double) p * p;
+
+        double num = alpha + mu * mu;
+        double den = (N + 1) * (alpha - mu * mu / p);
+        return den == 0 ? 1 : min(num / den, 1);
+    }
+
+    /**
+     * Get the oracle approximating shrunk covariance matrix.
+     *
+     * @return the OAS covariance matrix
+     */
+    public DenseMatrix oas() {
+        return shrink(oasShrinkage());
+    }
+
+    private DenseMatrix shrink(double s) {
+        double[][] S = comoments(1. / N);
+        final double mu = trace(S) / p;
+        for (int i = 0; i < p; ++i) {
+            for (int j = 0; j < p; ++j) {
+                S[i][j] *= 1 - s;
+            }
+            S[i][i] += s * mu;
+        }
+        return new DenseMatrix(S);
+    }
+
+    private static double trace(double[][] S) {
+        double trace = 0;
+        for (int i = 0; i < S.length; ++i) {
+            trace += S[i][i];
+        }
+        return trace;
+    }
+
+    /**
+     * Compute <i>Σ z<sub>i</sub></i> of the shifted observations.
+     */
+    private double[] firstOrder() {
+        double[] S1 = new double[p];
+        for (int i = 0; i < p; ++i) {
+            S1[i] = N * (mean[i] - K[i]);
+        }
+        return S1;
+    }
+
+    /**
+     * Compute <i>Σ z<sub>i</sub> z<sub>j</sub></i> of the shifted observations from the co-moments.
+     */
+    private double[][] secondOrder() {
+        double[][] Q2 = comoments(1);
+        for (int i = 0; i < p; ++i) {
+            for (int j = 0; j < p; ++j) {
+                Q2[i][j] += N * (mean[i] - K[i]) * (mean[j] - K[j]);
+            }
+        }
+        return Q2;
+    }
+
+    /**
+     * Compute <i>Σ (z<sub>i</sub> + e<sub>i</sub>)<sup>2</sup> (z<sub>j</sub> + e<sub>j</sub>)</i>.
+     */
+    private static double shift3(double[][] Q3, double[][] Q2, double[] S1, long n, double[] e, int i, int j) {
+        return Q3[i][j] + e[j] * Q2[i][i] + 2 * e[i] * Q2[i][j]
+               + 2 * e[i] * e[j] * S1[i] + e[i] * e[i] * S1[j] + n * e[i] * e[i] * e[j];
+    }
+
+    /**
+     * Compute <i>Σ (z<sub>i</sub> + e<sub>i</sub>)<sup>2</sup> (z<sub>j</sub> + e<sub>j</sub>)<sup>2</sup></i>, <i>i ≤ j</i>.
+     */
+    private static double shift4(double[][] Q4, double[][] Q3, double[][] Q2, double[] S1, long n, double[] e, int i, int j) {
+        return Q4[i][j] + 2 * e[j] * Q3[i][j] + 2 * e[i] * Q3[j][i]
+               + e[j] * e[j] * Q2[i][i] + e[i] * e[i] * Q2[j][j] + 4 * e[i] * e[j] * Q2[i][j]
+               + 2 * e[i] * e[j] * e[j] * S1[i] + 2 * e[i] * e[i] * e[j] * S1[j]
+               + n * e[i] * e[i] * e[j] * e[j];
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import java.io.Serializable;
+
+/**
+ * This class computes a {@link MergeableStatistic} of a big sample by splitting the sample into chunks,
+ * computing the statistic of each chunk independently, in parallel,
+ * and merging the partial statistics pairwise.
+ * Unlike a {@link SynchronizedStatistic}, the threads do not share any state while computing,
+ * and the result does not depend on whether the chunks are computed in parallel.
+ * The pairwise merging also keeps the rounding errors small, as in Chan's pairwise algorithm.
+ * <p/>
+ * To compute a statistic of two paired samples, e.g., a {@link Covariance}, use {@link PairedStatisticReducer}.
+ *
+ * @param <T> the type of the statistic
+ * @author Haksun Li
+ */
+public class StatisticReducer<T extends MergeableStatistic<T>> implements Serializable {
+
+    private static final long serialVersionUID = -2437150851632785934L;
+    private final ChunkReducer<T> reducer;
+
+    /**
+     * Construct a reducer of a statistic.
+     *
+     * @param factory    constructs an empty statistic for each chunk; it is called concurrently when running in parallel
+     * @param chunkSize  the number of data points in a chunk
+     * @param isParallel {@code true} if to run in parallel cores
+     */
+    public StatisticReducer(MergeableStatisticFactory<T> factory, int chunkSize, boolean isParallel) {
+        this.reducer = new ChunkReducer<T>(factory, chunkSize, isParallel);
+    }
+
+    /**
+     * Construct a parallel reducer of a statistic, with chunks of 2<sup>16</sup> data points.
+     *
+     * @param factory constructs an empty statistic for each chunk; it is called concurrently
+     */
+    public StatisticReducer(MergeableStatisticFactory<T> factory) {
+        this(factory, 1 << 16, true);
+    }
+
+    /**
+     * Compute the statistic of a sample.
+     *
+     * @param data a sample
+     * @return the statistic
+     */
+    public T reduce(final double[] data) {
+        return reducer.reduce(data.length, new ChunkReducer.Chunk<T>() {
+
+            @Override
+            public void addTo(T stat, int from, int length) {
+                stat.addAll(data, from, length);//no copy of the chunk
+            }
+        });
+    }
+}
@@ -26,8 +26,10 @@ package com.numericalmethod.suanshu.stats.descriptive;
  * This is a thread-safe wrapper of {@link Statistic} by synchronizing all public methods
  * so that only one thread at a time can access the instance.
  * This is essentially the same principle used by Java's synchronized collection class.
+ * To compute a {@link MergeableStatistic} of a big sample in parallel without a lock, use {@link StatisticReducer} instead.
  *
  * @author Haksun Li
+ * @see StatisticReducer
  * @see "Brian Goetz, Tim Peierls, Joshua Bloch and Joseph Bowbeer, "Chapter 5," Java Concurrency in Practice."
  */
 public class SynchronizedStatistic implements Statistic {
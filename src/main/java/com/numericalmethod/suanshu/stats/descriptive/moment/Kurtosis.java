@@ -22,7 +22,7 @@
  */
 package com.numericalmethod.suanshu.stats.descriptive.moment;
 
-import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.MergeableStatistic;
 
 /**
  * Kurtosis measures the "peakedness" of the probability distribution of a real-valued random variable.
@@ -31,7 +31,9 @@ import com.numericalmethod.suanshu.stats.descriptive.Statistic;
  * <blockquote><i>
  * γ = E[((X - E(X)) / σ)<sup>4</sup>]
  * </i></blockquote>
- * This implementation uses Chan's update formula to incrementally compute the new statistic.
+ * This implementation uses Chan's update formula to incrementally compute the new statistic,
+ * and to merge the statistic of another sample.
+ * {@link #add(double)} and {@link #addAll(double[], int, int)} update the statistic in place without allocating any object.
  * <p/>
  * The R equivalent function is {@code kurtosis}.
  *
@@ -43,7 +45,7 @@ import com.numericalmethod.suanshu.stats.descriptive.Statistic;
  * <li>"Tony F, Chan, Gene H, Golub, Randall J, LeVeque, "Updating Formulae and a Pairwise Algorithm for Computing Sample Variances," Technical Report STAN-CS-79-773, Department of Computer Science, Stanford University, 1979."
  * </ul>
  */
-public class Kurtosis implements Statistic {
+public class Kurtosis implements MergeableStatistic<Kurtosis> {
 
     private static final long serialVersionUID = 4964464856258557194L;
     private Moments moment = new Moments(4);
@@ -89,6 +91,32 @@ public class Kurtosis implements Statistic {
         moment.addData(data);
     }
 
+    /**
+     * Update the statistic with a data point, without allocating any object.
+     *
+     * @param x a data point
+     */
+    public void add(double x) {
+        moment.add(x);
+    }
+
+    /**
+     * Update the statistic with a range of an array, without allocating any object.
+     *
+     * @param data   an array
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    @Override
+    public void addAll(double[] data, int offset, int length) {
+        moment.addAll(data, offset, length);
+    }
+
+    @Override
+    public void merge(Kurtosis that) {
+        moment.merge(that.moment);
+    }
+
     @Override
     public double value() {
         double var = moment.centralMoment(2) * ((double) N() / (N() - 1));
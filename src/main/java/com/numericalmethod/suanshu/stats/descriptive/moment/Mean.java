@@ -22,7 +22,7 @@
  */
 package com.numericalmethod.suanshu.stats.descriptive.moment;
 
-import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.MergeableStatistic;
 
 /**
  * The mean of a sample is the sum of all numbers in the sample,
@@ -30,7 +30,9 @@ import com.numericalmethod.suanshu.stats.descriptive.Statistic;
  * <blockquote><i>
  * E(X) = Σ (xi) / N
  * </i></blockquote>
- * This implementation supports incremental update of the statistic.
+ * This implementation supports incremental update of the statistic,
+ * and merging the statistic of another sample.
+ * {@link #add(double)} and {@link #addAll(double[], int, int)} update the statistic in place without allocating any object.
  * <p/>
  * The R equivalent function is {@code mean}.
  *
@@ -40,7 +42,7 @@ import com.numericalmethod.suanshu.stats.descriptive.Statistic;
  * <li><a href="http://en.wikipedia.org/wiki/Algorithms_for_calculating_variance">Wikipedia: Algorithms for calculating variance</a>
  * </ul>
  */
-public class Mean implements Statistic {
+public class Mean implements MergeableStatistic<Mean> {
 
     private static final long serialVersionUID = 170853815743939086L;
     private long N = 0;
@@ -74,15 +76,52 @@ public class Mean implements Statistic {
 
     @Override
     public void addData(double... data) {
+        addAll(data, 0, data.length);
+    }
+
+    /**
+     * Update the statistic with a data point.
+     *
+     * @param x a data point
+     */
+    public void add(double x) {
+        ++N;
+        mean += (x - mean) / N;
+    }
+
+    /**
+     * Update the statistic with a range of an array.
+     *
+     * @param data   an array
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    @Override
+    public void addAll(double[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+
         double sum = mean * N;//previous sum
-        for (double d : data) {
-            sum += d;
+        for (int i = offset; i < offset + length; ++i) {
+            sum += data[i];
         }
 
-        N += data.length;
+        N += length;
         mean = sum / N;
     }
 
+    @Override
+    public void merge(Mean that) {
+        if (that.N == 0) {
+            return;
+        }
+
+        long Nboth = this.N + that.N;
+        mean += (that.mean - mean) * ((double) that.N / Nboth);
+        N = Nboth;
+    }
+
     @Override
     public double value() {
         return N >= 1 ? mean : Double.NaN;
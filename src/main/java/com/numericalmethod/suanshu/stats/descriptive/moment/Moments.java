@@ -22,9 +22,8 @@
  */
 package com.numericalmethod.suanshu.stats.descriptive.moment;
 
-import static com.numericalmethod.suanshu.analysis.function.FunctionOps.combination;
 import com.numericalmethod.suanshu.misc.SuanShuUtils;
-import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.MergeableStatistic;
 import static java.lang.Math.pow;
 import java.util.Arrays;
 
@@ -35,7 +34,9 @@ import java.util.Arrays;
  * <blockquote><i>
  * μ<sub>k</sub> = E[(X - E(X))<sup>k</sup>]
  * </i></blockquote>
- * This implementation uses Pébay's update formula to incrementally compute the new statistic.
+ * This implementation uses Pébay's update formula to incrementally compute the new statistic,
+ * and to merge the statistic of another sample.
+ * {@link #add(double)} and {@link #addAll(double[], int, int)} update the statistic in place without allocating any object.
  *
  * @author Haksun Li
  * @see
@@ -44,13 +45,14 @@ import java.util.Arrays;
  * <li><a href="http://en.wikipedia.org/wiki/Moment_%28mathematics%29">Wikipedia: Moment (mathematics)</a>
  * </ul>
  */
-public class Moments implements Statistic {
+public class Moments implements MergeableStatistic<Moments> {
 
     private static final long serialVersionUID = 6346728951326593343L;
     /** the highest moment to compute */
     private final int order;
     private long N = 0;
     private double[] m;//sum of powers of differences
+    private transient double[] work;//the sums of powers of differences of the new data; scratch, allocated on first use
 
     /**
      * Construct an empty moment calculator, computing all moments up to and including the {@code order}-th moment.
@@ -85,6 +87,18 @@ public class Moments implements Statistic {
         this.m = Arrays.copyOf(that.m, that.m.length);
     }
 
+    /**
+     * Get the scratch buffer, which is not part of the serialized form.
+     *
+     * @return the scratch buffer
+     */
+    private double[] work() {
+        if (work == null) {
+            work = new double[order];
+        }
+        return work;
+    }
+
     /**
      * Get the value of the <i>k</i>-th central moment.
      * This method can be used to compute the lower moments.
@@ -102,16 +116,95 @@ public class Moments implements Statistic {
         return result;
     }
 
+    /**
+     * Get the sum of the <i>k</i>-th powers of the differences from the mean, or the sum if <i>k = 1</i>,
+     * without checking the argument.
+     *
+     * @param k the order of the moment
+     * @return the sum of the <i>k</i>-th powers of the differences
+     */
+    double sumOfPowers(int k) {
+        return m[k - 1];
+    }
+
     @Override
     public void addData(double... data) {
-        //base case
-        if (N == 0) {
-            N = data.length;
-            m[0] = Moments.sumsOfPowersOfDifferences(1, 0, data);//sum
-            double mean = m[0] / N;
+        addAll(data, 0, data.length);
+    }
+
+    /**
+     * Update the statistic with a data point, without allocating any object.
+     *
+     * @param x a data point
+     */
+    public void add(double x) {
+        final double[] work = work();
+        work[0] = x;//the sum
+        for (int i = 2; i <= order; ++i) {//a single data point has no spread
+            work[i - 1] = 0;
+        }
+
+        combine(work, 1);
+    }
+
+    /**
+     * Update the statistic with a range of an array, without allocating any object.
+     *
+     * @param data   an array
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    @Override
+    public void addAll(double[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        //the sums of powers of differences of the new data
+        final double[] work = work();
+        Arrays.fill(work, 0);
+        for (int j = offset; j < offset + length; ++j) {
+            work[0] += data[j];
+        }
+        double mean = work[0] / length;
+        for (int j = offset; j < offset + length; ++j) {
+            double d = data[j] - mean;
+            double power = d;
             for (int i = 2; i <= order; ++i) {//the i-th moment
-                m[i - 1] = Moments.sumsOfPowersOfDifferences(i, mean, data);//sum of squares
+                power *= d;
+                work[i - 1] += power;
             }
+        }
+
+        combine(work, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param that the moments of another sample, of the same order
+     */
+    @Override
+    public void merge(Moments that) {
+        SuanShuUtils.assertArgument(that.order == this.order, "the orders of the moments must be the same");
+        combine(that.m, that.N);
+    }
+
+    /**
+     * Combine the sums of powers of differences of another sample into this statistic, in place.
+     *
+     * @param mB the sums of powers of differences of the other sample; {@code mB[0]} is the sum
+     * @param nB the size of the other sample
+     */
+    private void combine(double[] mB, long nB) {
+        if (nB == 0) {
+            return;
+        }
+
+        //base case
+        if (N == 0) {
+            N = nB;
+            System.arraycopy(mB, 0, m, 0, order);
             return;
         }
 
@@ -123,32 +216,41 @@ public class Moments implements Statistic {
          * Technical Report SAND2008-6212,
          * Sandia National Laboratories.
          * </pre>
+         * The p-th moment depends on the lower moments of this sample,
+         * so the moments are updated in place from the highest one down.
          */
-        Moments A = new Moments(this);
-        Moments B = new Moments(order, data);
-        long Nboth = A.N + B.N;
-        double delta = B.m[0] / B.N - A.m[0] / A.N;//B.mean - A.mean
-        this.m[0] = A.m[0] + B.m[0];//update for p == 1
+        final long nA = N;
+        final long Nboth = nA + nB;
+        final double delta = mB[0] / nB - m[0] / nA;//B.mean - A.mean
 
-        for (int p = 2; p <= order; ++p) {//for the p-th moment
+        final double a = (double) -nB / Nboth;
+        final double b = (double) nA / Nboth;
+        for (int p = order; p >= 2; --p) {//for the p-th moment
             double sum = 0;
+            double binomial = 1;
+            double ak = 1, bk = 1, dk = 1;//the k-th powers of a, b and delta
             for (int k = 1; k <= p - 2; ++k) {
+                binomial = binomial * (p - k + 1) / k;//combination(p, k)
+                ak *= a;
+                bk *= b;
+                dk *= delta;
                 int i = p - k;//i-th moment
-                double term1 = pow((double) -B.N / Nboth, k) * A.m[i - 1];
-                term1 += pow((double) A.N / Nboth, k) * B.m[i - 1];
-                term1 *= pow(delta, k);
-                term1 *= combination(p, k);
+                double term1 = ak * m[i - 1];
+                term1 += bk * mB[i - 1];
+                term1 *= dk;
+                term1 *= binomial;
 
                 sum += term1;
             }
 
-            double term2 = (double) A.N / Nboth;
-            term2 *= delta * B.N;
+            double term2 = b;
+            term2 *= delta * nB;
             term2 = pow(term2, p);
-            term2 *= 1d / pow(B.N, p - 1) - pow(-1d / A.N, p - 1);
+            term2 *= 1d / pow(nB, p - 1) - pow(-1d / nA, p - 1);
 
-            this.m[p - 1] = A.m[p - 1] + B.m[p - 1] + sum + term2;
+            m[p - 1] += mB[p - 1] + sum + term2;
         }
+        m[0] += mB[0];//update for p == 1
 
         N = Nboth;
     }
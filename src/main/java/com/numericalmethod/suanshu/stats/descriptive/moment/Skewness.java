@@ -22,7 +22,7 @@
  */
 package com.numericalmethod.suanshu.stats.descriptive.moment;
 
-import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.MergeableStatistic;
 import static java.lang.Math.pow;
 
 /**
@@ -36,7 +36,9 @@ import static java.lang.Math.pow;
  * <blockquote><i>
  * γ = E[((X - E(X)) / σ)<sup>3</sup>]
  * </i></blockquote>
- * This implementation uses Chan's update formula to incrementally compute the new statistic.
+ * This implementation uses Chan's update formula to incrementally compute the new statistic,
+ * and to merge the statistic of another sample.
+ * {@link #add(double)} and {@link #addAll(double[], int, int)} update the statistic in place without allocating any object.
  * <p/>
  * The R equivalent function is {@code skewness}.
  *
@@ -48,7 +50,7 @@ import static java.lang.Math.pow;
  * <li>"Chan, Tony F.; Golub, Gene H.; LeVeque, Randall J. (1979), "Updating Formulae and a Pairwise Algorithm for Computing Sample Variances," Technical Report STAN-CS-79-773, Department of Computer Science, Stanford University."
  * </ul>
  */
-public class Skewness implements Statistic {
+public class Skewness implements MergeableStatistic<Skewness> {
 
     private static final long serialVersionUID = 7362829418789517972L;
     private long N = 0;
@@ -99,16 +101,78 @@ public class Skewness implements Statistic {
      * @return the mean
      */
     private double mean() {
-        return moment.centralMoment(1);
+        return moment.sumOfPowers(1) / moment.N();
     }
 
     @Override
     public void addData(double... data) {
+        addAll(data, 0, data.length);
+    }
+
+    /**
+     * Update the statistic with a data point, without allocating any object.
+     *
+     * @param x a data point
+     */
+    public void add(double x) {
+        combine(x, 0, 0, 1);
+        moment.add(x);
+    }
+
+    /**
+     * Update the statistic with a range of an array, without allocating any object.
+     *
+     * @param data   an array
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    @Override
+    public void addAll(double[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        //the statistics of the new data
+        double sum = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            sum += data[i];
+        }
+        double mu = sum / length;
+        double M2 = 0, M3 = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            double d = data[i] - mu;
+            M2 += d * d;
+            M3 += d * d * d;
+        }
+
+        combine(mu, M2, M3, length);
+        moment.addAll(data, offset, length);
+    }
+
+    @Override
+    public void merge(Skewness that) {
+        if (that.N == 0) {
+            return;
+        }
+
+        combine(that.mean(), that.M2(), that.m3, that.N);
+        moment.merge(that.moment);
+    }
+
+    /**
+     * Combine the statistics of another sample into the sum of cubes, in place.
+     * The caller updates {@link #moment} afterward.
+     *
+     * @param meanB the mean of the other sample
+     * @param M2B   the sum of squares of differences of the other sample
+     * @param m3B   the sum of cubes of differences of the other sample
+     * @param nB    the size of the other sample
+     */
+    private void combine(double meanB, double M2B, double m3B, long nB) {
         //base case
-        if (N == 0) {//store the datum as the mean of 'var'
-            N = data.length;
-            moment.addData(data);
-            m3 = Moments.sumsOfPowersOfDifferences(3, moment.centralMoment(1), data);//sum of cubes
+        if (N == 0) {
+            N = nB;
+            m3 = m3B;
             return;
         }
 
@@ -119,29 +183,26 @@ public class Skewness implements Statistic {
          * Technical Report STAN-CS-79-773,
          * Department of Computer Science, Stanford University.
          */
-        Skewness that = new Skewness(data);
-        double delta = that.mean() - this.mean();//mean difference
+        double delta = meanB - this.mean();//mean difference
         double M2this = this.M2();//this sum of squares of differences
-        double M2that = that.M2();//that sum of squares of differences
-        long Nboth = this.N + that.N;
+        long Nboth = this.N + nB;
 
-        double term1 = 3 * delta * (this.N * M2that - that.N * M2this) / Nboth;
+        double term1 = 3 * delta * (this.N * M2B - nB * M2this) / Nboth;
 
 //        double term2 = delta * delta * delta * (this.N * that.N * (this.N - that.N)) / Nboth / Nboth;//This statement does not work!!! Guess why?
         double term2 = (double) this.N / Nboth;
-        term2 *= delta * that.N;
+        term2 *= delta * nB;
         term2 = term2 * term2 * term2;
-        term2 *= 1d / that.N / that.N - 1d / this.N / this.N;
+        term2 *= 1d / nB / nB - 1d / this.N / this.N;
 
-        m3 += that.m3 + term1 + term2;
+        m3 += m3B + term1 + term2;
 
         //update states
-        moment.addData(data);
         N = Nboth;
     }
 
     private double M2() {
-        return moment.centralMoment(2) * moment.N();
+        return moment.sumOfPowers(2);
     }
 
     @Override
@@ -22,7 +22,7 @@
  */
 package com.numericalmethod.suanshu.stats.descriptive.moment;
 
-import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.MergeableStatistic;
 
 /**
  * The variance of a sample is the average squared deviations from the sample mean.
@@ -30,7 +30,9 @@ import com.numericalmethod.suanshu.stats.descriptive.Statistic;
  * <blockquote><i>
  * Var(X, Y) = E[(X - E(X))<sup>2</sup>]
  * </i></blockquote>
- * This implementation uses Chan's update formula to incrementally compute the new statistic.
+ * This implementation uses Chan's update formula to incrementally compute the new statistic,
+ * and to merge the statistic of another sample.
+ * {@link #add(double)} and {@link #addAll(double[], int, int)} update the statistic in place without allocating any object.
  * <p/>
  * The R equivalent function is {@code var}.
  *
@@ -42,7 +44,7 @@ import com.numericalmethod.suanshu.stats.descriptive.Statistic;
  * <li>"Tony F. Chan, Gene H. Golub, Randall J. LeVeque, "Updating Formulae and a Pairwise Algorithm for Computing Sample Variances," Technical Report STAN-CS-79-773, Department of Computer Science, Stanford University, 1979."
  * </ul>
  */
-public class Variance implements Statistic {
+public class Variance implements MergeableStatistic<Variance> {
 
     private static final long serialVersionUID = -3922655110896062476L;
     /** indicate whether the variance calculation is unbiased or not; {@code true} if unbiased */
@@ -104,11 +106,59 @@ public class Variance implements Statistic {
 
     @Override
     public void addData(double... data) {
+        addAll(data, 0, data.length);
+    }
+
+    /**
+     * Update the statistic with a data point, without allocating any object.
+     * This is Welford's update.
+     *
+     * @param x a data point
+     */
+    public void add(double x) {
+        if (N == 0) {
+            N = 1;
+            mean.add(x);
+            m2 = 0;
+            return;
+        }
+
+        double delta = x - mean.value();
+        mean.add(x);
+        m2 += delta * (x - mean.value());
+        ++N;
+    }
+
+    /**
+     * Update the statistic with a range of an array, without allocating any object.
+     *
+     * @param data   an array
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    @Override
+    public void addAll(double[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        //the statistics of the new data
+        double sum = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            sum += data[i];
+        }
+        double mu = sum / length;
+        double ss = 0;//sum of squares
+        for (int i = offset; i < offset + length; ++i) {
+            double d = data[i] - mu;
+            ss += d * d;
+        }
+
         //base case
         if (N == 0) {
-            N = data.length;
-            mean.addData(data);
-            m2 = Moments.sumsOfPowersOfDifferences(2, mean.value(), data);//sum of squares
+            N = length;
+            mean.addAll(data, offset, length);
+            m2 = ss;
             return;
         }
 
@@ -121,13 +171,34 @@ public class Variance implements Statistic {
          * Department of Computer Science, Stanford University.
          * </pre>
          */
-        Variance that = new Variance(data, unbiased);
+        double delta = mu - this.mean.value();//mean difference
+        long Nboth = this.N + length;
+        m2 += ss + delta * delta * ((double) this.N / Nboth) * length;
+
+        //update states
+        mean.addAll(data, offset, length);
+        N = Nboth;
+    }
+
+    @Override
+    public void merge(Variance that) {
+        if (that.N == 0) {
+            return;
+        }
+
+        if (this.N == 0) {
+            this.N = that.N;
+            this.m2 = that.m2;
+            this.mean = new Mean(that.mean);
+            return;
+        }
+
         double delta = that.mean.value() - this.mean.value();//mean difference
         long Nboth = this.N + that.N;
         m2 += that.m2 + delta * delta * ((double) this.N / Nboth) * that.N;
 
         //update states
-        mean.addData(data);
+        mean.merge(that.mean);
         N = Nboth;
     }
 
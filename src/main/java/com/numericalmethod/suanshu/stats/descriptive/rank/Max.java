@@ -22,17 +22,18 @@
  */
 package com.numericalmethod.suanshu.stats.descriptive.rank;
 
-import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.MergeableStatistic;
 
 /**
  * The maximum of a sample is the biggest value in the sample.
+ * {@link #add(double)} and {@link #addAll(double[], int, int)} update the statistic in place without allocating any object.
  * <p/>
  * The R equivalent function is {@code max}.
  *
  * @author Haksun Li
  * @see <a href="http://en.wikipedia.org/wiki/Maximum">Wikipedia: Maximum</a>
  */
-public class Max implements Statistic {
+public class Max implements MergeableStatistic<Max> {
 
     private static final long serialVersionUID = -509687682477188005L;
     private long N = 0;
@@ -66,13 +67,47 @@ public class Max implements Statistic {
 
     @Override
     public void addData(double... data) {
-        for (double d : data) {
-            if (d > max) {
-                max = d;
+        addAll(data, 0, data.length);
+    }
+
+    /**
+     * Update the statistic with a data point.
+     *
+     * @param x a data point
+     */
+    public void add(double x) {
+        if (x > max) {
+            max = x;
+        }
+
+        ++N;
+    }
+
+    /**
+     * Update the statistic with a range of an array.
+     *
+     * @param data   an array
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    @Override
+    public void addAll(double[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; ++i) {
+            if (data[i] > max) {
+                max = data[i];
             }
         }
 
-        N += data.length;
+        N += length;
+    }
+
+    @Override
+    public void merge(Max that) {
+        if (that.max > max) {
+            max = that.max;
+        }
+
+        N += that.N;
     }
 
     @Override
@@ -22,17 +22,18 @@
  */
 package com.numericalmethod.suanshu.stats.descriptive.rank;
 
-import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.MergeableStatistic;
 
 /**
  * The minimum of a sample is the smallest value in the sample.
+ * {@link #add(double)} and {@link #addAll(double[], int, int)} update the statistic in place without allocating any object.
  * <p/>
  * The R equivalent function is {@code min}.
  *
  * @author Haksun Li
  * @see <a href="http://en.wikipedia.org/wiki/Minimum">Wikipedia: Minimum</a>
  */
-public class Min implements Statistic {
+public class Min implements MergeableStatistic<Min> {
 
     private static final long serialVersionUID = 3022052545219102805L;
     private long N = 0;
@@ -66,13 +67,47 @@ public class Min implements Statistic {
 
     @Override
     public void addData(double... data) {
-        for (double d : data) {
-            if (d < min) {
-                min = d;
+        addAll(data, 0, data.length);
+    }
+
+    /**
+     * Update the statistic with a data point.
+     *
+     * @param x a data point
+     */
+    public void add(double x) {
+        if (x < min) {
+            min = x;
+        }
+
+        ++N;
+    }
+
+    /**
+     * Update the statistic with a range of an array.
+     *
+     * @param data   an array
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    @Override
+    public void addAll(double[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; ++i) {
+            if (data[i] < min) {
+                min = data[i];
             }
         }
 
-        N += data.length;
+        N += length;
+    }
+
+    @Override
+    public void merge(Min that) {
+        if (that.min < min) {
+            min = that.min;
+        }
+
+        N += that.N;
     }
 
     @Override
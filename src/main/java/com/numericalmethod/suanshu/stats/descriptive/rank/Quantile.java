@@ -39,6 +39,9 @@ import java.util.Arrays;
  * This class implements the 9 different quantile definitions in Hyndman 1996.
  * <p/>
  * The R equivalent function is {@code quantile}.
+ * <p/>
+ * To compute a single quantile of a sample without sorting it, use {@link #select(double[], double, Quantile.QuantileType)}.
+ * For a stream too large to keep in memory, use the approximate, mergeable {@link TDigest}.
  *
  * @author Haksun Li
  * @see
@@ -131,97 +134,128 @@ public class Quantile implements Statistic {
      * @return the value for the {@code q} quantile
      */
     public double value(double q) {
+        return value(sortedData, sortedData.length, q, type);
+    }
+
+    /**
+     * Compute the sample value corresponding to a quantile of data that are already sorted.
+     *
+     * @param sortedData the data sorted in ascending order
+     * @param N          the number of data points, stored from index 0
+     * @param q          a quantile
+     * @param type       the algorithm to compute <i>Q(q)</i>
+     * @return the value for the {@code q} quantile
+     */
+    public static double value(double[] sortedData, int N, double q, QuantileType type) {
+        SuanShuUtils.assertArgument(q >= 0 && q <= 1, "0 <= q <= 1; input = %f", q);
+
+        double m = m(type, q);
+        int j = j(q, m, N);
+        double g = g(q, m, j, N);
+        double gamma = gamma(type, g, j);
+
+        double Q = (1 - gamma) * sortedData[j > 0 ? j - 1 : 0];
+        Q += gamma * sortedData[j < N ? j : N - 1];
+        return Q;
+    }
+
+    /**
+     * Compute the sample value corresponding to a quantile without sorting the data.
+     * The (at most) two order statistics that the quantile definition interpolates are found by {@link QuickSelect}
+     * in expected <i>O(n)</i> time on a copy of the data.
+     * This is the preferred method when only one quantile of a sample is needed.
+     * When many quantiles of the same sample are needed, construct a {@code Quantile} instead,
+     * which sorts the data once.
+     *
+     * @param data a sample; it is not modified
+     * @param q    a quantile
+     * @param type the algorithm to compute <i>Q(q)</i>
+     * @return the value for the {@code q} quantile
+     */
+    public static double select(double[] data, double q, QuantileType type) {
         SuanShuUtils.assertArgument(q >= 0 && q <= 1, "0 <= q <= 1; input = %f", q);
+        SuanShuUtils.assertArgument(data.length > 0, "data must not be empty");
+
+        final int N = data.length;
+        double m = m(type, q);
+        int j = j(q, m, N);
+        double g = g(q, m, j, N);
+        double gamma = gamma(type, g, j);
+
+        double[] work = Arrays.copyOf(data, N);
+        int lo = j > 0 ? j - 1 : 0;
+        int hi = j < N ? j : N - 1;
+        double xlo = QuickSelect.select(work, lo);
+        double xhi = hi == lo ? xlo : QuickSelect.min(work, hi, N);// hi == lo + 1
 
-        int j = 0;
-        double m = 0, g = 0, gamma = 0, Q = 0;
+        return (1 - gamma) * xlo + gamma * xhi;
+    }
+
+    /**
+     * Compute the sample value corresponding to a quantile without sorting the data,
+     * using the default type: {@link QuantileType#APPROXIMATELY_MEDIAN_UNBIASED}.
+     *
+     * @param data a sample; it is not modified
+     * @param q    a quantile
+     * @return the value for the {@code q} quantile
+     * @see #select(double[], double, Quantile.QuantileType)
+     */
+    public static double select(double[] data, double q) {
+        return select(data, q, QuantileType.APPROXIMATELY_MEDIAN_UNBIASED);
+    }
+
+    private static double m(QuantileType type, double q) {
         switch (type) {
             case INVERSE_OF_EMPIRICAL_CDF:
-                m = 0;
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = isZero(g, 0) ? 0 : 1;
-                break;
             case INVERSE_OF_EMPIRICAL_CDF_WITH_AVERAGING_AT_DISCONTINUITIES:
-                m = 0;
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = isZero(g, 0) ? 0.5 : 1;
-                break;
-            case NEAREST_EVEN_ORDER_STATISTICS:
-                m = -0.5;
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = isZero(g, 0) ? j % 2 == 0 ? 0 : 1 : 1;//check whether j is even
-                break;
             case LINEAR_INTERPOLATION_OF_EMPIRICAL_CDF:
-                m = 0;//m(q, 0, 1);
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = g;
-                break;
+                return 0;//m(q, 0, 1);
+            case NEAREST_EVEN_ORDER_STATISTICS:
+                return -0.5;
             case MIDWAY_THROUGH_STEPS_OF_EMPIRICAL_CDF:
-                m = 0.5;//m(q, 0.5, 0.5);
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = g;
-                break;
+                return 0.5;//m(q, 0.5, 0.5);
             case MINITAB_SPSS:
-                m = q;//m(q, 0, 0);
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = g;
-                break;
+                return q;//m(q, 0, 0);
             case S:
-                m = 1 - q;//m(q, 1, 1);
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = g;
-                break;
+                return 1 - q;//m(q, 1, 1);
             case APPROXIMATELY_UNBIASED_IF_DATA_IS_NORMAL:
-                m = m(q, 3 / 8d, 3 / 8d);
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = g;
-                break;
+                return m(q, 3 / 8d, 3 / 8d);
             case APPROXIMATELY_MEDIAN_UNBIASED:
             default:
-                m = m(q, 1 / 3d, 1 / 3d);
-                j = j(q, m);
-                g = g(q, m, j);
-                gamma = g;
-                break;
+                return m(q, 1 / 3d, 1 / 3d);
         }
+    }
 
-        Q = Q(gamma, j);
-        return Q;
+    private static double gamma(QuantileType type, double g, int j) {
+        switch (type) {
+            case INVERSE_OF_EMPIRICAL_CDF:
+                return isZero(g, 0) ? 0 : 1;
+            case INVERSE_OF_EMPIRICAL_CDF_WITH_AVERAGING_AT_DISCONTINUITIES:
+                return isZero(g, 0) ? 0.5 : 1;
+            case NEAREST_EVEN_ORDER_STATISTICS:
+                return isZero(g, 0) ? j % 2 == 0 ? 0 : 1 : 1;//check whether j is even
+            default:
+                return g;
+        }
     }
 
-    private double m(double q, double a, double b) {
+    private static double m(double q, double a, double b) {
         double m = a + q * (1 - a - b);
         return m;
     }
 
-    private int j(double q, double m) {
-        int N = sortedData.length;
+    private static int j(double q, double m, int N) {
         int j = (int) Math.floor(q * N + m);//the integral part
         j = j > 0 ? j : 0;
         j = j <= N ? j : N;
         return j;
     }
 
-    private double g(double q, double m, double j) {
-        int N = sortedData.length;
+    private static double g(double q, double m, double j, int N) {
         double g = q * N + m - j;//the fractional part
         return g;
     }
 
-    private double Q(double gamma, int j) {
-        double stat = (1 - gamma) * sortedData[j > 0 ? j - 1 : 0];
-        stat += gamma * sortedData[j < sortedData.length ? j : sortedData.length - 1];
-        return stat;
-    }
-
     @Override
     public void addData(double... data) {
         int oldLenght = sortedData == null ? 0 : sortedData.length;
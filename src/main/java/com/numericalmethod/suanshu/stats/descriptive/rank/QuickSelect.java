@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rank;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.util.Arrays;
+
+/**
+ * Quickselect finds the <i>k</i>-th smallest element of an array in expected <i>O(n)</i> time
+ * by partitioning around a pivot and recursing only into the side that contains the <i>k</i>-th position.
+ * It is the method of choice when only one or two order statistics are needed, e.g., a single quantile,
+ * so that the <i>O(n log n)</i> full sort can be avoided.
+ * <p/>
+ * The pivot is the median of the first, middle and last elements.
+ * To guard against the quadratic worst case, the remaining range is sorted
+ * once the number of partitioning rounds exceeds twice the logarithm of the array length (introselect).
+ * <p/>
+ * The selection is done in place. On return, the array is partitioned so that
+ * every element before position <i>k</i> is no larger than {@code a[k]}
+ * and every element after position <i>k</i> is no smaller.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"C. A. R. Hoare, "Algorithm 65: Find," Communications of the ACM, 4(7), 321–322, 1961."
+ * <li>"D. R. Musser, "Introspective Sorting and Selection Algorithms," Software: Practice and Experience, 27(8), 983–993, 1997."
+ * <li><a href="http://en.wikipedia.org/wiki/Quickselect">Wikipedia: Quickselect</a>
+ * </ul>
+ */
+public class QuickSelect {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private QuickSelect() {
+        // utility class
+    }
+
+    /**
+     * Find the <i>k</i>-th smallest element (0-based) of an array.
+     * The array is partially reordered in place.
+     *
+     * @param a an array
+     * @param k the 0-based rank of the element to find
+     * @return the <i>k</i>-th smallest element
+     */
+    public static double select(double[] a, int k) {
+        return select(a, 0, a.length, k);
+    }
+
+    /**
+     * Find the <i>k</i>-th smallest element (0-based) of an array in the range [{@code from}, {@code to}).
+     * Only the elements in the range are reordered.
+     *
+     * @param a    an array
+     * @param from the index of the first element in the range, inclusive
+     * @param to   the index of the last element in the range, exclusive
+     * @param k    the index, in {@code [from, to)}, that the selected element is put at
+     * @return the ({@code k - from})-th smallest element in the range
+     */
+    public static double select(double[] a, int from, int to, int k) {
+        SuanShuUtils.assertArgument(0 <= from && from <= k && k < to && to <= a.length,
+                                    "0 <= from <= k < to <= a.length");
+
+        int lo = from;
+        int hi = to - 1;
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+
+        while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+            if (budget-- == 0) {
+                Arrays.sort(a, lo, hi + 1);
+                return a[k];
+            }
+
+            // median of three: a[lo] <= a[mid] <= a[hi]
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < a[lo]) {
+                swap(a, lo, mid);
+            }
+            if (a[hi] < a[lo]) {
+                swap(a, lo, hi);
+            }
+            if (a[hi] < a[mid]) {
+                swap(a, mid, hi);
+            }
+            double pivot = a[mid];
+
+            // Hoare partition; a[lo] and a[hi] are sentinels
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    ++i;
+                }
+                while (a[j] > pivot) {
+                    --j;
+                }
+                if (i <= j) {
+                    swap(a, i, j);
+                    ++i;
+                    --j;
+                }
+            }
+
+            // now a[lo..j] <= pivot, a[i..hi] >= pivot, and a[j+1..i-1] == pivot
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return a[k];
+            }
+        }
+
+        insertionSort(a, lo, hi);
+        return a[k];
+    }
+
+    /**
+     * Find the smallest element of an array in the range [{@code from}, {@code to}) and put it at {@code from}.
+     * This is the next order statistic after a call to {@link #select(double[], int, int, int)} with {@code k = from - 1}.
+     *
+     * @param a    an array
+     * @param from the index of the first element in the range, inclusive
+     * @param to   the index of the last element in the range, exclusive
+     * @return the smallest element in the range
+     */
+    public static double min(double[] a, int from, int to) {
+        SuanShuUtils.assertArgument(0 <= from && from < to && to <= a.length,
+                                    "0 <= from < to <= a.length");
+
+        int argmin = from;
+        for (int i = from + 1; i < to; ++i) {
+            if (a[i] < a[argmin]) {
+                argmin = i;
+            }
+        }
+
+        swap(a, from, argmin);
+        return a[from];
+    }
+
+    private static void insertionSort(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; ++i) {
+            double x = a[i];
+            int j = i - 1;
+            while (j >= lo && a[j] > x) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+}
@@ -23,7 +23,6 @@
 package com.numericalmethod.suanshu.stats.descriptive.rank;
 
 import com.numericalmethod.suanshu.misc.SuanShuUtils;
-import static com.numericalmethod.suanshu.number.DoubleUtils.shellsort;
 import static java.lang.Math.abs;
 
 import java.io.Serializable;
@@ -40,6 +39,10 @@ import java.util.Arrays;
  * Thus, in one way of treating tied data values, when there is an even number of copies of the same data value,
  * the statistical rank (being the median rank of the tied data) can end in ½ or another fraction.
  * <p/>
+ * The values are ordered by a radix sort, {@link #order(double[])}, in linear time,
+ * and the tied values are then found in one pass.
+ * To rank the columns of a matrix, see {@link com.numericalmethod.suanshu.stats.test.rank.RankTests#ranks}.
+ * <p/>
  * The R equivalent function is {@code rank}.
  *
  * @author Haksun Li
@@ -73,7 +76,7 @@ public class Rank implements Serializable{
      *
      * @param values    the values
      * @param threshold the tie threshold.
-     * If successive elements of the sorted array differ by less than the threshold, they are treated as equal.
+     * If successive elements of the sorted array differ by no more than the threshold, they are treated as equal.
      * We count the number of ties in each group.
      */
     public Rank(double[] values, double threshold) {
@@ -81,43 +84,36 @@ public class Rank implements Serializable{
         double ss = 0;
 
         final int n = values.length;
-        double[] copy = Arrays.copyOf(values, n);
-        int[] order = shellsort(copy);
-
-        double[] sa = new double[n];
-        sa[n - 1] = n - 1;
-        for (int i = 0; i < n - 1; ++i) {
-            if (abs(copy[i] - copy[i + 1]) > threshold) {//arr is sorted at this point
-                sa[i] = i;
-            } else {//ties found
-                int nties = 2;
-                /*
-                 * If successive elements of the sorted array differ by less than the threshold, they are treated as equal.
-                 * We count the number of ties in each group.
-                 */
-                for (int j = i + 1; (j < n - 1) && (abs(copy[j] - copy[j + 1]) < threshold); ++j) {
-                    nties++;
-                }
-
-                double rank4group = i + 0.5 * (nties - 1);
-                for (int k = 0; k < nties; ++k) {
-                    sa[i + k] = rank4group;
-                }
+        int[] order = order(values);
+
+        rank = new double[n];
+        for (int i = 0; i < n;) {
+            /*
+             * If successive elements of the sorted array differ by no more than the threshold, they are treated as equal.
+             * We count the number of ties in each group.
+             */
+            int j = i + 1;
+            while (j < n && abs(values[order[j]] - values[order[j - 1]]) <= threshold) {
+                ++j;
+            }
 
+            int nties = j - i;
+            double rank4group = i + 0.5 * (nties - 1) + 1;//'rank' counts from 1
+            for (int k = i; k < j; ++k) {
+                rank[order[k]] = rank4group;
+            }
+
+            if (nties > 1) {
                 double ka = (nties - 1) * nties;
                 ss += ka;
                 tt += ka * (nties + 1);
-                i += nties - 1;//the for loop will advance j by another 1
             }
+
+            i = j;
         }
 
         s = ss;
         t = tt;
-
-        rank = new double[n];
-        for (int i = 0; i < n; ++i) {
-            rank[order[i] - 1] = sa[i] + 1;//'rank' counts from 1
-        }
     }
 
     /**
@@ -169,4 +165,63 @@ public class Rank implements Serializable{
     public double s() {
         return s;
     }
+
+    /**
+     * Sort the indices of the values in ascending order of the values.
+     * Equal values keep their original order, i.e., the sort is stable.
+     * {@code -0.0} is ordered before {@code 0.0}, and {@code NaN} is ordered last.
+     * <p/>
+     * This is an LSD radix sort on the bits of the values in 8 passes of 8 bits,
+     * skipping the passes where all values share the same byte.
+     * It takes <i>O(n)</i> time and allocates no object per element.
+     *
+     * @param values the values
+     * @return the indices, counting from 0, of the values in ascending order
+     */
+    public static int[] order(double[] values) {
+        final int n = values.length;
+
+        long[] keys = new long[n];
+        int[] order = new int[n];
+        int[][] counts = new int[8][256];
+        for (int i = 0; i < n; ++i) {
+            long bits = Double.doubleToLongBits(values[i]);
+            keys[i] = bits ^ ((bits >> 63) | Long.MIN_VALUE);//the unsigned order of the keys is the order of the values
+            order[i] = i;
+            for (int b = 0; b < 8; ++b) {
+                ++counts[b][(int) (keys[i] >>> (b << 3)) & 0xff];
+            }
+        }
+
+        long[] keys1 = new long[n];
+        int[] order1 = new int[n];
+        for (int b = 0; b < 8; ++b) {
+            int[] count = counts[b];
+            if (n == 0 || count[(int) (keys[0] >>> (b << 3)) & 0xff] == n) {
+                continue;//all keys share this byte
+            }
+
+            for (int d = 0, sum = 0; d < 256; ++d) {//the starting positions
+                int c = count[d];
+                count[d] = sum;
+                sum += c;
+            }
+
+            final int shift = b << 3;
+            for (int i = 0; i < n; ++i) {
+                int position = count[(int) (keys[i] >>> shift) & 0xff]++;
+                keys1[position] = keys[i];
+                order1[position] = order[i];
+            }
+
+            long[] k = keys;
+            keys = keys1;
+            keys1 = k;
+            int[] o = order;
+            order = order1;
+            order1 = o;
+        }
+
+        return order;
+    }
 }
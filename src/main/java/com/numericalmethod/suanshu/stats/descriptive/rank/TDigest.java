@@ -0,0 +1,443 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rank;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.stats.descriptive.MergeableStatistic;
+import java.util.Arrays;
+
+/**
+ * A t-digest is a streaming, mergeable sketch of a distribution that estimates quantiles in bounded memory.
+ * The data are summarized by a sorted list of centroids, each a (mean, weight) pair.
+ * The centroids near the median are allowed to be large while those in the tails are kept small,
+ * so that extreme quantiles, e.g., 0.001 or 0.999, are estimated much more accurately than by a uniform histogram.
+ * <p/>
+ * This is the merging variant with the scale function
+ * \[
+ * k(q) = \frac{\delta}{2\pi} \sin^{-1}(2q - 1)
+ * \]
+ * where <i>&delta;</i> is the compression. A centroid may span at most one unit of <i>k</i>.
+ * Hence the number of centroids is at most about <i>&delta;</i>, independent of the number of data points,
+ * and the memory is <i>O(&delta;)</i>.
+ * Incoming data points are buffered and merged into the centroids in batches.
+ * <p/>
+ * Rank error: a centroid at quantile <i>q</i> covers a range of quantiles of width at most
+ * \[
+ * \frac{2\pi}{\delta}\sqrt{q(1-q)}
+ * \]
+ * The estimate of the <i>q</i>-quantile interpolates between adjacent centroids,
+ * so its rank error is within this width, e.g., about 0.016 at the median and 0.001 at the 0.999 quantile
+ * for the default <i>&delta; = 200</i>.
+ * In practice, the error is an order of magnitude smaller than the bound.
+ * The minimum and the maximum are exact.
+ * <p/>
+ * Two digests built from different parts of a data set can be combined by {@link #merge(TDigest)};
+ * the result has the same accuracy guarantee as a digest built from the whole data set.
+ * {@link #add(double)} does not allocate any object.
+ * <p/>
+ * For an exact quantile, see {@link Quantile}.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"T. Dunning, and O. Ertl, "Computing Extremely Accurate Quantiles Using t-Digests," arXiv:1902.04023, 2019."
+ * <li><a href="https://github.com/tdunning/t-digest">t-digest</a>
+ * </ul>
+ */
+public class TDigest implements MergeableStatistic<TDigest> {
+
+    private static final long serialVersionUID = 4583601538622301427L;
+    /**
+     * the default compression
+     */
+    public static final double DEFAULT_COMPRESSION = 200;
+    /** the compression <i>&delta;</i> */
+    public final double compression;
+    /** the centroids, sorted by mean */
+    private double[] mean;
+    private double[] weight;
+    private int nCentroids = 0;
+    /** the data points not yet merged into the centroids */
+    private final double[] buffer;
+    private int nBuffer = 0;
+    /** work space for merging */
+    private double[] mergedMean;
+    private double[] mergedWeight;
+    private long N = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Construct an empty t-digest.
+     *
+     * @param compression the compression <i>&delta;</i>;
+     *                    the larger it is, the more accurate the estimates and the more memory used
+     */
+    public TDigest(double compression) {
+        SuanShuUtils.assertArgument(compression >= 10, "compression must be at least 10");
+
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) + 10;
+        this.buffer = new double[5 * capacity];
+        this.mean = new double[capacity];
+        this.weight = new double[capacity];
+        this.mergedMean = new double[capacity + buffer.length];
+        this.mergedWeight = new double[capacity + buffer.length];
+    }
+
+    /**
+     * Construct an empty t-digest with the {@link #DEFAULT_COMPRESSION}.
+     */
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Construct a t-digest with the {@link #DEFAULT_COMPRESSION},
+     * initialized with a sample.
+     *
+     * @param data a sample
+     */
+    public TDigest(double[] data) {
+        this();
+        addData(data);
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param that a t-digest
+     */
+    public TDigest(TDigest that) {
+        this.compression = that.compression;
+        this.mean = Arrays.copyOf(that.mean, that.mean.length);
+        this.weight = Arrays.copyOf(that.weight, that.weight.length);
+        this.nCentroids = that.nCentroids;
+        this.buffer = Arrays.copyOf(that.buffer, that.buffer.length);
+        this.nBuffer = that.nBuffer;
+        this.mergedMean = new double[that.mergedMean.length];
+        this.mergedWeight = new double[that.mergedWeight.length];
+        this.N = that.N;
+        this.min = that.min;
+        this.max = that.max;
+    }
+
+    @Override
+    public void addData(double... data) {
+        addAll(data, 0, data.length);
+    }
+
+    /**
+     * Update the digest with a data point.
+     *
+     * @param x a data point
+     */
+    public void add(double x) {
+        if (nBuffer == buffer.length) {
+            flush();
+        }
+
+        buffer[nBuffer++] = x;
+        if (x < min) {
+            min = x;
+        }
+        if (x > max) {
+            max = x;
+        }
+        ++N;
+    }
+
+    /**
+     * Update the digest with a range of an array.
+     *
+     * @param data   an array
+     * @param offset the index of the first data point
+     * @param length the number of data points
+     */
+    @Override
+    public void addAll(double[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; ++i) {
+            add(data[i]);
+        }
+    }
+
+    @Override
+    public void merge(TDigest that) {
+        if (that.N == 0) {
+            return;
+        }
+
+        TDigest other = that;
+        if (that.nBuffer > 0) {
+            other = new TDigest(that);// leave that unmodified
+            other.flush();
+        }
+
+        flush();
+        ensureCapacity(nCentroids + other.nCentroids);
+        mergeCentroids(other.mean, other.weight, other.nCentroids, N + other.N);
+
+        N += other.N;
+        if (other.min < min) {
+            min = other.min;
+        }
+        if (other.max > max) {
+            max = other.max;
+        }
+    }
+
+    /**
+     * Estimate the sample value corresponding to a quantile.
+     *
+     * @param q a quantile
+     * @return the estimated value for the {@code q} quantile; {@code NaN} if the digest is empty
+     */
+    public double value(double q) {
+        SuanShuUtils.assertArgument(q >= 0 && q <= 1, "0 <= q <= 1; input = %f", q);
+
+        if (N == 0) {
+            return Double.NaN;
+        }
+
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+
+        flush();
+
+        final double target = q * N;
+
+        // left of the first centroid center: between min and the first centroid
+        double halfFirst = weight[0] / 2;
+        if (target < halfFirst) {
+            return min + (mean[0] - min) * target / halfFirst;
+        }
+
+        // centroid i is centered at cumulative weight c_i = (sum of weights before i) + w_i / 2
+        double c = halfFirst;
+        for (int i = 0; i < nCentroids - 1; ++i) {
+            double gap = (weight[i] + weight[i + 1]) / 2;
+            if (target < c + gap) {
+                double t = (target - c) / gap;
+                return mean[i] + t * (mean[i + 1] - mean[i]);
+            }
+            c += gap;
+        }
+
+        // right of the last centroid center: between the last centroid and max
+        double halfLast = weight[nCentroids - 1] / 2;
+        double t = (target - c) / halfLast;
+        return mean[nCentroids - 1] + t * (max - mean[nCentroids - 1]);
+    }
+
+    /**
+     * Estimate the fraction of the data less than or equal to a value, i.e., the empirical cdf.
+     *
+     * @param x a value
+     * @return the estimated empirical cdf at {@code x}; {@code NaN} if the digest is empty
+     */
+    public double cdf(double x) {
+        if (N == 0) {
+            return Double.NaN;
+        }
+        if (x < min) {
+            return 0;
+        }
+        if (x >= max) {
+            return 1;
+        }
+
+        flush();
+
+        if (x < mean[0]) {
+            return weight[0] / 2 * (x - min) / (mean[0] - min) / N;
+        }
+
+        double c = weight[0] / 2;
+        for (int i = 0; i < nCentroids - 1; ++i) {
+            double gap = (weight[i] + weight[i + 1]) / 2;
+            if (x < mean[i + 1]) {
+                double dx = mean[i + 1] - mean[i];
+                return (dx > 0 ? c + gap * (x - mean[i]) / dx : c + gap) / N;
+            }
+            c += gap;
+        }
+
+        double halfLast = weight[nCentroids - 1] / 2;
+        double dx = max - mean[nCentroids - 1];
+        return (c + halfLast * (x - mean[nCentroids - 1]) / dx) / N;
+    }
+
+    /**
+     * Get the number of centroids, after merging the buffered data points.
+     * This is bounded by about the compression <i>&delta;</i>, regardless of {@link #N()}.
+     *
+     * @return the number of centroids
+     */
+    public int nCentroids() {
+        flush();
+        return nCentroids;
+    }
+
+    /**
+     * Get the minimum of the data.
+     *
+     * @return the minimum
+     */
+    public double min() {
+        return N > 0 ? min : Double.NaN;
+    }
+
+    /**
+     * Get the maximum of the data.
+     *
+     * @return the maximum
+     */
+    public double max() {
+        return N > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * A t-digest does not have a single value;
+     * use {@link #value(double)} instead.
+     *
+     * @return not supported
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public double value() {
+        throw new UnsupportedOperationException("you must supply a quantile value q");
+    }
+
+    @Override
+    public long N() {
+        return N;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("t-digest: compression = %f; centroids = %d; N: %d",
+                             compression,
+                             nCentroids(),
+                             N);
+    }
+
+    /**
+     * Merge the buffered data points into the centroids.
+     */
+    private void flush() {
+        if (nBuffer == 0) {
+            return;
+        }
+
+        Arrays.sort(buffer, 0, nBuffer);
+        mergeCentroids(buffer, null, nBuffer, N);
+        nBuffer = 0;
+    }
+
+    /**
+     * Merge a sorted list of weighted points with the centroids and compress the result.
+     *
+     * @param m     the sorted means
+     * @param w     the weights; {@code null} if all the weights are 1
+     * @param n     the number of points
+     * @param total the total weight after merging
+     */
+    private void mergeCentroids(double[] m, double[] w, int n, double total) {
+        // merge the two sorted lists
+        int size = 0;
+        for (int i = 0, j = 0; i < nCentroids || j < n;) {
+            if (j == n || (i < nCentroids && mean[i] <= m[j])) {
+                mergedMean[size] = mean[i];
+                mergedWeight[size] = weight[i];
+                ++i;
+            } else {
+                mergedMean[size] = m[j];
+                mergedWeight[size] = w == null ? 1 : w[j];
+                ++j;
+            }
+            ++size;
+        }
+
+        // sweep from left to right; a centroid may span at most one unit of k
+        int count = 0;
+        double curMean = mergedMean[0];
+        double curWeight = mergedWeight[0];
+        double soFar = 0;
+        double qLimit = qLimit(0);
+        for (int i = 1; i < size; ++i) {
+            double q = (soFar + curWeight + mergedWeight[i]) / total;
+            if (q <= qLimit) {
+                curWeight += mergedWeight[i];
+                curMean += (mergedMean[i] - curMean) * mergedWeight[i] / curWeight;
+            } else {
+                mean[count] = curMean;
+                weight[count] = curWeight;
+                ++count;
+
+                soFar += curWeight;
+                qLimit = qLimit(soFar / total);
+                curMean = mergedMean[i];
+                curWeight = mergedWeight[i];
+            }
+        }
+        mean[count] = curMean;
+        weight[count] = curWeight;
+        nCentroids = count + 1;
+    }
+
+    /**
+     * Compute the largest quantile that a centroid starting at quantile {@code q0} may reach,
+     * i.e., <i>k<sup>-1</sup>(k(q0) + 1)</i>.
+     *
+     * @param q0 the quantile at the left edge of a centroid
+     * @return the quantile limit of the centroid
+     */
+    private double qLimit(double q0) {
+        double k = compression / (2 * Math.PI) * Math.asin(2 * q0 - 1) + 1;
+        double kMax = compression / 4;
+        if (k >= kMax) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    /**
+     * Make sure the centroid arrays can hold the merged centroids of two digests.
+     *
+     * @param n the number of centroids before compression
+     */
+    private void ensureCapacity(int n) {
+        if (mean.length < n) {
+            mean = Arrays.copyOf(mean, n);
+            weight = Arrays.copyOf(weight, n);
+        }
+        if (mergedMean.length < n) {
+            mergedMean = new double[n];
+            mergedWeight = new double[n];
+        }
+    }
+}
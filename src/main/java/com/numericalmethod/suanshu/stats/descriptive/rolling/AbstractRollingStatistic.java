@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+import com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles.Filter;
+
+/**
+ * This is the skeleton of a rolling statistic that can also be applied to a whole series as a {@link Filter}.
+ *
+ * @author Haksun Li
+ */
+public abstract class AbstractRollingStatistic implements RollingStatistic, Filter {
+
+    private static final long serialVersionUID = 3396785183707213418L;
+
+    /**
+     * Compute the rolling statistic over a series.
+     * The <i>i</i>-th output is the statistic of the window ending at the <i>i</i>-th input;
+     * the first {@code window() - 1} outputs, which do not have a full window, are {@code NaN}.
+     * This is the same alignment as {@link com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles.MovingAverage.Side#PAST}.
+     * <p/>
+     * This operator is {@link #reset()} before the computation.
+     *
+     * @param xt a series
+     * @return the rolling statistic
+     */
+    @Override
+    public double[] transform(double[] xt) {
+        reset();
+
+        double[] result = new double[xt.length];
+        for (int i = 0; i < xt.length; ++i) {
+            add(xt[i]);
+            result[i] = size() == window() ? value() : Double.NaN;
+        }
+
+        return result;
+    }
+
+    /**
+     * Check whether a value cannot be subtracted from a running sum, i.e., it is {@code NaN} or infinite.
+     *
+     * @param x a value
+     * @return {@code true} if {@code x} is {@code NaN} or infinite
+     */
+    static boolean isNonFinite(double x) {
+        return Double.isNaN(x) || Double.isInfinite(x);
+    }
+}
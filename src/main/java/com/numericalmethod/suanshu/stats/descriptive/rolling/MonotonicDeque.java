@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.io.Serializable;
+
+/**
+ * A monotonic deque keeps, for a sliding window, only those data points that can still become the window extremum,
+ * i.e., for the maximum, the data points not followed by a bigger or equal one.
+ * Their values are therefore monotone from the front (the extremum) to the back.
+ * Each data point is pushed and popped at most once, so an update is <i>O(1)</i> amortized.
+ * A {@code NaN} counts as the most extreme value: it dominates every earlier data point and is dominated by none
+ * but a later {@code NaN}, so the window extremum is {@code NaN} exactly while a {@code NaN} is in the window,
+ * wherever it is.
+ *
+ * @author Haksun Li
+ * @see "D. Lemire, "Streaming Maximum-Minimum Filter Using No More than Three Comparisons per Element," Nordic Journal of Computing, 13(4), 328–339, 2006."
+ */
+class MonotonicDeque implements Serializable {
+
+    private static final long serialVersionUID = 5028165542317766950L;
+    private final boolean isMax;
+    private final int window;
+    /** the values and their sequence numbers in a circular array */
+    private final double[] values;
+    private final long[] seqs;
+    private int front = 0;
+    private int count = 0;
+    /** the sequence number of the next data point */
+    private long seq = 0;
+
+    MonotonicDeque(int window, boolean isMax) {
+        SuanShuUtils.assertArgument(window > 0, "window must be positive");
+        this.window = window;
+        this.isMax = isMax;
+        this.values = new double[window];
+        this.seqs = new long[window];
+    }
+
+    void add(double x) {
+        // pop from the back the points that x dominates
+        while (count > 0) {
+            double back = values[index(count - 1)];
+            if (Double.isNaN(x) || !Double.isNaN(back) && (isMax ? back <= x : back >= x)) {
+                --count;
+            } else {
+                break;
+            }
+        }
+
+        // pop from the front the point that leaves the window
+        if (count > 0 && seqs[front] <= seq - window) {
+            front = index(1);
+            --count;
+        }
+
+        int k = index(count);
+        values[k] = x;
+        seqs[k] = seq++;
+        ++count;
+    }
+
+    double value() {
+        return count > 0 ? values[front] : Double.NaN;
+    }
+
+    /**
+     * Get the number of data points in the window.
+     *
+     * @return the number of data points in the window
+     */
+    int size() {
+        return (int) Math.min(seq, window);
+    }
+
+    int window() {
+        return window;
+    }
+
+    void reset() {
+        front = 0;
+        count = 0;
+        seq = 0;
+    }
+
+    private int index(int i) {
+        int k = front + i;
+        return k < window ? k : k - window;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.io.Serializable;
+
+/**
+ * A ring buffer is a fixed-capacity first-in-first-out queue of {@code double}s stored in a circular array.
+ * Once full, each new value overwrites the oldest one.
+ * No object is allocated after construction.
+ *
+ * @author Haksun Li
+ * @see <a href="http://en.wikipedia.org/wiki/Circular_buffer">Wikipedia: Circular buffer</a>
+ */
+public class RingBuffer implements Serializable {
+
+    private static final long serialVersionUID = -6251570893218440391L;
+    private final double[] data;
+    /** the index of the oldest value */
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * Construct an empty ring buffer.
+     *
+     * @param capacity the maximum number of values held
+     */
+    public RingBuffer(int capacity) {
+        SuanShuUtils.assertArgument(capacity > 0, "capacity must be positive");
+        this.data = new double[capacity];
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param that a ring buffer
+     */
+    public RingBuffer(RingBuffer that) {
+        this.data = that.data.clone();
+        this.head = that.head;
+        this.size = that.size;
+    }
+
+    /**
+     * Append a value. If the buffer is full, the oldest value is evicted.
+     * Check {@link #isFull()} before the call to know whether the returned value is an evicted one.
+     *
+     * @param x a value
+     * @return the evicted value if the buffer was full; {@code Double.NaN} otherwise
+     */
+    public double add(double x) {
+        if (size < data.length) {
+            int tail = head + size;
+            data[tail < data.length ? tail : tail - data.length] = x;
+            ++size;
+            return Double.NaN;
+        }
+
+        double evicted = data[head];
+        data[head] = x;
+        if (++head == data.length) {
+            head = 0;
+        }
+        return evicted;
+    }
+
+    /**
+     * Get the <i>i</i>-th oldest value.
+     *
+     * @param i an index, from 0 (the oldest) to {@code size() - 1} (the newest)
+     * @return the <i>i</i>-th oldest value
+     */
+    public double get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(String.format("index %d out of range [0, %d)", i, size));
+        }
+
+        int k = head + i;
+        return data[k < data.length ? k : k - data.length];
+    }
+
+    /**
+     * Get the oldest value.
+     *
+     * @return the oldest value
+     */
+    public double oldest() {
+        return get(0);
+    }
+
+    /**
+     * Get the newest value.
+     *
+     * @return the newest value
+     */
+    public double newest() {
+        return get(size - 1);
+    }
+
+    /**
+     * Get the number of values held.
+     *
+     * @return the number of values held
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the maximum number of values held.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return data.length;
+    }
+
+    /**
+     * Check whether the buffer holds {@link #capacity()} values.
+     *
+     * @return {@code true} if the next {@link #add(double)} evicts a value
+     */
+    public boolean isFull() {
+        return size == data.length;
+    }
+
+    /**
+     * Remove all values.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Copy the values, from the oldest to the newest, into an array.
+     *
+     * @return the values held
+     */
+    public double[] toArray() {
+        double[] result = new double[size];
+        int n1 = Math.min(size, data.length - head);
+        System.arraycopy(data, head, result, 0, n1);
+        System.arraycopy(data, 0, result, n1, size - n1);
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+/**
+ * The rolling correlation is the Pearson correlation of the pairs of data points in a sliding window.
+ * It is updated in <i>O(1)</i> per pair in the same way as {@link RollingCovariance}.
+ *
+ * @author Haksun Li
+ */
+public class RollingCorrelation extends RollingCovariance {
+
+    private static final long serialVersionUID = 8911843590251409416L;
+
+    /**
+     * Construct a rolling correlation.
+     *
+     * @param window the window length
+     */
+    public RollingCorrelation(int window) {
+        super(window);
+    }
+
+    /**
+     * Get the Pearson correlation of the window.
+     *
+     * @return the correlation of the window; {@code NaN} if there are fewer than 2 pairs or a series is constant
+     */
+    @Override
+    public double value() {
+        return correlation();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.io.Serializable;
+
+/**
+ * The rolling covariance is the unbiased sample covariance of the pairs of data points in a sliding window.
+ * Each update is <i>O(1)</i>: the evicted pair is removed from and the new pair added to
+ * the means and the co-moments by Welford's updates.
+ * The sums are recomputed from the window by the two-pass algorithm once every {@link #window()} evictions,
+ * which costs <i>O(1)</i> amortized, so that the rounding errors do not accumulate over a long stream.
+ * They are also recomputed when a {@code NaN} or an infinity is evicted, which the updates cannot remove;
+ * the statistics are {@code NaN} only while such a value is in the window.
+ * The variances are tracked too, so that the rolling correlation is available at no extra cost.
+ *
+ * @author Haksun Li
+ * @see <a href="http://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Covariance">Wikipedia: Algorithms for calculating variance - Covariance</a>
+ */
+public class RollingCovariance implements Serializable {
+
+    private static final long serialVersionUID = -2117838519390473582L;
+    private final RingBuffer xs;
+    private final RingBuffer ys;
+    private double meanX = 0;
+    private double meanY = 0;
+    /** the sums of squared deviations and the co-moment */
+    private double Mxx = 0;
+    private double Myy = 0;
+    private double Mxy = 0;
+    private int nEvictions = 0;
+
+    /**
+     * Construct a rolling covariance.
+     *
+     * @param window the window length
+     */
+    public RollingCovariance(int window) {
+        this.xs = new RingBuffer(window);
+        this.ys = new RingBuffer(window);
+    }
+
+    /**
+     * Append a pair of data points to the window, evicting the oldest pair if the window is full.
+     *
+     * @param x a data point of the first series
+     * @param y a data point of the second series
+     */
+    public void add(double x, double y) {
+        if (xs.isFull()) {
+            double oldX = xs.add(x);
+            double oldY = ys.add(y);
+            if (AbstractRollingStatistic.isNonFinite(oldX) || AbstractRollingStatistic.isNonFinite(oldY)
+                    || ++nEvictions == xs.capacity()) {
+                refresh();
+                return;
+            }
+
+            int n = xs.size();
+            if (n == 1) {
+                meanX = x;
+                meanY = y;
+                Mxx = Myy = Mxy = 0;
+                return;
+            }
+
+            // remove (oldX, oldY) from n pairs
+            double dx = oldX - meanX;
+            double dy = oldY - meanY;
+            meanX -= dx / (n - 1);
+            meanY -= dy / (n - 1);
+            Mxx -= dx * (oldX - meanX);
+            Myy -= dy * (oldY - meanY);
+            Mxy -= dx * (oldY - meanY);
+
+            // add (x, y) to n - 1 pairs
+            dx = x - meanX;
+            dy = y - meanY;
+            meanX += dx / n;
+            meanY += dy / n;
+            Mxx += dx * (x - meanX);
+            Myy += dy * (y - meanY);
+            Mxy += dx * (y - meanY);
+        } else {
+            xs.add(x);
+            ys.add(y);
+            int n = xs.size();
+            double dx = x - meanX;
+            double dy = y - meanY;
+            meanX += dx / n;
+            meanY += dy / n;
+            Mxx += dx * (x - meanX);
+            Myy += dy * (y - meanY);
+            Mxy += dx * (y - meanY);
+        }
+    }
+
+    private void refresh() {
+        nEvictions = 0;
+        int n = xs.size();
+
+        double sumX = 0, sumY = 0;
+        for (int i = 0; i < n; ++i) {
+            sumX += xs.get(i);
+            sumY += ys.get(i);
+        }
+        meanX = sumX / n;
+        meanY = sumY / n;
+
+        Mxx = Myy = Mxy = 0;
+        for (int i = 0; i < n; ++i) {
+            double dx = xs.get(i) - meanX;
+            double dy = ys.get(i) - meanY;
+            Mxx += dx * dx;
+            Myy += dy * dy;
+            Mxy += dx * dy;
+        }
+    }
+
+    /**
+     * Get the unbiased sample covariance of the window.
+     *
+     * @return the covariance of the window; {@code NaN} if there are fewer than 2 pairs
+     */
+    public double value() {
+        return covariance();
+    }
+
+    /**
+     * Get the unbiased sample covariance of the window.
+     *
+     * @return the covariance of the window; {@code NaN} if there are fewer than 2 pairs
+     */
+    public double covariance() {
+        int n = xs.size();
+        return n > 1 ? Mxy / (n - 1) : Double.NaN;
+    }
+
+    /**
+     * Get the Pearson correlation of the window.
+     *
+     * @return the correlation of the window; {@code NaN} if there are fewer than 2 pairs or a series is constant
+     */
+    public double correlation() {
+        if (xs.size() < 2 || Mxx <= 0 || Myy <= 0) {
+            return Double.NaN;
+        }
+
+        double r = Mxy / Math.sqrt(Mxx * Myy);
+        return Math.max(-1, Math.min(1, r));
+    }
+
+    /**
+     * Get the unbiased sample variance of the first series in the window.
+     *
+     * @return the variance of the first series
+     */
+    public double varianceX() {
+        int n = xs.size();
+        return n > 1 ? Math.max(Mxx, 0) / (n - 1) : Double.NaN;
+    }
+
+    /**
+     * Get the unbiased sample variance of the second series in the window.
+     *
+     * @return the variance of the second series
+     */
+    public double varianceY() {
+        int n = ys.size();
+        return n > 1 ? Math.max(Myy, 0) / (n - 1) : Double.NaN;
+    }
+
+    /**
+     * Get the mean of the first series in the window.
+     *
+     * @return the mean of the first series
+     */
+    public double meanX() {
+        return xs.size() > 0 ? meanX : Double.NaN;
+    }
+
+    /**
+     * Get the mean of the second series in the window.
+     *
+     * @return the mean of the second series
+     */
+    public double meanY() {
+        return ys.size() > 0 ? meanY : Double.NaN;
+    }
+
+    /**
+     * Get the number of pairs in the window.
+     *
+     * @return the number of pairs in the window
+     */
+    public int size() {
+        return xs.size();
+    }
+
+    /**
+     * Get the window length.
+     *
+     * @return the window length
+     */
+    public int window() {
+        return xs.capacity();
+    }
+
+    /**
+     * Remove all data points from the window.
+     */
+    public void reset() {
+        xs.clear();
+        ys.clear();
+        meanX = meanY = 0;
+        Mxx = Myy = Mxy = 0;
+        nEvictions = 0;
+    }
+
+    /**
+     * Compute the rolling statistic, {@link #value()}, over a pair of series.
+     * The <i>i</i>-th output is the statistic of the window ending at the <i>i</i>-th pair;
+     * the first {@code window() - 1} outputs are {@code NaN}.
+     * This operator is {@link #reset()} before the computation.
+     *
+     * @param x the first series
+     * @param y the second series
+     * @return the rolling statistic
+     */
+    public double[] transform(double[] x, double[] y) {
+        SuanShuUtils.assertArgument(x.length == y.length, "the series must have the same length");
+
+        reset();
+
+        double[] result = new double[x.length];
+        for (int i = 0; i < x.length; ++i) {
+            add(x[i], y[i]);
+            result[i] = size() == window() ? value() : Double.NaN;
+        }
+
+        return result;
+    }
+}
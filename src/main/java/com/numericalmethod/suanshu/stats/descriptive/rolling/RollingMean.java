@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+/**
+ * The rolling mean is the arithmetic average of the data points in a sliding window.
+ * Each update is <i>O(1)</i>: the new data point is added to and the evicted one subtracted from a running sum.
+ * To keep the rounding errors of the running sum from accumulating, the sum is recomputed from the window
+ * once every {@link #window()} evictions, which costs <i>O(1)</i> amortized.
+ * The sum is also recomputed when a {@code NaN} or an infinity is evicted, as the running sum cannot subtract it;
+ * the mean of a window is {@code NaN} or infinite only while such a value is in the window.
+ * <p/>
+ * As a {@link com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles.Filter}, this is the same as
+ * {@link com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles.MovingAverage} with equal weights
+ * and {@link com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles.MovingAverage.Side#PAST},
+ * but in <i>O(n)</i> instead of <i>O(n * window)</i> time.
+ *
+ * @author Haksun Li
+ */
+public class RollingMean extends AbstractRollingStatistic {
+
+    private static final long serialVersionUID = -4283164218466155416L;
+    private final RingBuffer buffer;
+    private double sum = 0;
+    private int nEvictions = 0;
+
+    /**
+     * Construct a rolling mean.
+     *
+     * @param window the window length
+     */
+    public RollingMean(int window) {
+        this.buffer = new RingBuffer(window);
+    }
+
+    @Override
+    public void add(double x) {
+        if (buffer.isFull()) {
+            double old = buffer.add(x);
+            if (isNonFinite(old) || ++nEvictions == buffer.capacity()) {
+                refresh();
+            } else {
+                sum += x - old;
+            }
+        } else {
+            buffer.add(x);
+            sum += x;
+        }
+    }
+
+    private void refresh() {
+        nEvictions = 0;
+        sum = 0;
+        for (int i = 0; i < buffer.size(); ++i) {
+            sum += buffer.get(i);
+        }
+    }
+
+    @Override
+    public double value() {
+        return buffer.size() > 0 ? sum / buffer.size() : Double.NaN;
+    }
+
+    @Override
+    public int size() {
+        return buffer.size();
+    }
+
+    @Override
+    public int window() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void reset() {
+        buffer.clear();
+        sum = 0;
+        nEvictions = 0;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+/**
+ * The rolling minimum is the minimum of the data points in a sliding window.
+ * A monotonic deque keeps only the data points not followed by a smaller or equal one,
+ * so that each update is <i>O(1)</i> amortized and the window minimum is at the front.
+ * As for {@link RollingMean}, the minimum of a window is {@code NaN} while a {@code NaN} is in the window,
+ * wherever it is in the window.
+ *
+ * @author Haksun Li
+ * @see "D. Lemire, "Streaming Maximum-Minimum Filter Using No More than Three Comparisons per Element," Nordic Journal of Computing, 13(4), 328–339, 2006."
+ */
+public class RollingMin extends AbstractRollingStatistic {
+
+    private static final long serialVersionUID = 6692040387521905534L;
+    private final MonotonicDeque deque;
+
+    /**
+     * Construct a rolling minimum.
+     *
+     * @param window the window length
+     */
+    public RollingMin(int window) {
+        this.deque = new MonotonicDeque(window, false);
+    }
+
+    @Override
+    public void add(double x) {
+        deque.add(x);
+    }
+
+    @Override
+    public double value() {
+        return deque.value();
+    }
+
+    @Override
+    public int size() {
+        return deque.size();
+    }
+
+    @Override
+    public int window() {
+        return deque.window();
+    }
+
+    @Override
+    public void reset() {
+        deque.reset();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Quantile;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Quantile.QuantileType;
+import java.util.Arrays;
+
+/**
+ * The rolling quantile is a quantile of the data points in a sliding window,
+ * using any of the definitions in {@link Quantile}.
+ * The window is kept both in arrival order, to know which data point to evict, and in sorted order.
+ * An update finds the positions of the evicted and the new data points by binary search in <i>O(log window)</i>
+ * and shifts the elements in between with a single {@code System.arraycopy},
+ * which is a fast memory move for the window lengths used in practice.
+ * A quantile query is then <i>O(1)</i>; any number of quantiles can be queried from the same window.
+ *
+ * @author Haksun Li
+ */
+public class RollingQuantile extends AbstractRollingStatistic {
+
+    private static final long serialVersionUID = 5598409219766926620L;
+    /** the quantile reported by {@link #value()} */
+    public final double q;
+    private final QuantileType type;
+    private final RingBuffer buffer;
+    private final double[] sorted;
+
+    /**
+     * Construct a rolling quantile.
+     *
+     * @param window the window length
+     * @param q      the quantile reported by {@link #value()}
+     * @param type   the algorithm to compute <i>Q(q)</i>
+     */
+    public RollingQuantile(int window, double q, QuantileType type) {
+        SuanShuUtils.assertArgument(q >= 0 && q <= 1, "0 <= q <= 1");
+
+        this.q = q;
+        this.type = type;
+        this.buffer = new RingBuffer(window);
+        this.sorted = new double[window];
+    }
+
+    /**
+     * Construct a rolling quantile using the default type:
+     * {@link QuantileType#APPROXIMATELY_MEDIAN_UNBIASED}.
+     *
+     * @param window the window length
+     * @param q      the quantile reported by {@link #value()}
+     */
+    public RollingQuantile(int window, double q) {
+        this(window, q, QuantileType.APPROXIMATELY_MEDIAN_UNBIASED);
+    }
+
+    @Override
+    public void add(double x) {
+        int n = buffer.size();
+        if (buffer.isFull()) {
+            double old = buffer.add(x);
+            int i = Arrays.binarySearch(sorted, 0, n, old);// any copy of old will do
+            int j = insertionPoint(x, n);
+            if (j > i) {
+                // shift (i, j) left by one; x goes to j - 1
+                System.arraycopy(sorted, i + 1, sorted, i, j - 1 - i);
+                sorted[j - 1] = x;
+            } else {
+                // shift [j, i) right by one; x goes to j
+                System.arraycopy(sorted, j, sorted, j + 1, i - j);
+                sorted[j] = x;
+            }
+        } else {
+            buffer.add(x);
+            int j = insertionPoint(x, n);
+            System.arraycopy(sorted, j, sorted, j + 1, n - j);
+            sorted[j] = x;
+        }
+    }
+
+    /**
+     * Find the index of the first element in {@code sorted[0, n)} bigger than {@code x}, in the order of {@link Double#compare}.
+     */
+    private int insertionPoint(double x, int n) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Double.compare(sorted[mid], x) <= 0) {// the same order as Arrays.binarySearch, for -0.0 and NaN
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public double value() {
+        return value(q);
+    }
+
+    /**
+     * Get a quantile of the window.
+     *
+     * @param q a quantile
+     * @return the value for the {@code q} quantile of the window; {@code NaN} if the window is empty
+     */
+    public double value(double q) {
+        int n = buffer.size();
+        return n > 0 ? Quantile.value(sorted, n, q, type) : Double.NaN;
+    }
+
+    @Override
+    public int size() {
+        return buffer.size();
+    }
+
+    @Override
+    public int window() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void reset() {
+        buffer.clear();
+    }
+}
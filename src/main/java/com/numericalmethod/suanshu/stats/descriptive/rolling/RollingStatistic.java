@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+import java.io.Serializable;
+
+/**
+ * A rolling statistic summarizes the most recent data points of a stream, i.e., those in a sliding window of a fixed length.
+ * It is a push-based operator: each {@link #add(double)} appends a data point and evicts the oldest one once the window is full,
+ * updating the statistic incrementally instead of recomputing it over the whole window.
+ *
+ * @author Haksun Li
+ * @see <a href="http://en.wikipedia.org/wiki/Moving_average">Wikipedia: Moving average</a>
+ */
+public interface RollingStatistic extends Serializable {
+
+    /**
+     * Append a data point to the window, evicting the oldest one if the window is full.
+     *
+     * @param x a data point
+     */
+    public void add(double x);
+
+    /**
+     * Get the statistic of the data points in the window.
+     * Before the window is full, this is the statistic of the data points added so far.
+     *
+     * @return the statistic of the window
+     */
+    public double value();
+
+    /**
+     * Get the number of data points in the window.
+     *
+     * @return the number of data points in the window, at most {@link #window()}
+     */
+    public int size();
+
+    /**
+     * Get the window length.
+     *
+     * @return the window length
+     */
+    public int window();
+
+    /**
+     * Remove all data points from the window.
+     */
+    public void reset();
+}
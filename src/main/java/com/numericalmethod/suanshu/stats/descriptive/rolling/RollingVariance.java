@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+/**
+ * The rolling variance is the unbiased sample variance of the data points in a sliding window.
+ * Each update is <i>O(1)</i>: the evicted data point is removed from and the new one added to
+ * the mean and the sum of squared deviations by Welford's updates, which are much more accurate than
+ * a running sum of squares.
+ * The sums are recomputed from the window by the two-pass algorithm once every {@link #window()} evictions,
+ * which costs <i>O(1)</i> amortized, so that the rounding errors do not accumulate over a long stream.
+ * They are also recomputed when a {@code NaN} or an infinity is evicted, which the updates cannot remove;
+ * the variance is {@code NaN} only while such a value is in the window.
+ *
+ * @author Haksun Li
+ * @see <a href="http://en.wikipedia.org/wiki/Algorithms_for_calculating_variance">Wikipedia: Algorithms for calculating variance</a>
+ */
+public class RollingVariance extends AbstractRollingStatistic {
+
+    private static final long serialVersionUID = 2740150787325318627L;
+    private final RingBuffer buffer;
+    private double mean = 0;
+    /** the sum of squared deviations from the mean */
+    private double M2 = 0;
+    private int nEvictions = 0;
+
+    /**
+     * Construct a rolling variance.
+     *
+     * @param window the window length
+     */
+    public RollingVariance(int window) {
+        this.buffer = new RingBuffer(window);
+    }
+
+    @Override
+    public void add(double x) {
+        if (buffer.isFull()) {
+            double old = buffer.add(x);
+            if (isNonFinite(old) || ++nEvictions == buffer.capacity()) {
+                refresh();
+                return;
+            }
+
+            // remove old from n points, then add x to n - 1 points
+            int n = buffer.size();
+            if (n == 1) {
+                mean = x;
+                M2 = 0;
+                return;
+            }
+
+            double mean1 = mean - (old - mean) / (n - 1);
+            M2 -= (old - mean) * (old - mean1);
+            double delta = x - mean1;
+            mean = mean1 + delta / n;
+            M2 += delta * (x - mean);
+        } else {
+            buffer.add(x);
+            double delta = x - mean;
+            mean += delta / buffer.size();
+            M2 += delta * (x - mean);
+        }
+    }
+
+    private void refresh() {
+        nEvictions = 0;
+        int n = buffer.size();
+
+        double sum = 0;
+        for (int i = 0; i < n; ++i) {
+            sum += buffer.get(i);
+        }
+        mean = sum / n;
+
+        M2 = 0;
+        for (int i = 0; i < n; ++i) {
+            double d = buffer.get(i) - mean;
+            M2 += d * d;
+        }
+    }
+
+    /**
+     * Get the unbiased sample variance of the window.
+     *
+     * @return the variance of the window; {@code NaN} if there are fewer than 2 data points
+     */
+    @Override
+    public double value() {
+        int n = buffer.size();
+        return n > 1 ? Math.max(M2, 0) / (n - 1) : Double.NaN;
+    }
+
+    /**
+     * Get the sample standard deviation of the window.
+     *
+     * @return the standard deviation of the window
+     */
+    public double stdev() {
+        return Math.sqrt(value());
+    }
+
+    /**
+     * Get the mean of the window.
+     *
+     * @return the mean of the window
+     */
+    public double mean() {
+        return buffer.size() > 0 ? mean : Double.NaN;
+    }
+
+    @Override
+    public int size() {
+        return buffer.size();
+    }
+
+    @Override
+    public int window() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void reset() {
+        buffer.clear();
+        mean = 0;
+        M2 = 0;
+        nEvictions = 0;
+    }
+}
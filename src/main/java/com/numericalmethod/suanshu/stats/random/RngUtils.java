@@ -28,7 +28,7 @@ import com.numericalmethod.suanshu.stats.random.univariate.RandomNumberGenerator
 
 /**
  * This class provides static methods that wraps random number generators to
- * produce synchronized generators.
+ * produce synchronized generators, and that draw from generators.
  * For example,
  * <blockquote><code>
  * RandomNumberGenerator rng = RngUtils.synchronizedRNG(new Gaussian());
@@ -122,4 +122,26 @@ public class RngUtils {
             }
         };
     }
+
+    /**
+     * Draw an integer uniformly from <i>{0, 1, ..., n - 1}</i>.
+     * Only the lower 32 bits of the random numbers are used.
+     * The random numbers at the top of the range that do not make up a complete set of <i>n</i> values are rejected,
+     * so all integers are equally likely.
+     *
+     * @param uniform a uniform random number generator of (at least) 32 random bits
+     * @param n       the number of integers, <i>0 &lt; n &le; 2<sup>31</sup> - 1</i>
+     * @return a random integer in <i>[0, n)</i>
+     */
+    public static int nextInt(RandomLongGenerator uniform, int n) {
+        final long range = 0x100000000L;
+        final long limit = range - range % n;
+
+        long r;
+        do {
+            r = uniform.nextLong() & 0xffffffffL;
+        } while (r >= limit);
+
+        return (int) (r % n);
+    }
 }
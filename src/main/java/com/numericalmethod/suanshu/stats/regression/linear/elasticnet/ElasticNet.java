@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.elasticnet;
+
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+
+/**
+ * This is the elastic-net regularized (weighted) least squares regression, which minimizes
+ * <blockquote><i>
+ * Σ w<sub>i</sub> (y<sub>i</sub> - β<sub>0</sub> - x<sub>i</sub>'β)<sup>2</sup> / (2 Σ w<sub>i</sub>) + λ P<sub>α</sub>(β)
+ * </i></blockquote>
+ * for each penalty <i>λ</i> in a path.
+ * <p/>
+ * The coordinate descent uses covariance updates:
+ * the gradients <i>x<sub>j</sub>'r</i> of all the factors are kept up to date
+ * using the inner products between the factors that have entered the model,
+ * each computed once when the factor first becomes nonzero.
+ * An update then costs <i>O(p)</i> instead of <i>O(n)</i>,
+ * and checking the screened factors against the Karush-Kuhn-Tucker conditions costs nothing.
+ * The R equivalent function is {@code glmnet(x, y, family = "gaussian", type.gaussian = "covariance")}.
+ *
+ * @author Haksun Li
+ * @see "J. Friedman, T. Hastie, and R. Tibshirani, "Regularization Paths for Generalized Linear Models via Coordinate Descent," Journal of Statistical Software, 33(1), 2010, Section 2.2."
+ */
+public class ElasticNet extends ElasticNetPath {
+
+    private static final long serialVersionUID = 5124437091823476152L;
+
+    /**
+     * Compute the elastic-net path over the default sequence of penalties.
+     *
+     * @param problem the linear regression problem
+     * @param alpha   the mixing parameter between the ridge (0) and Lasso (1) penalties
+     */
+    public ElasticNet(LMProblem problem, double alpha) {
+        this(new Observations(problem), alpha, null, MAX_PASSES);
+    }
+
+    /**
+     * Compute the elastic-net path over the given penalties.
+     *
+     * @param problem the linear regression problem
+     * @param alpha   the mixing parameter between the ridge (0) and Lasso (1) penalties
+     * @param lambdas the penalties, in decreasing order
+     */
+    public ElasticNet(LMProblem problem, double alpha, double[] lambdas) {
+        this(new Observations(problem), alpha, lambdas, MAX_PASSES);
+    }
+
+    /**
+     * Compute the elastic-net path over the given penalties with a limited number of passes.
+     *
+     * @param problem   the linear regression problem
+     * @param alpha     the mixing parameter between the ridge (0) and Lasso (1) penalties
+     * @param lambdas   the penalties, in decreasing order; {@code null} to use the default sequence
+     * @param maxPasses the maximum number of coordinate descent passes per penalty
+     * @see #isConverged()
+     */
+    public ElasticNet(LMProblem problem, double alpha, double[] lambdas, int maxPasses) {
+        this(new Observations(problem), alpha, lambdas, maxPasses);
+    }
+
+    ElasticNet(Observations data, double alpha, double[] lambdas, int maxPasses) {
+        super(data, alpha, lambdas, maxPasses);
+        new Run().solve();
+    }
+
+    @Override
+    double loss(double y, double eta) {
+        final double e = y - eta;
+        return e * e;
+    }
+
+    @Override
+    ElasticNetPath fit(Observations data) {
+        return new ElasticNet(data, alpha, lambdas, maxPasses);
+    }
+
+    /**
+     * the state of the coordinate descent
+     */
+    private class Run {
+
+        private final int n = data.n;
+        private final int p = data.p;
+        private final double[] w = data.w;
+        private final double[][] z = data.z;
+        /** the coefficients of the standardized factors */
+        private final double[] b = new double[p];
+        /** z_j'Wr, kept up to date */
+        private final double[] grad = new double[p];
+        /** the cached columns of z'Wz */
+        private final double[][] gram = new double[p][];
+        private final boolean[] strong = new boolean[p];
+        private double threshold;
+        /** the number of passes at the current penalty */
+        private int nPasses;
+        private double l1;
+        private double l2;
+
+        private void solve() {
+            final double yMean = data.addIntercept ? data.yMean() : 0;
+            double nullDeviance = 0;
+            for (int i = 0; i < n; ++i) {
+                final double r = data.y[i] - yMean;
+                nullDeviance += w[i] * r * r;
+            }
+            threshold = THRESHOLD * (nullDeviance > 0 ? nullDeviance : 1);
+
+            double maxGradient = 0;
+            for (int j = 0; j < p; ++j) {
+                double g = 0;
+                for (int i = 0; i < n; ++i) {
+                    g += w[i] * z[j][i] * (data.y[i] - yMean);
+                }
+                grad[j] = g;
+                maxGradient = max(maxGradient, abs(g));
+            }
+            if (lambdas == null) {
+                lambdas = defaultLambdas(maxGradient);
+            }
+
+            double lambda0 = maxGradient / max(alpha, 1e-3);
+            for (int k = 0; k < lambdas.length; ++k) {
+                final double lambda = lambdas[k];
+                l1 = lambda * alpha;
+                l2 = lambda * (1 - alpha);
+
+                // sequential strong rule
+                final double cutoff = alpha * (2 * lambda - lambda0);
+                for (int j = 0; j < p; ++j) {
+                    strong[j] = data.xScale[j] > 0 && (b[j] != 0 || abs(grad[j]) >= cutoff);
+                }
+
+                nPasses = 0;
+                converged[k] = true;
+                boolean isKKT = false;
+                while (!isKKT) {
+                    if (!descend()) {
+                        converged[k] = false;
+                        break;
+                    }
+
+                    isKKT = true;
+                    for (int j = 0; j < p; ++j) {
+                        if (!strong[j] && data.xScale[j] > 0 && abs(grad[j]) > l1) {
+                            strong[j] = true;
+                            isKKT = false;
+                        }
+                    }
+                }
+
+                save(k, yMean, b);
+                lambda0 = lambda;
+            }
+        }
+
+        /**
+         * Cycle over the strong set until convergence, iterating only on the nonzero coefficients in between.
+         *
+         * @return {@code false} if the passes run out before convergence
+         */
+        private boolean descend() {
+            while (nPasses < maxPasses) {
+                ++nPasses;
+                if (sweep(false) < threshold) {
+                    return true;
+                }
+
+                while (nPasses < maxPasses) {
+                    ++nPasses;
+                    if (sweep(true) < threshold) {
+                        break;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Update each coefficient once.
+         *
+         * @param activeOnly {@code true} to update only the nonzero coefficients
+         * @return the largest squared change in a coefficient
+         */
+        private double sweep(boolean activeOnly) {
+            double dlx = 0;
+            for (int j = 0; j < p; ++j) {
+                if (!strong[j] || (activeOnly && b[j] == 0)) {
+                    continue;
+                }
+
+                final double old = b[j];
+                final double bj = softThreshold(grad[j] + old, l1) / (1 + l2);// z_j'Wz_j = 1
+                if (bj == old) {
+                    continue;
+                }
+
+                final double d = bj - old;
+                b[j] = bj;
+                final double[] g = gram(j);
+                for (int l = 0; l < p; ++l) {
+                    grad[l] -= g[l] * d;
+                }
+                dlx = max(dlx, d * d);
+            }
+            return dlx;
+        }
+
+        /**
+         * Get the inner products of a factor with all the factors, computing them the first time.
+         *
+         * @param j a factor
+         * @return z'Wz_j
+         */
+        private double[] gram(int j) {
+            if (gram[j] == null) {
+                final double[] zj = z[j];
+                double[] g = new double[p];
+                for (int l = 0; l < p; ++l) {
+                    final double[] zl = z[l];
+                    double sum = 0;
+                    for (int i = 0; i < n; ++i) {
+                        sum += w[i] * zj[i] * zl[i];
+                    }
+                    g[l] = sum;
+                }
+                gram[j] = g;
+            }
+            return gram[j];
+        }
+    }
+}
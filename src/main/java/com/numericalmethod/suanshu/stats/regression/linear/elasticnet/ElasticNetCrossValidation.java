@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.elasticnet;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.stats.random.RngUtils;
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.MersenneTwister;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import java.io.Serializable;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * This is the <i>K</i>-fold cross validation of an elastic-net path to choose the penalty.
+ * The observations are randomly split into <i>K</i> folds.
+ * For each fold, the same path of penalties is fitted to the other folds and evaluated on the fold;
+ * the folds are fitted in parallel when the problem is big enough.
+ * The loss is the squared error for {@link ElasticNet} and the deviance for {@link GLMElasticNet}.
+ * <p/>
+ * The R equivalent function is {@code cv.glmnet}.
+ *
+ * @author Haksun Li
+ * @see "J. Friedman, T. Hastie, and R. Tibshirani, "Regularization Paths for Generalized Linear Models via Coordinate Descent," Journal of Statistical Software, 33(1), 2010, Section 5."
+ */
+public class ElasticNetCrossValidation implements Serializable {
+
+    private static final long serialVersionUID = 7380416210342983515L;
+    /**
+     * the path fitted to all the observations
+     */
+    public final ElasticNetPath path;
+    /**
+     * the number of folds
+     */
+    public final int nFolds;
+    /** the mean cross-validated losses, one per penalty */
+    private final double[] cvm;
+    /** the standard errors of the mean cross-validated losses */
+    private final double[] cvsd;
+    /** the index of the penalty with the smallest loss, counting from 0 */
+    private final int iMin;
+    /** the index of the largest penalty within one standard error of the smallest loss, counting from 0 */
+    private final int i1se;
+
+    /**
+     * Cross validate an elastic-net path.
+     *
+     * @param path   an elastic-net path
+     * @param nFolds the number of folds
+     * @param seed   the seed to randomly assign the observations to the folds
+     */
+    public ElasticNetCrossValidation(final ElasticNetPath path, final int nFolds, long seed) {
+        final Observations data = path.data;
+        SuanShuUtils.assertArgument(nFolds >= 2 && nFolds <= data.n, "2 <= nFolds <= n");
+
+        this.path = path;
+        this.nFolds = nFolds;
+
+        // assign the observations to the folds
+        final int n = data.n;
+        final int[] fold = new int[n];
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; ++i) {
+            permutation[i] = i;
+        }
+        RandomLongGenerator uniform = new MersenneTwister(seed);
+        for (int i = n - 1; i > 0; --i) {
+            int j = RngUtils.nextInt(uniform, i + 1);
+            int t = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = t;
+        }
+        for (int i = 0; i < n; ++i) {
+            fold[permutation[i]] = i % nFolds;
+        }
+
+        final int nLambdas = path.nLambdas();
+        final double[][] foldLoss = new double[nFolds][nLambdas];
+        final double[] foldWeight = new double[nFolds];
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(
+                    (long) n * data.p * nLambdas > 100000,
+                    0, nFolds,
+                    new LoopBody() {
+
+                        @Override
+                        public void run(int f) throws Exception {
+                            int nTraining = 0;
+                            for (int i = 0; i < n; ++i) {
+                                if (fold[i] != f) {
+                                    ++nTraining;
+                                }
+                            }
+                            int[] training = new int[nTraining];
+                            for (int i = 0, t = 0; i < n; ++i) {
+                                if (fold[i] != f) {
+                                    training[t++] = i;
+                                }
+                            }
+
+                            ElasticNetPath fitted = path.fit(data.subset(training));
+                            double[] x = new double[data.p];
+                            for (int i = 0; i < n; ++i) {
+                                if (fold[i] == f) {
+                                    for (int j = 0; j < data.p; ++j) {
+                                        x[j] = data.x[j][i];
+                                    }
+                                    for (int k = 1; k <= nLambdas; ++k) {
+                                        foldLoss[f][k - 1] += data.w[i] * path.loss(data.y[i], fitted.eta(k, x));
+                                    }
+                                    foldWeight[f] += data.w[i];
+                                }
+                            }
+                        }
+                    });
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        // the weighted mean and standard error over the folds
+        double sumWeight = 0;
+        for (int f = 0; f < nFolds; ++f) {
+            sumWeight += foldWeight[f];
+        }
+        this.cvm = new double[nLambdas];
+        this.cvsd = new double[nLambdas];
+        int best = 0;
+        for (int k = 0; k < nLambdas; ++k) {
+            double sum = 0;
+            for (int f = 0; f < nFolds; ++f) {
+                sum += foldLoss[f][k];
+            }
+            cvm[k] = sum / sumWeight;
+
+            double ss = 0;
+            for (int f = 0; f < nFolds; ++f) {
+                final double d = foldLoss[f][k] / foldWeight[f] - cvm[k];
+                ss += foldWeight[f] * d * d;
+            }
+            cvsd[k] = sqrt(ss / sumWeight / (nFolds - 1));
+
+            if (cvm[k] < cvm[best]) {
+                best = k;
+            }
+        }
+        this.iMin = best;
+
+        int k1se = best;
+        for (int k = 0; k < best; ++k) {
+            if (cvm[k] <= cvm[best] + cvsd[best]) {
+                k1se = k;
+                break;
+            }
+        }
+        this.i1se = k1se;
+    }
+
+    /**
+     * Get the mean cross-validated loss at a penalty.
+     *
+     * @param k the index of a penalty, counting from 1
+     * @return the mean cross-validated loss
+     */
+    public double cvm(int k) {
+        return cvm[k - 1];
+    }
+
+    /**
+     * Get the standard error of the mean cross-validated loss at a penalty.
+     *
+     * @param k the index of a penalty, counting from 1
+     * @return the standard error of the mean cross-validated loss
+     */
+    public double cvsd(int k) {
+        return cvsd[k - 1];
+    }
+
+    /**
+     * Get the index of the penalty with the smallest mean cross-validated loss.
+     *
+     * @return the index of the best penalty, counting from 1
+     */
+    public int indexMin() {
+        return iMin + 1;
+    }
+
+    /**
+     * Get the index of the largest penalty whose mean cross-validated loss is within one standard error of the smallest.
+     * This gives the most regularized model that is about as good as the best.
+     *
+     * @return the index of the penalty, counting from 1
+     */
+    public int index1se() {
+        return i1se + 1;
+    }
+
+    /**
+     * Get the penalty with the smallest mean cross-validated loss.
+     *
+     * @return the best penalty
+     */
+    public double lambdaMin() {
+        return path.lambda(indexMin());
+    }
+
+    /**
+     * Get the largest penalty whose mean cross-validated loss is within one standard error of the smallest.
+     *
+     * @return the one-standard-error penalty
+     */
+    public double lambda1se() {
+        return path.lambda(index1se());
+    }
+
+    /**
+     * Get the coefficient estimates, fitted to all the observations, at the best penalty.
+     *
+     * @return \(\hat{\beta}\) at {@link #lambdaMin()}
+     */
+    public Vector betaHat() {
+        return path.betaHat(indexMin());
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.elasticnet;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.exp;
+import static java.lang.Math.log;
+import static java.lang.Math.max;
+
+/**
+ * This is the solution path of an elastic-net regularized regression over a decreasing sequence of penalties
+ * <i>λ<sub>1</sub> &gt; λ<sub>2</sub> &gt; ...</i>.
+ * The elastic-net penalty is
+ * <blockquote><i>
+ * λ P<sub>α</sub>(β) = λ [(1 - α) ||β||<sub>2</sub><sup>2</sup> / 2 + α ||β||<sub>1</sub>]
+ * </i></blockquote>
+ * on the coefficients of the standardized factors.
+ * <i>α = 1</i> is the Lasso; <i>α = 0</i> is ridge regression.
+ * The intercept is not penalized.
+ * <p/>
+ * The solutions are computed by cyclic coordinate descent, warm started from the solution of the previous penalty.
+ * The factors that are unlikely to enter the model at a penalty are screened out by the sequential strong rule;
+ * the Karush-Kuhn-Tucker conditions are checked on them afterward, so that the solutions are exact.
+ * Within the remaining factors, the descent iterates only on the nonzero coefficients until convergence
+ * before sweeping all of them again.
+ * <p/>
+ * The coefficients are reported on the scale of the original factors.
+ * As in {@link com.numericalmethod.suanshu.stats.regression.linear.LMProblem}, the intercept, if any, is the last coefficient.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"J. Friedman, T. Hastie, and R. Tibshirani, "Regularization Paths for Generalized Linear Models via Coordinate Descent," Journal of Statistical Software, 33(1), 2010."
+ * <li>"R. Tibshirani, J. Bien, J. Friedman, T. Hastie, N. Simon, J. Taylor, and R. J. Tibshirani, "Strong rules for discarding predictors in lasso-type problems," Journal of the Royal Statistical Society: Series B, 74(2), 245-266, 2012."
+ * </ul>
+ */
+public abstract class ElasticNetPath implements Serializable {
+
+    private static final long serialVersionUID = -3207156431402640287L;
+    /**
+     * the default number of penalties in a path
+     */
+    public static final int N_LAMBDAS = 100;
+    /**
+     * the default convergence threshold on the squared change of a coefficient, relative to the null deviance
+     */
+    public static final double THRESHOLD = 1e-14;
+    /**
+     * the default maximum number of coordinate descent passes over the factors per penalty,
+     * counting both the passes over all the screened factors and those over the nonzero coefficients only
+     */
+    public static final int MAX_PASSES = 100000;
+    /**
+     * the mixing parameter between the ridge (0) and Lasso (1) penalties
+     */
+    public final double alpha;
+    /** the observations */
+    final Observations data;
+    /** the penalties, in decreasing order; computed by the subclass if not given */
+    double[] lambdas;
+    /** the intercepts, one per penalty */
+    final double[] b0;
+    /** the coefficients of the original factors, one row per penalty */
+    final double[][] beta;
+    /** the maximum number of coordinate descent passes per penalty */
+    final int maxPasses;
+    /** whether the descent converged, one per penalty */
+    final boolean[] converged;
+
+    /**
+     * Construct an empty path.
+     *
+     * @param data      the observations
+     * @param alpha     the mixing parameter
+     * @param lambdas   the penalties; {@code null} to use the default sequence
+     * @param maxPasses the maximum number of coordinate descent passes per penalty
+     */
+    ElasticNetPath(Observations data, double alpha, double[] lambdas, int maxPasses) {
+        SuanShuUtils.assertArgument(alpha >= 0 && alpha <= 1, "0 <= alpha <= 1");
+        SuanShuUtils.assertArgument(maxPasses > 0, "maxPasses must be positive");
+        if (lambdas != null) {
+            for (int k = 1; k < lambdas.length; ++k) {
+                SuanShuUtils.assertArgument(lambdas[k] < lambdas[k - 1], "the penalties must be decreasing");
+            }
+        }
+
+        this.alpha = alpha;
+        this.data = data;
+        this.lambdas = lambdas != null ? lambdas.clone() : null;
+        final int nLambdas = lambdas != null ? lambdas.length : N_LAMBDAS;
+        this.b0 = new double[nLambdas];
+        this.beta = new double[nLambdas][];
+        this.maxPasses = maxPasses;
+        this.converged = new boolean[nLambdas];
+    }
+
+    /**
+     * Compute the default sequence of penalties:
+     * {@link #N_LAMBDAS} values evenly spaced on the log scale from the smallest penalty
+     * at which all the coefficients are zero, <i>λ<sub>max</sub></i>,
+     * down to <i>10<sup>-4</sup> λ<sub>max</sub></i>, or <i>10<sup>-2</sup> λ<sub>max</sub></i> if <i>n &lt; p</i>.
+     *
+     * @param maxGradient the largest absolute gradient of the loss at <i>β = 0</i>
+     * @return the penalties
+     */
+    double[] defaultLambdas(double maxGradient) {
+        final double lambdaMax = maxGradient / max(alpha, 1e-3);
+        final double ratio = data.n < data.p ? 1e-2 : 1e-4;
+        double[] result = new double[N_LAMBDAS];
+        for (int k = 0; k < N_LAMBDAS; ++k) {
+            result[k] = lambdaMax * exp(log(ratio) * k / (N_LAMBDAS - 1));
+        }
+        return result;
+    }
+
+    /**
+     * Save the solution at a penalty on the scale of the original factors.
+     *
+     * @param k         the index of the penalty
+     * @param intercept the intercept for the standardized factors
+     * @param b         the coefficients of the standardized factors
+     */
+    void save(int k, double intercept, double[] b) {
+        double[] coefficients = new double[data.p];
+        for (int j = 0; j < data.p; ++j) {
+            if (b[j] != 0) {
+                coefficients[j] = b[j] / data.xScale[j];
+                intercept -= coefficients[j] * data.xMean[j];
+            }
+        }
+        beta[k] = coefficients;
+        b0[k] = intercept;
+    }
+
+    /**
+     * Compute the loss of an observation, e.g., the squared error or the deviance, for cross validation.
+     *
+     * @param y   the response
+     * @param eta the linear prediction
+     * @return the loss
+     */
+    abstract double loss(double y, double eta);
+
+    /**
+     * Compute the path of the same model and the same penalties on other observations.
+     *
+     * @param data the other observations, e.g., a training set
+     * @return the path
+     */
+    abstract ElasticNetPath fit(Observations data);
+
+    /**
+     * Get the number of penalties in the path.
+     *
+     * @return the number of penalties
+     */
+    public int nLambdas() {
+        return lambdas.length;
+    }
+
+    /**
+     * Get a penalty.
+     *
+     * @param k the index of a penalty, counting from 1, in decreasing order
+     * @return the <i>k</i>-th penalty
+     */
+    public double lambda(int k) {
+        return lambdas[k - 1];
+    }
+
+    /**
+     * Get all the penalties.
+     *
+     * @return the penalties in decreasing order
+     */
+    public double[] lambdas() {
+        return lambdas.clone();
+    }
+
+    /**
+     * Check whether the coordinate descent converged at a penalty within the maximum number of passes.
+     * If not, the estimates at the penalty are those of the last pass.
+     *
+     * @param k the index of a penalty, counting from 1
+     * @return {@code true} if the descent converged
+     */
+    public boolean isConverged(int k) {
+        return converged[k - 1];
+    }
+
+    /**
+     * Check whether the coordinate descent converged at all the penalties.
+     *
+     * @return {@code true} if the descent converged at every penalty
+     */
+    public boolean isConverged() {
+        for (boolean c : converged) {
+            if (!c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the coefficient estimates at a penalty.
+     *
+     * @param k the index of a penalty, counting from 1
+     * @return \(\hat{\beta}\); the intercept, if any, is the last element
+     */
+    public Vector betaHat(int k) {
+        double[] result = Arrays.copyOf(beta[k - 1], data.p + (data.addIntercept ? 1 : 0));
+        if (data.addIntercept) {
+            result[data.p] = b0[k - 1];
+        }
+        return new DenseVector(result);
+    }
+
+    /**
+     * Count the nonzero coefficients, excluding the intercept, at a penalty.
+     *
+     * @param k the index of a penalty, counting from 1
+     * @return the number of factors in the model
+     */
+    public int nNonZero(int k) {
+        int count = 0;
+        for (double b : beta[k - 1]) {
+            if (b != 0) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compute the linear prediction at a penalty.
+     *
+     * @param k the index of a penalty, counting from 1
+     * @param x the factors, excluding the intercept
+     * @return <i>η = b<sub>0</sub> + x'β</i>
+     */
+    public double eta(int k, double[] x) {
+        SuanShuUtils.assertArgument(x.length == data.p, "wrong number of factors");
+        double eta = b0[k - 1];
+        for (int j = 0; j < data.p; ++j) {
+            eta += x[j] * beta[k - 1][j];
+        }
+        return eta;
+    }
+
+    /**
+     * the soft-thresholding operator
+     *
+     * @param z     a number
+     * @param gamma the threshold
+     * @return <i>sign(z) (|z| - γ)<sub>+</sub></i>
+     */
+    static double softThreshold(double z, double gamma) {
+        final double a = abs(z) - gamma;
+        return a <= 0 ? 0 : z > 0 ? a : -a;
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.elasticnet;
+
+import com.numericalmethod.suanshu.stats.regression.linear.glm.GLMProblem;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Family;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.link.LinkFunction;
+import java.util.Arrays;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+
+/**
+ * This is the elastic-net regularized generalized linear model, which minimizes
+ * <blockquote><i>
+ * - Σ w<sub>i</sub> l(y<sub>i</sub>, β<sub>0</sub> + x<sub>i</sub>'β) / Σ w<sub>i</sub> + λ P<sub>α</sub>(β)
+ * </i></blockquote>
+ * for each penalty <i>λ</i> in a path, where <i>l</i> is the log-likelihood of the exponential family,
+ * with the dispersion parameter taken as 1.
+ * <p/>
+ * For each penalty, an outer loop approximates the log-likelihood by a weighted least squares problem
+ * at the current estimates, as in {@link com.numericalmethod.suanshu.stats.regression.linear.glm.IWLS};
+ * an inner loop solves the penalized weighted least squares problem by coordinate descent.
+ * Because the weights change in every outer iteration, the inner loop updates the residuals (naive updates)
+ * instead of caching the inner products between the factors.
+ * The R equivalent function is {@code glmnet}.
+ *
+ * @author Haksun Li
+ * @see "J. Friedman, T. Hastie, and R. Tibshirani, "Regularization Paths for Generalized Linear Models via Coordinate Descent," Journal of Statistical Software, 33(1), 2010, Section 3."
+ */
+public class GLMElasticNet extends ElasticNetPath {
+
+    private static final long serialVersionUID = -1935207342218841290L;
+    /**
+     * the maximum number of outer (re-weighting) iterations per penalty
+     */
+    private static final int MAX_OUTER_ITERATIONS = 100;
+    /**
+     * the exponential family distribution of the responses
+     */
+    public final Family family;
+
+    /**
+     * Compute the elastic-net path over the default sequence of penalties.
+     *
+     * @param problem the generalized linear regression problem
+     * @param alpha   the mixing parameter between the ridge (0) and Lasso (1) penalties
+     */
+    public GLMElasticNet(GLMProblem problem, double alpha) {
+        this(new Observations(problem), problem.family, alpha, null, MAX_PASSES);
+    }
+
+    /**
+     * Compute the elastic-net path over the given penalties.
+     *
+     * @param problem the generalized linear regression problem
+     * @param alpha   the mixing parameter between the ridge (0) and Lasso (1) penalties
+     * @param lambdas the penalties, in decreasing order
+     */
+    public GLMElasticNet(GLMProblem problem, double alpha, double[] lambdas) {
+        this(new Observations(problem), problem.family, alpha, lambdas, MAX_PASSES);
+    }
+
+    /**
+     * Compute the elastic-net path over the given penalties with a limited number of passes.
+     *
+     * @param problem   the generalized linear regression problem
+     * @param alpha     the mixing parameter between the ridge (0) and Lasso (1) penalties
+     * @param lambdas   the penalties, in decreasing order; {@code null} to use the default sequence
+     * @param maxPasses the maximum number of coordinate descent passes per penalty, over all the re-weightings
+     * @see #isConverged()
+     */
+    public GLMElasticNet(GLMProblem problem, double alpha, double[] lambdas, int maxPasses) {
+        this(new Observations(problem), problem.family, alpha, lambdas, maxPasses);
+    }
+
+    GLMElasticNet(Observations data, Family family, double alpha, double[] lambdas, int maxPasses) {
+        super(data, alpha, lambdas, maxPasses);
+        this.family = family;
+        new Run().solve();
+    }
+
+    @Override
+    double loss(double y, double eta) {
+        return family.deviance(y, family.link().inverse(eta));
+    }
+
+    @Override
+    ElasticNetPath fit(Observations data) {
+        return new GLMElasticNet(data, family, alpha, lambdas, maxPasses);
+    }
+
+    /**
+     * the state of the coordinate descent
+     */
+    private class Run {
+
+        private final LinkFunction link = family.link();
+        private final int n = data.n;
+        private final int p = data.p;
+        private final double[] w = data.w;
+        private final double[][] z = data.z;
+        /** the intercept of the standardized factors */
+        private double b0;
+        /** the coefficients of the standardized factors */
+        private final double[] b = new double[p];
+        /** the linear predictions */
+        private final double[] eta = new double[n];
+        /** the weights of the working least squares problem */
+        private final double[] wq = new double[n];
+        /** the residuals of the working least squares problem */
+        private final double[] r = new double[n];
+        /** the weighted sums of squares of the factors in the working least squares problem */
+        private final double[] xv = new double[p];
+        private final boolean[] strong = new boolean[p];
+        private double threshold;
+        /** the number of passes at the current penalty */
+        private int nPasses;
+        private double l1;
+        private double l2;
+
+        private void solve() {
+            // the null model
+            final double mu0 = data.addIntercept ? data.yMean() : link.inverse(0);
+            b0 = data.addIntercept ? link(mu0) : 0;
+            Arrays.fill(eta, b0);
+
+            double nullDeviance = 0;
+            for (int i = 0; i < n; ++i) {
+                nullDeviance += w[i] * family.deviance(data.y[i], mu0);
+            }
+            threshold = THRESHOLD * (nullDeviance > 0 ? nullDeviance : 1);
+
+            double[] grad = new double[p];
+            double maxGradient = gradient(grad);
+            if (lambdas == null) {
+                lambdas = defaultLambdas(maxGradient);
+            }
+
+            double lambda0 = maxGradient / max(alpha, 1e-3);
+            for (int k = 0; k < lambdas.length; ++k) {
+                final double lambda = lambdas[k];
+                l1 = lambda * alpha;
+                l2 = lambda * (1 - alpha);
+
+                // sequential strong rule
+                if (k > 0) {
+                    gradient(grad);
+                }
+                final double cutoff = alpha * (2 * lambda - lambda0);
+                for (int j = 0; j < p; ++j) {
+                    strong[j] = data.xScale[j] > 0 && (b[j] != 0 || abs(grad[j]) >= cutoff);
+                }
+
+                nPasses = 0;
+                converged[k] = true;
+                boolean isKKT = false;
+                while (!isKKT) {
+                    if (!reweight()) {
+                        converged[k] = false;
+                        break;
+                    }
+
+                    gradient(grad);
+                    isKKT = true;
+                    for (int j = 0; j < p; ++j) {
+                        if (!strong[j] && data.xScale[j] > 0 && abs(grad[j]) > l1) {
+                            strong[j] = true;
+                            isKKT = false;
+                        }
+                    }
+                }
+
+                save(k, b0, b);
+                lambda0 = lambda;
+            }
+        }
+
+        /**
+         * Iterate the quadratic approximations to the log-likelihood until the coefficients converge.
+         *
+         * @return {@code false} if the outer iterations or the passes run out before convergence
+         */
+        private boolean reweight() {
+            for (int iter = 0; iter < MAX_OUTER_ITERATIONS; ++iter) {
+                final double b0Old = b0;
+                final double[] bOld = b.clone();
+
+                // the working least squares problem at the current estimates
+                double sumWq = 0;
+                for (int i = 0; i < n; ++i) {
+                    final double mu = link.inverse(eta[i]);
+                    final double dg = link.derivative(mu);
+                    final double v = family.variance(mu) * dg * dg;
+                    if (v > 0 && !Double.isInfinite(v) && !Double.isInfinite(dg)) {
+                        wq[i] = w[i] / v;
+                        r[i] = (data.y[i] - mu) * dg;
+                    } else {// a degenerate fitted value does not contribute in this iteration
+                        wq[i] = 0;
+                        r[i] = 0;
+                    }
+                    sumWq += wq[i];
+                }
+                for (int j = 0; j < p; ++j) {
+                    if (strong[j]) {
+                        double sum = 0;
+                        for (int i = 0; i < n; ++i) {
+                            sum += wq[i] * z[j][i] * z[j][i];
+                        }
+                        xv[j] = sum;
+                    }
+                }
+
+                // coordinate descent on the strong set
+                final boolean isDescended = descend(sumWq);
+
+                // η = t - r, where t is the working response
+                double dlx = sumWq * (b0 - b0Old) * (b0 - b0Old);
+                for (int j = 0; j < p; ++j) {
+                    dlx = max(dlx, xv[j] * (b[j] - bOld[j]) * (b[j] - bOld[j]));
+                }
+                for (int i = 0; i < n; ++i) {
+                    double e = b0;
+                    for (int j = 0; j < p; ++j) {
+                        if (b[j] != 0) {
+                            e += z[j][i] * b[j];
+                        }
+                    }
+                    eta[i] = e;
+                }
+
+                if (!isDescended) {
+                    return false;
+                }
+                if (dlx < threshold) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Cycle over the strong set until convergence, iterating only on the nonzero coefficients in between.
+         *
+         * @param sumWq the sum of the working weights
+         * @return {@code false} if the passes run out before convergence
+         */
+        private boolean descend(double sumWq) {
+            while (nPasses < maxPasses) {
+                ++nPasses;
+                if (sweep(false, sumWq) < threshold) {
+                    return true;
+                }
+
+                while (nPasses < maxPasses) {
+                    ++nPasses;
+                    if (sweep(true, sumWq) < threshold) {
+                        break;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Update the intercept and each coefficient once.
+         *
+         * @param activeOnly {@code true} to update only the nonzero coefficients
+         * @param sumWq      the sum of the working weights
+         * @return the largest weighted squared change in a coefficient
+         */
+        private double sweep(boolean activeOnly, double sumWq) {
+            double dlx = 0;
+            for (int j = 0; j < p; ++j) {
+                if (!strong[j] || (activeOnly && b[j] == 0) || xv[j] == 0) {
+                    continue;
+                }
+
+                final double[] zj = z[j];
+                final double old = b[j];
+                double u = 0;
+                for (int i = 0; i < n; ++i) {
+                    u += wq[i] * zj[i] * r[i];
+                }
+                final double bj = softThreshold(u + xv[j] * old, l1) / (xv[j] + l2);
+                if (bj == old) {
+                    continue;
+                }
+
+                final double d = bj - old;
+                b[j] = bj;
+                for (int i = 0; i < n; ++i) {
+                    r[i] -= d * zj[i];
+                }
+                dlx = max(dlx, xv[j] * d * d);
+            }
+
+            if (data.addIntercept && sumWq > 0) {
+                double sum = 0;
+                for (int i = 0; i < n; ++i) {
+                    sum += wq[i] * r[i];
+                }
+                final double d = sum / sumWq;
+                b0 += d;
+                for (int i = 0; i < n; ++i) {
+                    r[i] -= d;
+                }
+                dlx = max(dlx, sumWq * d * d);
+            }
+
+            return dlx;
+        }
+
+        /**
+         * Compute the gradient of the weighted log-likelihood with respect to the standardized coefficients.
+         *
+         * @param grad the gradient; overwritten
+         * @return the largest absolute component of the gradient
+         */
+        private double gradient(double[] grad) {
+            double[] score = new double[n];
+            for (int i = 0; i < n; ++i) {
+                final double mu = link.inverse(eta[i]);
+                final double dg = link.derivative(mu);
+                final double v = family.variance(mu) * dg;
+                score[i] = v != 0 && !Double.isInfinite(v) ? w[i] * (data.y[i] - mu) / v : 0;
+            }
+
+            double result = 0;
+            for (int j = 0; j < p; ++j) {
+                double g = 0;
+                for (int i = 0; i < n; ++i) {
+                    g += z[j][i] * score[i];
+                }
+                grad[j] = g;
+                result = max(result, abs(g));
+            }
+            return result;
+        }
+
+        /**
+         * Compute the link function, <i>g(μ)</i>, by Newton's method on its inverse.
+         *
+         * @param mu μ
+         * @return <i>η = g(μ)</i>
+         */
+        private double link(double mu) {
+            double x = 0.05;// as in IWLS; avoid 0 for the inverse links
+            for (int iter = 0; iter < 100; ++iter) {
+                final double m = link.inverse(x);
+                final double dx = (mu - m) * link.derivative(m);
+                x += dx;
+                if (abs(dx) <= 1e-15 * max(1, abs(x))) {
+                    break;
+                }
+            }
+            return x;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.elasticnet;
+
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import java.io.Serializable;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * These are the observations of a regularized regression, stored by columns,
+ * together with the standardization of the factors.
+ * The factors are centered (if there is an intercept) and scaled to have unit weighted variance,
+ * so that the penalty treats all the factors the same.
+ *
+ * @author Haksun Li
+ */
+final class Observations implements Serializable {
+
+    private static final long serialVersionUID = 2895063186520718213L;
+    /** the number of observations */
+    final int n;
+    /** the number of factors, excluding the intercept */
+    final int p;
+    /** {@code true} if there is an (unpenalized) intercept */
+    final boolean addIntercept;
+    /** the original factors, by columns */
+    final double[][] x;
+    /** the responses */
+    final double[] y;
+    /** the weights of the observations, normalized to sum to 1 */
+    final double[] w;
+    /** the standardized factors, by columns */
+    final double[][] z;
+    /** the weighted means of the factors; 0 if there is no intercept */
+    final double[] xMean;
+    /** the weighted standard deviations of the factors; 0 for a constant factor */
+    final double[] xScale;
+
+    /**
+     * Construct the observations of a linear regression problem.
+     *
+     * @param problem a linear regression problem
+     */
+    Observations(LMProblem problem) {
+        this(columns(problem), problem.y.toArray(), problem.weights != null ? problem.weights.toArray() : null, problem.addIntercept);
+    }
+
+    /**
+     * Construct the observations.
+     *
+     * @param x            the factors, excluding the intercept, by columns
+     * @param y            the responses
+     * @param weights      the weights of the observations; {@code null} if unweighted
+     * @param addIntercept {@code true} if there is an intercept
+     */
+    Observations(double[][] x, double[] y, double[] weights, boolean addIntercept) {
+        this.n = y.length;
+        this.p = x.length;
+        this.addIntercept = addIntercept;
+        this.x = x;
+        this.y = y;
+
+        this.w = new double[n];
+        double sumW = 0;
+        for (int i = 0; i < n; ++i) {
+            w[i] = weights != null ? weights[i] : 1;
+            sumW += w[i];
+        }
+        for (int i = 0; i < n; ++i) {
+            w[i] /= sumW;
+        }
+
+        this.z = new double[p][n];
+        this.xMean = new double[p];
+        this.xScale = new double[p];
+        for (int j = 0; j < p; ++j) {
+            final double[] xj = x[j];
+            double mean = 0;
+            if (addIntercept) {
+                for (int i = 0; i < n; ++i) {
+                    mean += w[i] * xj[i];
+                }
+            }
+            double var = 0;
+            for (int i = 0; i < n; ++i) {
+                final double d = xj[i] - mean;
+                var += w[i] * d * d;
+            }
+            xMean[j] = mean;
+            xScale[j] = sqrt(var);
+            if (xScale[j] > 0) {
+                for (int i = 0; i < n; ++i) {
+                    z[j][i] = (xj[i] - mean) / xScale[j];
+                }
+            }// a constant factor is left as 0 and never enters the model
+        }
+    }
+
+    /**
+     * Get the observations in a subset of rows, e.g., a training set.
+     *
+     * @param rows the indices of the rows, counting from 0
+     * @return the observations in the rows, standardized by themselves
+     */
+    Observations subset(int[] rows) {
+        double[][] xs = new double[p][rows.length];
+        double[] ys = new double[rows.length];
+        double[] ws = new double[rows.length];
+        for (int k = 0; k < rows.length; ++k) {
+            final int i = rows[k];
+            for (int j = 0; j < p; ++j) {
+                xs[j][k] = x[j][i];
+            }
+            ys[k] = y[i];
+            ws[k] = w[i];
+        }
+        return new Observations(xs, ys, ws, addIntercept);
+    }
+
+    /**
+     * Compute the weighted mean of the responses.
+     *
+     * @return the weighted mean of <i>y</i>
+     */
+    double yMean() {
+        double mean = 0;
+        for (int i = 0; i < n; ++i) {
+            mean += w[i] * y[i];
+        }
+        return mean;
+    }
+
+    private static double[][] columns(LMProblem problem) {
+        final int p = problem.A.nCols() - (problem.addIntercept ? 1 : 0);
+        final int n = problem.A.nRows();
+        double[][] x = new double[p][n];
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= p; ++j) {
+                x[j - 1][i - 1] = problem.A.get(i, j);
+            }
+        }
+        return x;
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.glm;
+
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Binomial;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Family;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.link.LinkFunction;
+import com.numericalmethod.suanshu.vector.doubles.ImmutableVector;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.sqrt;
+
+/**
+ * This is the Iteratively Re-weighted Least Squares algorithm for big problems, e.g., a million observations.
+ * It computes the same estimates as {@link IWLS}, but
+ * <ul>
+ * <li>solves the weighted least squares problem of each iteration by the normal equations
+ * <i>(X'WX) β = X'Wz</i>, whose <i>p x p</i> matrix is accumulated in parallel over blocks of rows
+ * and factorized by Cholesky decomposition;
+ * <li>makes a single pass over the data per iteration, computing <i>η</i>, <i>μ</i>, the weights,
+ * the working responses and the log-likelihood together with <i>X'WX</i> and <i>X'Wz</i>;
+ * <li>reuses the same buffers in all iterations instead of allocating new vectors and regression problems.
+ * </ul>
+ * For a canonical link, e.g., {@link com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.link.Logit} for
+ * {@link com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Binomial},
+ * <i>X'WX</i> is the negative Hessian of the log-likelihood, and each iteration is a Newton step.
+ * <p/>
+ * For {@link com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Binomial},
+ * the fitted <i>μ</i> are kept within <i>[ε, 1 - ε]</i>, as R's {@code binomial()} does,
+ * so that (quasi-)separable data give a finite fit instead of a zero variance.
+ * <p/>
+ * The normal equations square the condition number of the weighted design matrix.
+ * For ill-conditioned designs, use {@link IWLS}.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"P. J. MacCullagh and J. A. Nelder. An algorithm for fitting generalized linear models. Generalized Linear Models. 2nd ed. pp.40. Section 2.5."
+ * <li>"T. Hastie, R. Tibshirani, and J. Friedman, "The Elements of Statistical Learning," 2nd ed., Springer, 2009, Section 4.4.1."
+ * </ul>
+ */
+public class ParallelIWLS implements Fitting {
+
+    private static final long serialVersionUID = -1748357123956428810L;
+    /**
+     * the number of rows processed by a task
+     */
+    private static final int ROW_BLOCK = 8192;
+    /**
+     * the smallest distance of a fitted binomial <i>μ</i> from 0 and 1
+     */
+    private static final double MU_EPSILON = Math.ulp(1.);
+    /**
+     * the convergence threshold
+     */
+    public final double threshold;
+    /**
+     * the maximum number of iterations
+     */
+    public final int maxIterations;
+    private double[] betaHat;
+    private double[] mu;
+    private double[] weights;
+    private double logLikelihood;
+
+    /**
+     * Construct an instance to run the Iteratively Re-weighted Least Squares algorithm.
+     *
+     * @param threshold     the convergence threshold
+     * @param maxIterations maximum number of iterations
+     */
+    public ParallelIWLS(double threshold, int maxIterations) {
+        this.threshold = threshold;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * As in {@link IWLS}, the first iteration starts from the constant linear prediction <i>η = 0.05</i>.
+     *
+     * @throws ArithmeticException if a (non-binomial) variance is 0 or <i>X'WX</i> is singular
+     */
+    @Override
+    public void fit(GLMProblem problem, Vector beta0Initial) {
+        Run run = new Run(problem);
+
+        double[] beta = null;
+        double logLikelihood0 = Double.POSITIVE_INFINITY;
+        boolean converged = false;
+        boolean isFitted = false;// whether μ and the weights are those at β
+        for (int iter = 0; !converged && iter < maxIterations; ++iter) {
+            run.pass(beta);
+            isFitted = true;
+            converged = beta != null && abs(run.logLikelihood - logLikelihood0) < threshold;
+            if (!converged) {
+                double[] beta1 = run.solve();
+                converged = beta != null && distance(beta1, beta) < threshold;
+                beta = beta1;
+                isFitted = false;
+                logLikelihood0 = run.logLikelihood;
+            }
+        }
+        if (!isFitted) {
+            run.pass(beta);// the fitted values at the last estimate
+        }
+
+        this.betaHat = beta;
+        this.mu = run.mu;
+        this.weights = run.w;
+        this.logLikelihood = run.logLikelihood;
+    }
+
+    @Override
+    public ImmutableVector mu() {
+        return new ImmutableVector(new DenseVector(mu));
+    }
+
+    @Override
+    public ImmutableVector betaHat() {
+        return new ImmutableVector(new DenseVector(betaHat));
+    }
+
+    @Override
+    public ImmutableVector weights() {
+        return new ImmutableVector(new DenseVector(weights));
+    }
+
+    @Override
+    public double logLikelihood() {
+        return logLikelihood;
+    }
+
+    private static double distance(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; ++i) {
+            final double d = x[i] - y[i];
+            sum += d * d;
+        }
+        return sqrt(sum);
+    }
+
+    /**
+     * the buffers and the per-iteration pass over the data
+     */
+    private class Run {
+
+        private final Family family;
+        private final LinkFunction link;
+        /** whether μ is kept away from 0 and 1 */
+        private final boolean isBinomial;
+        private final int n;
+        private final int p;
+        private final int nBlocks;
+        /** the rows of the design matrix */
+        private final double[][] A;
+        private final double[] y;
+        private final double[] mu;
+        private final double[] w;
+        /** the per-block X'WX (upper triangle), X'Wz and log-likelihood */
+        private final double[][][] XtWX;
+        private final double[][] XtWz;
+        private final double[] ll;
+        private double logLikelihood;
+
+        private Run(GLMProblem problem) {
+            this.family = problem.family;
+            this.link = family.link();
+            this.isBinomial = family instanceof Binomial;
+            this.n = problem.nObs();
+            this.p = problem.nFactors();
+            this.nBlocks = (n + ROW_BLOCK - 1) / ROW_BLOCK;
+
+            this.A = new double[n][p];
+            this.y = new double[n];
+            for (int i = 0; i < n; ++i) {
+                y[i] = problem.y.get(i + 1);
+                for (int j = 0; j < p; ++j) {
+                    A[i][j] = problem.A.get(i + 1, j + 1);
+                }
+            }
+            this.mu = new double[n];
+            this.w = new double[n];
+            this.XtWX = new double[nBlocks][p][p];
+            this.XtWz = new double[nBlocks][p];
+            this.ll = new double[nBlocks];
+        }
+
+        /**
+         * Compute the weighted least squares problem at β.
+         *
+         * @param beta β; {@code null} for the initial iteration
+         */
+        private void pass(final double[] beta) {
+            try {
+                ParallelExecutor.getInstance().conditionalForLoop(
+                        nBlocks > 1,
+                        0, nBlocks,
+                        new LoopBody() {
+
+                            @Override
+                            public void run(int block) throws Exception {
+                                final double[][] S = XtWX[block];
+                                final double[] s = XtWz[block];
+                                for (int j = 0; j < p; ++j) {
+                                    Arrays.fill(S[j], j, p, 0.);
+                                }
+                                Arrays.fill(s, 0.);
+                                double sumLL = 0;
+
+                                final int end = Math.min((block + 1) * ROW_BLOCK, n);
+                                for (int i = block * ROW_BLOCK; i < end; ++i) {
+                                    final double[] a = A[i];
+                                    double eta = 0.05;//initial estimate of η; avoid 0 values
+                                    if (beta != null) {
+                                        eta = 0;
+                                        for (int j = 0; j < p; ++j) {
+                                            eta += a[j] * beta[j];
+                                        }
+                                    }
+
+                                    double m = link.inverse(eta);
+                                    if (isBinomial) {
+                                        m = Math.min(Math.max(m, MU_EPSILON), 1. - MU_EPSILON);
+                                    }
+                                    final double dg = link.derivative(m);
+                                    final double V = family.variance(m);
+                                    if (V == 0) {
+                                        throw new ArithmeticException("division by 0");
+                                    }
+                                    final double wi = 1. / (V * dg * dg);
+                                    final double z = eta + (y[i] - m) * dg;
+                                    mu[i] = m;
+                                    w[i] = wi;
+
+                                    final double theta = family.theta(m);
+                                    sumLL += y[i] * theta - family.cumulant(theta);
+
+                                    for (int j = 0; j < p; ++j) {
+                                        final double waj = wi * a[j];
+                                        final double[] Sj = S[j];
+                                        for (int k = j; k < p; ++k) {
+                                            Sj[k] += waj * a[k];
+                                        }
+                                        s[j] += waj * z;
+                                    }
+                                }
+                                ll[block] = sumLL;
+                            }
+                        });
+            } catch (MultipleExecutionException ex) {
+                for (ExecutionException cause : ex.getExceptions()) {
+                    if (cause.getCause() instanceof ArithmeticException) {
+                        throw (ArithmeticException) cause.getCause();
+                    }
+                }
+                throw new RuntimeException(ex);
+            }
+
+            logLikelihood = 0;
+            for (int b = 0; b < nBlocks; ++b) {
+                logLikelihood += ll[b];
+            }
+        }
+
+        /**
+         * Solve <i>(X'WX) β = X'Wz</i> by Cholesky decomposition.
+         *
+         * @return the new estimate of β
+         */
+        private double[] solve() {
+            // sum the blocks in order so that the result does not depend on the scheduling
+            double[][] L = new double[p][p];
+            double[] x = new double[p];
+            for (int b = 0; b < nBlocks; ++b) {
+                for (int j = 0; j < p; ++j) {
+                    for (int k = j; k < p; ++k) {
+                        L[k][j] += XtWX[b][j][k];
+                    }
+                    x[j] += XtWz[b][j];
+                }
+            }
+
+            // L L' = X'WX, in place in the lower triangle
+            for (int j = 0; j < p; ++j) {
+                double d = L[j][j];
+                for (int k = 0; k < j; ++k) {
+                    d -= L[j][k] * L[j][k];
+                }
+                if (!(d > 0)) {
+                    throw new ArithmeticException("X'WX is not positive definite");
+                }
+                d = sqrt(d);
+                L[j][j] = d;
+                for (int i = j + 1; i < p; ++i) {
+                    double v = L[i][j];
+                    for (int k = 0; k < j; ++k) {
+                        v -= L[i][k] * L[j][k];
+                    }
+                    L[i][j] = v / d;
+                }
+            }
+
+            // L u = X'Wz; L' β = u
+            for (int i = 0; i < p; ++i) {
+                double v = x[i];
+                for (int k = 0; k < i; ++k) {
+                    v -= L[i][k] * x[k];
+                }
+                x[i] = v / L[i][i];
+            }
+            for (int i = p - 1; i >= 0; --i) {
+                double v = x[i];
+                for (int k = i + 1; k < p; ++k) {
+                    v -= L[k][i] * x[k];
+                }
+                x[i] = v / L[i][i];
+            }
+
+            return x;
+        }
+    }
+}
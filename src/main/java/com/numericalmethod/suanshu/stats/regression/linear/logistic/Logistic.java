@@ -23,8 +23,9 @@
 package com.numericalmethod.suanshu.stats.regression.linear.logistic;
 
 import com.numericalmethod.suanshu.analysis.function.rn2r1.RealScalarFunction;
-import com.numericalmethod.suanshu.optimization.problem.C2OptimProblemImpl;
-import com.numericalmethod.suanshu.optimization.unconstrained.MultivariateMaximizer;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.GLMProblem;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.ParallelIWLS;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Binomial;
 import com.numericalmethod.suanshu.vector.doubles.Vector;
 import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
 
@@ -37,6 +38,8 @@ import java.io.Serializable;
  *
  * <p>
  * This particular implementation works with binary data (y).
+ * The maximum likelihood estimates are found by Newton's method with the analytic Hessian,
+ * i.e., the Iteratively Re-weighted Least Squares algorithm for the canonical {@code logit} link, c.f., {@link ParallelIWLS}.
  *
  * @author Chun Yip Yau
  *
@@ -85,9 +88,9 @@ public class Logistic implements Serializable{
         RealScalarFunction L = new LogLikelihood().function(this.problem);
 
         //fitting a logisitic regression by finding β^ using the maximum likelihood method
-        MultivariateMaximizer maximizer = new MultivariateMaximizer(0, 200);
-        MultivariateMaximizer.Solution soln = maximizer.solve(new C2OptimProblemImpl(L));
-        Vector betaHat = soln.search(new DenseVector(m));//initial values are set to be zero
+        ParallelIWLS newton = new ParallelIWLS(1e-12, 200);
+        newton.fit(new GLMProblem(this.problem, new Binomial()), new DenseVector(m));
+        Vector betaHat = newton.betaHat();
         ML = L.evaluate(betaHat);
         residuals = new Residuals(this.problem, betaHat);
         beta = new Beta(betaHat, residuals);
@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.modelselection;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.stats.regression.linear.ols.InformationCriteria;
+import com.numericalmethod.suanshu.stats.regression.linear.ols.OLSRegression;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.numericalmethod.suanshu.matrix.doubles.operation.CreateMatrix.columns;
+import static java.lang.Math.log;
+import static java.lang.Math.sqrt;
+
+/**
+ * This is the forward or backward stepwise selection of the factors of a (weighted) OLS regression
+ * by an information criterion.
+ * At each step, the factor whose addition (or removal) improves the criterion the most is added (or removed),
+ * until no addition (or removal) improves it.
+ * The intercept, if any, is always in the model.
+ * <p/>
+ * Unlike {@link Forward} and {@link Backward}, which fit a new regression for each candidate at each step,
+ * this implementation updates a QR factorization of the selected factors by one column at a time.
+ * <ul>
+ * <li>Forward: all the candidate factors are kept orthogonalized against the selected ones.
+ * The residual sum of squares after adding a candidate <i>a</i> is <i>RSS - (a'r)<sup>2</sup> / a'a</i>,
+ * which is computed in <i>O(n)</i>, for all the candidates in parallel.
+ * Adding a factor orthogonalizes the remaining candidates against it, also in <i>O(n)</i> each.
+ * <li>Backward: the increase in the residual sum of squares after removing the <i>j</i>-th factor is
+ * <i>β<sub>j</sub><sup>2</sup> / [(R'R)<sup>-1</sup>]<sub>jj</sub></i>, computed for all the factors from <i>R<sup>-1</sup></i>.
+ * Removing a factor deletes a column of <i>R</i>, restored to triangular by Givens rotations in <i>O(k<sup>2</sup>)</i>.
+ * </ul>
+ * Factors that are (numerically) linear combinations of the selected ones are never added;
+ * in backward selection, such factors are excluded from the start.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"A. J. Miller, "Subset Selection in Regression," 2nd ed., Chapman & Hall/CRC, 2002, Chapter 3."
+ * <li>"G. H. Golub, and C. F. Van Loan, "Matrix Computations," 3rd ed., Johns Hopkins University Press, 1996, Section 12.5."
+ * </ul>
+ */
+public class StepwiseOLS implements Serializable {
+
+    private static final long serialVersionUID = 6342810095541082876L;
+    /**
+     * a factor whose squared norm after orthogonalization is less than this fraction of the original is considered collinear
+     */
+    private static final double COLLINEARITY = 1e-12;
+
+    /**
+     * the direction of the stepwise selection
+     */
+    public static enum Direction {
+
+        /**
+         * start from the intercept only, adding one factor at a time
+         */
+        FORWARD,
+        /**
+         * start from all the factors, removing one factor at a time
+         */
+        BACKWARD
+    }
+
+    /**
+     * the criterion to compare the models; the smaller the better
+     */
+    public static enum Criterion {
+
+        /**
+         * Akaike information criterion, c.f., {@link InformationCriteria#AIC}
+         */
+        AIC,
+        /**
+         * Bayesian information criterion, c.f., {@link InformationCriteria#BIC}
+         */
+        BIC,
+        /**
+         * the negative adjusted R<sup>2</sup>
+         */
+        ADJUSTED_R2
+    }
+
+    /**
+     * the regression problem
+     */
+    public final LMProblem problem;
+    /**
+     * the direction of the selection
+     */
+    public final Direction direction;
+    /**
+     * the selection criterion
+     */
+    public final Criterion criterion;
+    /** the indices of the selected factors, counting from 1, in ascending order */
+    private final int[] selected;
+    /** the criterion of the selected model */
+    private final double score;
+    // the data
+    private final int n;
+    /** the number of exogenous factors */
+    private final int p;
+    /** the number of intercept terms, 0 or 1 */
+    private final int icpt;
+    private final double sumLogWeights;
+    /** the total sum of squares, i.e., the RSS of the model with only the intercept */
+    private double TSS;
+
+    /**
+     * Select the factors of a regression.
+     *
+     * @param problem   a linear regression problem
+     * @param direction the direction of the selection
+     * @param criterion the selection criterion
+     */
+    public StepwiseOLS(LMProblem problem, Direction direction, Criterion criterion) {
+        this.problem = problem;
+        this.direction = direction;
+        this.criterion = criterion;
+
+        this.n = problem.nObs();
+        this.icpt = problem.addIntercept ? 1 : 0;
+        this.p = problem.A.nCols() - icpt;
+
+        double slw = 0;
+        if (problem.weights != null) {
+            for (int i = 1; i <= n; ++i) {
+                slw += log(problem.weights.get(i));
+            }
+        }
+        this.sumLogWeights = slw;
+
+        Selection result = direction == Direction.FORWARD ? forward() : backward();
+        this.selected = result.factors;
+        this.score = result.score;
+    }
+
+    /**
+     * Select the factors of a regression by AIC.
+     *
+     * @param problem   a linear regression problem
+     * @param direction the direction of the selection
+     */
+    public StepwiseOLS(LMProblem problem, Direction direction) {
+        this(problem, direction, Criterion.AIC);
+    }
+
+    /**
+     * Get the selected factors.
+     *
+     * @return the indices of the selected factors, counting from 1, in ascending order
+     */
+    public int[] selected() {
+        return selected.clone();
+    }
+
+    /**
+     * Get the criterion of the selected model.
+     *
+     * @return the criterion of the selected model
+     */
+    public double score() {
+        return score;
+    }
+
+    /**
+     * Get the selected model.
+     *
+     * @return the OLS regression on the selected factors
+     * @throws SingleFactorSelection.ModelNotFound if no factor is selected
+     */
+    public OLSRegression getModel() {
+        if (selected.length == 0) {
+            throw new SingleFactorSelection.ModelNotFound("no factor selected");
+        }
+
+        Matrix X = columns(problem.A, selected);
+        return new OLSRegression(new LMProblem(problem.y, X, problem.addIntercept, problem.weights));
+    }
+
+    /**
+     * Compute the criterion of a model.
+     *
+     * @param k   the number of coefficients, including the intercept
+     * @param RSS the residual sum of squares
+     * @return the criterion
+     */
+    private double score(int k, double RSS) {
+        switch (criterion) {
+            case BIC:
+                return new InformationCriteria(n, k, RSS, sumLogWeights).BIC;
+            case ADJUSTED_R2:
+                return (double) (n - icpt) / (n - k) * RSS / TSS - 1;
+            case AIC:
+            default:
+                return new InformationCriteria(n, k, RSS, sumLogWeights).AIC;
+        }
+    }
+
+    /**
+     * the weighted columns of the design matrix, [x_1 ... x_p 1]
+     */
+    private double[][] weightedColumns() {
+        final int m = p + icpt;
+        double[][] a = new double[m][n];
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= m; ++j) {
+                a[j - 1][i - 1] = problem.wA.get(i, j);
+            }
+        }
+        return a;
+    }
+
+    private static double dot(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; ++i) {
+            sum += x[i] * y[i];
+        }
+        return sum;
+    }
+
+    /**
+     * the result of a selection
+     */
+    private static class Selection {
+
+        private final int[] factors;
+        private final double score;
+
+        private Selection(List<Integer> factors, double score) {
+            this.factors = new int[factors.size()];
+            for (int j = 0; j < this.factors.length; ++j) {
+                this.factors[j] = factors.get(j) + 1;
+            }
+            Arrays.sort(this.factors);
+            this.score = score;
+        }
+    }
+
+    /**
+     * the Gram-Schmidt orthogonalization of the columns of the design matrix in the order they are selected
+     */
+    private class Orthogonalization {
+
+        /** the columns, orthogonalized against the selected columns */
+        private final double[][] a;
+        private final double[] norm2;
+        /** the residuals of the selected model */
+        private final double[] r;
+        private final boolean[] isSelected;
+        /** the rows of R, by the column indices */
+        private final List<double[]> R = new ArrayList<double[]>();
+        /** Q'y */
+        private final List<Double> z = new ArrayList<Double>();
+        /** the selected columns, in the order they are selected */
+        private final List<Integer> order = new ArrayList<Integer>();
+        private double RSS;
+
+        private Orthogonalization() {
+            this.a = weightedColumns();
+            this.norm2 = new double[a.length];
+            for (int j = 0; j < a.length; ++j) {
+                norm2[j] = dot(a[j], a[j]);
+            }
+            this.r = problem.wy.toArray();
+            this.isSelected = new boolean[a.length];
+            this.RSS = dot(r, r);
+        }
+
+        /**
+         * Check whether a column is collinear with the selected ones.
+         */
+        private boolean isCollinear(int j) {
+            return !(dot(a[j], a[j]) > COLLINEARITY * norm2[j]);
+        }
+
+        /**
+         * Compute the RSS after adding a column.
+         */
+        private double RSS(int j) {
+            final double[] aj = a[j];
+            final double c = dot(aj, r);
+            return RSS - c * c / dot(aj, aj);
+        }
+
+        /**
+         * Add a column and orthogonalize the other columns against it.
+         */
+        private void add(final int s) {
+            final double[] u = a[s];
+            final double norm = sqrt(dot(u, u));
+            for (int i = 0; i < n; ++i) {
+                u[i] /= norm;
+            }
+            isSelected[s] = true;
+
+            final double[] row = new double[a.length];
+            row[s] = norm;
+            final int m = a.length;
+            try {
+                ParallelExecutor.getInstance().conditionalForLoop(
+                        (long) n * m > 100000,
+                        0, m,
+                        new LoopBody() {
+
+                            @Override
+                            public void run(int j) throws Exception {
+                                if (!isSelected[j]) {
+                                    final double[] aj = a[j];
+                                    final double c = dot(u, aj);
+                                    for (int i = 0; i < n; ++i) {
+                                        aj[i] -= c * u[i];
+                                    }
+                                    row[j] = c;
+                                }
+                            }
+                        });
+            } catch (MultipleExecutionException ex) {
+                throw new RuntimeException(ex);
+            }
+
+            final double c = dot(u, r);
+            for (int i = 0; i < n; ++i) {
+                r[i] -= c * u[i];
+            }
+            RSS = dot(r, r);
+
+            R.add(row);
+            z.add(c);
+            order.add(s);
+        }
+    }
+
+    /**
+     * an implementation of the forward selection
+     */
+    private Selection forward() {
+        final Orthogonalization qr = new Orthogonalization();
+        if (icpt == 1) {
+            qr.add(p);
+        }
+        TSS = qr.RSS;
+
+        List<Integer> factors = new ArrayList<Integer>();
+        double current = score(icpt, qr.RSS);
+        final double[] scores = new double[p];
+        while (icpt + factors.size() + 1 < n) {
+            final int k = icpt + factors.size() + 1;
+            try {
+                ParallelExecutor.getInstance().conditionalForLoop(
+                        (long) n * p > 100000,
+                        0, p,
+                        new LoopBody() {
+
+                            @Override
+                            public void run(int j) throws Exception {
+                                scores[j] = qr.isSelected[j] || qr.isCollinear(j)
+                                            ? Double.POSITIVE_INFINITY
+                                            : score(k, qr.RSS(j));
+                            }
+                        });
+            } catch (MultipleExecutionException ex) {
+                throw new RuntimeException(ex);
+            }
+
+            int best = 0;
+            for (int j = 1; j < p; ++j) {
+                if (scores[j] < scores[best]) {
+                    best = j;
+                }
+            }
+            if (p == 0 || !(scores[best] < current)) {
+                break;
+            }
+
+            qr.add(best);
+            factors.add(best);
+            current = scores[best];
+        }
+
+        return new Selection(factors, current);
+    }
+
+    /**
+     * an implementation of the backward selection
+     */
+    private Selection backward() {
+        // factorize the full model, intercept first
+        Orthogonalization qr = new Orthogonalization();
+        if (icpt == 1) {
+            qr.add(p);
+        }
+        TSS = qr.RSS;
+        for (int j = 0; j < p; ++j) {
+            if (!qr.isCollinear(j)) {
+                qr.add(j);
+            }
+        }
+
+        List<Integer> order = new ArrayList<Integer>(qr.order);
+        int k = order.size();
+        double[][] R = new double[k][k];
+        double[] z = new double[k];
+        for (int i = 0; i < k; ++i) {
+            for (int j = i; j < k; ++j) {
+                R[i][j] = qr.R.get(i)[order.get(j)];
+            }
+            z[i] = qr.z.get(i);
+        }
+        double RSS = qr.RSS;
+
+        double current = score(k, RSS);
+        while (k > icpt) {
+            // the increase in RSS after removing each factor
+            double[][] Rinv = new double[k][k];
+            for (int j = 0; j < k; ++j) {
+                Rinv[j][j] = 1 / R[j][j];
+                for (int i = j - 1; i >= 0; --i) {
+                    double v = 0;
+                    for (int l = i + 1; l <= j; ++l) {
+                        v -= R[i][l] * Rinv[l][j];
+                    }
+                    Rinv[i][j] = v / R[i][i];
+                }
+            }
+
+            int best = -1;
+            double bestScore = Double.POSITIVE_INFINITY;
+            double bestRSS = 0;
+            for (int j = icpt; j < k; ++j) {// the intercept, if any, is the first column
+                double beta = 0;
+                double c = 0;
+                for (int l = j; l < k; ++l) {
+                    beta += Rinv[j][l] * z[l];
+                    c += Rinv[j][l] * Rinv[j][l];
+                }
+                final double rss = RSS + beta * beta / c;
+                final double s = score(k - 1, rss);
+                if (s < bestScore) {
+                    best = j;
+                    bestScore = s;
+                    bestRSS = rss;
+                }
+            }
+            if (!(bestScore < current)) {
+                break;
+            }
+
+            // delete the column and restore R to upper triangular by Givens rotations
+            for (int i = 0; i < k; ++i) {
+                System.arraycopy(R[i], best + 1, R[i], best, k - best - 1);
+                R[i][k - 1] = 0;
+            }
+            for (int t = best; t < k - 1; ++t) {
+                final double x = R[t][t];
+                final double y = R[t + 1][t];
+                final double h = sqrt(x * x + y * y);
+                final double c = x / h;
+                final double s = y / h;
+                for (int j = t; j < k - 1; ++j) {
+                    final double u = R[t][j];
+                    final double v = R[t + 1][j];
+                    R[t][j] = c * u + s * v;
+                    R[t + 1][j] = -s * u + c * v;
+                }
+                final double u = z[t];
+                final double v = z[t + 1];
+                z[t] = c * u + s * v;
+                z[t + 1] = -s * u + c * v;
+            }
+            RSS = bestRSS;
+            order.remove(best);
+            --k;
+            current = bestScore;
+        }
+
+        List<Integer> factors = new ArrayList<Integer>();
+        for (int j : order) {
+            if (j < p) {
+                factors.add(j);
+            }
+        }
+        return new Selection(factors, current);
+    }
+}
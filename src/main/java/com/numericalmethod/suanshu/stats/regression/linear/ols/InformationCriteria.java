@@ -75,23 +75,24 @@ public class InformationCriteria implements Serializable{
      * @param residuals the residual analysis of a linear regression problem
      */
     InformationCriteria(Residuals residuals) {
-        final int n = residuals.problem.nObs();
-        final int m = residuals.problem.nFactors();
-
-        //sum of log-weights
-        double sumLogWeights = 0;
-        if (residuals.problem.weights != null) {
-            for (int i = 0; i < n; ++i) {
-                sumLogWeights += log(residuals.problem.weights.get(i + 1));
-            }
-        }
+        this(residuals.problem.nObs(), residuals.problem.nFactors(), residuals.RSS, sumLogWeights(residuals));
+    }
 
+    /**
+     * Compute the information criteria from the summary statistics of a linear regression.
+     *
+     * @param n             the number of observations
+     * @param m             the number of factors
+     * @param RSS           the (weighted) residual sum of squares
+     * @param sumLogWeights the sum of the logarithms of the weights; 0 if unweighted
+     */
+    public InformationCriteria(double n, int m, double RSS, double sumLogWeights) {
         /*
          * The formula is given in the description of the command "extractAIC" in R.
          * Type "help(extractAIC)" in R.
          * Formula: 2 * (n+1) + n log (RSS/n) + n log 2π - n - sum log w, where w are the weights.
          */
-        AIC = 2 * (m + 1) + n * log(2 * Math.PI * residuals.RSS / n) + n - sumLogWeights;
+        AIC = 2 * (m + 1) + n * log(2 * Math.PI * RSS / n) + n - sumLogWeights;
 
         /*
          * Schwarz' BC
@@ -107,6 +108,16 @@ public class InformationCriteria implements Serializable{
          * Sanford Weisberg
          * John Wiley & Sons
          */
-        BIC = log(n) * (m + 1) + n * log(2 * Math.PI * residuals.RSS / n) + n - sumLogWeights;
+        BIC = log(n) * (m + 1) + n * log(2 * Math.PI * RSS / n) + n - sumLogWeights;
+    }
+
+    private static double sumLogWeights(Residuals residuals) {
+        double sumLogWeights = 0;
+        if (residuals.problem.weights != null) {
+            for (int i = 0; i < residuals.problem.nObs(); ++i) {
+                sumLogWeights += log(residuals.problem.weights.get(i + 1));
+            }
+        }
+        return sumLogWeights;
     }
 }
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.matrix.doubles.ImmutableMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.factorization.qr.HouseholderReflection;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.triangle.UpperTriangularMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.operation.Inverse;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.vector.doubles.ImmutableVector;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.io.Serializable;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * This is the (weighted) ordinary least squares regression of many responses on the same factors,
+ * e.g., the per-asset time series regressions on common factors, or the cross-sectional regressions of Fama-MacBeth.
+ * The design matrix is factorized only once, by a Householder QR decomposition.
+ * The responses are then solved in blocks of columns in parallel,
+ * each costing <i>O(np)</i> instead of the <i>O(np<sup>2</sup>)</i> of an {@link OLSRegression}.
+ * <p/>
+ * The <i>j</i>-th column of each result is the same as that of an {@link OLSRegression} on the <i>j</i>-th column of responses.
+ * The per-observation analysis, e.g., the diagnostics, is not computed;
+ * use {@link OLSRegression} on the responses of interest.
+ *
+ * @author Haksun Li
+ * @see "E. F. Fama, and J. D. MacBeth, "Risk, Return, and Equilibrium: Empirical Tests," Journal of Political Economy, 81(3), 607-636, 1973."
+ */
+public class MultiResponseOLSRegression implements Serializable {
+
+    private static final long serialVersionUID = -7213466402816512983L;
+    /**
+     * the number of response columns solved by a task
+     */
+    private static final int COL_BLOCK = 32;
+    /**
+     * {@code true} if a constant 1 is appended to the factors; the intercept is the last coefficient
+     */
+    public final boolean addIntercept;
+    /**
+     * the coefficient estimates, one column per response
+     */
+    public final ImmutableMatrix betaHat;
+    /**
+     * the standard errors of the coefficient estimates, one column per response
+     */
+    public final ImmutableMatrix stderr;
+    /**
+     * the t-statistics of the coefficient estimates, one column per response
+     */
+    public final ImmutableMatrix t;
+    /**
+     * the (weighted) residual sums of squares, one per response
+     */
+    public final ImmutableVector RSS;
+    /**
+     * the residual variances, <i>RSS / (n - p)</i>, one per response
+     */
+    public final ImmutableVector residualVariance;
+    /**
+     * the coefficients of determination, one per response
+     */
+    public final ImmutableVector R2;
+    /** <i>(A'WA)<sup>-1</sup></i>, shared by all responses */
+    private final ImmutableMatrix invOfwAtwA;
+
+    /**
+     * Regress each column of responses on the factors.
+     *
+     * @param Y            the responses, one column per response
+     * @param X            the factors, excluding the intercept, one observation per row
+     * @param addIntercept {@code true} if to add an intercept term
+     * @param weights      the weights of the observations, shared by all responses; {@code null} if unweighted
+     */
+    public MultiResponseOLSRegression(final Matrix Y, Matrix X, final boolean addIntercept, Vector weights) {
+        SuanShuUtils.assertArgument(Y.nRows() == X.nRows(), "the numbers of responses and observations do not match");
+        SuanShuUtils.assertArgument(weights == null || weights.size() == X.nRows(), "the numbers of weights and observations do not match");
+
+        this.addIntercept = addIntercept;
+        final int n = X.nRows();
+        final int p = X.nCols() + (addIntercept ? 1 : 0);
+        final int m = Y.nCols();
+        SuanShuUtils.assertArgument(n > p, "there must be more observations than factors");
+
+        final double[] w = new double[n];
+        final double[] rw = new double[n];
+        DenseMatrix wA = new DenseMatrix(n, p);
+        for (int i = 1; i <= n; ++i) {
+            w[i - 1] = weights != null ? weights.get(i) : 1;
+            rw[i - 1] = sqrt(w[i - 1]);
+            for (int j = 1; j <= X.nCols(); ++j) {
+                wA.set(i, j, rw[i - 1] * X.get(i, j));
+            }
+            if (addIntercept) {
+                wA.set(i, p, rw[i - 1]);
+            }
+        }
+
+        // factorize once
+        HouseholderReflection qr = new HouseholderReflection(wA, 0);
+        Matrix Q = qr.Q();
+        final double[][] Qt = new double[p][n];// the columns of Q
+        for (int i = 1; i <= n; ++i) {
+            for (int k = 1; k <= p; ++k) {
+                Qt[k - 1][i - 1] = Q.get(i, k);
+            }
+        }
+        UpperTriangularMatrix R = qr.R();
+        final double[][] r = new double[p][p];
+        for (int i = 1; i <= p; ++i) {
+            for (int j = i; j <= p; ++j) {
+                r[i - 1][j - 1] = R.get(i, j);
+            }
+        }
+        Matrix Rinv = new Inverse(R, 0);
+        this.invOfwAtwA = new ImmutableMatrix(Rinv.multiply(Rinv.t()));
+        final double[] sqrtDiag = new double[p];
+        for (int k = 0; k < p; ++k) {
+            sqrtDiag[k] = sqrt(invOfwAtwA.get(k + 1, k + 1));
+        }
+
+        // solve the responses in blocks of columns
+        final double[][] beta = new double[p][m];
+        final double[][] se = new double[p][m];
+        final double[][] tstat = new double[p][m];
+        final double[] rss = new double[m];
+        final double[] s2 = new double[m];
+        final double[] r2 = new double[m];
+        final int nBlocks = (m + COL_BLOCK - 1) / COL_BLOCK;
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(
+                    nBlocks > 1,
+                    0, nBlocks,
+                    new LoopBody() {
+
+                        @Override
+                        public void run(int block) throws Exception {
+                            final int j0 = block * COL_BLOCK;
+                            final int nb = Math.min(COL_BLOCK, m - j0);
+
+                            double[][] wy = new double[nb][n];
+                            double[] sumWy = new double[nb];
+                            for (int i = 0; i < n; ++i) {
+                                for (int b = 0; b < nb; ++b) {
+                                    double y = Y.get(i + 1, j0 + b + 1);
+                                    wy[b][i] = rw[i] * y;
+                                    sumWy[b] += w[i] * y;
+                                }
+                            }
+                            double sumW = 0;
+                            for (int i = 0; i < n; ++i) {
+                                sumW += w[i];
+                            }
+
+                            double[] c = new double[p];
+                            for (int b = 0; b < nb; ++b) {
+                                final int j = j0 + b;
+                                final double[] y = wy[b];
+
+                                // c = Q'y
+                                for (int k = 0; k < p; ++k) {
+                                    final double[] q = Qt[k];
+                                    double dot = 0;
+                                    for (int i = 0; i < n; ++i) {
+                                        dot += q[i] * y[i];
+                                    }
+                                    c[k] = dot;
+                                }
+
+                                // the residuals, y - Q c
+                                double RSS = 0;
+                                for (int i = 0; i < n; ++i) {
+                                    double e = y[i];
+                                    for (int k = 0; k < p; ++k) {
+                                        e -= Qt[k][i] * c[k];
+                                    }
+                                    RSS += e * e;
+                                }
+
+                                // R beta = c
+                                for (int k = p - 1; k >= 0; --k) {
+                                    double value = c[k];
+                                    for (int l = k + 1; l < p; ++l) {
+                                        value -= r[k][l] * beta[l][j];
+                                    }
+                                    beta[k][j] = value / r[k][k];
+                                }
+
+                                rss[j] = RSS;
+                                s2[j] = RSS / (n - p);
+                                final double mean = addIntercept ? sumWy[b] / sumW : 0;
+                                double TSS = 0;
+                                for (int i = 0; i < n; ++i) {
+                                    final double d = y[i] - rw[i] * mean;
+                                    TSS += d * d;
+                                }
+                                r2[j] = 1 - RSS / TSS;
+                                final double s = sqrt(s2[j]);
+                                for (int k = 0; k < p; ++k) {
+                                    se[k][j] = s * sqrtDiag[k];
+                                    tstat[k][j] = beta[k][j] / se[k][j];
+                                }
+                            }
+                        }
+                    });
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        this.betaHat = new ImmutableMatrix(new DenseMatrix(beta));
+        this.stderr = new ImmutableMatrix(new DenseMatrix(se));
+        this.t = new ImmutableMatrix(new DenseMatrix(tstat));
+        this.RSS = new ImmutableVector(new DenseVector(rss));
+        this.residualVariance = new ImmutableVector(new DenseVector(s2));
+        this.R2 = new ImmutableVector(new DenseVector(r2));
+    }
+
+    /**
+     * Regress each column of responses on the factors.
+     *
+     * @param Y            the responses, one column per response
+     * @param X            the factors, excluding the intercept, one observation per row
+     * @param addIntercept {@code true} if to add an intercept term
+     */
+    public MultiResponseOLSRegression(Matrix Y, Matrix X, boolean addIntercept) {
+        this(Y, X, addIntercept, null);
+    }
+
+    /**
+     * Regress each column of responses on the factors and an intercept.
+     *
+     * @param Y the responses, one column per response
+     * @param X the factors, excluding the intercept, one observation per row
+     */
+    public MultiResponseOLSRegression(Matrix Y, Matrix X) {
+        this(Y, X, true);
+    }
+
+    /**
+     * Get the number of responses.
+     *
+     * @return the number of responses
+     */
+    public int nResponses() {
+        return betaHat.nCols();
+    }
+
+    /**
+     * Get the \(\hat{\beta}\) statistics of a response.
+     *
+     * @param j the index of a response, counting from 1
+     * @return the \(\hat{\beta}\) statistics of the <i>j</i>-th response
+     */
+    public Beta beta(int j) {
+        return new Beta(betaHat.getColumn(j), invOfwAtwA.scaled(residualVariance.get(j)));
+    }
+}
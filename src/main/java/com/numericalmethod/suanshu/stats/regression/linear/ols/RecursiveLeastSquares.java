@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import java.io.Serializable;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * Recursive least squares (RLS) updates the least squares estimates in <i>O(p<sup>2</sup>)</i> time
+ * for each new observation, instead of re-solving the regression from scratch.
+ * With a forgetting factor <i>0 &lt; λ &le; 1</i>, the observation made <i>k</i> steps ago has weight <i>λ<sup>k</sup></i>,
+ * so that the estimates track slowly varying coefficients.
+ * With <i>λ = 1</i>, the estimates after each step are the same as those of {@link OLSRegression} on all the data so far.
+ * <p/>
+ * Instead of propagating the inverse <i>P = (X'ΛX)<sup>-1</sup></i> as in the textbook RLS,
+ * which loses symmetry and positive definiteness in finite precision and needs an arbitrary initial value,
+ * this implementation updates the triangular factor of the (weighted) data by Givens rotations.
+ * The estimates are exact from the <i>p</i>-th linearly independent observation on.
+ * <p/>
+ * The effective number of observations is <i>Σ λ<sup>k</sup></i>,
+ * which is used in place of <i>n</i> in the degrees of freedom of the residuals.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"S. Haykin, "Adaptive Filter Theory," 4th ed., Prentice Hall, 2002, Chapters 9 and 14."
+ * <li><a href="http://en.wikipedia.org/wiki/Recursive_least_squares_filter">Wikipedia: Recursive least squares filter</a>
+ * </ul>
+ */
+public class RecursiveLeastSquares implements Serializable {
+
+    private static final long serialVersionUID = -2437719865234709651L;
+    /**
+     * {@code true} if a constant 1 is appended to the factors
+     */
+    public final boolean addIntercept;
+    /**
+     * the forgetting factor
+     */
+    public final double lambda;
+    /** the number of factors, including the intercept */
+    private final int p;
+    /** the factor of [X y] */
+    private final UpdatableQR qr;
+    /** the number of observations */
+    private long n = 0;
+    /** the effective number of observations, sum of the weights */
+    private double sumWeights = 0;
+    /** the weighted mean of y */
+    private double yMean = 0;
+    /** sum w (y - yMean)^2 */
+    private double M2 = 0;
+    /** sum w y^2 */
+    private double sumWy2 = 0;
+
+    /**
+     * Construct an empty recursive least squares estimator.
+     *
+     * @param nExogenousFactors the number of factors, excluding the intercept
+     * @param addIntercept      {@code true} if to add an intercept term
+     * @param lambda            the forgetting factor, <i>0 &lt; λ &le; 1</i>
+     */
+    public RecursiveLeastSquares(int nExogenousFactors, boolean addIntercept, double lambda) {
+        SuanShuUtils.assertArgument(lambda > 0 && lambda <= 1, "the forgetting factor must be in (0, 1]");
+
+        this.addIntercept = addIntercept;
+        this.lambda = lambda;
+        this.p = nExogenousFactors + (addIntercept ? 1 : 0);
+        SuanShuUtils.assertArgument(p > 0, "there must be at least one factor");
+
+        this.qr = new UpdatableQR(p);
+    }
+
+    /**
+     * Construct an empty recursive least squares estimator without forgetting.
+     *
+     * @param nExogenousFactors the number of factors, excluding the intercept
+     * @param addIntercept      {@code true} if to add an intercept term
+     */
+    public RecursiveLeastSquares(int nExogenousFactors, boolean addIntercept) {
+        this(nExogenousFactors, addIntercept, 1);
+    }
+
+    /**
+     * Add an observation and discount the previous ones by the forgetting factor.
+     *
+     * @param y the response
+     * @param x the factors, excluding the intercept
+     */
+    public void add(double y, double[] x) {
+        SuanShuUtils.assertArgument(x.length + (addIntercept ? 1 : 0) == p, "wrong number of factors");
+
+        if (lambda != 1) {
+            qr.scale(lambda);
+            sumWeights *= lambda;
+            M2 *= lambda;
+            sumWy2 *= lambda;
+        }
+
+        double[] row = new double[p + 1];
+        System.arraycopy(x, 0, row, 0, x.length);
+        if (addIntercept) {
+            row[p - 1] = 1;
+        }
+        row[p] = y;
+        qr.update(row);
+
+        ++n;
+        sumWeights += 1;
+        double delta = y - yMean;
+        yMean += delta / sumWeights;
+        M2 += delta * (y - yMean);
+        sumWy2 += y * y;
+    }
+
+    /**
+     * Get the number of observations.
+     *
+     * @return the number of observations
+     */
+    public long nObs() {
+        return n;
+    }
+
+    /**
+     * Get the effective number of observations, <i>Σ λ<sup>k</sup></i>.
+     *
+     * @return the effective number of observations
+     */
+    public double nEffective() {
+        return sumWeights;
+    }
+
+    /**
+     * Check whether the observations so far determine all the coefficients.
+     *
+     * @return {@code true} if the design matrix so far has full rank
+     */
+    public boolean isReady() {
+        return qr.isFullRank();
+    }
+
+    /**
+     * Get the current coefficient estimates, \(\hat{\beta}\).
+     *
+     * @return \(\hat{\beta}\); the intercept is the last element
+     */
+    public Vector betaHat() {
+        return qr.betaHat();
+    }
+
+    /**
+     * Get the current \(\hat{\beta}\) statistics.
+     *
+     * @return the \(\hat{\beta}\) statistics
+     */
+    public Beta beta() {
+        return qr.beta(RSS() / (sumWeights - p));
+    }
+
+    /**
+     * Get the (discounted) residual sum of squares.
+     *
+     * @return RSS
+     */
+    public double RSS() {
+        return qr.RSS();
+    }
+
+    /**
+     * Get the (discounted) total sum of squares, about the mean if there is an intercept term, otherwise about 0.
+     *
+     * @return TSS
+     */
+    public double TSS() {
+        return addIntercept ? M2 : sumWy2;
+    }
+
+    /**
+     * Get the coefficient of determination.
+     *
+     * @return R<sup>2</sup>
+     */
+    public double R2() {
+        return 1 - RSS() / TSS();
+    }
+
+    /**
+     * Get the standard error of the residuals, <i>σ</i>.
+     *
+     * @return <i>σ</i>
+     */
+    public double stderr() {
+        return sqrt(RSS() / (sumWeights - p));
+    }
+}
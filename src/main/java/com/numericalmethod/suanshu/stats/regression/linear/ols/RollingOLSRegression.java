@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import java.io.Serializable;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * This is the ordinary least squares regression over a rolling window of the most recent observations.
+ * Each new observation is added to and the oldest one removed from the triangular factor of the data
+ * by a rank-1 update and downdate in <i>O(p<sup>2</sup>)</i> time,
+ * instead of re-solving an {@link OLSRegression} on every window in <i>O(wp<sup>2</sup>)</i>.
+ * Once the window is full, the estimates and statistics are the same as those of {@link OLSRegression}
+ * on the observations in the window.
+ * <p/>
+ * The window is kept in a ring buffer.
+ * When a downdate fails, e.g., because rounding errors make the factor indefinite,
+ * the factor is recomputed from the window.
+ *
+ * @author Haksun Li
+ * @see "J. J. Dongarra, C. B. Moler, J. R. Bunch, and G. W. Stewart, "LINPACK Users' Guide," SIAM, 1979, Chapter 10."
+ */
+public class RollingOLSRegression implements Serializable {
+
+    private static final long serialVersionUID = 5470196371835928446L;
+    /**
+     * the window size
+     */
+    public final int window;
+    /**
+     * {@code true} if a constant 1 is appended to the factors
+     */
+    public final boolean addIntercept;
+    /** the number of factors, including the intercept */
+    private final int p;
+    /** the observations in the window, [x 1 y], in a ring buffer */
+    private final double[][] rows;
+    /** the factor of [X y] over the window */
+    private UpdatableQR qr;
+    /** the total number of observations added */
+    private long count = 0;
+    /** the number of observations in the window */
+    private int size = 0;
+    /** the mean of y in the window */
+    private double yMean = 0;
+    /** sum (y - yMean)^2 in the window */
+    private double M2 = 0;
+    /** sum y^2 in the window */
+    private double sumY2 = 0;
+
+    /**
+     * Construct an empty rolling regression.
+     *
+     * @param window            the number of most recent observations to regress on
+     * @param nExogenousFactors the number of factors, excluding the intercept
+     * @param addIntercept      {@code true} if to add an intercept term
+     */
+    public RollingOLSRegression(int window, int nExogenousFactors, boolean addIntercept) {
+        this.window = window;
+        this.addIntercept = addIntercept;
+        this.p = nExogenousFactors + (addIntercept ? 1 : 0);
+        SuanShuUtils.assertArgument(p > 0, "there must be at least one factor");
+        SuanShuUtils.assertArgument(window > p, "the window must be bigger than the number of factors");
+
+        this.rows = new double[window][];
+        this.qr = new UpdatableQR(p);
+    }
+
+    /**
+     * Add an observation, dropping the oldest one if the window is full.
+     *
+     * @param y the response
+     * @param x the factors, excluding the intercept
+     */
+    public void add(double y, double[] x) {
+        SuanShuUtils.assertArgument(x.length + (addIntercept ? 1 : 0) == p, "wrong number of factors");
+
+        final int slot = (int) (count % window);
+        double[] oldest = rows[slot];
+        if (oldest != null) {
+            if (!qr.downdate(oldest)) {
+                rows[slot] = null;
+                refactorize();
+            }
+            removeY(oldest[p]);
+        }
+
+        double[] row = new double[p + 1];
+        System.arraycopy(x, 0, row, 0, x.length);
+        if (addIntercept) {
+            row[p - 1] = 1;
+        }
+        row[p] = y;
+        rows[slot] = row;
+        qr.update(row.clone());
+        addY(y);
+
+        ++count;
+    }
+
+    /**
+     * Add the observations in rows, in order.
+     *
+     * @param y the responses
+     * @param X the factors, excluding the intercept, one observation per row
+     */
+    public void add(Vector y, Matrix X) {
+        SuanShuUtils.assertArgument(y.size() == X.nRows(), "the numbers of responses and observations do not match");
+
+        double[] x = new double[X.nCols()];
+        for (int i = 1; i <= X.nRows(); ++i) {
+            for (int j = 1; j <= x.length; ++j) {
+                x[j - 1] = X.get(i, j);
+            }
+            add(y.get(i), x);
+        }
+    }
+
+    private void refactorize() {
+        qr = new UpdatableQR(p);
+        for (double[] row : rows) {
+            if (row != null) {
+                qr.update(row.clone());
+            }
+        }
+    }
+
+    private void addY(double y) {
+        ++size;
+        double delta = y - yMean;
+        yMean += delta / size;
+        M2 += delta * (y - yMean);
+        sumY2 += y * y;
+    }
+
+    private void removeY(double y) {
+        --size;
+        if (size == 0) {
+            yMean = 0;
+            M2 = 0;
+            sumY2 = 0;
+            return;
+        }
+        double delta = y - yMean;
+        yMean -= delta / size;
+        M2 -= delta * (y - yMean);
+        sumY2 -= y * y;
+    }
+
+    /**
+     * Get the number of observations in the window.
+     *
+     * @return the number of observations in the window
+     */
+    public int nObs() {
+        return size;
+    }
+
+    /**
+     * Check whether the window is full.
+     *
+     * @return {@code true} if there are {@link #window} observations in the window
+     */
+    public boolean isFull() {
+        return size == window;
+    }
+
+    /**
+     * Get the coefficient estimates over the window, \(\hat{\beta}\).
+     *
+     * @return \(\hat{\beta}\); the intercept is the last element
+     */
+    public Vector betaHat() {
+        return qr.betaHat();
+    }
+
+    /**
+     * Get the \(\hat{\beta}\) statistics over the window.
+     *
+     * @return the \(\hat{\beta}\) statistics
+     */
+    public Beta beta() {
+        return qr.beta(RSS() / (nObs() - p));
+    }
+
+    /**
+     * Get the residual sum of squares over the window.
+     *
+     * @return RSS
+     */
+    public double RSS() {
+        return qr.RSS();
+    }
+
+    /**
+     * Get the total sum of squares over the window, about the mean if there is an intercept term, otherwise about 0.
+     *
+     * @return TSS
+     */
+    public double TSS() {
+        return addIntercept ? M2 : sumY2;
+    }
+
+    /**
+     * Get the coefficient of determination over the window.
+     *
+     * @return R<sup>2</sup>
+     */
+    public double R2() {
+        return 1 - RSS() / TSS();
+    }
+
+    /**
+     * Get the adjusted coefficient of determination over the window.
+     *
+     * @return the adjusted R<sup>2</sup>
+     */
+    public double AR2() {
+        return 1 - (double) (nObs() - (addIntercept ? 1 : 0)) / (nObs() - p) * (1 - R2());
+    }
+
+    /**
+     * Get the standard error of the residuals over the window, <i>σ</i>.
+     *
+     * @return <i>σ</i>
+     */
+    public double stderr() {
+        return sqrt(RSS() / (nObs() - p));
+    }
+}
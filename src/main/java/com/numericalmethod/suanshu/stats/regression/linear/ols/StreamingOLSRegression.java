@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.triangle.UpperTriangularMatrix;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import java.io.Serializable;
+
+import static java.lang.Math.log;
+import static java.lang.Math.sqrt;
+
+/**
+ * This is the (weighted) ordinary least squares regression for data too many to keep in memory,
+ * e.g., 10<sup>8</sup> rows read from disk.
+ * The observations are added one by one or in batches, and only <i>O(p<sup>2</sup>)</i> numbers are kept
+ * for <i>p</i> factors, regardless of the number of observations.
+ * <p/>
+ * Each observation updates the triangular factor <i>R</i> of the QR decomposition of the (weighted) design matrix,
+ * together with <i>Q'y</i>, by Givens rotations.
+ * This is numerically more stable than accumulating the normal equations <i>X'X</i> and <i>X'y</i>,
+ * whose condition number is the square of that of <i>X</i>.
+ * The residual sum of squares is the sum of the squares of the components of <i>y</i> that the rotations leave out.
+ * <p/>
+ * The estimates are the same as those of {@link OLSRegression} on the same data,
+ * and so are the statistics that do not need the individual residuals:
+ * {@link #beta()}, {@link #RSS()}, {@link #TSS()}, {@link #R2()}, {@link #AR2()}, {@link #stderr()}, {@link #f()}
+ * and {@link #informationCriteria()}.
+ * The fitted values, residuals and influence measures need the data and are not available.
+ * <p/>
+ * This class is not thread-safe.
+ * To accumulate in parallel, accumulate disjoint parts of the data in separate instances
+ * and then {@link #merge(StreamingOLSRegression) merge} them.
+ * {@link #add(Vector, Matrix, Vector)} does so for a big batch.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"A. J. Miller, "Algorithm AS 274: Least squares routines to supplement those of Gentleman," Applied Statistics, 41(2), 458-478, 1992."
+ * <li>"J. Demmel, L. Grigori, M. Hoemmen, and J. Langou, "Communication-optimal parallel and sequential QR and LU factorizations," SIAM Journal on Scientific Computing, 34(1), 2012."
+ * </ul>
+ */
+public class StreamingOLSRegression implements Serializable {
+
+    private static final long serialVersionUID = 4326453196524810277L;
+    /**
+     * the number of rows of a batch accumulated by a task
+     */
+    private static final int ROW_BLOCK = 4096;
+    /**
+     * {@code true} if a constant 1 is appended to the factors, as in {@link com.numericalmethod.suanshu.stats.regression.linear.LMProblem}
+     */
+    public final boolean addIntercept;
+    /** the number of factors, including the intercept */
+    private final int p;
+    /** the factor of [X y] */
+    private final UpdatableQR qr;
+    /** the number of observations */
+    private long n = 0;
+    private double sumWeights = 0;
+    /** the weighted mean of y */
+    private double yMean = 0;
+    /** sum w (y - yMean)^2 */
+    private double M2 = 0;
+    /** sum w y^2 */
+    private double sumWy2 = 0;
+    private double sumLogWeights = 0;
+
+    /**
+     * Construct an empty regression.
+     *
+     * @param nExogenousFactors the number of factors, excluding the intercept
+     * @param addIntercept      {@code true} if to add an intercept term
+     */
+    public StreamingOLSRegression(int nExogenousFactors, boolean addIntercept) {
+        this.addIntercept = addIntercept;
+        this.p = nExogenousFactors + (addIntercept ? 1 : 0);
+        SuanShuUtils.assertArgument(p > 0, "there must be at least one factor");
+
+        this.qr = new UpdatableQR(p);
+    }
+
+    /**
+     * Construct an empty regression with an intercept term.
+     *
+     * @param nExogenousFactors the number of factors, excluding the intercept
+     */
+    public StreamingOLSRegression(int nExogenousFactors) {
+        this(nExogenousFactors, true);
+    }
+
+    /**
+     * Add an observation.
+     *
+     * @param y      the response
+     * @param x      the factors, excluding the intercept
+     * @param weight the weight of the observation
+     */
+    public void add(double y, double[] x, double weight) {
+        SuanShuUtils.assertArgument(x.length + (addIntercept ? 1 : 0) == p, "wrong number of factors");
+        SuanShuUtils.assertArgument(weight > 0, "the weight must be positive");
+
+        double rw = sqrt(weight);
+        double[] row = new double[p + 1];
+        for (int j = 0; j < x.length; ++j) {
+            row[j] = rw * x[j];
+        }
+        if (addIntercept) {
+            row[p - 1] = rw;
+        }
+        row[p] = rw * y;
+        qr.update(row);
+
+        ++n;
+        sumWeights += weight;
+        double delta = y - yMean;
+        yMean += delta * weight / sumWeights;
+        M2 += weight * delta * (y - yMean);
+        sumWy2 += weight * y * y;
+        sumLogWeights += log(weight);
+    }
+
+    /**
+     * Add an observation.
+     *
+     * @param y the response
+     * @param x the factors, excluding the intercept
+     */
+    public void add(double y, double[] x) {
+        add(y, x, 1);
+    }
+
+    /**
+     * Add a batch of observations.
+     * A big batch is split into blocks of rows that are accumulated in parallel and then merged.
+     *
+     * @param y       the responses
+     * @param X       the factors, excluding the intercept, one observation per row
+     * @param weights the weights of the observations; {@code null} if unweighted
+     */
+    public void add(final Vector y, final Matrix X, final Vector weights) {
+        SuanShuUtils.assertArgument(y.size() == X.nRows(), "the numbers of responses and observations do not match");
+        SuanShuUtils.assertArgument(weights == null || weights.size() == X.nRows(), "the numbers of weights and observations do not match");
+
+        final int nRows = X.nRows();
+        final int nBlocks = (nRows + ROW_BLOCK - 1) / ROW_BLOCK;
+        final StreamingOLSRegression[] partials = new StreamingOLSRegression[nBlocks];
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(
+                    nBlocks > 1,
+                    0, nBlocks,
+                    new LoopBody() {
+
+                        @Override
+                        public void run(int block) throws Exception {
+                            StreamingOLSRegression partial = new StreamingOLSRegression(p - (addIntercept ? 1 : 0), addIntercept);
+                            double[] x = new double[X.nCols()];
+                            int end = Math.min((block + 1) * ROW_BLOCK, nRows);
+                            for (int i = block * ROW_BLOCK + 1; i <= end; ++i) {
+                                for (int j = 1; j <= x.length; ++j) {
+                                    x[j - 1] = X.get(i, j);
+                                }
+                                partial.add(y.get(i), x, weights != null ? weights.get(i) : 1);
+                            }
+                            partials[block] = partial;
+                        }
+                    });
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        for (StreamingOLSRegression partial : partials) {
+            merge(partial);
+        }
+    }
+
+    /**
+     * Add a batch of observations.
+     *
+     * @param y the responses
+     * @param X the factors, excluding the intercept, one observation per row
+     */
+    public void add(Vector y, Matrix X) {
+        add(y, X, null);
+    }
+
+    /**
+     * Merge the observations accumulated in another instance, e.g., by another thread, into this one.
+     * The rows of the other <i>R</i> are rotated into this <i>R</i>, at a cost of <i>O(p<sup>3</sup>)</i>.
+     *
+     * @param that another regression of the same factors
+     */
+    public void merge(StreamingOLSRegression that) {
+        SuanShuUtils.assertArgument(this.p == that.p && this.addIntercept == that.addIntercept, "the regressions have different factors");
+
+        qr.merge(that.qr);
+
+        if (that.n > 0) {
+            double totalWeights = this.sumWeights + that.sumWeights;
+            double delta = that.yMean - this.yMean;
+            this.yMean += delta * that.sumWeights / totalWeights;
+            this.M2 += that.M2 + delta * delta * this.sumWeights * that.sumWeights / totalWeights;
+            this.sumWeights = totalWeights;
+        }
+        n += that.n;
+        sumWy2 += that.sumWy2;
+        sumLogWeights += that.sumLogWeights;
+    }
+
+    /**
+     * Get the number of observations.
+     *
+     * @return the number of observations
+     */
+    public long nObs() {
+        return n;
+    }
+
+    /**
+     * Get the number of factors, including the intercept.
+     *
+     * @return the number of factors
+     */
+    public int nFactors() {
+        return p;
+    }
+
+    /**
+     * Get the upper triangular factor <i>R</i> of the (weighted) design matrix, so that <i>X'WX = R'R</i>.
+     *
+     * @return <i>R</i>
+     */
+    public UpperTriangularMatrix R() {
+        return qr.R();
+    }
+
+    /**
+     * Get the coefficient estimates, \(\hat{\beta}\), by back substitution of <i>R * β = Q'y</i>.
+     *
+     * @return \(\hat{\beta}\); the intercept is the last element
+     */
+    public Vector betaHat() {
+        return qr.betaHat();
+    }
+
+    /**
+     * Get the \(\hat{\beta}\) statistics.
+     * The covariance is <i>σ<sup>2</sup> (X'WX)<sup>-1</sup> = σ<sup>2</sup> R<sup>-1</sup> R<sup>-t</sup></i>.
+     *
+     * @return the \(\hat{\beta}\) statistics
+     */
+    public Beta beta() {
+        return qr.beta(RSS() / (n - p));
+    }
+
+    /**
+     * Get the (weighted) residual sum of squares.
+     *
+     * @return RSS
+     */
+    public double RSS() {
+        return qr.RSS();
+    }
+
+    /**
+     * Get the (weighted) total sum of squares, about the mean if there is an intercept term, otherwise about 0.
+     *
+     * @return TSS
+     */
+    public double TSS() {
+        return addIntercept ? M2 : sumWy2;
+    }
+
+    /**
+     * Get the coefficient of determination.
+     *
+     * @return R<sup>2</sup>
+     */
+    public double R2() {
+        return 1 - RSS() / TSS();
+    }
+
+    /**
+     * Get the adjusted coefficient of determination.
+     *
+     * @return the adjusted R<sup>2</sup>
+     */
+    public double AR2() {
+        return 1 - (double) (n - (addIntercept ? 1 : 0)) / (n - p) * (1 - R2());
+    }
+
+    /**
+     * Get the standard error of the residuals, <i>σ</i>.
+     *
+     * @return <i>σ</i>
+     */
+    public double stderr() {
+        return sqrt(RSS() / (n - p));
+    }
+
+    /**
+     * Get the F statistic.
+     *
+     * @return the F statistic
+     */
+    public double f() {
+        return (TSS() - RSS()) / (p - (addIntercept ? 1 : 0)) / (RSS() / (n - p));
+    }
+
+    /**
+     * Get the model selection criteria.
+     *
+     * @return the information criteria
+     */
+    public InformationCriteria informationCriteria() {
+        return new InformationCriteria(n, p, RSS(), sumLogWeights);
+    }
+}
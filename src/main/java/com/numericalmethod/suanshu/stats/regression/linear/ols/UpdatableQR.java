@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.triangle.UpperTriangularMatrix;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.io.Serializable;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.sqrt;
+
+/**
+ * This is the triangular factor of the QR decomposition of the augmented (weighted) data matrix <i>[X y]</i>,
+ * updated in <i>O(p<sup>2</sup>)</i> time when a row is added or removed.
+ * The factor has the form
+ * <blockquote><pre>
+ * | R  z |
+ * | 0  ρ |
+ * </pre></blockquote>
+ * where <i>R</i> is the factor of <i>X</i>, <i>z = Q'y</i> and <i>ρ<sup>2</sup></i> is the residual sum of squares.
+ * A row is added by Givens rotations and removed by the LINPACK {@code dchdd} downdating algorithm.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"J. J. Dongarra, C. B. Moler, J. R. Bunch, and G. W. Stewart, "LINPACK Users' Guide," SIAM, 1979, Chapter 10."
+ * <li>"A. Björck, "Numerical Methods for Least Squares Problems," SIAM, 1996, Section 3.2."
+ * </ul>
+ */
+final class UpdatableQR implements Serializable {
+
+    private static final long serialVersionUID = -4139623521860474107L;
+    /** the number of factors */
+    final int p;
+    /** the rows of the (p+1) x (p+1) augmented upper triangular factor */
+    private final double[][] R;
+
+    /**
+     * Construct the factor of an empty data set.
+     *
+     * @param p the number of factors
+     */
+    UpdatableQR(int p) {
+        this.p = p;
+        this.R = new double[p + 1][p + 1];
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param that a factor
+     */
+    UpdatableQR(UpdatableQR that) {
+        this.p = that.p;
+        this.R = new double[p + 1][];
+        for (int i = 0; i <= p; ++i) {
+            this.R[i] = that.R[i].clone();
+        }
+    }
+
+    /**
+     * Add a row, <i>[a b]</i>.
+     *
+     * @param row the factors followed by the response, of length <i>p + 1</i>; overwritten
+     */
+    void update(double[] row) {
+        for (int k = 0; k <= p; ++k) {
+            final double ak = row[k];
+            if (ak == 0) {
+                continue;
+            }
+
+            final double[] Rk = R[k];
+            final double r = Rk[k];
+            final double h = sqrt(r * r + ak * ak);
+            final double c = r / h;
+            final double s = ak / h;
+
+            Rk[k] = h;
+            for (int j = k + 1; j <= p; ++j) {
+                final double t = Rk[j];
+                Rk[j] = c * t + s * row[j];
+                row[j] = c * row[j] - s * t;
+            }
+        }
+    }
+
+    /**
+     * Remove a row that was previously added.
+     * The downdate fails when the remaining rows no longer determine the factors,
+     * or when rounding errors make the downdated factor indefinite, e.g., for an exact fit.
+     *
+     * @param row the factors followed by the response, of length <i>p + 1</i>
+     * @return {@code false} if the downdate fails, in which case the factor is unchanged
+     */
+    boolean downdate(double[] row) {
+        final int m = p + 1;
+
+        // solve R' q = row
+        double[] q = new double[m];
+        double norm2 = 0;
+        for (int i = 0; i < m; ++i) {
+            if (R[i][i] == 0) {
+                return false;
+            }
+            double value = row[i];
+            for (int k = 0; k < i; ++k) {
+                value -= R[k][i] * q[k];
+            }
+            q[i] = value / R[i][i];
+            norm2 += q[i] * q[i];
+        }
+        if (!(norm2 < 1)) {
+            return false;
+        }
+
+        double alpha = sqrt(1 - norm2);
+        double[] c = new double[m];
+        double[] s = q;// overwritten in place
+        for (int i = m - 1; i >= 0; --i) {
+            final double scale = alpha + abs(q[i]);
+            final double a = alpha / scale;
+            final double b = q[i] / scale;
+            final double h = sqrt(a * a + b * b);
+            c[i] = a / h;
+            s[i] = b / h;
+            alpha = scale * h;
+        }
+
+        for (int j = 0; j < m; ++j) {
+            double xx = 0;
+            for (int i = j; i >= 0; --i) {
+                final double t = c[i] * xx + s[i] * R[i][j];
+                R[i][j] = c[i] * R[i][j] - s[i] * xx;
+                xx = t;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Scale the weights of all rows added so far.
+     *
+     * @param lambda the scaling factor of the weights
+     */
+    void scale(double lambda) {
+        final double factor = sqrt(lambda);
+        for (int i = 0; i <= p; ++i) {
+            for (int j = i; j <= p; ++j) {
+                R[i][j] *= factor;
+            }
+        }
+    }
+
+    /**
+     * Add all the rows of another factor.
+     *
+     * @param that another factor of the same dimension
+     */
+    void merge(UpdatableQR that) {
+        for (int k = 0; k <= p; ++k) {
+            update(that.R[k].clone());
+        }
+    }
+
+    /**
+     * Check whether the factors added so far have full rank.
+     *
+     * @return {@code true} if <i>R</i> is non-singular
+     */
+    boolean isFullRank() {
+        for (int k = 0; k < p; ++k) {
+            if (R[k][k] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the residual sum of squares, <i>ρ<sup>2</sup></i>.
+     *
+     * @return RSS
+     */
+    double RSS() {
+        return R[p][p] * R[p][p];
+    }
+
+    /**
+     * Get the triangular factor <i>R</i> of the factors.
+     *
+     * @return <i>R</i>
+     */
+    UpperTriangularMatrix R() {
+        UpperTriangularMatrix result = new UpperTriangularMatrix(p);
+        for (int i = 1; i <= p; ++i) {
+            for (int j = i; j <= p; ++j) {
+                result.set(i, j, R[i - 1][j - 1]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Solve <i>R * β = z</i> by back substitution.
+     *
+     * @return \(\hat{\beta}\)
+     */
+    Vector betaHat() {
+        double[] beta = new double[p];
+        for (int i = p - 1; i >= 0; --i) {
+            double value = R[i][p];
+            for (int j = i + 1; j < p; ++j) {
+                value -= R[i][j] * beta[j];
+            }
+            beta[i] = value / R[i][i];
+        }
+        return new DenseVector(beta);
+    }
+
+    /**
+     * Get the \(\hat{\beta}\) statistics.
+     * The covariance is <i>σ<sup>2</sup> (R'R)<sup>-1</sup> = σ<sup>2</sup> R<sup>-1</sup> R<sup>-t</sup></i>.
+     *
+     * @param s2 the variance of the residuals, <i>σ<sup>2</sup></i>
+     * @return the \(\hat{\beta}\) statistics
+     */
+    Beta beta(double s2) {
+        double[][] Rinv = new double[p][p];// upper triangular
+        for (int j = 0; j < p; ++j) {
+            Rinv[j][j] = 1 / R[j][j];
+            for (int i = j - 1; i >= 0; --i) {
+                double value = 0;
+                for (int k = i + 1; k <= j; ++k) {
+                    value -= R[i][k] * Rinv[k][j];
+                }
+                Rinv[i][j] = value / R[i][i];
+            }
+        }
+
+        DenseMatrix covariance = new DenseMatrix(p, p);
+        for (int i = 0; i < p; ++i) {
+            for (int j = i; j < p; ++j) {
+                double value = 0;
+                for (int k = j; k < p; ++k) {
+                    value += Rinv[i][k] * Rinv[j][k];
+                }
+                covariance.set(i + 1, j + 1, s2 * value);
+                covariance.set(j + 1, i + 1, s2 * value);
+            }
+        }
+
+        return new Beta(betaHat(), covariance);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.discrete;
+
+import com.numericalmethod.suanshu.stats.random.RngUtils;
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.UniformRng;
+import java.io.Serializable;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+
+/**
+ * The alias method samples repeatedly from a fixed discrete distribution on <i>{0, 1, ..., n - 1}</i>
+ * in constant time per draw, after an <i>O(n)</i> setup.
+ * The distribution is split into <i>n</i> equally likely columns,
+ * each containing at most two outcomes: the column index itself with a probability {@code prob[i]},
+ * and otherwise its alias {@code alias[i]}.
+ * A draw picks a column uniformly and then tosses a biased coin.
+ * This class builds the table using Vose's stable algorithm.
+ *
+ * @author Haksun Li
+ * @see
+ * <ul>
+ * <li>"A. J. Walker. An Efficient Method for Generating Discrete Random Variables with General Distributions. ACM Transactions on Mathematical Software, 3(3): 253-256. 1977."</li>
+ * <li>"M. D. Vose. A Linear Algorithm for Generating Random Numbers with a Given Distribution. IEEE Transactions on Software Engineering, 17(9): 972-975. 1991."</li>
+ * </ul>
+ */
+public class AliasMethod implements Serializable {
+
+    private static final long serialVersionUID = -2016402539166758617L;
+    private final double[] prob;
+    private final int[] alias;
+    private final RandomLongGenerator uniform = new UniformRng();
+
+    /**
+     * Construct an alias table for a discrete distribution.
+     *
+     * @param weights the non-negative weights of the outcomes <i>{0, 1, ..., n - 1}</i>;
+     *                they need not sum to 1
+     */
+    public AliasMethod(double[] weights) {
+        final int n = weights.length;
+        assertArgument(n > 0, "there must be at least one outcome");
+
+        double sum = 0;
+        for (int i = 0; i < n; ++i) {
+            assertArgument(weights[i] >= 0, "weights must be non-negative");
+            sum += weights[i];
+        }
+        assertArgument(sum > 0, "the sum of weights must be positive");
+
+        this.prob = new double[n];
+        this.alias = new int[n];
+
+        //scaled probabilities; a column is small if its mass < 1
+        double[] p = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int nSmall = 0, nLarge = 0;
+        for (int i = 0; i < n; ++i) {
+            p[i] = weights[i] * n / sum;
+            if (p[i] < 1) {
+                small[nSmall++] = i;
+            } else {
+                large[nLarge++] = i;
+            }
+        }
+
+        while (nSmall > 0 && nLarge > 0) {
+            int s = small[--nSmall];
+            int l = large[--nLarge];
+
+            prob[s] = p[s];
+            alias[s] = l;
+
+            p[l] = (p[l] + p[s]) - 1;
+            if (p[l] < 1) {
+                small[nSmall++] = l;
+            } else {
+                large[nLarge++] = l;
+            }
+        }
+
+        //the remaining columns are full up to rounding errors
+        while (nLarge > 0) {
+            int l = large[--nLarge];
+            prob[l] = 1;
+            alias[l] = l;
+        }
+        while (nSmall > 0) {
+            int s = small[--nSmall];
+            prob[s] = 1;
+            alias[s] = s;
+        }
+    }
+
+    /**
+     * Seed the random generator to produce repeatable sequences.
+     *
+     * @param seeds the seeds
+     */
+    public void seed(long... seeds) {
+        uniform.seed(seeds);
+    }
+
+    /**
+     * Get the number of outcomes.
+     *
+     * @return the number of outcomes
+     */
+    public int size() {
+        return prob.length;
+    }
+
+    /**
+     * Draw an outcome.
+     *
+     * @return an outcome in <i>{0, 1, ..., n - 1}</i>
+     */
+    public int nextIndex() {
+        int i = RngUtils.nextInt(uniform, prob.length);
+
+        double u = (uniform.nextLong() & 0xffffffffL) * 0x1p-32;//in [0, 1)
+        return u < prob[i] ? i : alias[i];
+    }
+
+    /**
+     * Draw outcomes in bulk.
+     *
+     * @param indices the output; filled with independent draws
+     */
+    public void nextIndices(int[] indices) {
+        for (int k = 0; k < indices.length; ++k) {
+            indices[k] = nextIndex();
+        }
+    }
+
+    /**
+     * Draw outcomes in bulk.
+     *
+     * @param n the number of draws
+     * @return {@code n} independent draws
+     */
+    public int[] nextIndices(int n) {
+        int[] indices = new int[n];
+        nextIndices(indices);
+        return indices;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.discrete;
+
+import com.numericalmethod.suanshu.stats.distribution.ProbabilityMassFunction;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class samples repeatedly from a discrete probability distribution over a finite collection,
+ * in constant time per draw, using the {@link AliasMethod}.
+ * Unlike {@link DiscreteSampling}, the probability mass function is evaluated only once per element,
+ * when constructing the alias table.
+ *
+ * @param <X> the discrete random variable (domain) type
+ * @author Haksun Li
+ */
+public class AliasSampling<X> implements Serializable {
+
+    private static final long serialVersionUID = 6924066281549573519L;
+    private final List<X> values = new ArrayList<X>();
+    private final AliasMethod alias;
+
+    /**
+     * Construct a sampler from a discrete probability distribution.
+     *
+     * @param collection the values of the random variable
+     * @param pmf        the probability mass function
+     */
+    public AliasSampling(Iterable<X> collection, ProbabilityMassFunction<X> pmf) {
+        for (X x : collection) {
+            values.add(x);
+        }
+
+        double[] weights = new double[values.size()];
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i] = pmf.evaluate(values.get(i));
+        }
+
+        this.alias = new AliasMethod(weights);
+    }
+
+    /**
+     * Seed the random generator to produce repeatable sequences.
+     *
+     * @param seeds the seeds
+     */
+    public void seed(long... seeds) {
+        alias.seed(seeds);
+    }
+
+    /**
+     * Get a sample from the probability distribution.
+     *
+     * @return a sample
+     */
+    public X getSample() {
+        return values.get(alias.nextIndex());
+    }
+
+    /**
+     * Get samples from the probability distribution.
+     *
+     * @param n the number of samples
+     * @return {@code n} independent samples
+     */
+    public List<X> getSamples(int n) {
+        List<X> samples = new ArrayList<X>(n);
+        for (int k = 0; k < n; ++k) {
+            samples.add(values.get(alias.nextIndex()));
+        }
+        return samples;
+    }
+}
@@ -35,6 +35,8 @@ import java.io.Serializable;
 
 /**
  * This class estimates the statistic for a sample using a bootstrap method.
+ * The resamples are drawn from the shared {@link Resampling} one at a time;
+ * {@link ParallelBootstrapEstimator} draws them concurrently from independent random streams.
  *
  * @author Haksun Li
  */
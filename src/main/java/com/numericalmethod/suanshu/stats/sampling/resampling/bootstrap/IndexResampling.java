@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
+
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import java.io.Serializable;
+
+/**
+ * An index re-sampling method draws a resample as a vector of indices into the original sample,
+ * instead of copying the sample values.
+ * The random number generator is supplied by the caller so that
+ * many resamples can be drawn concurrently from independent streams without sharing any state.
+ *
+ * @author Haksun Li
+ */
+public interface IndexResampling extends Serializable {
+
+    /**
+     * Get the size of the original sample (and of a resample).
+     *
+     * @return the sample size
+     */
+    public int size();
+
+    /**
+     * Draw a resample as indices into the original sample.
+     *
+     * @param uniform a uniform random number generator of (at least) 32 random bits
+     * @param indices the output; {@code indices[i]} is the index, from 0, of the <i>i</i>-th resampled observation;
+     *                its length must be the same as {@link #size()}
+     */
+    public void nextIndices(RandomLongGenerator uniform, int[] indices);
+}
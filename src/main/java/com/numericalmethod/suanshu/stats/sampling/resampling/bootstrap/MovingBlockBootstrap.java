@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
+
+import com.numericalmethod.suanshu.stats.random.RngUtils;
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.UniformRng;
+import com.numericalmethod.suanshu.stats.sampling.resampling.Resampling;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+
+/**
+ * The moving block bootstrap resamples a time series by concatenating blocks of consecutive observations,
+ * so that the dependence within a block is preserved.
+ * The blocks have the same length and start at random positions
+ * such that a block lies entirely in the original series.
+ * The last block is truncated so that a resample has the same length as the original series.
+ *
+ * @author Haksun Li
+ * @see "H. R. Kunsch. The Jackknife and the Bootstrap for General Stationary Observations. The Annals of Statistics, 17(3): 1217-1241. 1989."
+ */
+public class MovingBlockBootstrap implements Resampling, IndexResampling {
+
+    private static final long serialVersionUID = 8251329508463019467L;
+    private final double[] sample;// make a copy to make sure the sample never changes
+    private final int blockLength;
+    private final RandomLongGenerator uniform = new UniformRng();
+
+    /**
+     * Construct a moving block bootstrap sample generator.
+     *
+     * @param sample      the original time series
+     * @param blockLength the length of a block
+     */
+    public MovingBlockBootstrap(double[] sample, int blockLength) {
+        assertArgument(blockLength >= 1 && blockLength <= sample.length, "1 <= blockLength <= sample size");
+
+        this.sample = Arrays.copyOf(sample, sample.length);
+        this.blockLength = blockLength;
+    }
+
+    @Override
+    public void seed(long... seeds) {
+        uniform.seed(seeds);
+    }
+
+    @Override
+    public double[] getResample() {
+        int[] indices = new int[sample.length];
+        nextIndices(uniform, indices);
+
+        double[] resample = new double[sample.length];
+        for (int i = 0; i < sample.length; ++i) {
+            resample[i] = sample[indices[i]];
+        }
+
+        return resample;
+    }
+
+    @Override
+    public int size() {
+        return sample.length;
+    }
+
+    @Override
+    public void nextIndices(RandomLongGenerator uniform, int[] indices) {
+        final int nStarts = sample.length - blockLength + 1;
+        for (int i = 0; i < indices.length;) {
+            int start = RngUtils.nextInt(uniform, nStarts);
+            for (int j = 0; j < blockLength && i < indices.length; ++j, ++i) {
+                indices[i] = start + j;
+            }
+        }
+    }
+}
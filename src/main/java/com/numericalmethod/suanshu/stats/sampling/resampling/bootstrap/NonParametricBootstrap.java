@@ -22,6 +22,7 @@
  */
 package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
 
+import com.numericalmethod.suanshu.stats.random.RngUtils;
 import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
 import com.numericalmethod.suanshu.stats.random.univariate.uniform.UniformRng;
 import com.numericalmethod.suanshu.stats.sampling.resampling.Resampling;
@@ -30,12 +31,13 @@ import java.util.Arrays;
 /**
  * This is the classical bootstrap method described in the reference.
  * It draws from the original sample with replacement.
+ * The indices are drawn uniformly without the modulo bias by rejecting the incomplete range of random numbers.
  *
  * @author Haksun Li
  *
  * @see "B. Efron and R. Tibshirani. An Introduction to the Bootstrap. 1993. Chapman and Hall, New York, London."
  */
-public class NonParametricBootstrap implements Resampling {
+public class NonParametricBootstrap implements Resampling, IndexResampling {
 
     private static final long serialVersionUID = -1389039411281921152L;
     private double[] sample;// make a copy to make sure the sample never changes
@@ -58,10 +60,21 @@ public class NonParametricBootstrap implements Resampling {
     public double[] getResample() {
         double[] resample = new double[sample.length];
         for (int i = 0; i < sample.length; ++i) {
-            int j = (int) (uniform.nextLong() % sample.length);
-            resample[i] = sample[j];
+            resample[i] = sample[RngUtils.nextInt(uniform, sample.length)];
         }
 
         return resample;
     }
+
+    @Override
+    public int size() {
+        return sample.length;
+    }
+
+    @Override
+    public void nextIndices(RandomLongGenerator uniform, int[] indices) {
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = RngUtils.nextInt(uniform, sample.length);
+        }
+    }
 }
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
+
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.StatisticFactory;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Quantile;
+import com.numericalmethod.suanshu.stats.distribution.univariate.NormalDistribution;
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.MersenneTwister;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.*;
+
+/**
+ * This class estimates the statistic for a sample using a bootstrap method,
+ * computing the bootstrap replicates in parallel without sharing any state between them.
+ *
+ * <p>
+ * The replicates are divided into chunks.
+ * Each chunk draws its resamples from its own random number generator,
+ * seeded from a master generator in the chunk order,
+ * so the replicates do not depend on whether the chunks are computed sequentially or in parallel.
+ * A resample is drawn as a vector of indices into the original sample by an {@link IndexResampling},
+ * and the working arrays are allocated once per chunk.
+ * A {@link WeightedStatistic} is computed directly from the counts of the indices without copying the sample;
+ * a {@link Statistic} from a {@link StatisticFactory} is computed from the resampled observations.
+ * The latter is required for a statistic that depends on the order of the observations,
+ * e.g., an autocorrelation of a {@link MovingBlockBootstrap} resample.
+ *
+ * <p>
+ * In addition to the bootstrap estimates of the statistic and its variance,
+ * this class computes the percentile and the bias-corrected and accelerated (BCa) confidence intervals.
+ *
+ * @author Haksun Li
+ * @see BootstrapEstimator
+ * @see "B. Efron and R. Tibshirani. An Introduction to the Bootstrap. 1993. Chapman and Hall, New York, London. Chapter 14."
+ */
+public class ParallelBootstrapEstimator implements Serializable {
+
+    private static final long serialVersionUID = 2907638120561442817L;
+    /**
+     * the number of replicates in a chunk
+     */
+    private static final int CHUNK_SIZE = 256;
+    private final double[] sample;
+    private final IndexResampling resampling;
+    private final StatisticFactory factory;
+    private final WeightedStatistic weighted;
+    private final int B;
+    private final boolean isParallel;
+    private final double[] stats;
+    private final double thetaHat;
+    private final Quantile quantile;
+
+    /**
+     * Constructs a bootstrap estimator for a statistic that supports frequency weights.
+     *
+     * @param sample     the original sample
+     * @param resampling the bootstrap method
+     * @param statistic  the statistic
+     * @param B          the number of bootstrap replicas
+     * @param seed       seeding the same {@code seed} gives arise to the same replicates
+     * @param isParallel {@code true} if to run in parallel cores
+     */
+    public ParallelBootstrapEstimator(double[] sample, IndexResampling resampling, WeightedStatistic statistic, int B, long seed, boolean isParallel) {
+        this(sample, resampling, null, statistic, B, seed, isParallel);
+    }
+
+    /**
+     * Constructs a bootstrap estimator.
+     * The factory is called concurrently when running in parallel,
+     * so it must be thread-safe, e.g., returning a new {@link Statistic} for each call.
+     *
+     * @param sample     the original sample
+     * @param resampling the bootstrap method
+     * @param factory    the statistic
+     * @param B          the number of bootstrap replicas
+     * @param seed       seeding the same {@code seed} gives arise to the same replicates
+     * @param isParallel {@code true} if to run in parallel cores
+     */
+    public ParallelBootstrapEstimator(double[] sample, IndexResampling resampling, StatisticFactory factory, int B, long seed, boolean isParallel) {
+        this(sample, resampling, factory, null, B, seed, isParallel);
+    }
+
+    private ParallelBootstrapEstimator(double[] sample, IndexResampling resampling, StatisticFactory factory, WeightedStatistic weighted, int B, long seed, boolean isParallel) {
+        assertArgument(sample.length == resampling.size(), "the resampling method must be for the sample");
+        assertArgument(B > 0, "B > 0");
+
+        this.sample = Arrays.copyOf(sample, sample.length);
+        this.resampling = resampling;
+        this.factory = factory;
+        this.weighted = weighted;
+        this.B = B;
+        this.isParallel = isParallel;
+        this.stats = new double[B];
+
+        try {
+            sim(seed);
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException("failed to do bootstrapping in parallel", ex);
+        }
+
+        this.thetaHat = statistic(this.sample, -1);
+        this.quantile = new Quantile(stats);
+    }
+
+    /**
+     * The estimator value.
+     *
+     * @return the estimator value
+     */
+    public double value() {
+        double theta = new Mean(stats).value();
+        return theta;
+    }
+
+    /**
+     * The estimator variance, of which the convergence limit is decided by
+     * sample size, not B.
+     *
+     * @return the estimator variance
+     */
+    public double variance() {
+        double var = new Variance(stats).value();
+        return var;
+    }
+
+    /**
+     * The statistic of the original sample.
+     *
+     * @return the statistic of the original sample
+     */
+    public double thetaHat() {
+        return thetaHat;
+    }
+
+    /**
+     * Get the bootstrap replicates of the statistic.
+     *
+     * @return the bootstrap replicates
+     */
+    public double[] replicates() {
+        return Arrays.copyOf(stats, B);
+    }
+
+    /**
+     * Compute the percentile confidence interval,
+     * i.e., the <i>α/2</i> and <i>1 - α/2</i> quantiles of the bootstrap replicates,
+     * where <i>α = 1 - level</i>.
+     *
+     * @param level the confidence level, e.g., 0.95
+     * @return the lower and upper bounds of the confidence interval
+     */
+    public double[] percentileInterval(double level) {
+        assertArgument(level > 0 && level < 1, "0 < level < 1");
+
+        double alpha = (1 - level) / 2;
+        return new double[]{quantile.value(alpha), quantile.value(1 - alpha)};
+    }
+
+    /**
+     * Compute the bias-corrected and accelerated (BCa) confidence interval.
+     * The bias correction <i>z0</i> is computed from the proportion of the replicates below {@link #thetaHat()};
+     * the acceleration <i>a</i> is computed from the jackknife (leave-one-out) values of the statistic.
+     * The jackknife deletes single observations so the acceleration is meant for i.i.d. samples;
+     * for a block bootstrap of a dependent series, {@link #percentileInterval(double)} may be more appropriate.
+     *
+     * @param level the confidence level, e.g., 0.95
+     * @return the lower and upper bounds of the confidence interval
+     */
+    public double[] bcaInterval(double level) {
+        assertArgument(level > 0 && level < 1, "0 < level < 1");
+
+        NormalDistribution normal = new NormalDistribution();
+
+        //bias correction
+        double below = 0;
+        for (int b = 0; b < B; ++b) {
+            if (stats[b] < thetaHat) {
+                below += 1;
+            } else if (stats[b] == thetaHat) {
+                below += 0.5;
+            }
+        }
+        double p0 = min(max(below / B, 0.5 / B), 1 - 0.5 / B);//keep z0 finite
+        double z0 = normal.quantile(p0);
+
+        //acceleration
+        final int n = sample.length;
+        double[] jackknife = new double[n];
+        for (int i = 0; i < n; ++i) {
+            jackknife[i] = statistic(sample, i);
+        }
+        double mean = new Mean(jackknife).value();
+        double num = 0, den = 0;
+        for (int i = 0; i < n; ++i) {
+            double d = mean - jackknife[i];
+            num += d * d * d;
+            den += d * d;
+        }
+        double a = den > 0 ? num / (6 * pow(den, 1.5)) : 0;
+
+        double alpha = (1 - level) / 2;
+        double[] interval = new double[2];
+        double[] z = new double[]{normal.quantile(alpha), normal.quantile(1 - alpha)};
+        for (int k = 0; k < 2; ++k) {
+            double zk = z0 + z[k];
+            double q = normal.cdf(z0 + zk / (1 - a * zk));
+            interval[k] = quantile.value(q);
+        }
+
+        return interval;
+    }
+
+    /**
+     * Compute the statistic of the original sample, optionally deleting one observation.
+     *
+     * @param x       the original sample
+     * @param deleted the index of the deleted observation; -1 if none
+     * @return the statistic
+     */
+    private double statistic(double[] x, int deleted) {
+        if (weighted != null) {
+            int[] weights = new int[x.length];
+            Arrays.fill(weights, 1);
+            if (deleted >= 0) {
+                weights[deleted] = 0;
+            }
+            return weighted.value(x, weights);
+        }
+
+        double[] data = x;
+        if (deleted >= 0) {
+            data = new double[x.length - 1];
+            System.arraycopy(x, 0, data, 0, deleted);
+            System.arraycopy(x, deleted + 1, data, deleted, x.length - deleted - 1);
+        }
+        Statistic stat = factory.getStatistic();
+        stat.addData(data);
+        return stat.value();
+    }
+
+    private void sim(long seed) throws MultipleExecutionException {
+        final int nChunks = (B + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final long[] seeds = new long[nChunks];
+        RandomLongGenerator uniform = new MersenneTwister(seed);
+        for (int c = 0; c < nChunks; ++c) {
+            seeds[c] = uniform.nextLong();
+        }
+
+        ParallelExecutor.getInstance().conditionalForLoop(isParallel, 0, nChunks,
+                new LoopBody() {
+
+            @Override
+            public void run(int c) throws Exception {
+                int from = c * CHUNK_SIZE;
+                simChunk(from, min(from + CHUNK_SIZE, B), seeds[c]);
+            }
+        });
+    }
+
+    private void simChunk(int from, int to, long seed) {
+        final int n = sample.length;
+        RandomLongGenerator uniform = new MersenneTwister(seed);
+
+        //working arrays, reused for all replicates in the chunk
+        int[] indices = new int[n];
+        int[] weights = weighted != null ? new int[n] : null;
+        double[] resample = weighted != null ? null : new double[n];
+
+        for (int b = from; b < to; ++b) {
+            resampling.nextIndices(uniform, indices);
+
+            if (weighted != null) {
+                Arrays.fill(weights, 0);
+                for (int i = 0; i < n; ++i) {
+                    ++weights[indices[i]];
+                }
+                stats[b] = weighted.value(sample, weights);
+            } else {
+                for (int i = 0; i < n; ++i) {
+                    resample[i] = sample[indices[i]];
+                }
+                Statistic stat = factory.getStatistic();
+                stat.addData(resample);
+                stats[b] = stat.value();
+            }
+        }
+    }
+}
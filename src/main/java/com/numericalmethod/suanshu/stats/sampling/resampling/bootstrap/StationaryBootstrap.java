@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
+
+import com.numericalmethod.suanshu.stats.random.RngUtils;
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.UniformRng;
+import com.numericalmethod.suanshu.stats.sampling.resampling.Resampling;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+
+/**
+ * The stationary bootstrap resamples a time series by concatenating blocks of consecutive observations
+ * of random lengths.
+ * The block lengths are geometrically distributed with mean {@code meanBlockLength},
+ * and the series is wrapped around circularly, so that, unlike {@link MovingBlockBootstrap},
+ * the resampled series is stationary.
+ * Equivalently, each resampled observation starts a new block at a random position
+ * with probability <i>p = 1 / meanBlockLength</i>;
+ * otherwise, it is the observation following the previous one.
+ *
+ * @author Haksun Li
+ * @see "D. N. Politis and J. P. Romano. The Stationary Bootstrap. Journal of the American Statistical Association, 89(428): 1303-1313. 1994."
+ */
+public class StationaryBootstrap implements Resampling, IndexResampling {
+
+    private static final long serialVersionUID = -1732547170860286313L;
+    private final double[] sample;// make a copy to make sure the sample never changes
+    private final double p;
+    private final RandomLongGenerator uniform = new UniformRng();
+
+    /**
+     * Construct a stationary bootstrap sample generator.
+     *
+     * @param sample          the original time series
+     * @param meanBlockLength the expected length of a block, at least 1
+     */
+    public StationaryBootstrap(double[] sample, double meanBlockLength) {
+        assertArgument(meanBlockLength >= 1, "meanBlockLength >= 1");
+
+        this.sample = Arrays.copyOf(sample, sample.length);
+        this.p = 1. / meanBlockLength;
+    }
+
+    @Override
+    public void seed(long... seeds) {
+        uniform.seed(seeds);
+    }
+
+    @Override
+    public double[] getResample() {
+        int[] indices = new int[sample.length];
+        nextIndices(uniform, indices);
+
+        double[] resample = new double[sample.length];
+        for (int i = 0; i < sample.length; ++i) {
+            resample[i] = sample[indices[i]];
+        }
+
+        return resample;
+    }
+
+    @Override
+    public int size() {
+        return sample.length;
+    }
+
+    @Override
+    public void nextIndices(RandomLongGenerator uniform, int[] indices) {
+        final int n = sample.length;
+        for (int i = 0; i < indices.length; ++i) {
+            if (i == 0 || (uniform.nextLong() & 0xffffffffL) * 0x1p-32 < p) {
+                indices[i] = RngUtils.nextInt(uniform, n);//start a new block
+            } else {
+                indices[i] = (indices[i - 1] + 1) % n;
+            }
+        }
+    }
+}
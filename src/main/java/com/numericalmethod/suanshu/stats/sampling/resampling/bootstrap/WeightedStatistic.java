@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
+
+import java.io.Serializable;
+
+/**
+ * A statistic that can be computed from a sample and the frequency weights of its observations,
+ * without copying the observations into a new array.
+ * A bootstrap resample of an i.i.d. sample is fully described by how many times each observation is drawn,
+ * so a statistic that does not depend on the order of the observations,
+ * e.g., {@link WeightedMean}, can be computed from the counts alone.
+ *
+ * @author Haksun Li
+ */
+public interface WeightedStatistic extends Serializable {
+
+    /**
+     * Compute the statistic of a weighted sample.
+     *
+     * @param sample  the observations
+     * @param weights {@code weights[i]} is the number of times {@code sample[i]} appears in the sample
+     * @return the statistic
+     */
+    public double value(double[] sample, int[] weights);
+}
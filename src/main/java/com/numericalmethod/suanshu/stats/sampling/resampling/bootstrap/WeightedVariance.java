@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
+
+/**
+ * The unbiased sample variance of a sample with frequency weights,
+ * i.e., the sample variance of the sample in which {@code sample[i]} is repeated {@code weights[i]} times.
+ * It is computed by the two-pass algorithm to avoid the cancellation errors.
+ *
+ * @author Haksun Li
+ */
+public class WeightedVariance implements WeightedStatistic {
+
+    private static final long serialVersionUID = -3262174536040519474L;
+
+    @Override
+    public double value(double[] sample, int[] weights) {
+        double mean = new WeightedMean().value(sample, weights);
+
+        double ss = 0;
+        long N = 0;
+        for (int i = 0; i < sample.length; ++i) {
+            double d = sample[i] - mean;
+            ss += weights[i] * d * d;
+            N += weights[i];
+        }
+
+        return ss / (N - 1);
+    }
+}
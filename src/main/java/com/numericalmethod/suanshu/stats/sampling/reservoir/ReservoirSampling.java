@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.reservoir;
+
+import com.numericalmethod.suanshu.stats.random.RngUtils;
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.UniformRng;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.*;
+
+/**
+ * Reservoir sampling keeps a simple random sample, without replacement, of <i>k</i> items
+ * from a stream of unknown (and possibly unbounded) length in one pass and <i>O(k)</i> memory.
+ * This implementation is Algorithm L, which, instead of tossing a coin for every item,
+ * draws the number of items to skip before the next replacement from its exact distribution,
+ * so that only <i>O(k (1 + log(N/k)))</i> random numbers are needed for a stream of <i>N</i> items.
+ *
+ * @author Haksun Li
+ * @see "K.-H. Li. Reservoir-Sampling Algorithms of Time Complexity O(n(1 + log(N/n))). ACM Transactions on Mathematical Software, 20(4): 481-493. 1994."
+ */
+public class ReservoirSampling implements Serializable {
+
+    private static final long serialVersionUID = -3620564818525223787L;
+    private final double[] reservoir;
+    private final RandomLongGenerator uniform = new UniformRng();
+    /**
+     * the number of items seen so far
+     */
+    private long N = 0;
+    /**
+     * the (1-based) position in the stream of the next item to go into the reservoir
+     */
+    private long next;
+    private double W;
+
+    /**
+     * Construct a reservoir.
+     *
+     * @param k the sample size
+     */
+    public ReservoirSampling(int k) {
+        assertArgument(k > 0, "k > 0");
+        this.reservoir = new double[k];
+        this.next = k;//the first skip is drawn when the reservoir is full
+        this.W = 0;
+    }
+
+    /**
+     * Seed the random generator to produce repeatable sequences.
+     *
+     * @param seeds the seeds
+     */
+    public void seed(long... seeds) {
+        uniform.seed(seeds);
+    }
+
+    /**
+     * Add an item from the stream.
+     *
+     * @param x an item
+     */
+    public void add(double x) {
+        ++N;
+        final int k = reservoir.length;
+        if (N <= k) {
+            reservoir[(int) N - 1] = x;
+            if (N == k) {
+                W = exp(log(nextOpenUniform()) / k);
+                skip();
+            }
+        } else if (N == next) {
+            reservoir[RngUtils.nextInt(uniform, k)] = x;
+            W *= exp(log(nextOpenUniform()) / k);
+            skip();
+        }
+    }
+
+    /**
+     * Add items from the stream.
+     * The items that are skipped are not examined.
+     *
+     * @param data the items
+     */
+    public void addAll(double... data) {
+        final int k = reservoir.length;
+        int i = 0;
+        for (; i < data.length && N < k; ++i) {
+            add(data[i]);
+        }
+
+        //jump to the next replacement directly; data[j] is the (base + j + 1)-th item
+        final long base = N - i;
+        while (next - base - 1 < data.length) {
+            int j = (int) (next - base - 1);
+            N = next - 1;
+            add(data[j]);
+        }
+        N = base + data.length;
+    }
+
+    /**
+     * Get the sample.
+     *
+     * @return a copy of the reservoir; its size is the minimum of <i>k</i> and {@link #N()}
+     */
+    public double[] sample() {
+        return Arrays.copyOf(reservoir, (int) min(N, reservoir.length));
+    }
+
+    /**
+     * Get the number of items seen so far.
+     *
+     * @return the number of items
+     */
+    public long N() {
+        return N;
+    }
+
+    private void skip() {
+        double gap = floor(log(nextOpenUniform()) / log1p(-W)) + 1;
+        next = gap < Long.MAX_VALUE - next ? next + (long) gap : Long.MAX_VALUE;
+    }
+
+    private double nextOpenUniform() {
+        return ((uniform.nextLong() & 0xffffffffL) + 0.5) * 0x1p-32;//in (0, 1)
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.reservoir;
+
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.UniformRng;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.*;
+
+/**
+ * Weighted reservoir sampling keeps a weighted random sample, without replacement, of <i>k</i> items
+ * from a stream of unknown (and possibly unbounded) length in one pass and <i>O(k)</i> memory.
+ * Each item gets a key <i>u<sup>1/w</sup></i>, where <i>u</i> is uniform and <i>w</i> is the item weight,
+ * and the sample is the <i>k</i> items with the largest keys.
+ * This implementation is Algorithm A-ExpJ, which draws the total weight to skip
+ * before the next item enters the reservoir (an exponential jump),
+ * so that only <i>O(k log(N/k))</i> random numbers are needed for a stream of <i>N</i> items.
+ * The keys are kept as logarithms in a binary min-heap to avoid underflow for large weights.
+ *
+ * @author Haksun Li
+ * @see "P. S. Efraimidis and P. G. Spirakis. Weighted random sampling with a reservoir. Information Processing Letters, 97(5): 181-185. 2006."
+ */
+public class WeightedReservoirSampling implements Serializable {
+
+    private static final long serialVersionUID = 1563320270151802466L;
+    private final double[] values;
+    /**
+     * the logarithms of the keys, as a binary min-heap
+     */
+    private final double[] logKeys;
+    private final RandomLongGenerator uniform = new UniformRng();
+    private int size = 0;
+    /**
+     * the number of items seen so far
+     */
+    private long N = 0;
+    /**
+     * the remaining weight to skip before the next item enters the reservoir
+     */
+    private double Xw;
+
+    /**
+     * Construct a weighted reservoir.
+     *
+     * @param k the sample size
+     */
+    public WeightedReservoirSampling(int k) {
+        assertArgument(k > 0, "k > 0");
+        this.values = new double[k];
+        this.logKeys = new double[k];
+    }
+
+    /**
+     * Seed the random generator to produce repeatable sequences.
+     *
+     * @param seeds the seeds
+     */
+    public void seed(long... seeds) {
+        uniform.seed(seeds);
+    }
+
+    /**
+     * Add an item from the stream.
+     *
+     * @param x      an item
+     * @param weight the item weight, non-negative; an item of zero weight is never selected
+     */
+    public void add(double x, double weight) {
+        assertArgument(weight >= 0, "weight must be non-negative");
+        ++N;
+        if (weight == 0) {
+            return;
+        }
+
+        final int k = values.length;
+        if (size < k) {
+            push(x, log(nextOpenUniform()) / weight);
+            if (size == k) {
+                jump();
+            }
+            return;
+        }
+
+        Xw -= weight;
+        if (Xw <= 0) {
+            double tw = exp(weight * logKeys[0]);//the threshold key to the power of the weight
+            double r = tw + (1 - tw) * nextOpenUniform();//uniform in (tw, 1)
+            replaceMin(x, log(r) / weight);
+            jump();
+        }
+    }
+
+    /**
+     * Add items from the stream.
+     *
+     * @param data    the items
+     * @param weights the item weights
+     */
+    public void addAll(double[] data, double[] weights) {
+        assertArgument(data.length == weights.length, "each item must have a weight");
+        for (int i = 0; i < data.length; ++i) {
+            add(data[i], weights[i]);
+        }
+    }
+
+    /**
+     * Get the sample, in no particular order.
+     *
+     * @return a copy of the reservoir; its size is the minimum of <i>k</i> and the number of items of positive weights
+     */
+    public double[] sample() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Get the number of items seen so far.
+     *
+     * @return the number of items
+     */
+    public long N() {
+        return N;
+    }
+
+    private void jump() {
+        Xw = log(nextOpenUniform()) / logKeys[0];
+    }
+
+    private void push(double x, double logKey) {
+        int i = size++;
+        while (i > 0) {//sift up
+            int parent = (i - 1) / 2;
+            if (logKeys[parent] <= logKey) {
+                break;
+            }
+            values[i] = values[parent];
+            logKeys[i] = logKeys[parent];
+            i = parent;
+        }
+        values[i] = x;
+        logKeys[i] = logKey;
+    }
+
+    private void replaceMin(double x, double logKey) {
+        int i = 0;
+        while (true) {//sift down
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && logKeys[child + 1] < logKeys[child]) {
+                ++child;
+            }
+            if (logKey <= logKeys[child]) {
+                break;
+            }
+            values[i] = values[child];
+            logKeys[i] = logKeys[child];
+            i = child;
+        }
+        values[i] = x;
+        logKeys[i] = logKey;
+    }
+
+    private double nextOpenUniform() {
+        return ((uniform.nextLong() & 0xffffffffL) + 0.5) * 0x1p-32;//in (0, 1)
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.integration.sde;
+
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.MersenneTwister;
+import com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.BatchSDE;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.TimeGrid;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+
+/**
+ * This class simulates many paths of a multivariate SDE using the Euler scheme in blocks.
+ *
+ * <blockquote><code><pre>
+ * dXt = μ(t, Xt) * dt + σ(t, Xt) * sqrt(dt) * Zt
+ * </pre></code></blockquote>
+ *
+ * <p>
+ * The paths are divided into blocks of (at most) {@code blockSize} paths.
+ * The states of a block are stored as a structure of arrays, one {@code double[]} per state variable,
+ * so the drift and the diffusion are evaluated over the whole block per time step,
+ * e.g., the correlated Brownian increments of a constant diffusion matrix are one matrix product.
+ * The working arrays are allocated once per block and reused for all time steps,
+ * so that, e.g., 10<sup>6</sup> paths x 252 steps, do not create any garbage per path or per step.
+ *
+ * <p>
+ * Each block is driven by its own Gaussian random number generator,
+ * seeded from a master generator in the block order,
+ * so the paths do not depend on whether the blocks are simulated sequentially or in parallel.
+ *
+ * @author Haksun Li
+ * @see Euler
+ */
+public class BatchEuler implements Serializable {
+
+    private static final long serialVersionUID = -4163911768622530981L;
+    /**
+     * the SDE specification
+     */
+    public final BatchSDE sde;
+    /**
+     * the set of discretized time points
+     */
+    public final TimeGrid timePoints;
+    /**
+     * the maximum number of paths in a block
+     */
+    public final int blockSize;
+    /**
+     * {@code true} if the blocks are simulated in parallel
+     */
+    private final boolean isParallel;
+    /**
+     * generate the seeds for the blocks
+     */
+    private final RandomLongGenerator uniform = new MersenneTwister();
+
+    /**
+     * Construct a batch simulation of an SDE using the Euler scheme.
+     *
+     * @param sde the SDE specification
+     * @param timePoints specifying the time points in a grid
+     * @param blockSize the maximum number of paths in a block
+     * @param isParallel {@code true} if the blocks are simulated in parallel
+     */
+    public BatchEuler(BatchSDE sde, TimeGrid timePoints, int blockSize, boolean isParallel) {
+        assertArgument(blockSize > 0, "blockSize > 0");
+
+        this.sde = sde;
+        this.timePoints = timePoints;
+        this.blockSize = blockSize;
+        this.isParallel = isParallel;
+    }
+
+    /**
+     * Construct a sequential batch simulation of an SDE using the Euler scheme,
+     * with blocks of 1024 paths.
+     *
+     * @param sde the SDE specification
+     * @param timePoints specifying the time points in a grid
+     */
+    public BatchEuler(BatchSDE sde, TimeGrid timePoints) {
+        this(sde, timePoints, 1024, false);
+    }
+
+    /**
+     * Seed the simulation so that we may generate the same paths.
+     *
+     * @param seed seeding the same {@code seed} gives arise to the same paths
+     */
+    public void seed(long seed) {
+        uniform.seed(seed);
+    }
+
+    /**
+     * Simulate the paths and pass the states of every block at every time point to an observer.
+     * The states at the first time point are the initial values.
+     *
+     * @param x0 the initial values
+     * @param nPaths the number of paths
+     * @param observer the observer of the simulated states
+     */
+    public void simulate(final double[] x0, final int nPaths, final BatchObserver observer) {
+        assertArgument(x0.length == sde.dim(), "x0 must have the same dimension as the SDE");
+
+        final int nBlocks = (nPaths + blockSize - 1) / blockSize;
+        final long[] seeds = new long[nBlocks];
+        for (int b = 0; b < nBlocks; ++b) {
+            seeds[b] = uniform.nextLong();
+        }
+
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(isParallel, 0, nBlocks,
+                                                              new LoopBody() {
+
+                @Override
+                public void run(int b) throws Exception {
+                    int offset = b * blockSize;
+                    simulateBlock(x0, offset, min(blockSize, nPaths - offset), seeds[b], observer);
+                }
+            });
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException("failed to simulate the paths in parallel", ex);
+        }
+    }
+
+    /**
+     * Simulate the paths and return the values at the end of the time grid.
+     *
+     * @param x0 the initial values
+     * @param nPaths the number of paths
+     * @return the terminal values; {@code XT[i][p]} is the <i>i</i>-th state variable of the <i>p</i>-th path
+     */
+    public double[][] terminalValues(double[] x0, int nPaths) {
+        final double[][] XT = new double[sde.dim()][nPaths];
+        final int last = timePoints.size();
+
+        simulate(x0, nPaths, new BatchObserver() {
+
+            @Override
+            public void observe(int index, double t, double[][] Xt, int offset, int nPaths) {
+                if (index == last) {
+                    for (int i = 0; i < Xt.length; ++i) {
+                        System.arraycopy(Xt[i], 0, XT[i], offset, nPaths);
+                    }
+                }
+            }
+        });
+
+        return XT;
+    }
+
+    private void simulateBlock(double[] x0, int offset, int n, long seed, BatchObserver observer) {
+        final int d = sde.dim();
+        final int nB = sde.nB();
+
+        StandardNormalRng rnorm = new StandardNormalRng();
+        rnorm.seed(seed);
+
+        //working arrays, reused for all time steps
+        double[][] Xt = new double[d][n];
+        double[][] mu = new double[d][n];
+        double[][] dXt = new double[d][n];
+        double[][] dWt = new double[nB][n];
+
+        for (int i = 0; i < d; ++i) {
+            Arrays.fill(Xt[i], x0[i]);
+        }
+
+        double t0 = timePoints.t(1);
+        observer.observe(1, t0, Xt, offset, n);
+
+        for (int index = 2; index <= timePoints.size(); ++index) {
+            double t1 = timePoints.t(index);
+            double dt = t1 - t0;
+            double sqrtDt = sqrt(dt);
+
+            for (int j = 0; j < nB; ++j) {
+                double[] dWj = dWt[j];
+                for (int p = 0; p < n; ++p) {
+                    dWj[p] = sqrtDt * rnorm.nextDouble();
+                }
+            }
+
+            sde.mu.evaluate(t0, Xt, n, mu);
+            sde.sigma.evaluate(t0, Xt, dWt, n, dXt);
+
+            for (int i = 0; i < d; ++i) {
+                double[] Xi = Xt[i];
+                double[] mui = mu[i];
+                double[] dXi = dXt[i];
+                for (int p = 0; p < n; ++p) {
+                    Xi[p] += mui[p] * dt + dXi[p];
+                }
+            }
+
+            t0 = t1;
+            observer.observe(index, t0, Xt, offset, n);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.integration.sde;
+
+/**
+ * This interface receives the states of a block of simulated paths at every time point.
+ * It allows computing path functionals, e.g., the terminal values or the running maxima,
+ * without storing the whole realizations.
+ *
+ * <p>
+ * When the simulation runs in parallel, different blocks are observed concurrently by different threads.
+ * An implementation must be thread-safe, e.g., by writing only to the columns <i>[offset, offset + nPaths)</i> of a shared output.
+ *
+ * @author Haksun Li
+ */
+public interface BatchObserver {
+
+    /**
+     * Observe the states of a block of paths.
+     * The arrays are reused across time steps; an implementation must copy the values it wants to keep.
+     *
+     * @param index the index of the time point in the time grid, counting from 1
+     * @param t the time
+     * @param Xt the current states of the paths; {@code Xt[i][p]} is the <i>i</i>-th state variable of the <i>p</i>-th path in the block
+     * @param offset the index of the first path of the block among all the simulated paths
+     * @param nPaths the number of paths in the block
+     */
+    public void observe(int index, double t, double[][] Xt, int offset, int nPaths);
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde;
+
+import com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients.BatchDiffusion;
+import com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients.BatchDrift;
+
+import java.io.Serializable;
+
+/**
+ * This class represents a multi-dimensional, continuous-time, Stochastic Differential Equation (SDE) of this form:
+ * <i>dX(t) = μ(t, Xt) * dt + σ(t, Xt) * dB(t)</i>,
+ * whose coefficients are evaluated over a block of paths at once.
+ *
+ * <p>
+ * This is the batch counterpart of {@link SDE}.
+ * The states of a block of paths are stored as a structure of arrays, one {@code double[]} per state variable,
+ * so that a simulation does not allocate a {@link Ft}, a {@code Vector} or a {@code Matrix} per path per step.
+ *
+ * @author Haksun Li
+ */
+public class BatchSDE implements Serializable {
+
+    private static final long serialVersionUID = 5521780713366812795L;
+    /**
+     * the drift
+     */
+    public final BatchDrift mu;
+    /**
+     * the diffusion
+     */
+    public final BatchDiffusion sigma;
+
+    /**
+     * Construct a multi-dimensional diffusion type stochastic differential equation.
+     *
+     * @param mu the drift
+     * @param sigma the diffusion
+     */
+    public BatchSDE(BatchDrift mu, BatchDiffusion sigma) {
+        this.mu = mu;
+        this.sigma = sigma;
+    }
+
+    /**
+     * Get the dimension of the process.
+     *
+     * @return the dimension of the process
+     */
+    public int dim() {
+        return sigma.nRows();
+    }
+
+    /**
+     * Get the number of independent driving Brownian motions.
+     *
+     * @return the number of independent driving Brownian motions
+     */
+    public int nB() {
+        return sigma.nCols();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients;
+
+import java.io.Serializable;
+
+/**
+ * This interface represents the diffusion term, <i>σ</i>, of a multivariate SDE,
+ * applied to the Brownian increments of a block of paths at once.
+ *
+ * <p>
+ * Instead of returning a diffusion matrix per path,
+ * an implementation computes the products <i>σ(t, X<sub>t</sub>) * dW<sub>t</sub></i> for all paths in the block,
+ * e.g., by one matrix product per time step when <i>σ</i> is constant.
+ * The arrays are stored as a structure of arrays, i.e., one {@code double[]} per state variable or per Brownian motion.
+ * An implementation writes into the output array and must not allocate memory per call.
+ *
+ * @author Haksun Li
+ */
+public interface BatchDiffusion extends Serializable {
+
+    /**
+     * Compute the diffusion increments for a block of paths.
+     *
+     * @param t the current time
+     * @param Xt the current states of the paths; {@code Xt[i][p]} is the <i>i</i>-th state variable of the <i>p</i>-th path
+     * @param dWt the independent Brownian increments; {@code dWt[j][p]} is the increment of the <i>j</i>-th Brownian motion of the <i>p</i>-th path
+     * @param nPaths the number of paths in the block; only the first {@code nPaths} columns are read
+     * @param dXt the output; {@code dXt[i][p]} is the <i>i</i>-th component of <i>σ * dW<sub>t</sub></i> of the <i>p</i>-th path
+     */
+    public void evaluate(double t, double[][] Xt, double[][] dWt, int nPaths, double[][] dXt);
+
+    /**
+     * Get the number of rows of the diffusion matrix, i.e., the dimension of the process.
+     *
+     * @return the number of rows
+     */
+    public int nRows();
+
+    /**
+     * Get the number of columns of the diffusion matrix, i.e., the number of independent driving Brownian motions.
+     *
+     * @return the number of columns
+     */
+    public int nCols();
+}
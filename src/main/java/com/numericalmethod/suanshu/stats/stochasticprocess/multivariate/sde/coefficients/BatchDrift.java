@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients;
+
+import java.io.Serializable;
+
+/**
+ * This interface represents the drift term, <i>μ</i>, of a multivariate SDE,
+ * evaluated over a block of paths at once.
+ *
+ * <p>
+ * The states of the paths are stored as a structure of arrays, i.e.,
+ * {@code Xt[i][p]} is the <i>i</i>-th state variable of the <i>p</i>-th path in the block.
+ * An implementation writes into the output array and must not allocate memory per call.
+ *
+ * @author Haksun Li
+ */
+public interface BatchDrift extends Serializable {
+
+    /**
+     * Evaluate the drift for a block of paths.
+     *
+     * @param t the current time
+     * @param Xt the current states of the paths; {@code Xt[i][p]} is the <i>i</i>-th state variable of the <i>p</i>-th path
+     * @param nPaths the number of paths in the block; only the first {@code nPaths} columns are read
+     * @param mu the output; {@code mu[i][p]} is the <i>i</i>-th drift component of the <i>p</i>-th path
+     */
+    public void evaluate(double t, double[][] Xt, int nPaths, double[][] mu);
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.operation.MatrixUtils;
+
+import java.util.Arrays;
+
+/**
+ * The class represents a constant diffusion matrix applied to a block of paths.
+ * The diffusion increments of all paths in the block, <i>σ * dW<sub>t</sub></i>,
+ * are computed by one matrix product, (<i>d</i> x <i>nB</i>) times (<i>nB</i> x <i>nPaths</i>), per time step.
+ * The innermost loop runs over the paths, i.e., contiguous memory.
+ *
+ * <p>
+ * For example, correlated Brownian motions with the correlation matrix <i>ρ</i>
+ * are modeled by a constant diffusion matrix <i>σ = L</i>, where <i>ρ = L * L'</i> is the Cholesky decomposition.
+ *
+ * @author Haksun Li
+ */
+public class ConstantBatchDiffusion implements BatchDiffusion {
+
+    private static final long serialVersionUID = -4563040155713416652L;
+    /**
+     * the constant diffusion matrix
+     */
+    private final double[][] sigma;
+
+    /**
+     * Construct a constant diffusion coefficient function.
+     *
+     * @param sigma the constant diffusion matrix
+     */
+    public ConstantBatchDiffusion(Matrix sigma) {
+        this.sigma = MatrixUtils.to2DArray(sigma);
+    }
+
+    @Override
+    public void evaluate(double t, double[][] Xt, double[][] dWt, int nPaths, double[][] dXt) {
+        for (int i = 0; i < sigma.length; ++i) {
+            double[] dXi = dXt[i];
+            Arrays.fill(dXi, 0, nPaths, 0);
+
+            for (int j = 0; j < sigma[i].length; ++j) {
+                double s = sigma[i][j];
+                if (s == 0) {
+                    continue;
+                }
+
+                double[] dWj = dWt[j];
+                for (int p = 0; p < nPaths; ++p) {
+                    dXi[p] += s * dWj[p];
+                }
+            }
+        }
+    }
+
+    @Override
+    public int nRows() {
+        return sigma.length;
+    }
+
+    @Override
+    public int nCols() {
+        return sigma[0].length;
+    }
+}
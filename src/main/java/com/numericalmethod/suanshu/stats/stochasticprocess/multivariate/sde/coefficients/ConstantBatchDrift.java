@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients;
+
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+
+import java.util.Arrays;
+
+/**
+ * The class represents a constant drift function evaluated over a block of paths.
+ *
+ * @author Haksun Li
+ */
+public class ConstantBatchDrift implements BatchDrift {
+
+    private static final long serialVersionUID = 2739613412637911893L;
+    /**
+     * the constant drift vector
+     */
+    private final double[] mu;
+
+    /**
+     * Construct a constant drift function.
+     *
+     * @param mu the constant drift vector
+     */
+    public ConstantBatchDrift(Vector mu) {
+        this.mu = mu.toArray();
+    }
+
+    @Override
+    public void evaluate(double t, double[][] Xt, int nPaths, double[][] mu) {
+        for (int i = 0; i < this.mu.length; ++i) {
+            Arrays.fill(mu[i], 0, nPaths, this.mu[i]);
+        }
+    }
+}
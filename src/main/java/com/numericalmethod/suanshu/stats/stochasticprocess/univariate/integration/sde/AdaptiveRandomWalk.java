@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.MersenneTwister;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.TimeGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.DiscretizedSDE;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Ft;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.FtDZt;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.abs;
+import static java.lang.Math.sqrt;
+
+/**
+ * This is a Random Walk construction of a stochastic process with adaptive time stepping.
+ *
+ * <p>
+ * The realization is reported on the given time grid, but each grid interval is integrated with as many sub-steps as needed.
+ * For a step of size <i>dt</i> with Brownian increment <i>dW</i>,
+ * the mid-point value of the Brownian motion is sampled from the Brownian bridge,
+ *
+ * <blockquote><code><pre>
+ * dW<sub>1</sub> = dW / 2 + sqrt(dt) / 2 * Z, dW<sub>2</sub> = dW - dW<sub>1</sub>
+ * </pre></code></blockquote>
+ *
+ * The local error is estimated by the difference between one full step and two half steps driven by the same Brownian path.
+ * If the difference is within the tolerance, the two half steps are accepted;
+ * otherwise, each half is refined recursively, up to a maximum depth.
+ * The bridge values are drawn from a separate random stream,
+ * so the Brownian path on the grid is the same as that of {@link RandomWalk} seeded with the same seed, regardless of the tolerance.
+ * Because refinement only conditions on the Brownian path already drawn,
+ * the realization converges to the same (strong) solution as the tolerance decreases.
+ *
+ * <p>
+ * The difference between one full step and two half steps is a good estimate of the local error for schemes of strong order 1 or above, e.g., Milstein.
+ * For the Euler scheme, the error decreases only like <i>sqrt(dt)</i>, so a small tolerance leads to many sub-steps.
+ * Only the Brownian increments are refined by the bridge,
+ * so the discretization must not depend on the multiple Itô integrals, e.g., those in {@link FtDZt}.
+ *
+ * @author Haksun Li
+ *
+ * @see
+ * <ul>
+ * <li>"J. G. Gaines and T. J. Lyons. Variable Step Size Control in the Numerical Solution of Stochastic Differential Equations. SIAM Journal on Applied Mathematics, 57(5):1455-1484, 1997."
+ * <li>"P. E. Kloeden and E. Platen. Numerical Solution of Stochastic Differential Equations. Section 4.4. pp. 184. Springer. 1992."
+ * </ul>
+ */
+public class AdaptiveRandomWalk implements Construction {
+
+    private static final long serialVersionUID = -1672858093342232612L;
+    /**
+     * the SDE specification, in discretized form
+     */
+    public final DiscretizedSDE sde;
+    /**
+     * the set of discretized time points
+     */
+    public final TimeGrid timePoints;
+    /**
+     * the local error tolerance per step
+     */
+    public final double tol;
+    /**
+     * the maximum number of times a grid interval is halved
+     */
+    public final int maxDepth;
+    /**
+     * generate the seeds for the iterators
+     */
+    private RandomLongGenerator uniform = new MersenneTwister();
+
+    public class Realization implements com.numericalmethod.suanshu.stats.stochasticprocess.univariate.Realization {
+
+        private static final long serialVersionUID = 3587398412787734460L;
+        /**
+         * the ID of this particular realization
+         */
+        public final long id;
+        /**
+         * the initial value of the realization
+         */
+        public final double x0;
+
+        private Realization(double x0) {
+            this.id = uniform.nextLong();
+            this.x0 = x0;
+        }
+
+        public int size() {
+            return timePoints.size();
+        }
+
+        public Iterator iterator() {
+            return new Realization.Iterator(size(), id) {
+
+                private static final long serialVersionUID = 6870036412536262849L;
+                private double t0 = 0;
+                private Ft ft = newFt(x0);
+                /**
+                 * a separate stream for the Brownian bridge so that the Brownian path on the grid does not depend on the refinements
+                 */
+                private final StandardNormalRng bridge = new StandardNormalRng();
+
+                {
+                    bridge.seed(~id);
+                }
+
+                public double t(int index) {
+                    return timePoints.t(index);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 *
+                 * <p>
+                 * This is an implementation of the adaptive Random Walk construction.
+                 *
+                 * @param index the index to the current <tt>Entry</tt>
+                 * @return the current value
+                 */
+                @Override
+                public double xt(int index) {
+                    double t1 = t(index);
+                    double dt = t1 - t0;
+                    double Zt = Zt();//always draw to stay in line with the Random Walk construction
+
+                    if (dt > 0) {
+                        ft = step(ft, dt, sqrt(dt) * Zt, 0);
+                    }
+                    t0 = t1;
+
+                    return ft.Xt();
+                }
+
+                /**
+                 * Integrate over a time interval, halving it recursively until the local error is within the tolerance.
+                 *
+                 * @param ft the filtration at the beginning of the interval
+                 * @param dt the length of the interval
+                 * @param dW the Brownian increment over the interval
+                 * @param depth the number of times the grid interval has been halved
+                 * @return the filtration at the end of the interval
+                 */
+                private Ft step(Ft ft, double dt, double dW, int depth) {
+                    Ft full = advance(ft, dt, dW);
+                    if (depth >= maxDepth) {
+                        return full;
+                    }
+
+                    //Brownian bridge
+                    double dW1 = 0.5 * dW + 0.5 * sqrt(dt) * bridge.nextDouble();
+                    double dW2 = dW - dW1;
+
+                    Ft half = advance(advance(ft, 0.5 * dt, dW1), 0.5 * dt, dW2);
+                    if (abs(half.Xt() - full.Xt()) <= tol) {
+                        return half;
+                    }
+
+                    return step(step(ft, 0.5 * dt, dW1, depth + 1), 0.5 * dt, dW2, depth + 1);
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException("time series is immutable");
+                }
+            };
+        }
+
+        public double[] toArray() {
+            Realization.Iterator it = iterator();
+
+            double[] wt = new double[size()];
+
+            for (int i = 0; it.hasNext(); ++i) {
+                wt[i] = it.nextValue();
+            }
+
+            return wt;
+        }
+
+        public double lastValue() {
+            Realization.Iterator it = iterator();
+
+            double wt = Double.NaN;
+
+            for (; it.hasNext();) {
+                wt = it.nextValue();
+            }
+
+            return wt;
+        }
+    }
+
+    /**
+     * Construct a univariate stochastic process from an SDE.
+     * The realizations are generated by the Random Walk method with adaptive time stepping.
+     *
+     * @param sde an SDE
+     * @param timePoints specifying the time points in a grid
+     * @param tol the local error tolerance per step
+     * @param maxDepth the maximum number of times a grid interval is halved
+     */
+    public AdaptiveRandomWalk(DiscretizedSDE sde, TimeGrid timePoints, double tol, int maxDepth) {
+        assertArgument(!(sde.getNewFt() instanceof FtDZt), "the discretization must not depend on the multiple Itô integrals");
+        assertArgument(tol > 0, "tol > 0");
+        assertArgument(maxDepth >= 0, "maxDepth >= 0");
+
+        this.sde = sde;
+        this.timePoints = timePoints;
+        this.tol = tol;
+        this.maxDepth = maxDepth;
+    }
+
+    public Realization nextRealization(double x0) {
+        return new Realization(x0);
+    }
+
+    public void seed(long seed) {
+        uniform.seed(seed);
+    }
+
+    private Ft newFt(double x0) {
+        Ft ft = sde.getNewFt();
+        ft.setXt(x0);
+        return ft;
+    }
+
+    /**
+     * Advance the process by one step.
+     * The filtration is copied so that a rejected step does not change the path-dependent information.
+     *
+     * @param ft the filtration at the beginning of the step
+     * @param dt the step size
+     * @param dW the Brownian increment
+     * @return the filtration at the end of the step, with the value of the process updated
+     */
+    private Ft advance(Ft ft, double dt, double dW) {
+        Ft next = ft.deepCopy();
+        double xt = ft.Xt();
+
+        next.setDt(dt);
+        next.setXt(xt);
+        next.setZt(dW / sqrt(dt));
+        next.setXt(xt + sde.dXt(next));
+
+        return next;
+    }
+}
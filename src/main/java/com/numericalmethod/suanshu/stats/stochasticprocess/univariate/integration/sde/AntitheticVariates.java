@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+
+import java.io.Serializable;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * This class computes the expectation of a function of the terminal value of a stochastic process, <i>E[f(X<sub>T</sub>)]</i>,
+ * using antithetic variates.
+ * For each path driven by the Gaussian innovations <i>Z<sub>t</sub></i>, we also generate its antithetic path driven by <i>-Z<sub>t</sub></i>.
+ * The estimator is the average of the pair averages.
+ *
+ * <blockquote><code><pre>
+ * Y<sub>i</sub> = (f(X<sub>T</sub>(Z)) + f(X<sub>T</sub>(-Z))) / 2
+ * </pre></code></blockquote>
+ *
+ * When {@code f} is monotone in the innovations, <i>f(X<sub>T</sub>(Z))</i> and <i>f(X<sub>T</sub>(-Z))</i> are negatively correlated,
+ * so that <i>Var(Y<sub>i</sub>)</i> is less than half the variance of a single sample for roughly twice the cost.
+ *
+ * @author Haksun Li
+ *
+ * @see "P. Glasserman. Monte Carlo Methods in Financial Engineering. Section 4.2. pp. 205. Springer. 2004."
+ */
+public class AntitheticVariates implements Serializable {
+
+    private static final long serialVersionUID = 3254617815873071935L;
+    /**
+     * the value of the expectation
+     */
+    public final double value;
+    /**
+     * the variance of a pair average, <i>Y<sub>i</sub></i>
+     */
+    public final double variance;
+    /**
+     * the number of antithetic pairs
+     */
+    public final int N;
+
+    /**
+     * Compute the expectation of a function of the terminal value using antithetic variates.
+     *
+     * @param construction the Random Walk construction of a stochastic process
+     * @param f the function of the terminal value
+     * @param x0 the initial value
+     * @param N the number of antithetic pairs
+     */
+    public AntitheticVariates(RandomWalk construction, UnivariateRealFunction f, double x0, int N) {
+        Mean mean = new Mean();
+        Variance var = new Variance();
+
+        for (int i = 0; i < N; ++i) {
+            RandomWalk.Realization xt = construction.nextRealization(x0);
+            RandomWalk.Realization antithetic = construction.antithetic(xt);
+
+            double yi = 0.5 * (f.evaluate(xt.lastValue()) + f.evaluate(antithetic.lastValue()));
+            mean.addData(yi);
+            var.addData(yi);
+        }
+
+        this.value = mean.value();
+        this.variance = var.value();
+        this.N = N;
+    }
+
+    /**
+     * Compute the expectation of the terminal value using antithetic variates.
+     *
+     * @param construction the Random Walk construction of a stochastic process
+     * @param x0 the initial value
+     * @param N the number of antithetic pairs
+     */
+    public AntitheticVariates(RandomWalk construction, double x0, int N) {
+        this(construction,
+             new UnivariateRealFunction() {
+
+                 private static final long serialVersionUID = -6396452815418924357L;
+
+                 @Override
+                 public double evaluate(double x) {
+                     return x;
+                 }
+             },
+             x0,
+             N);
+    }
+
+    /**
+     * Get the expectation.
+     *
+     * @return the expectation
+     */
+    public double value() {
+        return value;
+    }
+
+    /**
+     * Get the variance of a pair average.
+     *
+     * @return the variance of a pair average
+     */
+    public double variance() {
+        return variance;
+    }
+
+    /**
+     * Get the standard error of the estimator.
+     *
+     * @return the standard error
+     */
+    public double stdErr() {
+        return sqrt(variance / N);
+    }
+}
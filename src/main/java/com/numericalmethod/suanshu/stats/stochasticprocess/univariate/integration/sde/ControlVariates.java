@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+
+import java.io.Serializable;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * This class computes the expectation of a function of the terminal value of a stochastic process, <i>E[f(X<sub>T</sub>)]</i>,
+ * using a control variate <i>g(X<sub>T</sub>)</i> whose expectation is known.
+ *
+ * <blockquote><code><pre>
+ * Y<sub>i</sub>(b) = f(X<sub>T</sub>) - b * (g(X<sub>T</sub>) - E[g(X<sub>T</sub>)])
+ * </pre></code></blockquote>
+ *
+ * The variance minimizing coefficient is <i>b* = Cov(f, g) / Var(g)</i>.
+ * It is estimated online from the same sample by updating the sample co-moments one path at a time (Welford's algorithm).
+ * The variance of the controlled estimator is <i>(1 - ρ<sup>2</sup>) Var(f)</i>,
+ * where ρ is the correlation between <i>f(X<sub>T</sub>)</i> and <i>g(X<sub>T</sub>)</i>.
+ *
+ * @author Haksun Li
+ *
+ * @see "P. Glasserman. Monte Carlo Methods in Financial Engineering. Section 4.1. pp. 185. Springer. 2004."
+ */
+public class ControlVariates implements Serializable {
+
+    private static final long serialVersionUID = -2215874064296542712L;
+    /**
+     * the value of the expectation
+     */
+    public final double value;
+    /**
+     * the variance of a controlled sample, <i>Y<sub>i</sub>(b*)</i>
+     */
+    public final double variance;
+    /**
+     * the estimated optimal control coefficient, <i>b*</i>
+     */
+    public final double b;
+    /**
+     * the sample correlation between the integrand and the control
+     */
+    public final double rho;
+    /**
+     * the number of simulations
+     */
+    public final int N;
+
+    /**
+     * Compute the expectation of a function of the terminal value using a control variate.
+     *
+     * @param integrand a simulation of the integrand
+     * @param f the function of the terminal value
+     * @param g the control variate, a function of the terminal value
+     * @param Eg the known expectation of the control variate, <i>E[g(X<sub>T</sub>)]</i>
+     * @param x0 the initial value
+     * @param N the number of simulations
+     */
+    public ControlVariates(Construction integrand, UnivariateRealFunction f, UnivariateRealFunction g, double Eg, double x0, int N) {
+        double meanF = 0, meanG = 0;
+        double Cff = 0, Cgg = 0, Cfg = 0;//the sums of the (cross) products of differences from the means
+
+        for (int i = 1; i <= N; ++i) {
+            double xT = integrand.nextRealization(x0).lastValue();
+            double fi = f.evaluate(xT);
+            double gi = g.evaluate(xT);
+
+            double dF = fi - meanF;
+            double dG = gi - meanG;
+            meanF += dF / i;
+            meanG += dG / i;
+            Cff += dF * (fi - meanF);
+            Cgg += dG * (gi - meanG);
+            Cfg += dF * (gi - meanG);
+        }
+
+        this.b = Cgg > 0 ? Cfg / Cgg : 0;
+        this.rho = Cff > 0 && Cgg > 0 ? Cfg / sqrt(Cff * Cgg) : 0;
+        this.value = meanF - b * (meanG - Eg);
+        this.variance = N > 1 ? (Cff - b * Cfg) / (N - 1) : 0;
+        this.N = N;
+    }
+
+    /**
+     * Compute the expectation of a function of the terminal value,
+     * using the terminal value itself as the control variate.
+     *
+     * @param integrand a simulation of the integrand
+     * @param f the function of the terminal value
+     * @param EXT the known expectation of the terminal value, <i>E[X<sub>T</sub>]</i>
+     * @param x0 the initial value
+     * @param N the number of simulations
+     */
+    public ControlVariates(Construction integrand, UnivariateRealFunction f, double EXT, double x0, int N) {
+        this(integrand,
+             f,
+             new UnivariateRealFunction() {
+
+                 private static final long serialVersionUID = 6843270190325876263L;
+
+                 @Override
+                 public double evaluate(double x) {
+                     return x;
+                 }
+             },
+             EXT,
+             x0,
+             N);
+    }
+
+    /**
+     * Get the expectation.
+     *
+     * @return the expectation
+     */
+    public double value() {
+        return value;
+    }
+
+    /**
+     * Get the variance of a controlled sample.
+     *
+     * @return the variance of a controlled sample
+     */
+    public double variance() {
+        return variance;
+    }
+
+    /**
+     * Get the standard error of the estimator.
+     *
+     * @return the standard error
+     */
+    public double stdErr() {
+        return sqrt(variance / N);
+    }
+}
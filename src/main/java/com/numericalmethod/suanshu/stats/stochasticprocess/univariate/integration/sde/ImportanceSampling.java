@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.TimeGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Ft;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.SDE;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.coefficients.Drift;
+
+import java.io.Serializable;
+
+import static java.lang.Math.exp;
+import static java.lang.Math.sqrt;
+
+/**
+ * This class computes the expectation of a function of the terminal value of a stochastic process, <i>E[f(X<sub>T</sub>)]</i>,
+ * by importance sampling via a change of drift.
+ *
+ * <p>
+ * Suppose under the measure <i>P</i> the process follows <i>dX = μ dt + σ dW</i>.
+ * We simulate the paths under an equivalent measure <i>Q</i> with a different drift <i>ν</i>,
+ * <i>dX = ν dt + σ dW<sup>Q</sup></i>,
+ * and weight each path by the likelihood ratio (Girsanov's theorem)
+ *
+ * <blockquote><code><pre>
+ * dP/dQ = exp(-∫θ dW<sup>Q</sup> - 0.5 * ∫θ<sup>2</sup> dt), θ = (ν - μ) / σ
+ * </pre></code></blockquote>
+ *
+ * Both the paths and the likelihood ratio are discretized using the Euler scheme,
+ * for which the discrete likelihood ratio is exact.
+ * A drift that pushes the paths to where <i>f</i> is large, e.g., into the money for a deep out-of-the-money option,
+ * can reduce the variance by orders of magnitude.
+ *
+ * @author Haksun Li
+ *
+ * @see "P. Glasserman. Monte Carlo Methods in Financial Engineering. Section 4.6. pp. 255. Springer. 2004."
+ */
+public class ImportanceSampling implements Serializable {
+
+    private static final long serialVersionUID = -5710564628553294613L;
+    /**
+     * the value of the expectation
+     */
+    public final double value;
+    /**
+     * the variance of a weighted sample, <i>f(X<sub>T</sub>) * dP/dQ</i>
+     */
+    public final double variance;
+    /**
+     * the number of simulations
+     */
+    public final int N;
+
+    /**
+     * Compute the expectation of a function of the terminal value by importance sampling.
+     *
+     * @param sde the SDE under the original measure <i>P</i>
+     * @param nu the drift under the sampling measure <i>Q</i>
+     * @param timePoints specifying the time points in a grid
+     * @param f the function of the terminal value
+     * @param x0 the initial value
+     * @param N the number of simulations
+     * @param seed seeding the same {@code seed} gives arise to the same estimate
+     */
+    public ImportanceSampling(SDE sde, Drift nu, TimeGrid timePoints, UnivariateRealFunction f, double x0, int N, long seed) {
+        StandardNormalRng rnorm = new StandardNormalRng();
+        rnorm.seed(seed);
+
+        Mean mean = new Mean();
+        Variance var = new Variance();
+
+        for (int i = 0; i < N; ++i) {
+            Ft ft = sde.getFt();
+            double xt = x0;
+            double logL = 0;//the log likelihood ratio, log(dP/dQ)
+            double t0 = 0;
+
+            for (int j = 1; j <= timePoints.size(); ++j) {
+                double t1 = timePoints.t(j);
+
+                ft.setDt(t1 - t0);
+                ft.setXt(xt);
+                ft.setZt(rnorm.nextDouble());
+
+                double dt = ft.dt();
+                double mu = sde.mu.evaluate(ft);
+                double sigma = sde.sigma.evaluate(ft);
+                double drift = nu.evaluate(ft);
+                double dWt = ft.dWt();
+
+                double theta = (drift - mu) / sigma;
+                xt += drift * dt + sigma * dWt;
+                logL -= theta * dWt + 0.5 * theta * theta * dt;
+
+                t0 = t1;
+            }
+
+            double yi = f.evaluate(xt) * exp(logL);
+            mean.addData(yi);
+            var.addData(yi);
+        }
+
+        this.value = mean.value();
+        this.variance = var.value();
+        this.N = N;
+    }
+
+    /**
+     * Get the expectation.
+     *
+     * @return the expectation
+     */
+    public double value() {
+        return value;
+    }
+
+    /**
+     * Get the variance of a weighted sample.
+     *
+     * @return the variance of a weighted sample
+     */
+    public double variance() {
+        return variance;
+    }
+
+    /**
+     * Get the standard error of the estimator.
+     *
+     * @return the standard error
+     */
+    public double stdErr() {
+        return sqrt(variance / N);
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.EvenlySpacedGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.TimeGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.DiscretizedSDE;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Ft;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.FtDZt;
+
+import java.io.Serializable;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.lang.Math.sqrt;
+
+/**
+ * This class computes the expectation of a function of the terminal value of a stochastic process, <i>E[f(X<sub>T</sub>)]</i>,
+ * by the multilevel Monte Carlo method.
+ *
+ * <p>
+ * Let <i>P<sub>l</sub></i> be the approximation of <i>f(X<sub>T</sub>)</i> on the time grid at level <i>l</i>,
+ * which has <i>n<sub>0</sub> * M<sup>l</sup></i> evenly spaced steps.
+ * The expectation on the finest level <i>L</i> is written as a telescoping sum.
+ *
+ * <blockquote><code><pre>
+ * E[P<sub>L</sub>] = E[P<sub>0</sub>] + Σ<sub>l=1..L</sub> E[P<sub>l</sub> - P<sub>l-1</sub>]
+ * </pre></code></blockquote>
+ *
+ * Each correction <i>P<sub>l</sub> - P<sub>l-1</sub></i> is simulated by a fine path and a coarse path driven by the same Brownian increments,
+ * so its variance vanishes as the grid refines.
+ * For a strong order 1.5 scheme, e.g., {@link com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.ItoTaylor15},
+ * the coarse path is also driven by the multiple Itô integral <i>I<sub>(1,0)</sub></i> of the fine path over each coarse step.
+ * Most of the samples are therefore taken on the cheap coarse levels and only a few on the expensive fine levels.
+ * Given a target accuracy, the number of samples per level is chosen to minimize the total cost, <i>Σ N<sub>l</sub> * C<sub>l</sub></i>,
+ * subject to the estimator variance <i>Σ V<sub>l</sub> / N<sub>l</sub></i> being no bigger than half of the squared accuracy.
+ *
+ * @author Haksun Li
+ *
+ * @see "M. B. Giles. Multilevel Monte Carlo path simulation. Operations Research, 56(3):607-617, 2008."
+ */
+public class MultilevelMonteCarlo implements Serializable {
+
+    private static final long serialVersionUID = 4408738719612938853L;
+    /**
+     * the discretized SDE
+     */
+    private final DiscretizedSDE sde;
+    /**
+     * the function of the terminal value
+     */
+    private final UnivariateRealFunction f;
+    /**
+     * the time grids, from the coarsest to the finest
+     */
+    private final TimeGrid[] grids;
+    /**
+     * the refinement factor between two successive levels
+     */
+    private final int M;
+    /**
+     * the initial value
+     */
+    private final double x0;
+    private final StandardNormalRng rnorm = new StandardNormalRng();
+    private final Mean[] means;
+    private final Variance[] vars;
+
+    /**
+     * Compute the expectation of a function of the terminal value by the multilevel Monte Carlo method,
+     * using the given numbers of samples per level.
+     *
+     * @param sde the discretized SDE, e.g., {@link com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Euler}
+     * @param f the function of the terminal value
+     * @param T0 the beginning of the time interval
+     * @param T the ending of the time interval
+     * @param n0 the number of steps on the coarsest level
+     * @param M the refinement factor between two successive levels
+     * @param x0 the initial value
+     * @param N the numbers of samples on levels 0, 1, ..., L
+     * @param seed seeding the same {@code seed} gives arise to the same estimate
+     */
+    public MultilevelMonteCarlo(DiscretizedSDE sde, UnivariateRealFunction f, double T0, double T, int n0, int M, double x0, int[] N, long seed) {
+        this(sde, f, T0, T, n0, M, x0, N.length - 1, seed);
+
+        for (int l = 0; l < N.length; ++l) {
+            sample(l, N[l]);
+        }
+    }
+
+    /**
+     * Compute the expectation of a function of the terminal value by the multilevel Monte Carlo method,
+     * choosing the numbers of samples per level to achieve a target accuracy.
+     * The level variances are first estimated using {@code nPilot} samples per level.
+     *
+     * @param sde the discretized SDE, e.g., {@link com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Euler}
+     * @param f the function of the terminal value
+     * @param T0 the beginning of the time interval
+     * @param T the ending of the time interval
+     * @param n0 the number of steps on the coarsest level
+     * @param M the refinement factor between two successive levels
+     * @param L the finest level
+     * @param x0 the initial value
+     * @param epsilon the target root mean squared error due to sampling
+     * @param nPilot the number of pilot samples per level
+     * @param seed seeding the same {@code seed} gives arise to the same estimate
+     */
+    public MultilevelMonteCarlo(DiscretizedSDE sde, UnivariateRealFunction f, double T0, double T, int n0, int M, int L, double x0, double epsilon, int nPilot, long seed) {
+        this(sde, f, T0, T, n0, M, x0, L, seed);
+        assertArgument(epsilon > 0, "epsilon > 0");
+        assertArgument(nPilot > 1, "nPilot > 1");
+
+        for (int l = 0; l <= L; ++l) {
+            sample(l, nPilot);
+        }
+
+        //the optimal numbers of samples: N_l = 2 / ε^2 * sqrt(V_l / C_l) * Σ sqrt(V_k * C_k)
+        double sum = 0;
+        for (int l = 0; l <= L; ++l) {
+            sum += sqrt(vars[l].value() * cost(l));
+        }
+
+        for (int l = 0; l <= L; ++l) {
+            long Nl = (long) ceil(2. / (epsilon * epsilon) * sqrt(vars[l].value() / cost(l)) * sum);
+            sample(l, (int) max(0, Nl - means[l].N()));
+        }
+    }
+
+    private MultilevelMonteCarlo(DiscretizedSDE sde, UnivariateRealFunction f, double T0, double T, int n0, int M, double x0, int L, long seed) {
+        assertArgument(L >= 0, "L >= 0");
+        assertArgument(n0 > 1, "n0 > 1");
+        assertArgument(M > 1, "M > 1");
+
+        this.sde = sde;
+        this.f = f;
+        this.M = M;
+        this.x0 = x0;
+        this.rnorm.seed(seed);
+
+        this.grids = new TimeGrid[L + 1];
+        this.means = new Mean[L + 1];
+        this.vars = new Variance[L + 1];
+        for (int l = 0, n = n0; l <= L; ++l, n *= M) {
+            grids[l] = new EvenlySpacedGrid(T0, T, n);
+            means[l] = new Mean();
+            vars[l] = new Variance();
+        }
+    }
+
+    /**
+     * Get the expectation, which is the sum of the level means.
+     *
+     * @return the expectation
+     */
+    public double value() {
+        double value = 0;
+        for (int l = 0; l < means.length; ++l) {
+            value += means[l].value();
+        }
+        return value;
+    }
+
+    /**
+     * Get the variance of the estimator, <i>Σ V<sub>l</sub> / N<sub>l</sub></i>.
+     *
+     * @return the variance of the estimator
+     */
+    public double variance() {
+        double variance = 0;
+        for (int l = 0; l < vars.length; ++l) {
+            variance += vars[l].value() / vars[l].N();
+        }
+        return variance;
+    }
+
+    /**
+     * Get the standard error of the estimator.
+     *
+     * @return the standard error
+     */
+    public double stdErr() {
+        return sqrt(variance());
+    }
+
+    /**
+     * Get the finest level.
+     *
+     * @return the finest level
+     */
+    public int L() {
+        return grids.length - 1;
+    }
+
+    /**
+     * Get the mean of the correction, <i>E[P<sub>l</sub> - P<sub>l-1</sub>]</i>, at a level.
+     *
+     * @param l a level
+     * @return the mean of the correction
+     */
+    public double mean(int l) {
+        return means[l].value();
+    }
+
+    /**
+     * Get the variance of the correction, <i>Var(P<sub>l</sub> - P<sub>l-1</sub>)</i>, at a level.
+     *
+     * @param l a level
+     * @return the variance of the correction
+     */
+    public double variance(int l) {
+        return vars[l].value();
+    }
+
+    /**
+     * Get the number of samples taken at a level.
+     *
+     * @param l a level
+     * @return the number of samples
+     */
+    public long N(int l) {
+        return means[l].N();
+    }
+
+    /**
+     * Get the time grid at a level.
+     *
+     * @param l a level
+     * @return the time grid
+     */
+    public TimeGrid grid(int l) {
+        return grids[l];
+    }
+
+    /**
+     * Get the (relative) cost of a sample at a level, i.e., the number of fine steps.
+     *
+     * @param l a level
+     * @return the cost of a sample
+     */
+    private double cost(int l) {
+        return grids[l].size() - 1;
+    }
+
+    private void sample(int l, int n) {
+        for (int i = 0; i < n; ++i) {
+            double Yl = l == 0 ? P0() : dP(l);
+            means[l].addData(Yl);
+            vars[l].addData(Yl);
+        }
+    }
+
+    /**
+     * Simulate <i>P<sub>0</sub></i> on the coarsest grid.
+     *
+     * @return <i>P<sub>0</sub></i>
+     */
+    private double P0() {
+        TimeGrid grid = grids[0];
+        Ft ft = sde.getNewFt();
+        double xt = x0;
+
+        for (int j = 2; j <= grid.size(); ++j) {
+            ft.setDt(grid.t(j) - grid.t(j - 1));
+            ft.setXt(xt);
+            ft.setZt(rnorm.nextDouble());
+            if (ft instanceof FtDZt) {//the second innovation for the higher order schemes
+                ((FtDZt) ft).setZt2(rnorm.nextDouble());
+            }
+            xt += sde.dXt(ft);
+        }
+
+        return f.evaluate(xt);
+    }
+
+    /**
+     * Simulate the correction <i>P<sub>l</sub> - P<sub>l-1</sub></i>
+     * by a fine path and a coarse path driven by the same Brownian increments.
+     *
+     * @param l a level
+     * @return <i>P<sub>l</sub> - P<sub>l-1</sub></i>
+     */
+    private double dP(int l) {
+        TimeGrid fine = grids[l];
+        TimeGrid coarse = grids[l - 1];
+        Ft ftF = sde.getNewFt();
+        Ft ftC = sde.getNewFt();
+        double xF = x0;
+        double xC = x0;
+
+        for (int jc = 2, jf = 2; jc <= coarse.size(); ++jc) {
+            double dWc = 0;//the Brownian increment over the coarse step
+            double dZc = 0;//the multiple Itô integral I_(1,0) over the coarse step
+            for (int k = 0; k < M; ++k, ++jf) {
+                double dtf = fine.t(jf) - fine.t(jf - 1);
+                ftF.setDt(dtf);
+                ftF.setXt(xF);
+                ftF.setZt(rnorm.nextDouble());
+                if (ftF instanceof FtDZt) {
+                    ((FtDZt) ftF).setZt2(rnorm.nextDouble());
+                    //∫(W_s - W_t)ds over a fine step = dZ of the step + (W at the start of the step - W_t) * dt of the step
+                    dZc += ((FtDZt) ftF).dZt() + dWc * dtf;
+                }
+                xF += sde.dXt(ftF);
+                dWc += ftF.dWt();
+            }
+
+            double dtc = coarse.t(jc) - coarse.t(jc - 1);
+            double Zc = dWc / sqrt(dtc);
+            ftC.setDt(dtc);
+            ftC.setXt(xC);
+            ftC.setZt(Zc);
+            if (ftC instanceof FtDZt) {//invert dZt = 0.5 * dt^1.5 * (Zt + Zt2 / sqrt(3))
+                ((FtDZt) ftC).setZt2(sqrt(3) * (2 * dZc / (dtc * sqrt(dtc)) - Zc));
+            }
+            xC += sde.dXt(ftC);
+        }
+
+        return f.evaluate(xF) - f.evaluate(xC);
+    }
+}
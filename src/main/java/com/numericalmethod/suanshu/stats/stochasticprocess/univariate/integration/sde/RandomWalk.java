@@ -27,6 +27,7 @@ import com.numericalmethod.suanshu.stats.random.univariate.uniform.MersenneTwist
 import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.TimeGrid;
 import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.DiscretizedSDE;
 import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Ft;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.FtDZt;
 
 /**
  * This is the Random Walk construction of a stochastic process per SDE specification.
@@ -64,10 +65,19 @@ public class RandomWalk implements Construction {
          * the initial value of the realization
          */
         public final double x0;
+        /**
+         * {@code true} if the Gaussian innovations of this realization are negated
+         */
+        public final boolean antithetic;
 
         private Realization(double x0) {
-            this.id = uniform.nextLong();
+            this(x0, uniform.nextLong(), false);
+        }
+
+        private Realization(double x0, long id, boolean antithetic) {
+            this.id = id;
             this.x0 = x0;
+            this.antithetic = antithetic;
         }
 
         public int size() {
@@ -86,6 +96,12 @@ public class RandomWalk implements Construction {
                     return timePoints.t(index);
                 }
 
+                @Override
+                protected double Zt() {
+                    double zt = super.Zt();
+                    return antithetic ? -zt : zt;
+                }
+
                 /**
                  * {@inheritDoc}
                  *
@@ -102,6 +118,9 @@ public class RandomWalk implements Construction {
                     ft.setDt(t1 - t0);
                     ft.setXt(xt);
                     ft.setZt(Zt());
+                    if (ft instanceof FtDZt) {//the second innovation for the higher order schemes
+                        ((FtDZt) ft).setZt2(Zt());
+                    }
 
                     double dx = sde.dXt(ft);
                     xt += dx;
@@ -157,6 +176,20 @@ public class RandomWalk implements Construction {
         return new Realization(x0);
     }
 
+    /**
+     * Construct the antithetic realization of a given realization.
+     * The antithetic realization is driven by the same Gaussian innovations but with the signs flipped, i.e.,
+     * <i>-Z<sub>t</sub></i>.
+     * The pair of realizations are negatively correlated so averaging over the pair reduces the variance of a Monte Carlo estimator.
+     *
+     * @param realization a realization generated by this construction
+     * @return the antithetic realization
+     * @see "P. Glasserman. Monte Carlo Methods in Financial Engineering. Section 4.2. pp. 205. Springer. 2004."
+     */
+    public Realization antithetic(Realization realization) {
+        return new Realization(realization.x0, realization.id, !realization.antithetic);
+    }
+
     public void seed(long seed) {
         uniform.seed(seed);
     }
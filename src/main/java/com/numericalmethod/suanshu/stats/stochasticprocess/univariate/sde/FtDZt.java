@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde;
+
+import static java.lang.Math.sqrt;
+
+/**
+ * This is a filtration implementation that, in addition to the Brownian increment <i>dW<sub>t</sub></i>,
+ * includes the multiple Itô integral
+ *
+ * <blockquote><code><pre>
+ * dZt = I<sub>(1,0)</sub> = ∫<sub>t</sub><sup>t+dt</sup> ∫<sub>t</sub><sup>s</sup> dW<sub>u</sub> ds
+ * </pre></code></blockquote>
+ *
+ * which is needed by strong order 1.5 schemes.
+ * The pair <i>(dW<sub>t</sub>, dZ<sub>t</sub>)</i> is generated from two independent standard Gaussian innovations,
+ * <i>Z<sub>t</sub></i> and <i>Z2<sub>t</sub></i>,
+ *
+ * <blockquote><code><pre>
+ * dWt = sqrt(dt) * Zt
+ * dZt = 0.5 * dt<sup>1.5</sup> * (Zt + Z2t / sqrt(3))
+ * </pre></code></blockquote>
+ *
+ * so that <i>Var(dZ<sub>t</sub>) = dt<sup>3</sup>/3</i> and <i>Cov(dW<sub>t</sub>, dZ<sub>t</sub>) = dt<sup>2</sup>/2</i>.
+ *
+ * @author Haksun Li
+ *
+ * @see "P. E. Kloeden and E. Platen. Numerical Solution of Stochastic Differential Equations. Section 10.4. pp. 351. Springer. 1992."
+ */
+public class FtDZt extends FtWt {
+
+    private static final long serialVersionUID = 2905745862117303457L;
+    /**
+     * the second Gaussian innovation, independent of <i>Z<sub>t</sub></i>
+     */
+    private double Zt2 = 0;
+
+    /**
+     * Construct an empty filtration (no information).
+     */
+    public FtDZt() {
+    }
+
+    /**
+     * Copy constructor.
+     *
+     * @param that another <tt>Ft</tt>
+     */
+    public FtDZt(FtDZt that) {
+        super(that);
+        this.Zt2 = that.Zt2;
+    }
+
+    @Override
+    public FtDZt deepCopy() {
+        FtDZt ftDZt = new FtDZt(this);
+        return ftDZt;
+    }
+
+    /**
+     * Set the value of the second Gaussian innovation.
+     *
+     * @param Zt2 the second Gaussian innovation
+     */
+    public void setZt2(double Zt2) {
+        this.Zt2 = Zt2;
+    }
+
+    /**
+     * Get the current value of the second Gaussian innovation.
+     *
+     * @return the second Gaussian innovation
+     */
+    public double Zt2() {
+        return Zt2;
+    }
+
+    /**
+     * Get the multiple Itô integral <i>I<sub>(1,0)</sub></i> during the time differential.
+     *
+     * @return the multiple Itô integral <i>I<sub>(1,0)</sub></i>
+     */
+    public double dZt() {
+        double dt = dt();
+        return 0.5 * dt * sqrt(dt) * (Zt() + Zt2 / sqrt(3));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde;
+
+import com.numericalmethod.suanshu.analysis.differentiation.univariate.FiniteDifference;
+import com.numericalmethod.suanshu.analysis.differentiation.univariate.FiniteDifference.Type;
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+
+/**
+ * The strong order 1.5 Itô-Taylor scheme adds to the Milstein scheme all the terms of the Itô-Taylor expansion up to <i>O(dt<sup>1.5</sup>)</i>.
+ * With <i>a = μ</i>, <i>b = σ</i>, and the derivatives taken with respect to <i>X<sub>t</sub></i>,
+ *
+ * <blockquote><code><pre>
+ * dXt = a * dt + b * dW + 0.5 * b * b' * (dW<sup>2</sup> - dt)
+ *       + a' * b * dZ + 0.5 * (a * a' + 0.5 * b<sup>2</sup> * a'') * dt<sup>2</sup>
+ *       + (a * b' + 0.5 * b<sup>2</sup> * b'') * (dW * dt - dZ)
+ *       + 0.5 * b * (b * b'' + b'<sup>2</sup>) * (dW<sup>2</sup> / 3 - dt) * dW
+ * </pre></code></blockquote>
+ *
+ * where <i>dZ</i> is the multiple Itô integral <i>I<sub>(1,0)</sub></i>, provided by {@link FtDZt}.
+ * The derivatives are computed by finite differences.
+ * The time derivatives of the coefficients are omitted, so the scheme has strong order 1.5 for time-homogeneous coefficients.
+ *
+ * @author Haksun Li
+ *
+ * @see "P. E. Kloeden and E. Platen. Numerical Solution of Stochastic Differential Equations. Section 10.4. pp. 351. Springer. 1992."
+ */
+public class ItoTaylor15 implements DiscretizedSDE {
+
+    private static final long serialVersionUID = 3062427432153957493L;
+    /**
+     * the continuous-time SDE specification
+     */
+    public final SDE sde;
+
+    /**
+     * Discretize a univariate SDE using the strong order 1.5 Itô-Taylor scheme.
+     *
+     * @param sde a continuous-time SDE
+     */
+    public ItoTaylor15(SDE sde) {
+        this.sde = sde;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This is an implementation of the strong order 1.5 Itô-Taylor scheme.
+     *
+     * @param ft filtration, which must be an {@link FtDZt}
+     * @return the increment of the process in {@code dt}
+     */
+    public double dXt(Ft ft) {
+        assertArgument(ft instanceof FtDZt, "the filtration must include dZt");
+
+        UnivariateRealFunction a = coefficient(ft, sde.mu);
+        UnivariateRealFunction b = coefficient(ft, sde.sigma);
+
+        double x = ft.Xt();
+        double a0 = a.evaluate(x);
+        double b0 = b.evaluate(x);
+        double da = new FiniteDifference(a, 1, Type.CENTRAL).evaluate(x);
+        double d2a = new FiniteDifference(a, 2, Type.CENTRAL).evaluate(x);
+        double db = new FiniteDifference(b, 1, Type.CENTRAL).evaluate(x);
+        double d2b = new FiniteDifference(b, 2, Type.CENTRAL).evaluate(x);
+
+        double dt = ft.dt();
+        double dW = ft.dWt();
+        double dZ = ((FtDZt) ft).dZt();
+
+        double dXt = a0 * dt + b0 * dW;
+        dXt += 0.5 * b0 * db * (dW * dW - dt);
+        dXt += da * b0 * dZ;
+        dXt += 0.5 * (a0 * da + 0.5 * b0 * b0 * d2a) * dt * dt;
+        dXt += (a0 * db + 0.5 * b0 * b0 * d2b) * (dW * dt - dZ);
+        dXt += 0.5 * b0 * (b0 * d2b + db * db) * (dW * dW / 3 - dt) * dW;
+
+        return dXt;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return an empty {@link FtDZt}
+     */
+    public Ft getNewFt() {
+        return new FtDZt();
+    }
+
+    /**
+     * Get a coefficient as a function of <i>X<sub>t</sub></i>, keeping the rest of the filtration fixed.
+     *
+     * @param ft the filtration
+     * @param f a coefficient
+     * @return the coefficient as a function of <i>X<sub>t</sub></i>
+     */
+    static UnivariateRealFunction coefficient(final Ft ft, final FtAdaptedFunction f) {
+        final Ft xt = ft.deepCopy();
+
+        return new UnivariateRealFunction() {
+
+            private static final long serialVersionUID = -2911863347961367813L;
+
+            @Override
+            public double evaluate(double x) {
+                xt.setXt(x);
+                return f.evaluate(xt);
+            }
+        };
+    }
+}
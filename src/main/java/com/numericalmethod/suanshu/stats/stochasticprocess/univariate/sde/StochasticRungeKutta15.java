@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+
+import static com.numericalmethod.suanshu.misc.SuanShuUtils.assertArgument;
+import static java.lang.Math.sqrt;
+
+/**
+ * This is the explicit, derivative-free, strong order 1.5 scheme, a stochastic Runge-Kutta scheme.
+ * It replaces the derivatives in the {@linkplain ItoTaylor15 order 1.5 Itô-Taylor scheme} by finite differences of the coefficients
+ * evaluated at the supporting values
+ *
+ * <blockquote><code><pre>
+ * Y± = Xt + a * dt ± b * sqrt(dt)
+ * Φ± = Y+ ± b(Y+) * sqrt(dt)
+ * </pre></code></blockquote>
+ *
+ * so that each step costs five evaluations of each coefficient and no differentiation.
+ *
+ * <blockquote><code><pre>
+ * dXt = b * dW + (a(Y+) - a(Y-)) * dZ / (2 * sqrt(dt)) + (a(Y+) + 2 * a + a(Y-)) * dt / 4
+ *       + (b(Y+) - b(Y-)) * (dW<sup>2</sup> - dt) / (4 * sqrt(dt))
+ *       + (b(Y+) - 2 * b + b(Y-)) * (dW * dt - dZ) / (2 * dt)
+ *       + (b(Φ+) - b(Φ-) - b(Y+) + b(Y-)) * (dW<sup>2</sup> / 3 - dt) * dW / (4 * dt)
+ * </pre></code></blockquote>
+ *
+ * where <i>dZ</i> is the multiple Itô integral <i>I<sub>(1,0)</sub></i>, provided by {@link FtDZt}.
+ *
+ * @author Haksun Li
+ *
+ * @see "P. E. Kloeden and E. Platen. Numerical Solution of Stochastic Differential Equations. Section 11.2. pp. 383. Springer. 1992."
+ */
+public class StochasticRungeKutta15 implements DiscretizedSDE {
+
+    private static final long serialVersionUID = -3441356419868391442L;
+    /**
+     * the continuous-time SDE specification
+     */
+    public final SDE sde;
+
+    /**
+     * Discretize a univariate SDE using the explicit strong order 1.5 scheme.
+     *
+     * @param sde a continuous-time SDE
+     */
+    public StochasticRungeKutta15(SDE sde) {
+        this.sde = sde;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * This is an implementation of the explicit strong order 1.5 scheme.
+     *
+     * @param ft filtration, which must be an {@link FtDZt}
+     * @return the increment of the process in {@code dt}
+     */
+    public double dXt(Ft ft) {
+        assertArgument(ft instanceof FtDZt, "the filtration must include dZt");
+
+        double dt = ft.dt();
+        if (dt == 0) {
+            return 0;
+        }
+
+        UnivariateRealFunction a = ItoTaylor15.coefficient(ft, sde.mu);
+        UnivariateRealFunction b = ItoTaylor15.coefficient(ft, sde.sigma);
+
+        double x = ft.Xt();
+        double a0 = a.evaluate(x);
+        double b0 = b.evaluate(x);
+
+        double sqrtDt = sqrt(dt);
+        double yp = x + a0 * dt + b0 * sqrtDt;
+        double ym = x + a0 * dt - b0 * sqrtDt;
+        double ap = a.evaluate(yp);
+        double am = a.evaluate(ym);
+        double bp = b.evaluate(yp);
+        double bm = b.evaluate(ym);
+        double bPhiP = b.evaluate(yp + bp * sqrtDt);
+        double bPhiM = b.evaluate(yp - bp * sqrtDt);
+
+        double dW = ft.dWt();
+        double dZ = ((FtDZt) ft).dZt();
+
+        double dXt = b0 * dW;
+        dXt += (ap - am) * dZ / (2 * sqrtDt);
+        dXt += (ap + 2 * a0 + am) * dt / 4;
+        dXt += (bp - bm) * (dW * dW - dt) / (4 * sqrtDt);
+        dXt += (bp - 2 * b0 + bm) * (dW * dt - dZ) / (2 * dt);
+        dXt += (bPhiP - bPhiM - bp + bm) * (dW * dW / 3 - dt) * dW / (4 * dt);
+
+        return dXt;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return an empty {@link FtDZt}
+     */
+    public Ft getNewFt() {
+        return new FtDZt();
+    }
+}
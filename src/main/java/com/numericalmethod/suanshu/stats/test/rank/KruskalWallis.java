@@ -1,6 +1,5 @@
 package com.numericalmethod.suanshu.stats.test.rank;
 
-import com.numericalmethod.suanshu.number.Counter;
 import com.numericalmethod.suanshu.number.DoubleUtils;
 import static com.numericalmethod.suanshu.number.DoubleUtils.concat;
 import com.numericalmethod.suanshu.stats.descriptive.rank.Rank;
@@ -8,7 +7,6 @@ import com.numericalmethod.suanshu.stats.distribution.univariate.ChiSquareDistri
 import com.numericalmethod.suanshu.stats.distribution.univariate.ProbabilityDistribution;
 import com.numericalmethod.suanshu.stats.test.HypothesisTest;
 import static java.lang.Math.pow;
-import java.util.Set;
 
 /**
  * The Kruskal–Wallis test is a non-parametric method for testing equality of population medians among groups.
@@ -20,7 +18,7 @@ import java.util.Set;
  * However, the test does assume an identically-shaped and scaled distribution for each group, except for any difference in medians.
  *
  * <p>
- * TODO: correction for ties
+ * The statistic is corrected for ties, as in R.
  *
  * <p>
  * The R equivalent function is {@code kruskal.test}.
@@ -52,7 +50,8 @@ public class KruskalWallis extends HypothesisTest {
         super(samples);
 
         double[] all = concat(samples);
-        double[] ranks = (new Rank(all)).ranks();
+        Rank rank = new Rank(all);
+        double[] ranks = rank.ranks();
 
         //compute the test statistics
         double meanRank = 0;
@@ -69,14 +68,7 @@ public class KruskalWallis extends HypothesisTest {
         testStatistics = sum * 12 / (N * (N + 1)) - 3 * (N + 1);
 
         //correction for ties
-        double term = 0;
-        Counter counter = new Counter();
-        counter.add(ranks);
-        Set<Double> groups = counter.keySet();
-        for (Double d : groups) {
-            int t = counter.count(d.doubleValue());
-            term += t * t * t - t;
-        }
+        double term = rank.t();//sum(t^3 - t) over the groups of ties
 
         double adjustment = 1 - term / (N * N * N - N);
         testStatistics /= adjustment;
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.test.rank;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Rank;
+import com.numericalmethod.suanshu.stats.test.rank.wilcoxon.WilcoxonRankSum;
+import com.numericalmethod.suanshu.stats.test.rank.wilcoxon.WilcoxonSignedRank;
+
+/**
+ * These are the batch versions of the rank-based tests.
+ * Each column of the sample matrices is a sample, e.g., the returns of an asset,
+ * and a test is performed on each column, e.g., for each asset.
+ * The columns are processed in parallel.
+ *
+ * @author Haksun Li
+ */
+public class RankTests {
+
+    /**
+     * for parallel algorithm execution
+     */
+    private static final int LENGTH_THRESHOLD = 100 * 100;
+
+    private RankTests() {
+        // utility class has no instance
+    }
+
+    /**
+     * the computation for a column
+     */
+    private static abstract class ColumnTask<T> {
+
+        abstract T run(int j);
+    }
+
+    /**
+     * Compute the sample ranks of each column.
+     *
+     * @param X a matrix
+     * @return the ranks of the columns of {@code X}
+     */
+    public static Rank[] ranks(final Matrix X) {
+        return forEachColumn(X.nCols(), X.nRows(), new Rank[X.nCols()], new ColumnTask<Rank>() {
+
+            @Override
+            Rank run(int j) {
+                return new Rank(X.getColumn(j).toArray());
+            }
+        });
+    }
+
+    /**
+     * Perform the Wilcoxon Rank Sum test on each pair of the columns.
+     *
+     * @param sample1     the samples 1, one per column
+     * @param sample2     the samples 2, one per column
+     * @param mu          the hypothetical location that the <i>sample1 - sample2</i> is symmetric about
+     * @param isExact     {@code true} if to use the exact distribution; otherwise, normal approximation is used
+     * @param isCorrected {@code true} if to use the continuity correction for the normal distribution
+     * @return the tests, one per column
+     * @see WilcoxonRankSum#WilcoxonRankSum(double[], double[], double, boolean, boolean)
+     */
+    public static WilcoxonRankSum[] wilcoxonRankSum(final Matrix sample1, final Matrix sample2, final double mu, final boolean isExact, final boolean isCorrected) {
+        assertSameNumberOfColumns(sample1, sample2);
+        return forEachColumn(sample1.nCols(), sample1.nRows() + sample2.nRows(), new WilcoxonRankSum[sample1.nCols()], new ColumnTask<WilcoxonRankSum>() {
+
+            @Override
+            WilcoxonRankSum run(int j) {
+                return new WilcoxonRankSum(sample1.getColumn(j).toArray(), sample2.getColumn(j).toArray(), mu, isExact, isCorrected);
+            }
+        });
+    }
+
+    /**
+     * Perform the Wilcoxon Signed Rank test on each pair of the columns.
+     *
+     * @param sample1 the samples 1, one per column
+     * @param sample2 the samples 2, one per column; {@code null} for the one-sample test
+     * @param mu      the hypothetical median that the distribution is symmetric about
+     * @param isExact {@code true} if to use the exact distribution; otherwise, normal approximation is used
+     * @return the tests, one per column
+     * @see WilcoxonSignedRank#WilcoxonSignedRank(double[], double[], double, boolean)
+     */
+    public static WilcoxonSignedRank[] wilcoxonSignedRank(final Matrix sample1, final Matrix sample2, final double mu, final boolean isExact) {
+        if (sample2 != null) {
+            assertSameNumberOfColumns(sample1, sample2);
+        }
+        return forEachColumn(sample1.nCols(), sample1.nRows(), new WilcoxonSignedRank[sample1.nCols()], new ColumnTask<WilcoxonSignedRank>() {
+
+            @Override
+            WilcoxonSignedRank run(int j) {
+                return new WilcoxonSignedRank(sample1.getColumn(j).toArray(), sample2 != null ? sample2.getColumn(j).toArray() : null, mu, isExact);
+            }
+        });
+    }
+
+    /**
+     * Perform the Siegel-Tukey test on each pair of the columns.
+     *
+     * @param sample1 the samples 1, one per column
+     * @param sample2 the samples 2, one per column
+     * @param mu      the hypothetical mean difference
+     * @param isExact indicate whether the exact Wilcoxon Rank Sum distribution is used
+     * @return the tests, one per column
+     * @see SiegelTukey#SiegelTukey(double[], double[], double, boolean)
+     */
+    public static SiegelTukey[] siegelTukey(final Matrix sample1, final Matrix sample2, final double mu, final boolean isExact) {
+        assertSameNumberOfColumns(sample1, sample2);
+        return forEachColumn(sample1.nCols(), sample1.nRows() + sample2.nRows(), new SiegelTukey[sample1.nCols()], new ColumnTask<SiegelTukey>() {
+
+            @Override
+            SiegelTukey run(int j) {
+                return new SiegelTukey(sample1.getColumn(j).toArray(), sample2.getColumn(j).toArray(), mu, isExact);
+            }
+        });
+    }
+
+    /**
+     * Perform the Kruskal-Wallis test on each column, with the groups being the same column of the matrices.
+     *
+     * @param samples the groups, each matrix having one sample per column
+     * @return the tests, one per column
+     * @see KruskalWallis#KruskalWallis(double[][])
+     */
+    public static KruskalWallis[] kruskalWallis(final Matrix... samples) {
+        return forEachColumn(nCols(samples), nRows(samples), new KruskalWallis[nCols(samples)], new ColumnTask<KruskalWallis>() {
+
+            @Override
+            KruskalWallis run(int j) {
+                return new KruskalWallis(columns(samples, j));
+            }
+        });
+    }
+
+    /**
+     * Perform the Van der Waerden test on each column, with the groups being the same column of the matrices.
+     *
+     * @param samples the groups, each matrix having one sample per column
+     * @return the tests, one per column
+     * @see VanDerWaerden#VanDerWaerden(double[][])
+     */
+    public static VanDerWaerden[] vanDerWaerden(final Matrix... samples) {
+        return forEachColumn(nCols(samples), nRows(samples), new VanDerWaerden[nCols(samples)], new ColumnTask<VanDerWaerden>() {
+
+            @Override
+            VanDerWaerden run(int j) {
+                return new VanDerWaerden(columns(samples, j));
+            }
+        });
+    }
+
+    private static <T> T[] forEachColumn(int nCols, int nRows, final T[] results, final ColumnTask<T> task) {
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(
+                    (long) nRows * nCols >= LENGTH_THRESHOLD,
+                    0, nCols,
+                    new LoopBody() {
+
+                        @Override
+                        public void run(int j) throws Exception {
+                            results[j] = task.run(j + 1);
+                        }
+                    });
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        return results;
+    }
+
+    private static double[][] columns(Matrix[] samples, int j) {
+        double[][] columns = new double[samples.length][];
+        for (int i = 0; i < samples.length; ++i) {
+            columns[i] = samples[i].getColumn(j).toArray();
+        }
+        return columns;
+    }
+
+    private static void assertSameNumberOfColumns(Matrix... samples) {
+        for (Matrix sample : samples) {
+            SuanShuUtils.assertArgument(sample.nCols() == samples[0].nCols(), "the samples must have the same number of columns");
+        }
+    }
+
+    private static int nCols(Matrix[] samples) {
+        SuanShuUtils.assertArgument(samples.length > 0, "there must be at least one group");
+        assertSameNumberOfColumns(samples);
+        return samples[0].nCols();
+    }
+
+    private static int nRows(Matrix[] samples) {
+        int nRows = 0;
+        for (Matrix sample : samples) {
+            nRows += sample.nRows();
+        }
+        return nRows;
+    }
+}
@@ -1,7 +1,7 @@
 package com.numericalmethod.suanshu.stats.test.rank;
 
 import com.numericalmethod.suanshu.stats.test.rank.wilcoxon.WilcoxonRankSum;
-import com.numericalmethod.suanshu.misc.R;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Rank;
 import com.numericalmethod.suanshu.stats.test.HypothesisTest;
 import java.util.Arrays;
 
@@ -57,32 +57,32 @@ public class SiegelTukey extends HypothesisTest {
             merged[N1 + i] = sample2[i];//the order must remain unchanged
         }
 
-        int[] orders = R.order(merged);//sorted = merged[orders - 1]
+        int[] orders = Rank.order(merged);//sorted = merged[orders]
 
         double[] ranks = new double[N];
         for (int i = 0; i < N; ++i) {
             int j = Math.round(i / 2.0) % 2 == 0 ? i / 2 : N - 1 - i / 2;//the index to assign rank to
-            ranks[orders[j] - 1] = i + 1;//rank counts from 1
+            ranks[orders[j]] = i + 1;//rank counts from 1
         }
 
         //adjust for ties using mid-rank
         int begin = 0, end = 0;
-        double sum = ranks[orders[0] - 1];
+        double sum = ranks[orders[0]];
         for (int i = 1; i <= N; ++i) {
-            if ((i == N) || (merged[orders[i] - 1] != merged[orders[i - 1] - 1])) {
+            if ((i == N) || (merged[orders[i]] != merged[orders[i - 1]])) {
                 if (end > begin) {//mid-rank rule
                     double midrank = sum / (end - begin + 1);
                     for (int j = begin; j <= end; ++j) {
-                        ranks[orders[j] - 1] = midrank;
+                        ranks[orders[j]] = midrank;
                     }
                 }
 
                 begin = i;
                 end = i;
-                sum = i < N ? ranks[orders[i] - 1] : 0;
+                sum = i < N ? ranks[orders[i]] : 0;
             } else {//ties
                 end = i;
-                sum += ranks[orders[i] - 1];
+                sum += ranks[orders[i]];
             }
         }
 
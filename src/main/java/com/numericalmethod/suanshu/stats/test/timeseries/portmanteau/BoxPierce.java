@@ -28,6 +28,7 @@ import com.numericalmethod.suanshu.stats.test.HypothesisTest;
 import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
 import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample.AutoCorrelation;
 import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample.AutoCovariance;
+import java.util.Arrays;
 
 /**
  * The Box–Pierce test (named for George E. P. Box and David A. Pierce) is a portmanteau test for autocorrelated errors.
@@ -72,10 +73,8 @@ public class BoxPierce extends HypothesisTest {
     public BoxPierce(double[] xt, int lag, int fitdf) {
         AutoCorrelation cor = new AutoCorrelation(new SimpleTimeSeries(xt), AutoCovariance.Type.TYPE_I);
 
-        double[] obs = new double[lag];
-        for (int i = 0; i < lag; ++i) {
-            obs[i] = cor.evaluate(i + 1);
-        }
+        double[] rho = cor.values(lag);//all lags at once
+        double[] obs = Arrays.copyOfRange(rho, 1, lag + 1);
 
         testStatistics = Q(obs, xt.length);
 
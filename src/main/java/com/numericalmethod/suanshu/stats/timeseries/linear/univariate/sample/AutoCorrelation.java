@@ -57,6 +57,21 @@ public class AutoCorrelation extends AutoCorrelationFunction {
         return acvf.evaluate(k) / acvf0;
     }
 
+    /**
+     * Compute the auto-correlations for lags 0 to {@code maxLag}.
+     *
+     * @param maxLag the maximum lag
+     * @return ρ(0), ..., ρ({@code maxLag})
+     * @see AutoCovariance#values(int)
+     */
+    public double[] values(int maxLag) {
+        double[] rho = acvf.values(maxLag);
+        for (int k = 0; k <= maxLag; ++k) {
+            rho[k] /= acvf0;
+        }
+        return rho;
+    }
+
     @Override
     public double evaluate(double x1, double x2) {
         return evaluate(Math.round((float) Math.abs(x1 - x2)));
@@ -22,6 +22,7 @@
  */
 package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
 
+import com.numericalmethod.suanshu.dsp.univariate.transform.FFT;
 import com.numericalmethod.suanshu.misc.SuanShuUtils;
 import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
 import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.AutoCovarianceFunction;
@@ -29,6 +30,8 @@ import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeri
 
 /**
  * This computes the sample Auto-Covariance Function (ACVF) for a univariate data set.
+ * A single lag is computed by summation in <i>O(n)</i>.
+ * Many lags are computed all at once by {@link FFT} in <i>O(n log n)</i>, using {@link #values(int)}.
  *
  * @author Haksun Li
  *
@@ -94,6 +97,52 @@ public class AutoCovariance extends AutoCovarianceFunction {
         return gamma;
     }
 
+    /**
+     * Compute the auto-covariances for lags 0 to {@code maxLag}.
+     * When there are more than a few lags, the sums for all lags are computed at once
+     * by correlating the demeaned series with itself using {@link FFT}.
+     *
+     * @param maxLag the maximum lag
+     * @return γ(0), ..., γ({@code maxLag})
+     */
+    public double[] values(int maxLag) {
+        final int n = xt.size();
+        SuanShuUtils.assertArgument(maxLag >= 0 && maxLag < n, "lag must be < lenght of the time series");
+
+        double[] gamma = new double[maxLag + 1];
+        if (!isFFTFaster(n, maxLag + 1)) {
+            for (int k = 0; k <= maxLag; ++k) {
+                gamma[k] = evaluate(k);
+            }
+            return gamma;
+        }
+
+        double[] x = xt.toArray();
+        for (int t = 0; t < n; ++t) {
+            x[t] -= mu;
+        }
+        double[] r = FFT.correlate(x, x);//lag k at index n - 1 + k
+        for (int k = 0; k <= maxLag; ++k) {
+            gamma[k] = r[n - 1 + k] / (type == Type.TYPE_II ? n - k : n);
+        }
+
+        return gamma;
+    }
+
+    /**
+     * Check whether computing the sums for {@code nLags} lags of two series of length {@code n} by FFT
+     * is cheaper than summing each lag.
+     *
+     * @param n     the length of the series
+     * @param nLags the number of lags
+     * @return {@code true} if FFT is faster
+     */
+    static boolean isFFTFaster(int n, int nLags) {
+        int N = FFT.nextPowerOf2(2 * n - 1);
+        double cost = 4. * N * (Integer.numberOfTrailingZeros(N) + 1);//a forward and an inverse complex FFT
+        return (double) n * nLags > cost;
+    }
+
     @Override
     public double evaluate(double x1, double x2) {
         return evaluate(Math.round((float) Math.abs(x1 - x2)));
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
+
+import com.numericalmethod.suanshu.dsp.univariate.transform.FFT;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
+import java.io.Serializable;
+
+/**
+ * This computes the sample cross-covariance function of two univariate data sets of the same length,
+ * <blockquote><i>
+ * γ<sub>xy</sub>(k) = 1/n Σ<sub>t</sub> (x<sub>t+k</sub> - x&#772;)(y<sub>t</sub> - y&#772;)
+ * </i></blockquote>
+ * for <i>-n &lt; k &lt; n</i>.
+ * A single lag is computed by summation in <i>O(n)</i>.
+ * Many lags are computed all at once by {@link FFT} in <i>O(n log n)</i>, using {@link #values(int)}.
+ *
+ * <p>
+ * The R equivalent function is {@code ccf} with {@code type = "covariance"}.
+ *
+ * @author Haksun Li
+ * @see "William W.S. Wei, "Section 14.2. The Cross-Correlation Function" in <i>Time Series Analysis : Univariate and Multivariate Methods (2nd Edition)</i>, Addison Wesley; 2 edition (July 17, 2005)"
+ */
+public class CrossCovariance implements Serializable {
+
+    private static final long serialVersionUID = 4395172270432181137L;
+    private final double[] x;
+    private final double[] y;
+    private final AutoCovariance.Type type;
+
+    /**
+     * Construct the sample cross-covariance function of two time series.
+     *
+     * @param xt   a time series
+     * @param yt   a time series of the same length
+     * @param type the denominator of the sums
+     */
+    public CrossCovariance(TimeSeries xt, TimeSeries yt, AutoCovariance.Type type) {
+        SuanShuUtils.assertArgument(xt.size() == yt.size(), "the time series must have the same length");
+
+        this.x = demean(xt.toArray());
+        this.y = demean(yt.toArray());
+        this.type = type;
+    }
+
+    /**
+     * Construct the sample cross-covariance function of two time series,
+     * whose denominator is the time series length.
+     *
+     * @param xt a time series
+     * @param yt a time series of the same length
+     */
+    public CrossCovariance(TimeSeries xt, TimeSeries yt) {
+        this(xt, yt, AutoCovariance.Type.TYPE_I);
+    }
+
+    /**
+     * Compute the cross-covariance for lag {@code k}.
+     *
+     * @param k lag, <i>-n &lt; k &lt; n</i>
+     * @return <i>γ<sub>xy</sub>(k)</i>
+     */
+    public double evaluate(int k) {
+        final int n = x.length;
+        SuanShuUtils.assertArgument(Math.abs(k) < n, "|lag| must be < lenght of the time series");
+
+        double sum = 0;
+        for (int t = Math.max(0, -k); t < Math.min(n, n - k); ++t) {
+            sum += x[t + k] * y[t];
+        }
+
+        return sum / denominator(k);
+    }
+
+    /**
+     * Compute the cross-covariances for lags {@code -maxLag} to {@code maxLag}.
+     * When there are more than a few lags, the sums for all lags are computed at once by {@link FFT}.
+     *
+     * @param maxLag the maximum lag
+     * @return <i>γ<sub>xy</sub>(-maxLag), ..., γ<sub>xy</sub>(maxLag)</i>
+     */
+    public double[] values(int maxLag) {
+        final int n = x.length;
+        SuanShuUtils.assertArgument(maxLag >= 0 && maxLag < n, "lag must be < lenght of the time series");
+
+        double[] gamma = new double[2 * maxLag + 1];
+        if (!AutoCovariance.isFFTFaster(n, 2 * maxLag + 1)) {
+            for (int k = -maxLag; k <= maxLag; ++k) {
+                gamma[k + maxLag] = evaluate(k);
+            }
+            return gamma;
+        }
+
+        double[] r = FFT.correlate(y, x);//Σ y_t x_{t+k} at index n - 1 + k
+        for (int k = -maxLag; k <= maxLag; ++k) {
+            gamma[k + maxLag] = r[n - 1 + k] / denominator(k);
+        }
+
+        return gamma;
+    }
+
+    private double denominator(int k) {
+        return type == AutoCovariance.Type.TYPE_II ? x.length - Math.abs(k) : x.length;
+    }
+
+    private static double[] demean(double[] x) {
+        double mu = new Mean(x).value();
+        for (int t = 0; t < x.length; ++t) {
+            x[t] -= mu;
+        }
+        return x;
+    }
+}
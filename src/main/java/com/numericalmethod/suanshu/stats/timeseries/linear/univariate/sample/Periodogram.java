@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
+
+import com.numericalmethod.suanshu.dsp.univariate.transform.FFT;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import java.util.Arrays;
+
+/**
+ * The periodogram is the raw estimate of the spectral density of a univariate data set,
+ * <blockquote><i>
+ * I(f<sub>j</sub>) = 1/n |Σ<sub>t=1</sub><sup>n</sup> (x<sub>t</sub> - x&#772;) e<sup>-2πi f<sub>j</sub> t</sup>|<sup>2</sup>
+ * </i></blockquote>
+ * at the Fourier frequencies <i>f<sub>j</sub> = j/n</i>, <i>j = 1, ..., &lfloor;n/2&rfloor;</i>,
+ * in cycles per unit time.
+ * It is computed by {@link FFT} in <i>O(n log n)</i>.
+ * The periodogram is not a consistent estimator; see {@link WelchSpectralDensity} for a smoother estimate.
+ *
+ * <p>
+ * The R equivalent function is {@code spec.pgram} with {@code taper = 0, detrend = FALSE, fast = FALSE}.
+ *
+ * @author Haksun Li
+ * @see "William W.S. Wei, "Section 13.1. The Periodogram Analysis" in <i>Time Series Analysis : Univariate and Multivariate Methods (2nd Edition)</i>, Addison Wesley; 2 edition (July 17, 2005)"
+ */
+public class Periodogram {
+
+    private final double[] frequencies;
+    private final double[] spectrum;
+
+    /**
+     * Compute the periodogram of a data set.
+     *
+     * @param x a univariate data set
+     */
+    public Periodogram(double[] x) {
+        final int n = x.length;
+        SuanShuUtils.assertArgument(n >= 2, "there must be at least 2 observations");
+
+        double mu = new Mean(x).value();
+        double[] xc = new double[n];
+        for (int t = 0; t < n; ++t) {
+            xc[t] = x[t] - mu;
+        }
+
+        double[] re = new double[n];
+        double[] im = new double[n];
+        new FFT(n).transform(xc, re, im);
+
+        frequencies = new double[n / 2];
+        spectrum = new double[n / 2];
+        for (int j = 1; j <= n / 2; ++j) {
+            frequencies[j - 1] = (double) j / n;
+            spectrum[j - 1] = (re[j] * re[j] + im[j] * im[j]) / n;
+        }
+    }
+
+    /**
+     * Get the Fourier frequencies, <i>j/n</i>, in cycles per unit time.
+     *
+     * @return the frequencies
+     */
+    public double[] frequencies() {
+        return Arrays.copyOf(frequencies, frequencies.length);
+    }
+
+    /**
+     * Get the periodogram at the Fourier frequencies.
+     *
+     * @return the spectral density estimates
+     */
+    public double[] spectrum() {
+        return Arrays.copyOf(spectrum, spectrum.length);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
+
+import com.numericalmethod.suanshu.dsp.univariate.transform.FFT;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.util.Arrays;
+
+/**
+ * Welch's method estimates the spectral density of a univariate data set by averaging the periodograms
+ * of overlapping, windowed segments.
+ * Each segment of length <i>L</i> is demeaned and multiplied by a window <i>w</i>; its modified periodogram is
+ * <blockquote><i>
+ * P(f<sub>j</sub>) = |Σ<sub>t</sub> w<sub>t</sub> (x<sub>t</sub> - x&#772;) e<sup>-2πi f<sub>j</sub> t</sup>|<sup>2</sup> / Σ<sub>t</sub> w<sub>t</sub><sup>2</sup>
+ * </i></blockquote>
+ * at <i>f<sub>j</sub> = j/L</i>, <i>j = 1, ..., &lfloor;L/2&rfloor;</i>.
+ * Averaging reduces the variance of the estimates at the cost of the frequency resolution.
+ * The estimates are on the same scale as {@link Periodogram};
+ * with one rectangular segment covering the whole data set, they are the periodogram.
+ * Each segment is transformed by {@link FFT}.
+ *
+ * @author Haksun Li
+ * @see "P. D. Welch, "The use of fast Fourier transform for the estimation of power spectra: a method based on time averaging over short, modified periodograms," IEEE Transactions on Audio and Electroacoustics, 15 (2), 70–73, 1967."
+ */
+public class WelchSpectralDensity {
+
+    /**
+     * the data windows available
+     */
+    public static enum Window {
+
+        /**
+         * all weights are 1
+         */
+        RECTANGULAR,
+        /**
+         * default: the Hann window, <i>w<sub>t</sub> = sin<sup>2</sup>(πt/L)</i>
+         */
+        HANN
+    };
+
+    private final double[] frequencies;
+    private final double[] spectrum;
+    private final int nSegments;
+
+    /**
+     * Estimate the spectral density of a data set by Welch's method.
+     *
+     * @param x             a univariate data set
+     * @param segmentLength the length of a segment
+     * @param overlap       the number of observations shared by two consecutive segments
+     * @param window        the data window applied to each segment
+     */
+    public WelchSpectralDensity(double[] x, int segmentLength, int overlap, Window window) {
+        SuanShuUtils.assertArgument(segmentLength >= 2 && segmentLength <= x.length, "2 <= segmentLength <= %d", x.length);
+        SuanShuUtils.assertArgument(overlap >= 0 && overlap < segmentLength, "0 <= overlap < segmentLength");
+
+        final int L = segmentLength;
+        final int step = L - overlap;
+        this.nSegments = (x.length - L) / step + 1;
+
+        double[] w = window(L, window);
+        double sumW2 = 0;
+        for (int t = 0; t < L; ++t) {
+            sumW2 += w[t] * w[t];
+        }
+
+        FFT fft = new FFT(L);
+        double[] segment = new double[L];
+        double[] re = new double[L];
+        double[] im = new double[L];
+        spectrum = new double[L / 2];
+        for (int s = 0; s < nSegments; ++s) {
+            final int begin = s * step;
+            double mu = 0;
+            for (int t = 0; t < L; ++t) {
+                mu += x[begin + t];
+            }
+            mu /= L;
+            for (int t = 0; t < L; ++t) {
+                segment[t] = w[t] * (x[begin + t] - mu);
+            }
+
+            fft.transform(segment, re, im);
+            for (int j = 1; j <= L / 2; ++j) {
+                spectrum[j - 1] += re[j] * re[j] + im[j] * im[j];
+            }
+        }
+
+        frequencies = new double[L / 2];
+        for (int j = 1; j <= L / 2; ++j) {
+            frequencies[j - 1] = (double) j / L;
+            spectrum[j - 1] /= nSegments * sumW2;
+        }
+    }
+
+    /**
+     * Estimate the spectral density of a data set by Welch's method
+     * using the Hann window and segments that overlap by half.
+     *
+     * @param x             a univariate data set
+     * @param segmentLength the length of a segment
+     */
+    public WelchSpectralDensity(double[] x, int segmentLength) {
+        this(x, segmentLength, segmentLength / 2, Window.HANN);
+    }
+
+    /**
+     * Get the frequencies, <i>j/L</i>, in cycles per unit time.
+     *
+     * @return the frequencies
+     */
+    public double[] frequencies() {
+        return Arrays.copyOf(frequencies, frequencies.length);
+    }
+
+    /**
+     * Get the spectral density estimates at the frequencies.
+     *
+     * @return the spectral density estimates
+     */
+    public double[] spectrum() {
+        return Arrays.copyOf(spectrum, spectrum.length);
+    }
+
+    /**
+     * Get the number of segments averaged.
+     *
+     * @return the number of segments
+     */
+    public int nSegments() {
+        return nSegments;
+    }
+
+    private static double[] window(int L, Window window) {
+        double[] w = new double[L];
+        for (int t = 0; t < L; ++t) {
+            switch (window) {
+                case RECTANGULAR:
+                    w[t] = 1;
+                    break;
+                case HANN:
+                default:
+                    double s = Math.sin(Math.PI * t / L);//the periodic Hann window
+                    w[t] = s * s;
+                    break;
+            }
+        }
+        return w;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.parallel.LoopBody;
+import com.numericalmethod.suanshu.parallel.MultipleExecutionException;
+import com.numericalmethod.suanshu.parallel.ParallelExecutor;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This is the skeleton of fitting the same model specification to many time series in parallel.
+ * Each series is fitted independently, optionally starting from a previously fitted model.
+ * A failure in one series does not stop the batch; it is reported in the {@link Fit} of that series,
+ * together with the convergence and the timing of every fit.
+ *
+ * @param <M> the type of the fitted model, which is also the type of a warm start
+ * @param <F> the type of the fitting of one series
+ * @author Haksun Li
+ */
+public abstract class BatchFitting<M, F extends BatchFitting.Fit<?>> {
+
+    /**
+     * the fitting of one series in a batch
+     *
+     * @param <R> the type of the fitting method
+     */
+    public static class Fit<R> implements Serializable {
+
+        private static final long serialVersionUID = 2466101520437406637L;
+        private final R fitting;
+        private final int nIterations;
+        private final boolean isConverged;
+        private long elapsedNanos;//set by the batch once the fitting returns
+        private final RuntimeException error;
+
+        /**
+         * Construct a successful fit.
+         *
+         * @param fitting     the fitting
+         * @param nIterations the number of iterations the optimizer ran
+         * @param isConverged {@code true} if the optimizer met its stopping rule
+         */
+        protected Fit(R fitting, int nIterations, boolean isConverged) {
+            this.fitting = fitting;
+            this.nIterations = nIterations;
+            this.isConverged = isConverged;
+            this.error = null;
+        }
+
+        /**
+         * Construct a failed fit.
+         *
+         * @param error the exception thrown by the fitting
+         */
+        protected Fit(RuntimeException error) {
+            this.fitting = null;
+            this.nIterations = 0;
+            this.isConverged = false;
+            this.error = error;
+        }
+
+        /**
+         * Get the fitting.
+         *
+         * @return the fitting; {@code null} if the fitting failed
+         */
+        public R fitting() {
+            return fitting;
+        }
+
+        /**
+         * Get the number of iterations the optimizer ran.
+         *
+         * @return the number of iterations
+         */
+        public int nIterations() {
+            return nIterations;
+        }
+
+        /**
+         * Check whether the optimizer met its stopping rule before the maximum number of iterations.
+         *
+         * @return {@code true} if the search converged
+         */
+        public boolean isConverged() {
+            return isConverged;
+        }
+
+        /**
+         * Get the wall clock time taken by this fit.
+         *
+         * @return the time taken in nanoseconds
+         */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Get the exception thrown by the fitting, if any.
+         *
+         * @return the exception; {@code null} if the fitting succeeded
+         */
+        public RuntimeException error() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            if (error != null) {
+                return String.format("failed: %s", error);
+            }
+            return String.format("%s; %d iterations, %s, %.3f ms",
+                                 fitting, nIterations, isConverged ? "converged" : "not converged", elapsedNanos / 1e6);
+        }
+    }
+
+    /**
+     * Fit one series.
+     * An exception thrown is reported in the fit of the series.
+     *
+     * @param xt      a time series
+     * @param initial the initial model; {@code null} to start from scratch
+     * @return the fit
+     */
+    protected abstract F fit(TimeSeries xt, M initial);
+
+    /**
+     * Construct the fit of a series whose fitting failed.
+     *
+     * @param error the exception thrown by the fitting
+     * @return the fit
+     */
+    protected abstract F failed(RuntimeException error);
+
+    /**
+     * Check that a warm start has the specification of this batch.
+     *
+     * @param initial a warm start, not {@code null}
+     * @throws IllegalArgumentException if the warm start does not match the specification
+     */
+    protected abstract void checkWarmStart(M initial);
+
+    /**
+     * Fit every series, each starting from a previously fitted model.
+     *
+     * @param series     the time series
+     * @param warmStarts the initial models, one for each series, in the same order;
+     *                   a {@code null} entry starts the fitting of that series from scratch
+     * @return the fits, in the same order as the series
+     */
+    public List<F> fit(final List<? extends TimeSeries> series, final List<? extends M> warmStarts) {
+        SuanShuUtils.assertArgument(warmStarts == null || warmStarts.size() == series.size(),
+                                    "there must be one warm start per series");
+        if (warmStarts != null) {
+            for (M initial : warmStarts) {
+                if (initial != null) {
+                    checkWarmStart(initial);
+                }
+            }
+        }
+
+        final List<F> fits = Arrays.asList(newArray(series.size()));
+        try {
+            ParallelExecutor.getInstance().conditionalForLoop(
+                    series.size() > 1,
+                    0, series.size(),
+                    new LoopBody() {
+
+                        @Override
+                        public void run(int i) throws Exception {
+                            fits.set(i, timedFit(series.get(i), warmStarts != null ? warmStarts.get(i) : null));
+                        }
+                    });
+        } catch (MultipleExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        return Collections.unmodifiableList(fits);
+    }
+
+    /**
+     * Fit every series from scratch.
+     *
+     * @param series the time series
+     * @return the fits, in the same order as the series
+     */
+    public List<F> fit(List<? extends TimeSeries> series) {
+        return fit(series, null);
+    }
+
+    /**
+     * Fit every column of a matrix, each starting from a previously fitted model.
+     *
+     * @param X          the time series in the columns
+     * @param warmStarts the initial models, one for each column, in the same order;
+     *                   a {@code null} entry starts the fitting of that column from scratch
+     * @return the fits, in the order of the columns
+     */
+    public List<F> fit(Matrix X, List<? extends M> warmStarts) {
+        List<TimeSeries> series = new ArrayList<TimeSeries>(X.nCols());
+        for (int j = 1; j <= X.nCols(); ++j) {
+            series.add(new SimpleTimeSeries(X.getColumn(j).toArray()));
+        }
+        return fit(series, warmStarts);
+    }
+
+    /**
+     * Fit every column of a matrix from scratch.
+     *
+     * @param X the time series in the columns
+     * @return the fits, in the order of the columns
+     */
+    public List<F> fit(Matrix X) {
+        return fit(X, null);
+    }
+
+    private F timedFit(TimeSeries xt, M initial) {
+        final long start = System.nanoTime();
+        F fit;
+        try {
+            fit = fit(xt, initial);
+        } catch (RuntimeException ex) {
+            fit = failed(ex);
+        }
+        ((Fit<?>) fit).elapsedNanos = System.nanoTime() - start;
+        return fit;
+    }
+
+    @SuppressWarnings("unchecked")
+    private F[] newArray(int n) {
+        return (F[]) new Fit<?>[n];
+    }
+}
@@ -36,6 +36,7 @@ import java.io.Serializable;
  * @author Haksun Li
  *
  * @see ConditionalSumOfSquares
+ * @see ExactMaximumLikelihood
  */
 public interface ARMAFitting extends Serializable{
 
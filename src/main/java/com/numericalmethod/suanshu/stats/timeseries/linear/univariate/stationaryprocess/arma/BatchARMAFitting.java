@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.arma;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.BatchFitting;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
+
+/**
+ * This class fits the same ARIMA(p, d, q) specification to many time series in parallel,
+ * e.g., to every instrument in a universe.
+ * Each series is fitted independently, by {@link ExactMaximumLikelihood} or {@link ConditionalSumOfSquares}.
+ * A fit can start from a previously fitted model, e.g., yesterday's estimates,
+ * which usually cuts the search to a few iterations.
+ *
+ * <p>
+ * A failure in one series does not stop the batch; it is reported in the {@link Fit} of that series,
+ * together with the convergence and the timing of every fit.
+ *
+ * @author Haksun Li
+ */
+public class BatchARMAFitting extends BatchFitting<ARMAModel, BatchARMAFitting.Fit> {
+
+    /**
+     * the fitting methods available
+     */
+    public static enum Method {
+
+        /**
+         * {@link ConditionalSumOfSquares}
+         */
+        CONDITIONAL_SUM_OF_SQUARES,
+        /**
+         * {@link ExactMaximumLikelihood}
+         */
+        EXACT_MAXIMUM_LIKELIHOOD
+    }
+
+    /**
+     * the fitting of one series in a batch
+     */
+    public static class Fit extends BatchFitting.Fit<ARMAFitting> {
+
+        private static final long serialVersionUID = 6064470768656282457L;
+
+        private Fit(ARMAFitting fitting, int nIterations, boolean isConverged) {
+            super(fitting, nIterations, isConverged);
+        }
+
+        private Fit(RuntimeException error) {
+            super(error);
+        }
+
+        /**
+         * Get the fitted model.
+         *
+         * @return the fitted model; {@code null} if the fitting failed
+         */
+        public ARMAModel getFittedARMA() {
+            return fitting() != null ? fitting().getFittedARMA() : null;
+        }
+    }
+
+    private final int p;
+    private final int d;
+    private final int q;
+    private final Method method;
+    private final int maxIterations;
+
+    /**
+     * Construct a batch fitter.
+     *
+     * @param p             the number of AR terms
+     * @param d             the order of integration
+     * @param q             the number of MA terms
+     * @param method        the fitting method
+     * @param maxIterations the maximum number of iterations of the optimizer, per series
+     */
+    public BatchARMAFitting(int p, int d, int q, Method method, int maxIterations) {
+        SuanShuUtils.assertArgument(p >= 0 && d >= 0 && q >= 0, "p, d, q must be non-negative");
+        SuanShuUtils.assertArgument(maxIterations > 0, "maxIterations must be positive");
+
+        this.p = p;
+        this.d = d;
+        this.q = q;
+        this.method = method;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Construct a batch fitter that maximizes the exact likelihood.
+     *
+     * @param p the number of AR terms
+     * @param d the order of integration
+     * @param q the number of MA terms
+     */
+    public BatchARMAFitting(int p, int d, int q) {
+        this(p, d, q, Method.EXACT_MAXIMUM_LIKELIHOOD, 200);
+    }
+
+    @Override
+    protected void checkWarmStart(ARMAModel initial) {
+        SuanShuUtils.assertArgument(initial.p() == p && initial.q() == q,
+                                    "a warm start must be an ARMA(%d, %d) model", p, q);
+    }
+
+    @Override
+    protected Fit fit(TimeSeries xt, ARMAModel initial) {
+        switch (method) {
+            case CONDITIONAL_SUM_OF_SQUARES: {
+                ConditionalSumOfSquares fitting = initial != null
+                                                  ? new ConditionalSumOfSquares(xt, d, initial, maxIterations)
+                                                  : new ConditionalSumOfSquares(xt, p, d, q, ConditionalSumOfSquares.CONVERGENCE_TOLERANCE, maxIterations);
+                return new Fit(fitting, fitting.nIterations(), fitting.isConverged());
+            }
+            case EXACT_MAXIMUM_LIKELIHOOD:
+            default: {
+                ExactMaximumLikelihood fitting = initial != null
+                                                 ? new ExactMaximumLikelihood(xt, d, initial, maxIterations)
+                                                 : new ExactMaximumLikelihood(xt, p, d, q, maxIterations);
+                return new Fit(fitting, fitting.nIterations(), fitting.isConverged());
+            }
+        }
+    }
+
+    @Override
+    protected Fit failed(RuntimeException error) {
+        return new Fit(error);
+    }
+}
@@ -22,7 +22,6 @@
  */
 package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.arma;
 
-import static com.numericalmethod.suanshu.analysis.function.FunctionOps.dotProduct;
 import com.numericalmethod.suanshu.analysis.function.rn2r1.RealScalarFunction;
 import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
 import com.numericalmethod.suanshu.analysis.integration.univariate.riemann.Riemann;
@@ -49,6 +48,9 @@ import java.util.Arrays;
  *
  * <p>
  * Note that the order of integration is taken as an input, not estimated.
+ The observations are read through {@link TimeSeries#get(int)} into the differenced, de-meaned working array,
+ * so a series is not copied first, e.g., a view of a
+ * {@link com.numericalmethod.suanshu.stats.timeseries.univariate.ColumnarTimeSeries}.
  *
  * <p>
  * The values produced here can be used as a starting point for the maximum likelihood algorithm.
@@ -79,6 +81,26 @@ public class ConditionalSumOfSquares implements ARMAFitting {
      * the maximum likelihood
      */
     private final double maxLikelihood;
+    /**
+     * the number of iterations the optimizer ran
+     */
+    private final int nIterations;
+    /**
+     * {@code true} if the optimizer stopped before the maximum number of iterations
+     */
+    private final boolean isConverged;
+    /**
+     * the default tolerance of the improvement in the objective when starting from a previous fit
+     */
+    public static final double CONVERGENCE_TOLERANCE = 1e-10;
+    /**
+     * the default maximum number of Nelder-Mead iterations
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 500;
+    /**
+     * the number of Nelder-Mead iterations before the stopping rule is checked
+     */
+    private static final int MINIMUM_NUMBER_OF_ITERATIONS = 50;
 
     /**
      * the parameters are, in order, the φ, θ, and σ^2 in Eq. 8.7.1;
@@ -117,38 +139,125 @@ public class ConditionalSumOfSquares implements ARMAFitting {
      * <p>
      * We only fit an ARMA model. {@code d} is supplied as an argument.
      *
+     * <p>
+     * The optimizer always runs {@value #DEFAULT_MAX_ITERATIONS} iterations.
+     *
      * @param xt the time series of observations
      * @param p  the number of AR terms
      * @param d  the order of integration
      * @param q  the number of MA terms
      */
     public ConditionalSumOfSquares(TimeSeries xt, final int p, final int d, final int q) {
+        this(xt, p, d, q, null, 0, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Fit an ARIMA model for the observations, starting the search from a previously fitted model, e.g., yesterday's estimates.
+     * The search stops when the objective improves by less than {@value #CONVERGENCE_TOLERANCE} in an iteration.
+     *
+     * @param xt            the time series of observations
+     * @param d             the order of integration
+     * @param initial       the initial guess of the ARMA coefficients and the white noise variance;
+     *                      the numbers of AR and MA terms are taken from this model
+     * @param maxIterations the maximum number of iterations of the optimizer
+     */
+    public ConditionalSumOfSquares(TimeSeries xt, int d, ARMAModel initial, int maxIterations) {
+        this(xt, initial.p(), d, initial.q(), DoubleUtils.concat(initial.AR(), initial.MA(), new double[]{initial.sigma()}),
+             CONVERGENCE_TOLERANCE, maxIterations);
+    }
+
+    /**
+     * Fit an ARIMA model for the observations.
+     *
+     * @param xt            the time series of observations
+     * @param p             the number of AR terms
+     * @param d             the order of integration
+     * @param q             the number of MA terms
+     * @param epsilon       the search stops when the objective improves by less than this in an iteration;
+     *                      0 to always run {@code maxIterations} iterations
+     * @param maxIterations the maximum number of iterations of the optimizer
+     */
+    public ConditionalSumOfSquares(TimeSeries xt, int p, int d, int q, double epsilon, int maxIterations) {
+        this(xt, p, d, q, null, epsilon, maxIterations);
+    }
+
+    private ConditionalSumOfSquares(TimeSeries xt, final int p, final int d, final int q, double[] initial, double epsilon, int maxIterations) {
         this.n = xt.size();
 
         //make stationary (ARMA) by differencing when d > 0
-        double[] dxt0 = xt.toArray();
-        if (d > 0) {
-            dxt0 = R.diff(dxt0, 1, d);
-        }
+        double[] dxt1 = stationary(xt, d);//the one working array, read from the series
 
-        //demean
-        this.mu = new Mean(dxt0).value();//the mean/intercept of the stationary time series
-        double[] dxt1 = new double[dxt0.length];
-        for (int i = 0; i < dxt0.length; ++i) {
-            dxt1[i] = dxt0[i] - this.mu;
+        //demean in place
+        this.mu = new Mean(dxt1).value();//the mean/intercept of the stationary time series
+        for (int i = 0; i < dxt1.length; ++i) {
+            dxt1[i] -= this.mu;
         }
 
         RealScalarFunction nL = nLogLikelihood(p, q, dxt1);
-        NelderMead optim = new NelderMead(0, 500);//TODO: make this a parameter
+        NelderMead optim = new NelderMead(epsilon, maxIterations);
         NelderMead.Solution soln = optim.solve(new C2OptimProblemImpl(nL));
-        Vector xmin = new DenseVector(p + q + 1);//initial ar, ma are 0s
-        xmin.set(p + q + 1, 0.01);//initial var, very small
-        xmin = soln.search(xmin);
+        Vector xmin;
+        if (initial != null && initial[p + q] > 0) {
+            xmin = new DenseVector(initial);
+        } else {
+            xmin = new DenseVector(p + q + 1);//initial ar, ma are 0s
+            xmin.set(p + q + 1, 0.01);//initial var, very small
+        }
+
+        //the same stopping rule as NelderMead.Solution.search, counting the iterations
+        soln.setInitials(xmin);
+        double lastMinimum = Double.POSITIVE_INFINITY;
+        int iterations = 0;
+        boolean converged = false;
+        while (iterations < maxIterations) {
+            soln.step();
+            ++iterations;
+            if (iterations > MINIMUM_NUMBER_OF_ITERATIONS && abs(soln.minimum() - lastMinimum) < epsilon) {
+                converged = true;
+                break;
+            }
+            lastMinimum = soln.minimum();
+        }
+        xmin = soln.minimizer();
+
+        this.nIterations = iterations;
+        this.isConverged = converged;
 
         this.maxLikelihood = -1 * nL.evaluate(xmin);
         this.estimators = new Estimators(xmin.toArray(), p, q);
     }
 
+    /**
+     * Read the <i>d</i>-th differences of a time series into a new array, the working array of the fitting,
+     * without first copying the series.
+     * The differences are taken in the same order as {@code R.diff(xt.toArray(), 1, d)}, hence the same values.
+     *
+     * @param xt a time series
+     * @param d  the order of differencing
+     * @return the <i>d</i>-th differences
+     */
+    private static double[] stationary(TimeSeries xt, int d) {
+        final int n = xt.size();
+        if (d == 0) {
+            double[] x = new double[n];
+            for (int t = 0; t < n; ++t) {
+                x[t] = xt.get(t + 1);
+            }
+            return x;
+        }
+
+        double[] dx = new double[n - 1];
+        for (int t = 0; t < n - 1; ++t) {
+            dx[t] = xt.get(t + 2) - xt.get(t + 1);
+        }
+        for (int k = 2; k <= d; ++k) {//difference in place
+            for (int t = 0; t < n - k; ++t) {
+                dx[t] = dx[t + 1] - dx[t];
+            }
+        }
+        return d == 1 ? dx : Arrays.copyOf(dx, n - d);
+    }
+
     @Override
     public ARMAModel getFittedARMA() {
         double intercept = 1;
@@ -166,6 +275,24 @@ public class ConditionalSumOfSquares implements ARMAFitting {
         return estimators.var;
     }
 
+    /**
+     * Get the number of iterations the optimizer ran.
+     *
+     * @return the number of iterations
+     */
+    public int nIterations() {
+        return nIterations;
+    }
+
+    /**
+     * Check whether the optimizer met its stopping rule before the maximum number of iterations.
+     *
+     * @return {@code true} if the search converged
+     */
+    public boolean isConverged() {
+        return isConverged;
+    }
+
     /**
      * Compute the asymptotic covariance matrix for the estimated parameters, φ and θ.
      *
@@ -317,26 +444,23 @@ public class ConditionalSumOfSquares implements ARMAFitting {
 
                 //compute the random error terms/innovations/white noise
                 double[] Z = new double[lengthExtended];//the Z's (white noise) in eq. 8.7.1
+                double CSS = 0;//the conditional sum of squares
                 for (int i = 0; i < length; ++i) {
                     int t = maxPQ + i;
 
-                    double[] x_lag = new double[p];
-                    double[] z_lag = new double[q];
-
-                    if (p > 0) {
-                        for (int j = 0; j < p; ++j) {
-                            x_lag[j] = xtExtended[t - j - 1];
-                        }
+                    double ar = 0;
+                    for (int j = 0; j < p; ++j) {
+                        ar += estimators.phi[j] * xtExtended[t - j - 1];
                     }
 
-                    if (q > 0) {
-                        for (int j = 0; j < q; ++j) {
-                            z_lag[j] = Z[t - j - 1];
-                        }
+                    double ma = 0;
+                    for (int j = 0; j < q; ++j) {
+                        ma += estimators.theta[j] * Z[t - j - 1];
                     }
 
-                    double Xt_hat = dotProduct(estimators.phi, x_lag) + dotProduct(estimators.theta, z_lag);//as in Eq. 8.7.8
+                    double Xt_hat = ar + ma;//as in Eq. 8.7.8
                     Z[t] = xtExtended[t] - Xt_hat;//θ0 = 1
+                    CSS += Z[t] * Z[t];
                 }
 
                 /*
@@ -345,7 +469,6 @@ public class ConditionalSumOfSquares implements ARMAFitting {
                  * it has a different sign b/c we do minimization instead of maximization.
                  * Also, we assume r_i be asymptotically 1.
                  */
-                double CSS = dotProduct(Z, Z);//the conditional sum of squares
                 double nL = length * log(var) + CSS / var;
                 return nL;
             }
@@ -0,0 +1,852 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.arma;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.RealScalarFunction;
+import com.numericalmethod.suanshu.analysis.function.rn2rm.RealVectorFunction;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.operation.Inverse;
+import com.numericalmethod.suanshu.misc.R;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.optimization.problem.C2OptimProblemImpl;
+import com.numericalmethod.suanshu.optimization.problem.IterativeMinimizer;
+import com.numericalmethod.suanshu.optimization.unconstrained.quasinewton.BFGS;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
+import com.numericalmethod.suanshu.vector.doubles.ImmutableVector;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import static java.lang.Math.*;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class does fitting for an ARIMA model by maximizing the exact Gaussian likelihood.
+ * The (differenced and de-meaned) ARMA(p, q) process is written in the state space form
+ * <blockquote><i>
+ * x_t = Z'α_t, α_{t+1} = T α_t + R ε_{t+1}
+ * </i></blockquote>
+ * where the state has dimension <i>r = max(p, q + 1)</i>,
+ * <i>T</i> has φ in the first column and an identity above the diagonal,
+ * <i>R = (1, θ<sub>1</sub>, ..., θ<sub>r-1</sub>)'</i> and <i>Z = (1, 0, ..., 0)'</i>.
+ * The likelihood is evaluated exactly by a Kalman filter started from the stationary state covariance,
+ * with the white noise variance concentrated out.
+ * The score is computed analytically by running the derivatives of the filter recursions alongside the filter.
+ * Once the state covariance has converged, the filter switches to the steady state recursions,
+ * so that the cost of an evaluation on a long series is dominated by <i>O(r(p + q))</i> operations per observation.
+ *
+ * <p>
+ * The likelihood is maximized by the BFGS quasi-Newton method over the partial autocorrelations
+ * of the AR and MA polynomials, so that every model in the search is stationary and invertible.
+ *
+ * <p>
+ * Note that the order of integration is taken as an input, not estimated.
+ *
+ * <p>
+ * The R equivalent function is {@code arima} with {@code method = "ML"}.
+ *
+ * @author Haksun Li
+ *
+ * @see
+ * <ul>
+ * <li>"G. Gardner, A. C. Harvey and G. D. A. Phillips, "Algorithm AS 154: An Algorithm for Exact Maximum Likelihood Estimation of Autoregressive-Moving Average Models by Means of Kalman Filtering," Applied Statistics, 29, 311-322, 1980."
+ * <li>"R. H. Jones, "Maximum likelihood fitting of ARMA models to time series with missing observations," Technometrics, 22, 389-395, 1980."
+ * <li>"A. C. Harvey, "Chapter 3.4. Maximum Likelihood Estimation," in <i>Forecasting, Structural Time Series Models and the Kalman Filter</i>, Cambridge University Press, 1989."
+ * </ul>
+ */
+public class ExactMaximumLikelihood implements ARMAFitting {
+
+    private static final long serialVersionUID = -6313487917218316318L;
+    /**
+     * the estimated mean of the differenced series
+     */
+    private final double mu;
+    /**
+     * the estimated AR coefficients
+     */
+    private final double[] phi;
+    /**
+     * the estimated MA coefficients
+     */
+    private final double[] theta;
+    /**
+     * the estimated white noise variance
+     */
+    private final double var;
+    /**
+     * the maximized log-likelihood
+     */
+    private final double logLikelihood;
+    /**
+     * the concentrated likelihood of the de-meaned, differenced series
+     */
+    private final Likelihood likelihood;
+    /**
+     * the number of iterations the optimizer ran
+     */
+    private final int nIterations;
+    /**
+     * {@code true} if the optimizer stopped before the maximum number of iterations
+     */
+    private final boolean isConverged;
+    /**
+     * the optimizer stops when a step is shorter than this
+     */
+    public static final double CONVERGENCE_TOLERANCE = 1e-9;
+
+    /**
+     * Fit an ARIMA model for the observations.
+     *
+     * <p>
+     * As in {@link ConditionalSumOfSquares}, the differenced series is de-meaned by its sample mean
+     * before an ARMA model is fitted.
+     *
+     * @param xt            the time series of observations
+     * @param p             the number of AR terms
+     * @param d             the order of integration
+     * @param q             the number of MA terms
+     * @param maxIterations the maximum number of iterations of the optimizer
+     */
+    public ExactMaximumLikelihood(TimeSeries xt, int p, int d, int q, int maxIterations) {
+        this(xt, p, d, q, null, null, maxIterations);
+    }
+
+    /**
+     * Fit an ARIMA model for the observations, starting the search from a previously fitted model, e.g., yesterday's estimates.
+     * If the initial model is not stationary and invertible, the search starts from white noise.
+     *
+     * @param xt            the time series of observations
+     * @param d             the order of integration
+     * @param initial       the initial guess of the ARMA coefficients;
+     *                      the numbers of AR and MA terms are taken from this model
+     * @param maxIterations the maximum number of iterations of the optimizer
+     */
+    public ExactMaximumLikelihood(TimeSeries xt, int d, ARMAModel initial, int maxIterations) {
+        this(xt, initial.p(), d, initial.q(), initial.AR(), initial.MA(), maxIterations);
+    }
+
+    private ExactMaximumLikelihood(TimeSeries xt, final int p, final int d, final int q, double[] initialAR, double[] initialMA, int maxIterations) {
+        SuanShuUtils.assertArgument(p >= 0 && q >= 0 && d >= 0, "p, d, q must be non-negative");
+
+        //make stationary (ARMA) by differencing when d > 0
+        double[] dxt = xt.toArray();//a copy that this owns
+        if (d > 0) {
+            dxt = R.diff(dxt, 1, d);
+        }
+        SuanShuUtils.assertArgument(dxt.length > p + q + 1, "there must be more observations than parameters");
+
+        //demean in place
+        this.mu = new Mean(dxt).value();
+        for (int i = 0; i < dxt.length; ++i) {
+            dxt[i] -= this.mu;
+        }
+
+        this.likelihood = new Likelihood(dxt, p, q);
+
+        double[] u = new double[p + q];//0 partial autocorrelations, i.e., white noise
+        if (initialAR != null) {
+            u = likelihood.parameters(initialAR, initialMA);
+        }
+
+        int iterations = 0;
+        boolean converged = true;
+        if (p + q > 0) {
+            final C2OptimProblemImpl problem = new C2OptimProblemImpl(
+                    new RealScalarFunction() {
+
+                        private static final long serialVersionUID = 2616862316591316094L;
+
+                        @Override
+                        public Double evaluate(Vector x) {
+                            double f = likelihood.evaluate(likelihood.coefficients(x.toArray(), null), null);
+                            return Double.isNaN(f) ? Double.MAX_VALUE : f;
+                        }
+
+                        @Override
+                        public int dimensionOfDomain() {
+                            return p + q;
+                        }
+
+                        @Override
+                        public int dimensionOfRange() {
+                            return 1;
+                        }
+                    },
+                    new RealVectorFunction() {
+
+                        private static final long serialVersionUID = -1606893734262016564L;
+
+                        @Override
+                        public Vector evaluate(Vector x) {
+                            final int k = p + q;
+                            double[][] J = new double[k][k];
+                            double[] g = new double[k];
+                            likelihood.evaluate(likelihood.coefficients(x.toArray(), J), g);
+
+                            double[] gu = new double[k];//the chain rule, J'g
+                            for (int i = 0; i < k; ++i) {
+                                for (int j = 0; j < k; ++j) {
+                                    gu[i] += J[j][i] * g[j];
+                                }
+                            }
+                            return new DenseVector(gu);
+                        }
+
+                        @Override
+                        public int dimensionOfDomain() {
+                            return p + q;
+                        }
+
+                        @Override
+                        public int dimensionOfRange() {
+                            return p + q;
+                        }
+                    });
+
+            try {
+                BFGS optim = new BFGS(false, CONVERGENCE_TOLERANCE, maxIterations);
+                IterativeMinimizer<Vector> soln = optim.solve(problem);
+
+                //the same stopping rule as the BFGS search, counting the iterations
+                Vector x = new DenseVector(u);
+                soln.setInitials(x);
+                converged = false;
+                while (iterations < maxIterations) {
+                    Vector x1 = (Vector) soln.step();
+                    ++iterations;
+                    double dx = x1.minus(x).norm();
+                    x = x1;
+                    soln.setInitials(x);
+                    if (dx <= CONVERGENCE_TOLERANCE) {
+                        converged = true;
+                        break;
+                    }
+                }
+                u = x.toArray();
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        this.nIterations = iterations;
+        this.isConverged = converged;
+
+        double[] beta = likelihood.coefficients(u, null);
+        likelihood.evaluate(beta, null);
+
+        this.phi = Arrays.copyOfRange(beta, 0, p);
+        this.theta = Arrays.copyOfRange(beta, p, p + q);
+        this.var = likelihood.S / likelihood.n;
+        this.logLikelihood = -0.5 * likelihood.n * (log(2. * PI * var) + 1.) - 0.5 * likelihood.sumLogF;
+    }
+
+    /**
+     * Fit an ARIMA model for the observations.
+     *
+     * @param xt the time series of observations
+     * @param p  the number of AR terms
+     * @param d  the order of integration
+     * @param q  the number of MA terms
+     */
+    public ExactMaximumLikelihood(TimeSeries xt, int p, int d, int q) {
+        this(xt, p, d, q, 200);
+    }
+
+    @Override
+    public ARMAModel getFittedARMA() {
+        double intercept = 1;
+        for (int i = 0; i < phi.length; ++i) {
+            intercept -= phi[i];
+        }
+        intercept *= this.mu;
+
+        return new ARMAModel(intercept, phi, theta, var);
+    }
+
+    @Override
+    public double var() {
+        return var;
+    }
+
+    /**
+     * Get the number of iterations the optimizer ran.
+     *
+     * @return the number of iterations
+     */
+    public int nIterations() {
+        return nIterations;
+    }
+
+    /**
+     * Check whether the optimizer met its stopping rule before the maximum number of iterations.
+     *
+     * @return {@code true} if the search converged
+     */
+    public boolean isConverged() {
+        return isConverged;
+    }
+
+    /**
+     * Get the maximized log-likelihood.
+     *
+     * @return the log-likelihood
+     */
+    public double logLikelihood() {
+        return logLikelihood;
+    }
+
+    /**
+     * Compute the covariance matrix for the estimated parameters, φ and θ,
+     * by inverting the observed information.
+     * The Hessian of the (profile) log-likelihood is computed by differencing the analytic score.
+     *
+     * @return the covariance matrix
+     */
+    @Override
+    public Matrix covariance() {
+        final int k = phi.length + theta.length;
+        double[] beta = new double[k];
+        System.arraycopy(phi, 0, beta, 0, phi.length);
+        System.arraycopy(theta, 0, beta, phi.length, theta.length);
+
+        Matrix H = new DenseMatrix(k, k);
+        double[] gPlus = new double[k];
+        double[] gMinus = new double[k];
+        for (int j = 0; j < k; ++j) {
+            double h = 1e-5 * max(1., abs(beta[j]));
+            double[] b = Arrays.copyOf(beta, k);
+            b[j] = beta[j] + h;
+            likelihood.evaluate(b, gPlus);
+            b[j] = beta[j] - h;
+            likelihood.evaluate(b, gMinus);
+
+            for (int i = 0; i < k; ++i) {//-logL = n/2 * f + constant
+                H.set(i + 1, j + 1, 0.25 * likelihood.n * (gPlus[i] - gMinus[i]) / h);
+            }
+        }
+
+        for (int i = 1; i <= k; ++i) {//symmetrize
+            for (int j = i + 1; j <= k; ++j) {
+                double hij = 0.5 * (H.get(i, j) + H.get(j, i));
+                H.set(i, j, hij);
+                H.set(j, i, hij);
+            }
+        }
+
+        return new Inverse(H);
+    }
+
+    /**
+     * Compute the standard errors for the estimated parameters, φ and θ.
+     *
+     * @return the standard errors
+     */
+    @Override
+    public ImmutableVector stderr() {
+        Matrix cov = covariance();
+
+        int k = cov.nRows();
+        Vector stderr = new DenseVector(k);
+        for (int i = 1; i <= k; ++i) {
+            stderr.set(i, sqrt(cov.get(i, i)));
+        }
+
+        return new ImmutableVector(stderr);
+    }
+
+    /**
+     * Compute the number of parameters for the estimation/fitting.
+     *
+     * <p>
+     * the AR terms, MA terms, and variance (sigma^2)
+     *
+     * @return the number of parameters
+     */
+    public int nParams() {
+        return phi.length + theta.length + 1;
+    }
+
+    /**
+     * Compute the AIC, a model selection criterion.
+     *
+     * @return the AIC
+     *
+     * @see <a href="http://en.wikipedia.org/wiki/Akaike_information_criterion">Wikipedia: Akaike information criterion</a>
+     */
+    @Override
+    public double AIC() {
+        return -2. * logLikelihood + 2. * nParams();
+    }
+
+    /**
+     * Compute the AICC, a model selection criterion.
+     *
+     * @return the AICC
+     *
+     * @see "P. J. Brockwell and R. A. Davis, "Eq. 9.2.1. Chapter 9.2. Model Building and Forecasting with ARIMA Processes," in <i>Time Series: Theory and Methods</i>, Springer, 2006."
+     */
+    @Override
+    public double AICC() {
+        final double n = likelihood.n;
+        return -2. * logLikelihood + 2. * nParams() * n / (n - nParams() - 1.);
+    }
+
+    @Override
+    public String toString() {
+        return getFittedARMA().toString();
+    }
+
+    /**
+     * The concentrated log-likelihood of a zero-mean ARMA(p, q) series, evaluated by a Kalman filter.
+     * Up to constants, the negative of the log-likelihood is <i>n/2</i> times
+     * <blockquote><i>
+     * f(φ, θ) = log(S / n) + Σ log(F_t) / n
+     * </i></blockquote>
+     * where <i>v_t</i> are the one-step prediction errors, <i>σ^2 F_t</i> their variances, and <i>S = Σ v_t^2 / F_t</i>.
+     */
+    static class Likelihood implements Serializable {
+
+        private static final long serialVersionUID = 4406785627098063484L;
+        /** the convergence tolerance of the state covariance to the steady state */
+        private static final double STEADY_STATE_TOLERANCE = 1e-12;
+        /** the observations */
+        private final double[] x;
+        private final int p;
+        private final int q;
+        /** the dimension of the state */
+        private final int r;
+        /** the number of observations */
+        final int n;
+        /** the weighted sum of squared prediction errors from the last evaluation */
+        double S;
+        /** the sum of log(F_t) from the last evaluation */
+        double sumLogF;
+        //the work spaces of the filter, reused across evaluations
+        private final double[] T;
+        private final double[] Rv;
+        private final double[] a;
+        private final double[] u;
+        private final double[][] da;
+        private final double[][] du;
+        private final double[][] P;
+        private final double[][] Pf;
+        private final double[][] Pn;
+        private final double[][] W;
+        private final double[][] dW;
+        private final double[][][] dP;
+        private final double[][][] dPf;
+        private final double[][][] dPn;
+        private final double[] dv;
+        private final double[] dF;
+        private final double[] dS;
+        private final double[] dSumLogF;
+
+        Likelihood(double[] x, int p, int q) {
+            this.x = x;
+            this.p = p;
+            this.q = q;
+            this.r = max(p, q + 1);
+            this.n = x.length;
+
+            final int k = p + q;
+            T = new double[r];
+            Rv = new double[r];
+            a = new double[r];
+            u = new double[r];
+            da = new double[k][r];
+            du = new double[k][r];
+            P = new double[r][r];
+            Pf = new double[r][r];
+            Pn = new double[r][r];
+            W = new double[r][r];
+            dW = new double[r][r];
+            dP = new double[k][r][r];
+            dPf = new double[k][r][r];
+            dPn = new double[k][r][r];
+            dv = new double[k];
+            dF = new double[k];
+            dS = new double[k];
+            dSumLogF = new double[k];
+        }
+
+        /**
+         * Map unconstrained parameters to the ARMA coefficients.
+         * Each block of parameters is mapped by <i>tanh</i> to partial autocorrelations in (-1, 1),
+         * which the Durbin-Levinson recursion maps to the coefficients of a stationary AR, or an invertible MA, polynomial.
+         *
+         * @param u the unconstrained parameters, the p AR parameters followed by the q MA parameters
+         * @param J the Jacobian of the map, <i>J[j][i] = ∂β<sub>j</sub>/∂u<sub>i</sub></i>, if not {@code null}
+         * @return the coefficients, φ followed by θ
+         */
+        double[] coefficients(double[] u, double[][] J) {
+            double[] beta = new double[p + q];
+            durbinLevinson(u, 0, p, 1., beta, J);
+            durbinLevinson(u, p, q, -1., beta, J);//θ(z) = 1 + Σθ_j z^j = 1 - Σ(-θ_j) z^j
+            return beta;
+        }
+
+        /**
+         * Map the ARMA coefficients to unconstrained parameters; the inverse of {@link #coefficients(double[], double[][])}.
+         * A block whose polynomial is not stationary (or invertible) is mapped to 0s.
+         *
+         * @param phi   the AR coefficients
+         * @param theta the MA coefficients
+         * @return the unconstrained parameters
+         */
+        double[] parameters(double[] phi, double[] theta) {
+            double[] u = new double[p + q];
+            stepDown(phi, 1., u, 0);
+            stepDown(theta, -1., u, p);
+            return u;
+        }
+
+        /**
+         * the inverse of the Durbin-Levinson recursion,
+         * <i>c<sup>(k-1)</sup><sub>j</sub> = (c<sub>j</sub> + a<sub>k</sub> c<sub>k-j</sub>) / (1 - a<sub>k</sub><sup>2</sup>)</i>
+         */
+        private static void stepDown(double[] beta, double sign, double[] u, int offset) {
+            final int m = beta.length;
+            double[] c = new double[m];
+            for (int j = 0; j < m; ++j) {
+                c[j] = sign * beta[j];
+            }
+
+            for (int k = m - 1; k >= 0; --k) {
+                double a = c[k];
+                if (!(abs(a) < 1.)) {
+                    Arrays.fill(u, offset, offset + m, 0.);
+                    return;
+                }
+                u[offset + k] = 0.5 * log((1. + a) / (1. - a));//atanh
+
+                double[] c0 = Arrays.copyOf(c, k);
+                for (int j = 0; j < k; ++j) {
+                    c[j] = (c0[j] + a * c0[k - 1 - j]) / (1. - a * a);
+                }
+            }
+        }
+
+        private static void durbinLevinson(double[] u, int offset, int m, double sign, double[] beta, double[][] J) {
+            double[] c = new double[m];
+            double[][] dc = new double[m][m];//dc[j][i] = ∂c_j/∂u_i
+            for (int k = 0; k < m; ++k) {
+                double a = tanh(u[offset + k]);
+                double da = 1. - a * a;
+
+                double[] c0 = Arrays.copyOf(c, k);
+                double[][] dc0 = new double[k][];
+                for (int j = 0; j < k; ++j) {
+                    dc0[j] = Arrays.copyOf(dc[j], k);
+                }
+
+                for (int j = 0; j < k; ++j) {
+                    c[j] = c0[j] - a * c0[k - 1 - j];
+                    for (int i = 0; i < k; ++i) {
+                        dc[j][i] = dc0[j][i] - a * dc0[k - 1 - j][i];
+                    }
+                    dc[j][k] = -da * c0[k - 1 - j];
+                }
+                c[k] = a;
+                dc[k][k] = da;
+            }
+
+            for (int j = 0; j < m; ++j) {
+                beta[offset + j] = sign * c[j];
+                if (J != null) {
+                    for (int i = 0; i < m; ++i) {
+                        J[offset + j][offset + i] = sign * dc[j][i];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Evaluate <i>f(φ, θ)</i> and its gradient.
+         * This also updates {@link #S} and {@link #sumLogF}.
+         * The filter works in buffers owned by this instance, so an instance must not be evaluated concurrently.
+         *
+         * @param beta     the coefficients, φ followed by θ
+         * @param gradient the gradient of <i>f</i> with respect to {@code beta}, if not {@code null}; output
+         * @return <i>f(φ, θ)</i>
+         */
+        double evaluate(double[] beta, double[] gradient) {
+            final int k = gradient != null ? p + q : 0;//the number of derivatives to track
+
+            //the state space matrices; T is stored as its first column
+            Arrays.fill(T, 0.);
+            Arrays.fill(Rv, 0.);
+            System.arraycopy(beta, 0, T, 0, p);
+            Rv[0] = 1.;
+            System.arraycopy(beta, p, Rv, 1, q);
+
+            //the initial state, a_1 = 0, and its stationary covariance, P_1 = T P_1 T' + R R'
+            double[][] P = this.P;
+            double[][][] dP = this.dP;
+            double[][] Pn = this.Pn;
+            double[][][] dPn = this.dPn;
+            Arrays.fill(a, 0.);
+            for (int l = 0; l < k; ++l) {
+                Arrays.fill(da[l], 0.);
+                dS[l] = 0.;
+                dSumLogF[l] = 0.;
+            }
+            if (!stationaryCovariance(T, Rv, P, dP, k)) {
+                return Double.NaN;
+            }
+
+            S = 0.;
+            sumLogF = 0.;
+            boolean isSteady = false;
+            for (int t = 0; t < n; ++t) {
+                //v_t = x_t - Z'a_t, F_t = Z'P_t Z
+                final double v = x[t] - a[0];
+                final double F = P[0][0];
+                if (!(F > 0.)) {
+                    return Double.NaN;
+                }
+                S += v * v / F;
+                sumLogF += log(F);
+
+                //the filtered state, u_t = a_t + P_t Z v_t / F_t
+                for (int i = 0; i < r; ++i) {
+                    u[i] = a[i] + P[i][0] * v / F;
+                }
+                for (int l = 0; l < k; ++l) {
+                    dv[l] = -da[l][0];
+                    dF[l] = dP[l][0][0];
+                    dS[l] += (2. * v * dv[l] - v * v * dF[l] / F) / F;
+                    dSumLogF[l] += dF[l] / F;
+                    for (int i = 0; i < r; ++i) {
+                        du[l][i] = da[l][i] + (dP[l][i][0] * v + P[i][0] * dv[l] - P[i][0] * v * dF[l] / F) / F;
+                    }
+                }
+
+                //the predicted state, a_{t+1} = T u_t
+                multiplyT(T, u, a);
+                for (int l = 0; l < k; ++l) {
+                    multiplyT(T, du[l], da[l]);
+                    if (l < p) {//∂T/∂φ_l u_t
+                        da[l][l] += u[0];
+                    }
+                }
+
+                if (isSteady) {
+                    continue;
+                }
+
+                //the filtered state covariance, Pf_t = P_t - P_t Z Z'P_t / F_t
+                for (int i = 0; i < r; ++i) {
+                    for (int j = 0; j < r; ++j) {
+                        Pf[i][j] = P[i][j] - P[i][0] * P[j][0] / F;
+                    }
+                }
+                for (int l = 0; l < k; ++l) {
+                    for (int i = 0; i < r; ++i) {
+                        for (int j = 0; j < r; ++j) {
+                            dPf[l][i][j] = dP[l][i][j]
+                                           - (dP[l][i][0] * P[j][0] + P[i][0] * dP[l][j][0]) / F
+                                           + P[i][0] * P[j][0] * dF[l] / (F * F);
+                        }
+                    }
+                }
+
+                //the predicted state covariance, P_{t+1} = T Pf_t T' + R R'
+                congruent(T, Pf, W, Pn);
+                for (int i = 0; i < r; ++i) {
+                    for (int j = 0; j < r; ++j) {
+                        Pn[i][j] += Rv[i] * Rv[j];
+                    }
+                }
+                for (int l = 0; l < k; ++l) {
+                    congruent(T, dPf[l], dW, dPn[l]);
+                    addDerivativeOfConstantTerms(l, W, Rv, dPn[l]);
+                }
+
+                double change = 0.;
+                for (int i = 0; i < r; ++i) {
+                    for (int j = 0; j < r; ++j) {
+                        change = max(change, abs(Pn[i][j] - P[i][j]));
+                        for (int l = 0; l < k; ++l) {
+                            change = max(change, abs(dPn[l][i][j] - dP[l][i][j]));
+                        }
+                    }
+                }
+
+                double[][] tmp = P;
+                P = Pn;
+                Pn = tmp;
+                double[][][] dtmp = dP;
+                dP = dPn;
+                dPn = dtmp;
+
+                isSteady = change < STEADY_STATE_TOLERANCE;
+            }
+
+            for (int l = 0; l < k; ++l) {
+                gradient[l] = dS[l] / S + dSumLogF[l] / n;
+            }
+
+            return log(S / n) + sumLogF / n;
+        }
+
+        /**
+         * Compute <i>y = T x</i> in <i>O(r)</i>.
+         */
+        private void multiplyT(double[] T, double[] x, double[] y) {
+            for (int i = 0; i < r; ++i) {
+                y[i] = T[i] * x[0] + (i + 1 < r ? x[i + 1] : 0.);
+            }
+        }
+
+        /**
+         * Compute <i>T X T'</i> in <i>O(r^2)</i>.
+         *
+         * @param T the first column of the transition matrix
+         * @param X a symmetric matrix
+         * @param W a work space for <i>X T'</i>
+         * @param Y <i>T X T'</i>; output
+         */
+        private void congruent(double[] T, double[][] X, double[][] W, double[][] Y) {
+            for (int i = 0; i < r; ++i) {
+                for (int j = 0; j < r; ++j) {
+                    W[i][j] = T[j] * X[i][0] + (j + 1 < r ? X[i][j + 1] : 0.);
+                }
+            }
+            for (int i = 0; i < r; ++i) {
+                for (int j = 0; j < r; ++j) {
+                    Y[i][j] = T[i] * W[0][j] + (i + 1 < r ? W[i + 1][j] : 0.);
+                }
+            }
+        }
+
+        /**
+         * Add to {@code Y} the derivatives of <i>T X T' + R R'</i> with respect to the {@code l}-th coefficient,
+         * holding <i>X</i> fixed.
+         *
+         * @param l the index of a coefficient
+         * @param W <i>X T'</i>
+         * @param Y the derivative; output
+         */
+        private void addDerivativeOfConstantTerms(int l, double[][] W, double[] Rv, double[][] Y) {
+            if (l < p) {//∂T/∂φ_l X T' + T X ∂T'/∂φ_l
+                for (int j = 0; j < r; ++j) {
+                    Y[l][j] += W[0][j];
+                    Y[j][l] += W[0][j];
+                }
+            } else {//∂R/∂θ_m R' + R ∂R'/∂θ_m
+                int m = l - p + 1;
+                for (int j = 0; j < r; ++j) {
+                    Y[m][j] += Rv[j];
+                    Y[j][m] += Rv[j];
+                }
+            }
+        }
+
+        /**
+         * Solve <i>P = T P T' + R R'</i>, and the derivatives of <i>P</i>,
+         * by <i>vec(P) = (I - T ⊗ T)<sup>-1</sup> vec(R R')</i>.
+         *
+         * @return {@code false} if the model is not stationary
+         */
+        private boolean stationaryCovariance(double[] T, double[] Rv, double[][] P, double[][][] dP, int k) {
+            final int r2 = r * r;
+            Matrix A = new DenseMatrix(r2, r2).ONE();
+            for (int i = 0; i < r; ++i) {
+                for (int a = 0; a < r; ++a) {
+                    double Tia = transition(T, i, a);
+                    if (Tia == 0.) {
+                        continue;
+                    }
+                    for (int j = 0; j < r; ++j) {
+                        for (int b = 0; b < r; ++b) {
+                            double Tjb = transition(T, j, b);
+                            if (Tjb != 0.) {
+                                A.set(i * r + j + 1, a * r + b + 1, A.get(i * r + j + 1, a * r + b + 1) - Tia * Tjb);
+                            }
+                        }
+                    }
+                }
+            }
+
+            Matrix Ainv;
+            try {
+                Ainv = new Inverse(A);
+            } catch (RuntimeException ex) {
+                return false;
+            }
+
+            double[] rhs = new double[r2];
+            for (int i = 0; i < r; ++i) {
+                for (int j = 0; j < r; ++j) {
+                    rhs[i * r + j] = Rv[i] * Rv[j];
+                }
+            }
+            unvec(Ainv.multiply(new DenseVector(rhs)), P);
+            for (int i = 0; i < r; ++i) {
+                if (!(P[i][i] >= 0.) || Double.isInfinite(P[i][i])) {
+                    return false;
+                }
+            }
+
+            //differentiate P = T P T' + R R': (I - T ⊗ T) vec(∂P) = vec(∂T P T' + T P ∂T' + ∂R R' + R ∂R')
+            double[][] W = new double[r][r];
+            for (int i = 0; i < r; ++i) {
+                for (int j = 0; j < r; ++j) {
+                    W[i][j] = T[j] * P[i][0] + (j + 1 < r ? P[i][j + 1] : 0.);
+                }
+            }
+            for (int l = 0; l < k; ++l) {
+                double[][] Y = new double[r][r];
+                addDerivativeOfConstantTerms(l, W, Rv, Y);
+                for (int i = 0; i < r; ++i) {
+                    for (int j = 0; j < r; ++j) {
+                        rhs[i * r + j] = Y[i][j];
+                    }
+                }
+                unvec(Ainv.multiply(new DenseVector(rhs)), dP[l]);
+            }
+
+            return true;
+        }
+
+        /**
+         * Get <i>T[i][j]</i>.
+         */
+        private static double transition(double[] T, int i, int j) {
+            if (j == 0) {
+                return T[i];
+            }
+            return i + 1 == j ? 1. : 0.;
+        }
+
+        private void unvec(Vector v, double[][] X) {
+            for (int i = 0; i < r; ++i) {
+                for (int j = 0; j < r; ++j) {
+                    X[i][j] = v.get(i * r + j + 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.garch;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.BatchFitting;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
+
+/**
+ * This class fits the same GARCH(p, q) specification to many time series in parallel,
+ * e.g., to the returns of every instrument in a universe.
+ * Each series is fitted independently by {@link GARCH}.
+ * A fit can start from a previously fitted model, e.g., yesterday's estimates,
+ * which skips the Nelder-Mead search and goes straight to the quasi-Newton search.
+ *
+ * <p>
+ * A failure in one series, including a fitting that ends in an invalid parameter set, does not stop the batch;
+ * it is reported in the {@link Fit} of that series,
+ * together with the convergence and the timing of every fit.
+ *
+ * @author Haksun Li
+ */
+public class BatchGARCHFitting extends BatchFitting<GARCHModel, BatchGARCHFitting.Fit> {
+
+    /**
+     * the fitting of one series in a batch
+     */
+    public static class Fit extends BatchFitting.Fit<GARCH> {
+
+        private static final long serialVersionUID = -3302370826575016934L;
+
+        private Fit(GARCH fitting) {
+            super(fitting, fitting.nIterations(), fitting.isConverged());
+        }
+
+        private Fit(RuntimeException error) {
+            super(error);
+        }
+
+        /**
+         * Get the fitted model.
+         *
+         * @return the fitted model; {@code null} if the fitting failed
+         */
+        public GARCHModel getModel() {
+            return fitting() != null ? fitting().getModel() : null;
+        }
+    }
+
+    private final int p;
+    private final int q;
+    private final int maxIterations;
+    private final GARCH.GRADIENT grad;
+
+    /**
+     * Construct a batch fitter.
+     *
+     * @param p             the GARCH part order
+     * @param q             the ARCH order
+     * @param maxIterations the maximum number of iterations in the numerical optimization algorithm, per series
+     * @param grad          the gradient information used to guide the optimization search
+     */
+    public BatchGARCHFitting(int p, int q, int maxIterations, GARCH.GRADIENT grad) {
+        SuanShuUtils.assertArgument(p >= 0 && q >= 0, "p, q must be non-negative");
+        SuanShuUtils.assertArgument(maxIterations > 0, "maxIterations must be positive");
+
+        this.p = p;
+        this.q = q;
+        this.maxIterations = maxIterations;
+        this.grad = grad;
+    }
+
+    /**
+     * Construct a batch fitter using the analytical gradient.
+     *
+     * @param p the GARCH part order
+     * @param q the ARCH order
+     */
+    public BatchGARCHFitting(int p, int q) {
+        this(p, q, 300, GARCH.GRADIENT.ANALYTICAL);
+    }
+
+    @Override
+    protected void checkWarmStart(GARCHModel initial) {
+        SuanShuUtils.assertArgument(initial.p() == p && initial.q() == q,
+                                    "a warm start must be a GARCH(%d, %d) model", p, q);
+    }
+
+    @Override
+    protected Fit fit(TimeSeries xt, GARCHModel initial) {
+        GARCH fitting = initial != null
+                        ? new GARCH(xt, initial, maxIterations, grad)
+                        : new GARCH(xt, p, q, maxIterations, grad);
+        if (fitting.getModel() == null) {//reported as a failure of this series
+            throw new IllegalStateException("the GARCH fitting ended in an invalid parameter set");
+        }
+        return new Fit(fitting);
+    }
+
+    @Override
+    protected Fit failed(RuntimeException error) {
+        return new Fit(error);
+    }
+}
@@ -23,7 +23,6 @@
 package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.garch;
 
 import com.numericalmethod.suanshu.analysis.function.rn2r1.RealScalarFunction;
-import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
 import com.numericalmethod.suanshu.analysis.function.rn2rm.RealVectorFunction;
 import static com.numericalmethod.suanshu.number.DoubleUtils.*;
 import com.numericalmethod.suanshu.optimization.problem.C2OptimProblemImpl;
@@ -34,6 +33,7 @@ import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
 import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
 import com.numericalmethod.suanshu.vector.doubles.Vector;
 import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import static java.lang.Math.abs;
 import static java.lang.Math.log;
 import static java.lang.Math.max;
 
@@ -45,6 +45,9 @@ import java.util.Arrays;
  *
  * <p>
  * This implementation does the fitting by maximizing the likelihood function, using the gradient information.
+ The observations are read through {@link TimeSeries#get(int)} into the array of their squares,
+ * which the likelihood needs, so a series is not copied, e.g., a view of a
+ * {@link com.numericalmethod.suanshu.stats.timeseries.univariate.ColumnarTimeSeries}.
  *
  * <p>
  * The R equivalent functions are {@code garch} in {@code tseries} and {@code garchFit} in {@code fGarch}.
@@ -80,6 +83,19 @@ public class GARCH implements Serializable{//TODO: need to use a constrained ver
      * the fitted GARCH getModel
      */
     private GARCHModel fit;
+    /**
+     * the number of quasi-Newton iterations
+     */
+    private int nIterations = 0;
+    /**
+     * {@code true} if the quasi-Newton search stopped before the maximum number of iterations
+     */
+    private boolean isConverged = false;
+    /**
+     * the quasi-Newton search stops when a step is shorter than this,
+     * or when the relative improvement in the objective is smaller than this
+     */
+    public static final double CONVERGENCE_TOLERANCE = 1e-9;
 
     /**
      * Fit the GARCH(p, q) getModel to the time series.
@@ -90,22 +106,37 @@ public class GARCH implements Serializable{//TODO: need to use a constrained ver
      * @param maxIterations the maximum number of iterations in the numerical optimization algorithm
      */
     public GARCH(final TimeSeries xt, final int p, final int q, int maxIterations, GRADIENT grad) {
-        nparams = 1 + q + p;
-        final double[] e_t = xt.toArray();
+        this(xt, p, q, maxIterations, grad, null);
+    }
 
-        var = new Variance(e_t).value();
-        final double[] e_t2 = foreach(
-                e_t,
-                new UnivariateRealFunction() {
-                    private static final long serialVersionUID = -1892570109810562550L;//e_t2 = e_t^2
+    /**
+     * Fit the GARCH(p, q) getModel to the time series, starting the search from a previously fitted getModel,
+     * e.g., yesterday's estimates.
+     * A valid initial getModel skips the Nelder-Mead search that otherwise locates a starting point for the quasi-Newton search.
+     *
+     * @param xt            a time series of the observations
+     * @param initial       the initial guess; the GARCH orders are taken from this getModel
+     * @param maxIterations the maximum number of iterations in the numerical optimization algorithm
+     * @param grad          the gradient information used to guide the optimization search
+     */
+    public GARCH(TimeSeries xt, GARCHModel initial, int maxIterations, GRADIENT grad) {
+        this(xt, initial.p(), initial.q(), maxIterations, grad,
+             concat(new double[]{initial.a0()}, initial.alpha(), initial.beta()));
+    }
 
-                    @Override
-                    public double evaluate(double x) {
-                        return x * x;
-                    }
-                });
+    private GARCH(final TimeSeries xt, final int p, final int q, int maxIterations, GRADIENT grad, double[] initial) {
+        nparams = 1 + q + p;
+        //read the observations through the series, e.g., a view, into the one array the likelihood needs
+        final double[] e_t2 = new double[xt.size()];
+        for (int t = 0; t < e_t2.length; ++t) {
+            e_t2[t] = xt.get(t + 1);
+        }
+        var = new Variance(e_t2).value();
+        for (int t = 0; t < e_t2.length; ++t) {
+            e_t2[t] *= e_t2[t];//e_t2 = e_t^2, in place
+        }
 
-        RealScalarFunction mL = new RealScalarFunction() {
+        final RealScalarFunction mL = new RealScalarFunction() {
             private static final long serialVersionUID = -7097729235144122919L;//minimize the negative of the log-likelihood
 
             final RealScalarFunction L = logLikelihood(e_t2, p, q);
@@ -126,29 +157,71 @@ public class GARCH implements Serializable{//TODO: need to use a constrained ver
             }
         };
 
-        RealVectorFunction g = dLogLikelihood(e_t2, p, q);//to use with analytical gradient
+        RealVectorFunction g = new RealVectorFunction() {
+            private static final long serialVersionUID = 3395218233542307208L;//the gradient of the negative of the log-likelihood
 
-        final double small = 0.05;
-        Vector xmin = new DenseVector(nparams, small);
-        xmin.set(1, var * (0.8 - small * (q + p)));//TODO: why 0.8? it is 1.0 from garch in R's tseries
-//        xmin.set(1, var);
+            final RealVectorFunction dL = dLogLikelihood(e_t2, p, q);//to use with analytical gradient
+
+            @Override
+            public Vector evaluate(Vector x) {
+                return dL.evaluate(x).scaled(-1.);
+            }
+
+            @Override
+            public int dimensionOfDomain() {
+                return dL.dimensionOfDomain();
+            }
+
+            @Override
+            public int dimensionOfRange() {
+                return dL.dimensionOfRange();
+            }
+        };
 
         C2OptimProblemImpl problem = grad == GRADIENT.NUMERICAL ? new C2OptimProblemImpl(mL) : new C2OptimProblemImpl(mL, g);
 
-        NelderMead optim1 = new NelderMead(0, maxIterations);
-        NelderMead.Solution soln1 = optim1.solve(problem);
-        xmin = soln1.search(xmin);
+        Vector xmin;
+        if (initial != null && getGarchModel(initial, p, q) != null) {
+            xmin = new DenseVector(initial);
+        } else {
+            final double small = 0.05;
+            xmin = new DenseVector(nparams, small);
+            xmin.set(1, var * (0.8 - small * (q + p)));//TODO: why 0.8? it is 1.0 from garch in R's tseries
+//            xmin.set(1, var);
+
+            NelderMead optim1 = new NelderMead(0, maxIterations);
+            NelderMead.Solution soln1 = optim1.solve(problem);
+            xmin = soln1.search(xmin);
+        }
 
         try {
             BFGS optim2 = new BFGS(false, 0, maxIterations);
             IterativeMinimizer<Vector> soln2 = optim2.solve(problem);
-            for (int i = 0; i < maxIterations; ++i) {
+            soln2.setInitials(xmin);
+            double fmin = mL.evaluate(xmin);
+            while (nIterations < maxIterations) {
                 Vector xmin1 = (Vector) soln2.step();
+                ++nIterations;
                 double[] theta = xmin1.toArray();
                 if (getGarchModel(theta, p, q) == null) {//check if the new estimation is valid
                     break;//use the last good estimation
                 }
+                double fmin1 = mL.evaluate(xmin1);
+                double tolerance = CONVERGENCE_TOLERANCE * (1 + abs(fmin));
+                if (!(fmin1 <= fmin)) {//use the last good estimation
+                    isConverged = fmin1 - fmin <= tolerance;//no more progress is possible
+                    break;
+                }
+
+                double dx = xmin1.minus(xmin).norm();
+                double df = fmin - fmin1;
                 xmin = xmin1;
+                fmin = fmin1;
+                soln2.setInitials(xmin);
+                if (dx <= CONVERGENCE_TOLERANCE || df <= tolerance) {
+                    isConverged = true;
+                    break;
+                }
             }
         } catch (Exception ex) {//TODO: better way of writing this?
             //it can throw exception if during optimization, an invalid parameter set is tested, e.g., in BFGS
@@ -174,12 +247,36 @@ public class GARCH implements Serializable{//TODO: need to use a constrained ver
     /**
      * Get the fitted GARCH getModel.
      *
-     * @return the fitted GARCH getModel, the estimators.
+     * @return the fitted GARCH getModel, the estimators; {@code null} if the fitting ends in an invalid parameter set
      */
     public GARCHModel getModel() {
         return fit;
     }
 
+    /**
+     * Get the number of quasi-Newton iterations run after the initial search.
+     *
+     * @return the number of iterations
+     */
+    public int nIterations() {
+        return nIterations;
+    }
+
+    /**
+     * Check whether the quasi-Newton search met its stopping rule before the maximum number of iterations.
+     * The search also stops, without converging, when a step does not improve the likelihood.
+     *
+     * @return {@code true} if the search converged
+     */
+    public boolean isConverged() {
+        return isConverged;
+    }
+
+    @Override
+    public String toString() {
+        return fit != null ? fit.toString() : "invalid GARCH fit";
+    }
+
     /**
      * the log-likelihood function for a set of observations
      *
@@ -207,6 +304,10 @@ public class GARCH implements Serializable{//TODO: need to use a constrained ver
                     return -Double.MAX_VALUE;
                 }
 
+                double a0 = model.a0();
+                double[] a = model.alpha();
+                double[] b = model.beta();
+
                 double[] h = new double[e_t2.length];
                 for (int t = 0; t < maxPQ; ++t) {
                     h[t] = var;//initialization
@@ -214,13 +315,16 @@ public class GARCH implements Serializable{//TODO: need to use a constrained ver
 
                 double L = 0;
                 for (int t = maxPQ; t < e_t2.length; ++t) {
-                    double[] e_t2_lag = Arrays.copyOfRange(e_t2, t - q, t);
-                    reverse(e_t2_lag);//reverse the time order so that it goes from e2_{t-1} to e2_{t-q}
-
-                    double[] h_lag = Arrays.copyOfRange(h, t - p, t);
-                    reverse(h_lag);//reverse the time order so that it goes from h_{t-1} to h_{t-p}
-
-                    h[t] = model.sigma2(e_t2_lag, h_lag);
+                    //the lags go from e2_{t-1} to e2_{t-q}, and from h_{t-1} to h_{t-p}
+                    double ae2 = 0;
+                    for (int i = 0; i < q; ++i) {
+                        ae2 += a[i] * e_t2[t - 1 - i];
+                    }
+                    double bh = 0;
+                    for (int i = 0; i < p; ++i) {
+                        bh += b[i] * h[t - 1 - i];
+                    }
+                    h[t] = a0 + ae2 + bh;
 
                     double l = l_t(h[t], e_t2[t]);//the log-likelihood for one sample
 
@@ -264,14 +368,14 @@ public class GARCH implements Serializable{//TODO: need to use a constrained ver
 
             @Override
             public Vector evaluate(Vector theta) {//θ = {α0, {α_i}, {β_i}}
-                double[] b = Arrays.copyOfRange(theta.toArray(), q + 1, nparams);//theta.length = nparams
+                double[] coeff = theta.toArray();
+                double a0 = coeff[0];
+                double[] a = Arrays.copyOfRange(coeff, 1, q + 1);
+                double[] b = Arrays.copyOfRange(coeff, q + 1, nparams);//theta.length = nparams
 
-                GARCHModel model = getGarchModel(theta.toArray(), p, q);
-
-                Vector[] dh = new Vector[e_t2.length];
+                double[][] dh = new double[e_t2.length][nparams];
                 for (int t = 0; t < maxPQ; ++t) {
-                    dh[t] = new DenseVector(nparams, 0);//initialization
-                    dh[t].set(1, 1);//dh/da0 = 1
+                    dh[t][0] = 1;//dh/da0 = 1
                     //TODO: shall we set the rest to e_t2 and h_t instead of 0s?
                 }
 
@@ -280,35 +384,46 @@ public class GARCH implements Serializable{//TODO: need to use a constrained ver
                     h[t] = var;//initialization
                 }
 
-                Vector dL = new DenseVector(nparams, 0);
+                double[] dL = new double[nparams];
                 for (int t = maxPQ; t < e_t2.length; ++t) {
-                    double[] e_t2_lag = Arrays.copyOfRange(e_t2, t - q, t);
-                    reverse(e_t2_lag);//reverse the time order so that it goes from e2_{t-1} to e2_{t-q+1}
-
-                    double[] h_lag = Arrays.copyOfRange(h, t - p, t);
-                    reverse(h_lag);//reverse the time order so that it goes from h_{t-1} to h_{t-p+1}
-
-                    h[t] = model.sigma2(e_t2_lag, h_lag);
+                    //the lags go from e2_{t-1} to e2_{t-q}, and from h_{t-1} to h_{t-p}
+                    double ae2 = 0;
+                    for (int i = 0; i < q; ++i) {
+                        ae2 += a[i] * e_t2[t - 1 - i];
+                    }
+                    double bh = 0;
+                    for (int i = 0; i < p; ++i) {
+                        bh += b[i] * h[t - 1 - i];
+                    }
+                    h[t] = a0 + ae2 + bh;
 
-                    dh[t] = new DenseVector(concat(
-                            new double[]{1},
-                            e_t2_lag,
-                            h_lag));//z_t in eq. 21; text just above eq. 17
+                    //z_t in eq. 21; text just above eq. 17
+                    dh[t][0] = 1;
+                    for (int i = 0; i < q; ++i) {
+                        dh[t][1 + i] = e_t2[t - 1 - i];
+                    }
+                    for (int i = 0; i < p; ++i) {
+                        dh[t][1 + q + i] = h[t - 1 - i];
+                    }
 
                     for (int i = 1; i <= p; ++i) {//eq. 21
-                        Vector bdh = dh[t - i].scaled(b[i - 1]);
-                        dh[t] = dh[t].add(bdh);
+                        for (int j = 0; j < nparams; ++j) {
+                            dh[t][j] += b[i - 1] * dh[t - i][j];
+                        }
                     }
 
-                    Vector dl = dh[t].scaled(0.5 / h[t]);//eq. 19
-                    dl = dl.scaled(e_t2[t] / h[t] - 1);
-
-                    dL = dL.add(dl);
+                    double c1 = 0.5 / h[t];//eq. 19
+                    double c2 = e_t2[t] / h[t] - 1;
+                    for (int j = 0; j < nparams; ++j) {
+                        dL[j] += dh[t][j] * c1 * c2;
+                    }
                 }
 
-                dL = dL.scaled(1.0 / (e_t2.length - maxPQ));
+                for (int j = 0; j < nparams; ++j) {
+                    dL[j] /= (e_t2.length - maxPQ);
+                }
 
-                return dL;
+                return new DenseVector(dL);
             }
 
             @Override
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.garch;
+
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * This is an online filter of the conditional variance of a GARCH(p, q) model.
+ * Each new observation (return, or residual) updates the recursion
+ * <blockquote><i>
+ * h_{t+1} = α<sub>0</sub> + Σ α<sub>i</sub> e<sub>t+1-i</sub><sup>2</sup> + Σ β<sub>j</sub> h<sub>t+1-j</sub>
+ * </i></blockquote>
+ * in <i>O(p + q)</i>, without revisiting the history.
+ *
+ * <p>
+ * The filter keeps the most recent observations in a window of a fixed size.
+ * The parameters can be re-estimated on the window by {@link GARCH}, warm started from the current model,
+ * either on demand or periodically in the background.
+ * When a new model is installed, the state is rebuilt by filtering the window with the new parameters,
+ * so that it is the same as what the fitting computes.
+ *
+ * <p>
+ * This class is thread-safe; observations can be added while a re-estimation runs.
+ *
+ * @author Haksun Li
+ */
+public class GARCHFilter {
+
+    /** the GARCH model */
+    private GARCHModel model;
+    private double a0;
+    private double[] a;
+    private double[] b;
+    /** e<sub>t</sub><sup>2</sup>, e<sub>t-1</sub><sup>2</sup>, ..., in a ring buffer; the most recent at {@code lagPosition} */
+    private double[] e2Lags;
+    /** h<sub>t</sub>, h<sub>t-1</sub>, ..., in a ring buffer; the most recent at {@code lagPosition} */
+    private double[] hLags;
+    /** the position of the most recent lags, modulo {@code lagPeriod} so that it never overflows */
+    private int lagPosition = 0;
+    /** a common multiple of the lengths of both ring buffers */
+    private int lagPeriod = 1;
+    /** the one-step forecast, h<sub>t+1</sub> */
+    private double next;
+    /** the number of observations added */
+    private long nObs = 0;
+    /** the most recent observations in a ring buffer */
+    private final double[] window;
+    private int windowStart = 0;
+    private int windowSize = 0;
+    /** the maximum number of iterations of a re-estimation */
+    private final int maxIterations;
+    /** the executor of the periodic re-estimations; {@code null} if there is none */
+    private Executor executor = null;
+    /** the number of observations between two periodic re-estimations */
+    private int interval = 0;
+    /** the number of observations since the last periodic re-estimation */
+    private int sinceReestimation = 0;
+    /** the re-estimation in progress; {@code null} if there is none */
+    private FutureTask<GARCHModel> pending = null;
+
+    /**
+     * Construct a filter for a GARCH model, starting from a history of observations.
+     * The history is filtered in the same way as by {@link GARCH}:
+     * the first <i>max(p, q)</i> conditional variances are the sample variance of the history.
+     *
+     * @param model         a GARCH model
+     * @param history       the past observations, oldest first; may be empty
+     * @param windowSize    the number of the most recent observations to keep for re-estimation
+     * @param maxIterations the maximum number of iterations of a re-estimation
+     */
+    public GARCHFilter(GARCHModel model, double[] history, int windowSize, int maxIterations) {
+        SuanShuUtils.assertArgument(windowSize > model.maxPQ(), "the window must be longer than max(p, q)");
+        SuanShuUtils.assertArgument(maxIterations > 0, "maxIterations must be positive");
+
+        this.window = new double[windowSize];
+        this.maxIterations = maxIterations;
+        for (int i = Math.max(0, history.length - windowSize); i < history.length; ++i) {
+            addToWindow(history[i]);
+        }
+        install(model, history);
+        this.nObs = history.length;
+    }
+
+    /**
+     * Construct a filter for a GARCH model, starting from the unconditional variance.
+     *
+     * @param model      a GARCH model
+     * @param windowSize the number of the most recent observations to keep for re-estimation
+     */
+    public GARCHFilter(GARCHModel model, int windowSize) {
+        this(model, new double[0], windowSize, 300);
+    }
+
+    /**
+     * Add a new observation and update the conditional variance.
+     *
+     * @param e a new observation (return, or residual)
+     * @return the one-step forecast of the conditional variance, <i>h<sub>t+1</sub></i>
+     */
+    public double add(double e) {
+        FutureTask<GARCHModel> task = null;
+        Executor exec = null;
+        synchronized (this) {
+            update(e * e);
+            addToWindow(e);
+            ++nObs;
+
+            if (executor != null && ++sinceReestimation >= interval && pending == null && windowSize == window.length) {
+                sinceReestimation = 0;
+                task = newReestimation();
+                exec = executor;
+            }
+        }
+
+        if (task != null) {
+            exec.execute(task);
+        }
+
+        return variance();
+    }
+
+    /**
+     * Get the one-step forecast of the conditional variance, <i>h<sub>t+1</sub></i>.
+     *
+     * @return the next conditional variance
+     */
+    public synchronized double variance() {
+        return next;
+    }
+
+    /**
+     * Forecast the conditional variances up to {@code h} steps ahead.
+     * The future squared observations are replaced by their expectations, the conditional variances.
+     * This takes <i>O(h(p + q))</i>.
+     *
+     * @param h the number of steps ahead
+     * @return <i>E(h<sub>t+1</sub>), ..., E(h<sub>t+h</sub>)</i>
+     */
+    public synchronized double[] forecast(int h) {
+        SuanShuUtils.assertArgument(h > 0, "h must be positive");
+
+        double[] f = new double[h];
+        f[0] = next;
+        for (int j = 2; j <= h; ++j) {//f[j - 1] = E(h_{t+j})
+            double fj = a0;
+            for (int i = 1; i <= a.length; ++i) {
+                fj += a[i - 1] * (j - i >= 1 ? f[j - i - 1] : e2Lags[lag(i - j, a.length)]);
+            }
+            for (int i = 1; i <= b.length; ++i) {
+                fj += b[i - 1] * (j - i >= 1 ? f[j - i - 1] : hLags[lag(i - j, b.length)]);
+            }
+            f[j - 1] = fj;
+        }
+        return f;
+    }
+
+    /**
+     * Get the number of observations added, including the history.
+     *
+     * @return the number of observations
+     */
+    public synchronized long nObs() {
+        return nObs;
+    }
+
+    /**
+     * Get the current model.
+     *
+     * @return the GARCH model
+     */
+    public synchronized GARCHModel getModel() {
+        return model;
+    }
+
+    /**
+     * Get the most recent observations that a re-estimation uses, oldest first.
+     *
+     * @return the observations in the window
+     */
+    public synchronized double[] window() {
+        double[] x = new double[windowSize];
+        for (int i = 0; i < windowSize; ++i) {
+            x[i] = window[(windowStart + i) % window.length];
+        }
+        return x;
+    }
+
+    /**
+     * Re-estimate the model on the current window in the calling thread, and install it.
+     *
+     * @return the new model
+     */
+    public GARCHModel reestimate() {
+        FutureTask<GARCHModel> task;
+        synchronized (this) {
+            task = newReestimation();
+        }
+        task.run();
+        try {
+            return task.get();
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Re-estimate the model on the current window in the background, and install it when done.
+     * Observations added in the meantime are filtered with the old model until then.
+     *
+     * @param executor the executor that runs the re-estimation
+     * @return the future of the new model
+     */
+    public FutureTask<GARCHModel> reestimate(Executor executor) {
+        FutureTask<GARCHModel> task;
+        synchronized (this) {
+            task = newReestimation();
+        }
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Re-estimate the model in the background every {@code interval} observations,
+     * once the window is full.
+     * A re-estimation is skipped if the last one is still running.
+     *
+     * @param executor the executor that runs the re-estimations; {@code null} to stop
+     * @param interval the number of observations between two re-estimations
+     */
+    public synchronized void setReestimation(Executor executor, int interval) {
+        SuanShuUtils.assertArgument(executor == null || interval > 0, "interval must be positive");
+        this.executor = executor;
+        this.interval = interval;
+        this.sinceReestimation = 0;
+    }
+
+    /**
+     * Create a task that fits a GARCH model on a snapshot of the window, warm started from the current model,
+     * and installs it.
+     * The caller must hold the lock.
+     */
+    private FutureTask<GARCHModel> newReestimation() {
+        Reestimation task = new Reestimation(window(), model);
+        pending = task;
+        return task;
+    }
+
+    /**
+     * a re-estimation of the model on a snapshot of the window
+     */
+    private class Reestimation extends FutureTask<GARCHModel> {
+
+        private Reestimation(final double[] x, final GARCHModel initial) {
+            super(new Callable<GARCHModel>() {
+
+                @Override
+                public GARCHModel call() throws Exception {
+                    GARCHModel fitted = new GARCH(new SimpleTimeSeries(x), initial, maxIterations, GARCH.GRADIENT.ANALYTICAL).getModel();
+                    if (fitted == null) {
+                        throw new IllegalStateException("the re-estimation does not give a valid GARCH model");
+                    }
+                    synchronized (GARCHFilter.this) {
+                        install(fitted, window());
+                    }
+                    return fitted;
+                }
+            });
+        }
+
+        @Override
+        protected void done() {//whether succeeded, failed, or cancelled
+            synchronized (GARCHFilter.this) {
+                if (pending == this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the model and rebuild the state by filtering the observations.
+     */
+    private void install(GARCHModel model, double[] x) {
+        this.model = model;
+        this.a0 = model.a0();
+        this.a = model.alpha();
+        this.b = model.beta();
+        this.e2Lags = new double[a.length];
+        this.hLags = new double[b.length];
+        this.lagPosition = 0;
+        this.lagPeriod = Math.max(a.length, 1) * Math.max(b.length, 1);
+
+        final int maxPQ = model.maxPQ();
+        if (x.length < Math.max(maxPQ, 2)) {//not enough history
+            double var = model.var();
+            Arrays.fill(e2Lags, var);
+            Arrays.fill(hLags, var);
+            this.next = var;
+            for (int t = 0; t < x.length; ++t) {
+                update(x[t] * x[t]);
+            }
+            return;
+        }
+
+        //the same initialization as in GARCH
+        double var = new Variance(x).value();
+        for (int t = 0; t < maxPQ; ++t) {
+            this.next = var;
+            push(x[t] * x[t]);
+        }
+        this.next = var;
+        if (maxPQ > 0) {
+            this.next = forecastNext();
+        }
+        for (int t = maxPQ; t < x.length; ++t) {
+            update(x[t] * x[t]);
+        }
+    }
+
+    /**
+     * Observe <i>e<sub>t</sub><sup>2</sup></i>, whose conditional variance <i>h<sub>t</sub></i> is {@code next},
+     * and compute <i>h<sub>t+1</sub></i>.
+     */
+    private void update(double e2) {
+        push(e2);
+        next = forecastNext();
+    }
+
+    /**
+     * Shift <i>e<sub>t</sub><sup>2</sup></i> and <i>h<sub>t</sub> = </i>{@code next} into the lags.
+     */
+    private void push(double e2) {
+        lagPosition = (lagPosition + 1) % lagPeriod;
+        if (e2Lags.length > 0) {
+            e2Lags[lagPosition % e2Lags.length] = e2;
+        }
+        if (hLags.length > 0) {
+            hLags[lagPosition % hLags.length] = next;
+        }
+    }
+
+    /**
+     * Compute <i>h<sub>t+1</sub></i> from the lags, in the same order of summation as in {@link GARCH}.
+     */
+    private double forecastNext() {
+        double ae2 = 0;
+        for (int i = 0; i < a.length; ++i) {
+            ae2 += a[i] * e2Lags[lag(i, a.length)];
+        }
+        double bh = 0;
+        for (int i = 0; i < b.length; ++i) {
+            bh += b[i] * hLags[lag(i, b.length)];
+        }
+        return a0 + ae2 + bh;
+    }
+
+    /**
+     * Get the index in a ring buffer of lags of the {@code i}-th lag; the most recent is lag 0.
+     */
+    private int lag(int i, int length) {
+        return ((lagPosition - i) % length + length) % length;
+    }
+
+    private void addToWindow(double e) {
+        if (windowSize < window.length) {
+            window[(windowStart + windowSize) % window.length] = e;
+            ++windowSize;
+        } else {
+            window[windowStart] = e;
+            windowStart = (windowStart + 1) % window.length;
+        }
+    }
+}
@@ -0,0 +1,661 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.univariate;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.joda.time.DateTime;
+
+/**
+ * This is a univariate time series stored in columns of primitives:
+ * the timestamps as {@code long}s, e.g., the milliseconds since the epoch, and the values as {@code double}s.
+ * An entry takes 16 bytes, instead of the 50 to 80 bytes of a boxed {@code Double} in an {@code ArrayList},
+ * or of an {@link TimeSeries.Entry} holding a {@code DateTime}, which makes this the representation of choice for long,
+ * e.g., multi-year tick, data.
+ * <p/>
+ * The columns are stored in fixed-size chunks, so that appending to a long series never copies the data already stored.
+ * The first chunk starts small and doubles as it fills up, so that a short series takes little more memory than its entries.
+ * Alternatively, the columns can live in a {@link LongIndexedBuffer} outside the heap, e.g., a memory-mapped file.
+ * The timestamps must be non-decreasing, so that a value can be looked up by time using binary search.
+ * <p/>
+ * {@link #slice(int, int)}, {@link #drop(int)}, {@link #lag(int, int)} and {@link #diff(int)} return views
+ * that share the storage with this series; no data is copied.
+ * A difference view computes its values on the fly from the stored data.
+ * A view is immutable; only a series constructed directly (not a view) can be {@linkplain #append(long, double) appended} to.
+ * Appending to a series does not change the views taken from it before.
+ * <p/>
+ * {@link #values()} is an integer-indexed view of the values,
+ * which can be passed to the models that work on {@link com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries},
+ * e.g., {@link com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.garch.GARCH}.
+ *
+ * @author Haksun Li
+ */
+public class ColumnarTimeSeries implements TimeSeries<Long, TimeSeries.Entry<Long>> {
+
+    private static final long serialVersionUID = 1858350911962373047L;
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /** the initial length of the first chunk, which grows geometrically up to {@link #CHUNK_SIZE} */
+    private static final int FIRST_CHUNK_SIZE = 16;
+
+    /**
+     * the columns shared by a series and its views
+     */
+    private static abstract class Store implements Serializable {
+
+        private static final long serialVersionUID = -3521836006536395420L;
+
+        abstract int size();
+
+        abstract void append(long t, double x);
+
+        abstract long time(int i);
+
+        abstract double value(int i);
+
+        void copyValues(int from, int length, double[] dest, int destPos) {
+            for (int k = 0; k < length; ++k) {
+                dest[destPos + k] = value(from + k);
+            }
+        }
+
+        void copyTimes(int from, int length, long[] dest, int destPos) {
+            for (int k = 0; k < length; ++k) {
+                dest[destPos + k] = time(from + k);
+            }
+        }
+    }
+
+    /**
+     * the columns in chunks on the heap;
+     * only the first chunk may be shorter than {@link #CHUNK_SIZE}, and only the entries in use are serialized
+     */
+    private static class HeapStore extends Store {
+
+        private static final long serialVersionUID = -6390203419233736614L;
+        private transient long[][] times = new long[4][];
+        private transient double[][] values = new double[4][];
+        private int size = 0;
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        void append(long t, double x) {
+            int c = size >>> CHUNK_SHIFT;
+            if (c == times.length) {// only the chunk references are copied
+                times = Arrays.copyOf(times, 2 * c);
+                values = Arrays.copyOf(values, 2 * c);
+            }
+            int k = size & CHUNK_MASK;
+            if (times[c] == null) {
+                int length = c == 0 ? FIRST_CHUNK_SIZE : CHUNK_SIZE;
+                times[c] = new long[length];
+                values[c] = new double[length];
+            } else if (k == times[c].length) {// the first chunk is full but shorter than CHUNK_SIZE
+                int length = Math.min(2 * k, CHUNK_SIZE);
+                times[c] = Arrays.copyOf(times[c], length);
+                values[c] = Arrays.copyOf(values[c], length);
+            }
+
+            times[c][k] = t;
+            values[c][k] = x;
+            ++size;
+        }
+
+        @Override
+        long time(int i) {
+            return times[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+        }
+
+        @Override
+        double value(int i) {
+            return values[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+        }
+
+        @Override
+        void copyValues(int from, int length, double[] dest, int destPos) {
+            while (length > 0) {
+                int k = from & CHUNK_MASK;
+                int n = Math.min(length, CHUNK_SIZE - k);
+                System.arraycopy(values[from >>> CHUNK_SHIFT], k, dest, destPos, n);
+                from += n;
+                destPos += n;
+                length -= n;
+            }
+        }
+
+        @Override
+        void copyTimes(int from, int length, long[] dest, int destPos) {
+            while (length > 0) {
+                int k = from & CHUNK_MASK;
+                int n = Math.min(length, CHUNK_SIZE - k);
+                System.arraycopy(times[from >>> CHUNK_SHIFT], k, dest, destPos, n);
+                from += n;
+                destPos += n;
+                length -= n;
+            }
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            for (int i = 0; i < size; ++i) {
+                out.writeLong(time(i));
+                out.writeDouble(value(i));
+            }
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            int n = size;
+            size = 0;
+            times = new long[4][];
+            values = new double[4][];
+            for (int i = 0; i < n; ++i) {
+                append(in.readLong(), in.readDouble());
+            }
+        }
+    }
+
+    /**
+     * the columns in a buffer outside the heap: the timestamps followed by the values
+     */
+    private static class BufferStore extends Store {
+
+        private static final long serialVersionUID = 2211404755402245719L;
+        private final transient LongIndexedBuffer buffer;
+        private final int size;
+
+        private BufferStore(LongIndexedBuffer buffer, int size) {
+            this.buffer = buffer;
+            this.size = size;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        void append(long t, double x) {
+            throw new UnsupportedOperationException("the series is backed by a fixed-size buffer");
+        }
+
+        @Override
+        long time(int i) {
+            return buffer.getLong(i);
+        }
+
+        @Override
+        double value(int i) {
+            return buffer.getDouble((long) size + i);
+        }
+
+        @Override
+        void copyValues(int from, int length, double[] dest, int destPos) {
+            buffer.getDoubles((long) size + from, dest, destPos, length);
+        }
+
+        private Object writeReplace() throws ObjectStreamException {
+            HeapStore store = new HeapStore();
+            for (int i = 0; i < size; ++i) {
+                store.append(time(i), value(i));
+            }
+            return store;
+        }
+    }
+
+    private final Store store;
+    private final boolean isView;
+    /** the index in the store of the first stored entry that this view reads */
+    private final int offset;
+    /** the number of stored entries that this view reads; for a view only */
+    private final int length;
+    /** the order of difference */
+    private final int d;
+    /** the coefficients of the <i>d</i>-th difference: (-1)<sup>j</sup> C(d, j) */
+    private final double[] coefficients;
+
+    /**
+     * Construct an empty time series.
+     */
+    public ColumnarTimeSeries() {
+        this(new HeapStore());
+    }
+
+    /**
+     * Construct a time series over a buffer, e.g., a memory-mapped file,
+     * that holds {@code size} timestamps, as {@code long}s, followed by {@code size} values, as {@code double}s.
+     * No data is copied.
+     * The series cannot be appended to.
+     *
+     * @param buffer a buffer of {@code 2 * size} elements
+     * @param size   the number of entries
+     * @see com.numericalmethod.suanshu.io.TimeSeriesFile
+     */
+    public ColumnarTimeSeries(LongIndexedBuffer buffer, int size) {
+        this(new BufferStore(buffer, size));
+        SuanShuUtils.assertArgument(buffer.length() == 2L * size, "the buffer length must be 2 * size");
+    }
+
+    private ColumnarTimeSeries(Store store) {
+        this.store = store;
+        this.isView = false;
+        this.offset = 0;
+        this.length = 0;
+        this.d = 0;
+        this.coefficients = new double[]{1};
+    }
+
+    /**
+     * Construct a time series from timestamps and values.
+     *
+     * @param timestamps the non-decreasing timestamps, e.g., the milliseconds since the epoch
+     * @param values     the values
+     */
+    public ColumnarTimeSeries(long[] timestamps, double[] values) {
+        this();
+
+        SuanShuUtils.assertArgument(timestamps.length == values.length,
+                                    "number of values and numbers of timestamps do not match");
+
+        for (int i = 0; i < timestamps.length; ++i) {
+            append(timestamps[i], values[i]);
+        }
+    }
+
+    /**
+     * Construct a time series from a {@code DateTime} time series.
+     * The timestamps are stored as the milliseconds since the epoch.
+     *
+     * @param ts a {@code DateTime} time series
+     */
+    public ColumnarTimeSeries(GenericTimeTimeSeries<DateTime> ts) {
+        this();
+
+        for (TimeSeries.Entry<DateTime> entry : ts) {
+            append(entry.getTime().getMillis(), entry.getValue());
+        }
+    }
+
+    private ColumnarTimeSeries(Store store, int offset, int length, int d) {
+        this.store = store;
+        this.isView = true;
+        this.offset = offset;
+        this.length = length;
+        this.d = d;
+
+        this.coefficients = new double[d + 1];
+        double c = 1;
+        for (int j = 0; j <= d; ++j) {
+            coefficients[j] = j % 2 == 0 ? c : -c;
+            c = c * (d - j) / (j + 1);
+        }
+    }
+
+    /**
+     * Append an entry to the end of the series.
+     *
+     * @param time  the timestamp, no earlier than the last one
+     * @param value the value
+     * @throws UnsupportedOperationException if this is a view or is backed by a fixed-size buffer
+     */
+    public void append(long time, double value) {
+        if (isView) {
+            throw new UnsupportedOperationException("a view is immutable");
+        }
+        int size = store.size();
+        if (size > 0 && time < store.time(size - 1)) {
+            throw new IllegalArgumentException(String.format("time %d is before the last time %d", time, store.time(size - 1)));
+        }
+
+        store.append(time, value);
+    }
+
+    /**
+     * Get the number of stored entries that this series reads, including the leading {@code d} entries of a difference view.
+     */
+    private int nStored() {
+        return isView ? length : store.size();
+    }
+
+    @Override
+    public int size() {
+        return nStored() - d;
+    }
+
+    /**
+     * Get the <i>i</i>-th value.
+     *
+     * @param i the position index, from 1 to {@link #size()}
+     * @return the <i>i</i>-th value
+     */
+    public double get(int i) {
+        checkIndex(i);
+        return value(i - 1);
+    }
+
+    /**
+     * Get the <i>i</i>-th timestamp.
+     *
+     * @param i the position index, from 1 to {@link #size()}
+     * @return the <i>i</i>-th timestamp
+     */
+    public long time(int i) {
+        checkIndex(i);
+        return store.time(offset + i - 1 + d);
+    }
+
+    private void checkIndex(int i) {
+        if (i < 1 || i > size()) {
+            throw new IndexOutOfBoundsException(String.format("index %d out of range [1, %d]", i, size()));
+        }
+    }
+
+    /**
+     * Get the value at time {@code t}.
+     * If there are multiple entries at time {@code t}, any one of them may be returned.
+     *
+     * @param t a timestamp
+     * @return the value at time {@code t}
+     */
+    public double valueAt(long t) {
+        int lo = 0;
+        int hi = size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long time = store.time(offset + mid + d);
+            if (time < t) {
+                lo = mid + 1;
+            } else if (time > t) {
+                hi = mid - 1;
+            } else {
+                return value(mid);
+            }
+        }
+
+        throw new RuntimeException(String.format("no value found at time %d", t));
+    }
+
+    /**
+     * Get the value at a 0-based position, differencing on the fly for a difference view.
+     */
+    private double value(int k) {
+        int i = offset + k;
+        if (d == 0) {
+            return store.value(i);
+        }
+
+        double sum = 0;
+        for (int j = 0; j <= d; ++j) {
+            sum += coefficients[j] * store.value(i + d - j);
+        }
+        return sum;
+    }
+
+    @Override
+    public double[] toArray() {
+        int size = size();
+        double[] result = new double[size];
+
+        if (d == 0) {
+            store.copyValues(offset, size, result, 0);
+        } else {
+            for (int k = 0; k < size; ++k) {
+                result[k] = value(k);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get all the timestamps.
+     *
+     * @return the timestamps
+     */
+    public long[] timestamps() {
+        int size = size();
+        long[] result = new long[size];
+        store.copyTimes(offset + d, size, result, 0);
+        return result;
+    }
+
+    /**
+     * Get a view of the entries from the {@code from}-th to the {@code to}-th, inclusive.
+     *
+     * @param from the position index of the first entry
+     * @param to   the position index of the last entry
+     * @return a view of the entries in [from, to]
+     */
+    public ColumnarTimeSeries slice(int from, int to) {
+        SuanShuUtils.assertArgument(1 <= from && from <= to + 1 && to <= size(),
+                                    "1 <= from <= to + 1 <= size() + 1");
+
+        return new ColumnarTimeSeries(store, offset + from - 1, to - from + 1 + d, d);
+    }
+
+    /**
+     * Get a view without the leading {@code nItems} entries.
+     *
+     * @param nItems the number of leading entries to be dropped
+     * @return a view without the leading {@code nItems} entries
+     */
+    public ColumnarTimeSeries drop(int nItems) {
+        return slice(nItems + 1, size());
+    }
+
+    /**
+     * Get a view of the lagged time series.
+     * This operation makes sense only for equi-distant data points.
+     *
+     * @param nLags  the number of lags
+     * @param length the length of the lagged time series
+     * @return a view of the lagged time series
+     * @see com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries#lag(int, int)
+     */
+    public ColumnarTimeSeries lag(int nLags, int length) {
+        SuanShuUtils.assertArgument(nLags >= 0, "nLags >= 0");
+
+        int begin = size() - nLags - length + 1;
+        SuanShuUtils.assertArgument(begin >= 1, "lagged series length is too long");
+
+        return slice(begin, size() - nLags);
+    }
+
+    /**
+     * Get a view of the lagged time series.
+     * This operation makes sense only for equi-distant data points.
+     *
+     * @param nLags the number of lags
+     * @return a view of the lagged time series
+     */
+    public ColumnarTimeSeries lag(int nLags) {
+        return lag(nLags, size() - nLags);
+    }
+
+    /**
+     * Get a view of the series differenced {@code d} times.
+     * The <i>i</i>-th value is computed on the fly from <i>d + 1</i> stored values;
+     * the timestamps are those of the later entries.
+     *
+     * @param d the number of differences
+     * @return {@code diff(x, lag = 1, differences = d)} as in R
+     */
+    public ColumnarTimeSeries diff(int d) {
+        SuanShuUtils.assertArgument(d >= 0 && d <= size(), "0 <= d <= size()");
+
+        return new ColumnarTimeSeries(store, offset, nStored(), this.d + d);
+    }
+
+    /**
+     * Get an integer-indexed view of the values, discarding the timestamps.
+     * No data is copied.
+     *
+     * @return the values as an integer-indexed time series
+     */
+    public com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries values() {
+        final ColumnarTimeSeries ts = isView ? this : slice(1, size());// a snapshot of the current entries
+
+        return new com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries() {
+            private static final long serialVersionUID = 4094432498937562217L;
+
+            @Override
+            public double get(int t) {
+                return ts.get(t);
+            }
+
+            @Override
+            public double[] toArray() {
+                return ts.toArray();
+            }
+
+            @Override
+            public int size() {
+                return ts.size();
+            }
+
+            @Override
+            public Iterator<Entry> iterator() {
+                return new Iterator<Entry>() {
+
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < ts.size();
+                    }
+
+                    @Override
+                    public Entry next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        ++i;
+                        return new Entry(i, ts.value(i - 1));
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("time series is immutable");
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterator<TimeSeries.Entry<Long>> iterator() {
+        final int size = size();
+
+        return new Iterator<TimeSeries.Entry<Long>>() {
+
+            private int k = 0;
+
+            @Override
+            public boolean hasNext() {
+                return k < size;
+            }
+
+            @Override
+            public TimeSeries.Entry<Long> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TimeSeries.Entry<Long> entry = new TimeSeries.Entry<Long>(store.time(offset + k + d), value(k));
+                ++k;
+                return entry;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("time series is immutable");
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        final int size = size();
+        StringBuilder result = new StringBuilder(size);
+
+        result.append("[");
+
+        for (int k = 0; k < size; ++k) {
+            result.append(String.format("%d: %f; ",
+                                        store.time(offset + k + d),
+                                        value(k)));
+        }
+
+        result.append("]");
+
+        return result.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final ColumnarTimeSeries other = (ColumnarTimeSeries) obj;
+        final int size = size();
+        if (size != other.size()) {
+            return false;
+        }
+        for (int k = 0; k < size; ++k) {
+            if (store.time(offset + k + d) != other.store.time(other.offset + k + other.d)) {
+                return false;
+            }
+            if (Double.doubleToLongBits(value(k)) != Double.doubleToLongBits(other.value(k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        for (int k = 0; k < size(); ++k) {
+            long time = store.time(offset + k + d);
+            long bits = Double.doubleToLongBits(value(k));
+            hash = 97 * hash + (int) (time ^ (time >>> 32));
+            hash = 97 * hash + (int) (bits ^ (bits >>> 32));
+        }
+        return hash;
+    }
+}
@@ -24,6 +24,7 @@ package com.numericalmethod.suanshu.stats.timeseries.univariate;
 
 import com.numericalmethod.suanshu.matrix.doubles.Matrix;
 import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
 import com.numericalmethod.suanshu.vector.doubles.Vector;
 import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
 
@@ -49,6 +50,27 @@ public class UnivariateTimeSeriesUtils {
         return new DenseVector(result);
     }
 
+    /**
+     * Cast a time series into an integer-indexed time series, discarding the timestamps,
+     * so that it can be passed to the models that work on
+     * {@link com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries}, e.g., ARIMA and GARCH.
+     * A {@link ColumnarTimeSeries} is wrapped without copying;
+     * any other time series is copied once.
+     *
+     * @param ts a time series
+     * @return an integer-indexed time series of values
+     */
+    public static com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries toIntegerIndexed(TimeSeries<?, ?> ts) {
+        if (ts instanceof com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries) {
+            return (com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries) ts;
+        }
+        if (ts instanceof ColumnarTimeSeries) {
+            return ((ColumnarTimeSeries) ts).values();
+        }
+
+        return new SimpleTimeSeries(ts.toArray());
+    }
+
     /**
      * Cast a time series into a column matrix, discarding the timestamps.
      *
@@ -24,19 +24,37 @@ package com.numericalmethod.suanshu.stats.timeseries.univariate.realtime;
 
 import com.numericalmethod.suanshu.misc.R;
 import com.numericalmethod.suanshu.misc.SuanShuUtils;
-import com.numericalmethod.suanshu.number.DoubleUtils;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
  * This simple univariate time series has its {@code double} values indexed by integers.
+ * The values are stored in a primitive array.
+ * {@link #lag(int, int)} and {@link #drop(int)} return views that share the array with this series; no data is copied.
+ * The serialized form is a list of the values, as in the earlier versions, so that old streams can still be read.
  *
  * @author Haksun Li
  */
 public class SimpleTimeSeries implements TimeSeries {
 
     private static final long serialVersionUID = 1405110589928642029L;
-    private final ArrayList<Double> ts = new ArrayList<Double>();
+    /**
+     * the serialized form: {@code ArrayList<Double> ts}, the values of this series only
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("ts", ArrayList.class)
+    };
+    /** the values, shared by the views; never modified */
+    private double[] values;//not final only for readObject
+    /** the index in {@code values} of the first entry */
+    private int offset;
+    private int length;
 
     /**
      * Construct an instance of {@code SimpleTimeSeries}.
@@ -44,31 +62,34 @@ public class SimpleTimeSeries implements TimeSeries {
      * @param values an array of values
      */
     public SimpleTimeSeries(double[] values) {
-        for (double d : values) {
-            ts.add(d);
-        }
+        this(Arrays.copyOf(values, values.length), 0, values.length);
+    }
+
+    private SimpleTimeSeries(double[] values, int offset, int length) {
+        this.values = values;
+        this.offset = offset;
+        this.length = length;
     }
 
     @Override
     public int size() {
-        return ts.size();
+        return length;
     }
 
     @Override
     public Iterator<Entry> iterator() {
         return new Iterator<Entry>() {
 
-            private final Iterator<Double> it = ts.iterator();
             private int time = 1;
 
             @Override
             public boolean hasNext() {
-                return it.hasNext();
+                return time <= length;
             }
 
             @Override
             public Entry next() {
-                Double d = it.next();
+                double d = get(time);
                 return new TimeSeries.Entry(time++, d);
             }
 
@@ -81,12 +102,16 @@ public class SimpleTimeSeries implements TimeSeries {
 
     @Override
     public double[] toArray() {
-        return DoubleUtils.collection2DoubleArray(ts);
+        return Arrays.copyOfRange(values, offset, offset + length);
     }
 
     @Override
     public double get(int t) {
-        return ts.get(t - 1);
+        if (t < 1 || t > length) {
+            throw new IndexOutOfBoundsException(String.format("index %d out of range [1, %d]", t, length));
+        }
+
+        return values[offset + t - 1];
     }
 
     /**
@@ -106,12 +131,11 @@ public class SimpleTimeSeries implements TimeSeries {
      * @return {@code diff(x, lag = 1, differences = d)} as in R
      */
     public SimpleTimeSeries diff(int d) {
-        double[] values = toArray();
-        return new SimpleTimeSeries(R.diff(values, 1, d));
+        double[] diff = R.diff(toArray(), 1, d);
+        return new SimpleTimeSeries(diff, 0, diff.length);
     }
 
     /**
-     * /**
      * Construct an instance of {@code SimpleTimeSeries} by lagging the time series.
      * This operation makes sense only for equi-distant data points.
      *
@@ -125,12 +149,7 @@ public class SimpleTimeSeries implements TimeSeries {
         int begin = size() - nLags - length + 1;
         SuanShuUtils.assertArgument(begin >= 1, "lagged series length is too long");
 
-        double[] lagged = new double[length];
-        for (int i = begin; i <= size() - nLags; ++i) {
-            lagged[i - begin] = ts.get(i - 1);
-        }
-
-        return new SimpleTimeSeries(lagged);
+        return new SimpleTimeSeries(values, offset + begin - 1, length);
     }
 
     /**
@@ -144,16 +163,43 @@ public class SimpleTimeSeries implements TimeSeries {
         return lag(nLags, size() - nLags);
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ArrayList<Double> ts = new ArrayList<Double>(length);
+        for (int i = offset; i < offset + length; ++i) {
+            ts.add(values[i]);
+        }
+
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("ts", ts);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        @SuppressWarnings("unchecked")
+        ArrayList<Double> ts = (ArrayList<Double>) fields.get("ts", null);
+        if (ts == null) {
+            throw new InvalidObjectException("missing values");
+        }
+
+        values = new double[ts.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = ts.get(i);
+        }
+        offset = 0;
+        length = values.length;
+    }
+
     @Override
     public String toString() {
         final int lineBreak = 20;
 
         StringBuilder result = new StringBuilder();
-        result.append(String.format("length = %d\n", ts.size()));
+        result.append(String.format("length = %d\n", length));
 
-        for (int i = 1; i <= ts.size(); ++i) {
+        for (int i = 1; i <= length; ++i) {
             result.append(String.format("[%d,] ", i));
-            result.append(String.format("%f, ", ts.get(i - 1)));
+            result.append(String.format("%f, ", get(i)));
 
             if (i % lineBreak == 0) {
                 result.append("\n");
@@ -172,16 +218,24 @@ public class SimpleTimeSeries implements TimeSeries {
             return false;
         }
         final SimpleTimeSeries other = (SimpleTimeSeries) obj;
-        if (this.ts != other.ts && (this.ts == null || !this.ts.equals(other.ts))) {
+        if (this.length != other.length) {
             return false;
         }
+        for (int i = 0; i < length; ++i) {
+            if (Double.doubleToLongBits(this.values[this.offset + i]) != Double.doubleToLongBits(other.values[other.offset + i])) {
+                return false;
+            }
+        }
         return true;
     }
 
     @Override
     public int hashCode() {
         int hash = 7;
-        hash = 41 * hash + (this.ts != null ? this.ts.hashCode() : 0);
+        for (int i = offset; i < offset + length; ++i) {
+            long bits = Double.doubleToLongBits(values[i]);
+            hash = 41 * hash + (int) (bits ^ (bits >>> 32));
+        }
         return hash;
     }
 }
@@ -24,6 +24,7 @@ package com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles;
 
 import com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles.MovingAverage.Side;
 import com.numericalmethod.suanshu.misc.R;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -186,4 +187,115 @@ public class MovingAverageTest {
         double[] expResult = new double[]{Double.NaN, Double.NaN, 125, 110, 95, 80, 65, 50, 35, Double.NaN, Double.NaN};
         assertArrayEquals(expResult, result, 1e-15);
     }
+
+    /**
+     * a long filter can be applied by FFT convolution
+     */
+    @Test
+    public void test_0110() {
+        Random rng = new Random(110);
+        double[] Xt = new double[1000];
+        for (int i = 0; i < Xt.length; ++i) {
+            Xt[i] = rng.nextGaussian();
+        }
+        double[] MAFilter = new double[100];
+        for (int j = 0; j < MAFilter.length; ++j) {
+            MAFilter[j] = rng.nextDouble();
+        }
+
+        for (Side side : Side.values()) {
+            double[] result = new MovingAverage(MAFilter, side, true).transform(Xt);
+
+            int offset = side == Side.PAST ? 99 : 49;
+            int end = side == Side.PAST ? 1000 : 950;
+            for (int i = 0; i < Xt.length; ++i) {
+                if (i < offset || i >= end) {
+                    assertTrue(Double.isNaN(result[i]));
+                    continue;
+                }
+                double expected = 0;
+                for (int j = 0; j < MAFilter.length; ++j) {
+                    expected += Xt[i - offset + j] * MAFilter[MAFilter.length - j - 1];
+                }
+                assertEquals(expected, result[i], 1e-12);
+            }
+        }
+    }
+
+    /**
+     * a missing value only spoils the windows containing it, as in R, also when the filter is applied by FFT convolution
+     */
+    @Test
+    public void test_0120() {
+        Random rng = new Random(120);
+        double[] Xt = new double[500];
+        for (int i = 0; i < Xt.length; ++i) {
+            Xt[i] = rng.nextGaussian();
+        }
+        Xt[200] = Double.NaN;
+        Xt[400] = Double.POSITIVE_INFINITY;
+        double[] MAFilter = new double[64];
+        for (int j = 0; j < MAFilter.length; ++j) {
+            MAFilter[j] = rng.nextDouble();
+        }
+
+        for (Side side : Side.values()) {
+            double[] result = new MovingAverage(MAFilter, side, true).transform(Xt);
+
+            int offset = side == Side.PAST ? 63 : 31;
+            int end = side == Side.PAST ? 500 : 468;
+            for (int i = offset; i < end; ++i) {
+                int from = i - offset;
+                if (from <= 200 && 200 < from + 64) {
+                    assertTrue(Double.isNaN(result[i]));
+                } else if (from <= 400 && 400 < from + 64) {
+                    assertEquals(Double.POSITIVE_INFINITY, result[i], 0);
+                } else {
+                    double expected = 0;
+                    for (int j = 0; j < MAFilter.length; ++j) {
+                        expected += Xt[from + j] * MAFilter[MAFilter.length - j - 1];
+                    }
+                    assertEquals(expected, result[i], 1e-12);
+                }
+            }
+        }
+    }
+
+    /**
+     * Summation is exact for a series of a wide dynamic range, a few spikes among small values;
+     * the error of FFT convolution is bounded by the largest terms of the whole series.
+     */
+    @Test
+    public void test_0130() {
+        Random rng = new Random(130);
+        double[] Xt = new double[2000];
+        for (int i = 0; i < Xt.length; ++i) {
+            Xt[i] = 1e-3 * rng.nextGaussian();
+        }
+        for (int i = 0; i < Xt.length; i += 500) {
+            Xt[i] = 1e9;
+        }
+        double[] MAFilter = new double[100];
+        double sumFilter = 0;
+        for (int j = 0; j < MAFilter.length; ++j) {
+            MAFilter[j] = rng.nextDouble();
+            sumFilter += MAFilter[j];
+        }
+
+        for (Side side : Side.values()) {
+            double[] exact = new MovingAverage(MAFilter, side).transform(Xt);
+            double[] fft = new MovingAverage(MAFilter, side, true).transform(Xt);
+
+            int offset = side == Side.PAST ? 99 : 49;
+            int end = side == Side.PAST ? 2000 : 1950;
+            for (int i = offset; i < end; ++i) {
+                double expected = 0;
+                for (int j = 0; j < MAFilter.length; ++j) {
+                    expected += Xt[i - offset + j] * MAFilter[MAFilter.length - j - 1];
+                }
+                assertEquals(expected, exact[i], 0);
+                assertEquals(expected, fft[i], 1e-14 * 1e9 * sumFilter);
+            }
+        }
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.dsp.univariate.transform;
+
+import com.numericalmethod.suanshu.number.complex.Complex;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class FFTTest {
+
+    private static double[][] dft(double[] re, double[] im) {
+        final int n = re.length;
+        double[][] X = new double[2][n];
+        for (int k = 0; k < n; ++k) {
+            for (int t = 0; t < n; ++t) {
+                double angle = -2 * Math.PI * (((long) t * k) % n) / n;
+                X[0][k] += re[t] * Math.cos(angle) - im[t] * Math.sin(angle);
+                X[1][k] += re[t] * Math.sin(angle) + im[t] * Math.cos(angle);
+            }
+        }
+        return X;
+    }
+
+    private static double[] random(int n, Random rng) {
+        double[] x = new double[n];
+        for (int t = 0; t < n; ++t) {
+            x[t] = rng.nextGaussian();
+        }
+        return x;
+    }
+
+    /**
+     * the complex transform of powers of 2 and other lengths is the DFT
+     */
+    @Test
+    public void test_0010() {
+        Random rng = new Random(10);
+        for (int n : new int[]{1, 2, 3, 5, 8, 12, 17, 64, 100, 243, 1024}) {
+            double[] re = random(n, rng);
+            double[] im = random(n, rng);
+            double[][] expected = dft(re, im);
+
+            FFT fft = new FFT(n);
+            assertEquals(n, fft.size());
+            fft.transform(re, im);
+            assertArrayEquals(expected[0], re, 1e-10);
+            assertArrayEquals(expected[1], im, 1e-10);
+        }
+    }
+
+    /**
+     * the inverse transform recovers the input
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(20);
+        for (int n : new int[]{1, 6, 7, 32, 1000}) {
+            double[] re = random(n, rng);
+            double[] im = random(n, rng);
+            double[] re0 = re.clone();
+            double[] im0 = im.clone();
+
+            FFT fft = new FFT(n);
+            fft.transform(re, im);
+            fft.inverse(re, im);
+            assertArrayEquals(re0, re, 1e-12);
+            assertArrayEquals(im0, im, 1e-12);
+        }
+    }
+
+    /**
+     * the transform of a real input of even and odd lengths
+     */
+    @Test
+    public void test_0030() {
+        Random rng = new Random(30);
+        for (int n : new int[]{1, 2, 4, 9, 10, 30, 128, 500}) {
+            double[] x = random(n, rng);
+            double[][] expected = dft(x, new double[n]);
+
+            Complex[] X = new FFT(n).transform(x);
+            for (int k = 0; k < n; ++k) {
+                assertEquals(expected[0][k], X[k].real(), 1e-10);
+                assertEquals(expected[1][k], X[k].imaginary(), 1e-10);
+            }
+        }
+    }
+
+    /**
+     * the convolution and cross-correlation are the direct sums
+     */
+    @Test
+    public void test_0040() {
+        Random rng = new Random(40);
+        double[] a = random(37, rng);
+        double[] b = random(100, rng);
+
+        double[] c = FFT.convolve(a, b);
+        assertEquals(136, c.length);
+        for (int j = 0; j < c.length; ++j) {
+            double sum = 0;
+            for (int k = 0; k < a.length; ++k) {
+                if (j - k >= 0 && j - k < b.length) {
+                    sum += a[k] * b[j - k];
+                }
+            }
+            assertEquals(sum, c[j], 1e-12);
+        }
+
+        double[] r = FFT.correlate(a, b);
+        for (int k = -36; k < 100; ++k) {
+            double sum = 0;
+            for (int t = 0; t < a.length; ++t) {
+                if (t + k >= 0 && t + k < b.length) {
+                    sum += a[t] * b[t + k];
+                }
+            }
+            assertEquals(sum, r[k + 36], 1e-12);
+        }
+
+        assertArrayEquals(new double[]{3, 10, 8}, FFT.convolve(new double[]{1, 2}, new double[]{3, 4}), 1e-15);
+    }
+
+    @Test
+    public void test_0050() {
+        assertEquals(1, FFT.nextPowerOf2(1));
+        assertEquals(8, FFT.nextPowerOf2(5));
+        assertEquals(8, FFT.nextPowerOf2(8));
+        assertTrue(FFT.isPowerOf2(1024));
+        assertFalse(FFT.isPowerOf2(1000));
+    }
+
+    /**
+     * the convolution of two sequences of very different magnitudes is as accurate as that of two similar sequences
+     */
+    @Test
+    public void test_0060() {
+        Random rng = new Random(60);
+        double[] a = random(300, rng);
+        double[] b = random(50, rng);
+        for (int k = 0; k < a.length; ++k) {
+            a[k] *= 1e9;
+        }
+
+        double[] c = FFT.convolve(a, b);
+        for (int j = 0; j < c.length; ++j) {
+            double sum = 0;
+            for (int k = 0; k < a.length; ++k) {
+                if (j - k >= 0 && j - k < b.length) {
+                    sum += a[k] * b[j - k];
+                }
+            }
+            assertEquals(sum, c[j], 1e9 * 1e-12);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.io;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import com.numericalmethod.suanshu.matrix.MatrixAccessException;
+import com.numericalmethod.suanshu.matrix.doubles.AreMatrices;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.OffHeapDenseMatrix;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.ColumnarTimeSeries;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class MatrixFileTest {
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("suanshu", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static DenseMatrix random(int nRows, int nCols, long seed) {
+        Random rng = new Random(seed);
+        DenseMatrix A = new DenseMatrix(nRows, nCols);
+        for (int i = 1; i <= nRows; ++i) {
+            for (int j = 1; j <= nCols; ++j) {
+                A.set(i, j, rng.nextGaussian());
+            }
+        }
+        return A;
+    }
+
+    @Test
+    public void test_0010() throws IOException {
+        DenseMatrix A = random(13, 7, 1);
+        File file = tempFile();
+        MatrixFile.write(A, file);
+        assertEquals(BinaryFileHeader.SIZE + 8 * 13 * 7, file.length());
+
+        OffHeapDenseMatrix B = MatrixFile.open(file);
+        assertEquals(13, B.nRows());
+        assertEquals(7, B.nCols());
+        assertTrue(AreMatrices.equal(A, B, 0));
+        assertEquals(B, MatrixFile.open(file));
+        assertEquals(A.getRow(5), B.getRow(5));
+        assertEquals(A.getColumn(3), B.getColumn(3));
+    }
+
+    /**
+     * A read-only matrix cannot be modified.
+     */
+    @Test(expected = MatrixAccessException.class)
+    public void test_0020() throws IOException {
+        File file = tempFile();
+        MatrixFile.write(random(3, 3, 2), file);
+        MatrixFile.open(file).set(1, 1, 0);
+    }
+
+    /**
+     * Changes to a writable matrix are persisted.
+     */
+    @Test
+    public void test_0030() throws IOException {
+        File file = tempFile();
+        OffHeapDenseMatrix A = MatrixFile.create(file, 4, 5);
+        assertEquals(0, A.get(4, 5), 0);
+        A.set(2, 3, 1.5);
+        A.set(4, 5, -2.5);
+        A.buffer().force();
+
+        Matrix B = MatrixFile.open(file);
+        assertEquals(1.5, B.get(2, 3), 0);
+        assertEquals(-2.5, B.get(4, 5), 0);
+        assertEquals(0, B.get(1, 1), 0);
+    }
+
+    /**
+     * The products of a matrix spanning several chunks agree with those of a {@code DenseMatrix}.
+     */
+    @Test
+    public void test_0040() throws IOException {
+        DenseMatrix A = random(150, 90, 3);
+        File file = tempFile();
+        MatrixFile.write(A, file);
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        LongIndexedBuffer data = LongIndexedBuffer.map(raf.getChannel(), FileChannel.MapMode.READ_ONLY, BinaryFileHeader.SIZE, 150 * 90, 10);
+        raf.close();
+        OffHeapDenseMatrix B = new OffHeapDenseMatrix(data, 150, 90);
+        assertTrue(AreMatrices.equal(A, B, 0));
+
+        DenseMatrix C = random(90, 40, 4);
+        Matrix AC = A.multiply(C);
+        Matrix BC = B.multiply(C);
+        for (int i = 1; i <= 150; ++i) {
+            for (int j = 1; j <= 40; ++j) {
+                assertEquals(AC.get(i, j), BC.get(i, j), 1e-12);
+            }
+        }
+
+        Vector v = random(90, 1, 5).getColumn(1);
+        Vector Av = A.multiply(v);
+        Vector Bv = B.multiply(v);
+        for (int i = 1; i <= 150; ++i) {
+            assertEquals(Av.get(i), Bv.get(i), 1e-12);
+        }
+
+        assertTrue(AreMatrices.equal(A.t(), B.t(), 0));
+        assertTrue(AreMatrices.equal(A.add(A), B.add(A), 0));
+    }
+
+    /**
+     * A file of the wrong content type is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void test_0050() throws IOException {
+        File file = tempFile();
+        TimeSeriesFile.write(new ColumnarTimeSeries(new long[]{1, 2}, new double[]{1, 2}), file);
+        MatrixFile.open(file);
+    }
+
+    /**
+     * A file that is not a SuanShu binary data file is rejected.
+     */
+    @Test(expected = IOException.class)
+    public void test_0060() throws IOException {
+        File file = tempFile();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.write(new byte[100]);
+        raf.close();
+        MatrixFile.open(file);
+    }
+
+    @Test
+    public void test_0070() throws IOException {
+        File file = tempFile();
+        MatrixFile.write(new DenseMatrix(new DenseVector(1, 2, 3)), file);
+        Matrix A = MatrixFile.open(file);
+        assertEquals(3, A.nRows());
+        assertEquals(1, A.nCols());
+        assertEquals(2, A.get(2, 1), 0);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.io;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.ColumnarTimeSeries;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.GenericTimeTimeSeries;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import static org.junit.Assert.*;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class TimeSeriesFileTest {
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("suanshu", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static ColumnarTimeSeries series(int n) {
+        ColumnarTimeSeries ts = new ColumnarTimeSeries();
+        for (int i = 0; i < n; ++i) {
+            ts.append(1000L * i, Math.sin(i));
+        }
+        return ts;
+    }
+
+    @Test
+    public void test_0010() throws IOException {
+        ColumnarTimeSeries ts = series(50000);
+        File file = tempFile();
+        TimeSeriesFile.write(ts, file);
+        assertEquals(BinaryFileHeader.SIZE + 16 * 50000, file.length());
+
+        ColumnarTimeSeries mapped = TimeSeriesFile.open(file);
+        assertEquals(ts, mapped);
+        assertArrayEquals(ts.timestamps(), mapped.timestamps());
+        assertArrayEquals(ts.toArray(), mapped.toArray(), 0);
+        assertEquals(ts.valueAt(12345000L), mapped.valueAt(12345000L), 0);
+        assertArrayEquals(ts.slice(100, 200).diff(1).toArray(), mapped.slice(100, 200).diff(1).toArray(), 0);
+    }
+
+    /**
+     * A mapped series spanning several chunks.
+     */
+    @Test
+    public void test_0020() throws IOException {
+        ColumnarTimeSeries ts = series(1000);
+        File file = tempFile();
+        TimeSeriesFile.write(ts, file);
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        LongIndexedBuffer data = LongIndexedBuffer.map(raf.getChannel(), FileChannel.MapMode.READ_ONLY, BinaryFileHeader.SIZE, 2000, 7);
+        raf.close();
+        ColumnarTimeSeries mapped = new ColumnarTimeSeries(data, 1000);
+        assertEquals(ts, mapped);
+        assertArrayEquals(ts.lag(3).toArray(), mapped.lag(3).toArray(), 0);
+    }
+
+    /**
+     * A mapped series cannot be appended to.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void test_0030() throws IOException {
+        File file = tempFile();
+        TimeSeriesFile.write(series(10), file);
+        TimeSeriesFile.open(file).append(1000000L, 0);
+    }
+
+    @Test
+    public void test_0040() throws IOException {
+        DateTime t0 = new DateTime(2026, 1, 2, 0, 0);
+        GenericTimeTimeSeries<DateTime> ts = new GenericTimeTimeSeries<DateTime>(
+                new DateTime[]{t0, t0.plusDays(1), t0.plusDays(2)},
+                new double[]{1.5, 2.5, 3.5});
+        File file = tempFile();
+        TimeSeriesFile.write(ts, file);
+
+        ColumnarTimeSeries mapped = TimeSeriesFile.open(file);
+        assertEquals(new ColumnarTimeSeries(ts), mapped);
+        assertEquals(t0.plusDays(1).getMillis(), mapped.time(2));
+    }
+
+    /**
+     * A mapped series is serialized as an in-memory copy.
+     */
+    @Test
+    public void test_0050() throws Exception {
+        File file = tempFile();
+        TimeSeriesFile.write(series(100), file);
+        ColumnarTimeSeries mapped = TimeSeriesFile.open(file);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(mapped);
+        out.close();
+        ColumnarTimeSeries copy = (ColumnarTimeSeries) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(mapped, copy);
+        copy.append(1000000L, 0);
+        assertEquals(101, copy.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_0060() throws IOException {
+        File file = tempFile();
+        MatrixFile.write(new DenseMatrix(2, 2), file);
+        TimeSeriesFile.open(file);
+    }
+}
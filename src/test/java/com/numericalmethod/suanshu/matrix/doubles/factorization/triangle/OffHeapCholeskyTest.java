@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.matrix.doubles.factorization.triangle;
+
+import com.numericalmethod.suanshu.matrix.doubles.AreMatrices;
+import com.numericalmethod.suanshu.matrix.doubles.IsMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.OffHeapDenseMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.triangle.LowerTriangularMatrix;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class OffHeapCholeskyTest {
+
+    /**
+     * Construct a random, symmetric, positive definite matrix.
+     */
+    private static DenseMatrix spd(int n, long seed) {
+        Random rng = new Random(seed);
+        DenseMatrix X = new DenseMatrix(n, n);
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= n; ++j) {
+                X.set(i, j, rng.nextGaussian());
+            }
+        }
+        DenseMatrix A = new DenseMatrix(X.multiply(X.t()));
+        for (int i = 1; i <= n; ++i) {
+            A.set(i, i, A.get(i, i) + n);
+        }
+        return A;
+    }
+
+    @Test
+    public void test_0010() {
+        Matrix A1 = new DenseMatrix(new double[][]{
+                    {2, 1, 1},
+                    {1, 2, 1},
+                    {1, 1, 2}
+                });
+        OffHeapCholesky instance = new OffHeapCholesky(A1);
+        LowerTriangularMatrix expected = new Cholesky(A1).L();
+        assertTrue(AreMatrices.equal(expected, instance.L(), 1e-15));
+        assertTrue(AreMatrices.equal(A1, instance.L().multiply(instance.Lt()), 1e-15));
+    }
+
+    /**
+     * The matrix spans several block columns.
+     */
+    @Test
+    public void test_0020() {
+        DenseMatrix A = spd(333, 1);
+        OffHeapCholesky instance = new OffHeapCholesky(new OffHeapDenseMatrix(A), true);
+        OffHeapDenseMatrix L = instance.L();
+
+        assertTrue(IsMatrix.lowerTriangular(L, 0));
+        assertTrue(AreMatrices.equal(new Cholesky(A).L(), L, 1e-10));
+        assertTrue(AreMatrices.equal(A, L.multiply(L.t()), 1e-8));
+    }
+
+    @Test
+    public void test_0030() {
+        DenseMatrix A = spd(200, 2);
+        OffHeapDenseMatrix B = new OffHeapDenseMatrix(A);
+        OffHeapCholesky instance = new OffHeapCholesky(B, false);
+        assertTrue(AreMatrices.equal(A, B, 0));// not overwritten
+
+        double[] values = new double[200];
+        for (int i = 0; i < 200; ++i) {
+            values[i] = i;
+        }
+        Vector x = new DenseVector(values);
+        Vector b = A.multiply(x);
+        assertTrue(AreMatrices.equal(x, instance.solve(b), 1e-8));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void test_0040() {
+        new OffHeapCholesky(new DenseMatrix(new double[][]{
+                    {1, 2},
+                    {2, 1}
+                }));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense;
+
+import com.numericalmethod.suanshu.datastructure.LongIndexedBuffer;
+import com.numericalmethod.suanshu.matrix.doubles.AreMatrices;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class OffHeapDenseMatrixTest {
+
+    private static DenseMatrix random(int nRows, int nCols, long seed) {
+        Random rng = new Random(seed);
+        DenseMatrix A = new DenseMatrix(nRows, nCols);
+        for (int i = 1; i <= nRows; ++i) {
+            for (int j = 1; j <= nCols; ++j) {
+                A.set(i, j, rng.nextGaussian());
+            }
+        }
+        return A;
+    }
+
+    @Test
+    public void test_0010() {
+        DenseMatrix A = random(5, 3, 1);
+        OffHeapDenseMatrix B = new OffHeapDenseMatrix(A);
+        assertEquals(5, B.nRows());
+        assertEquals(3, B.nCols());
+        assertTrue(AreMatrices.equal(A, B, 0));
+        assertEquals(A, B.toDense());
+        assertEquals(A, new DenseMatrix(B));
+
+        B.set(2, 3, 100);
+        assertEquals(100, B.get(2, 3), 0);
+        assertEquals(A.get(2, 3), A.get(2, 3), 0);
+
+        OffHeapDenseMatrix C = B.deepCopy();
+        assertEquals(B, C);
+        C.set(1, 1, -1);
+        assertFalse(B.equals(C));
+    }
+
+    /**
+     * The blocked multiplication spans several tiles in every dimension.
+     */
+    @Test
+    public void test_0020() {
+        DenseMatrix A = random(300, 520, 2);
+        DenseMatrix B = random(520, 270, 3);
+        Matrix expected = A.multiply(B);
+
+        OffHeapDenseMatrix AB = new OffHeapDenseMatrix(A).multiply(B);
+        assertTrue(AreMatrices.equal(expected, AB, 1e-10));
+
+        AB = new OffHeapDenseMatrix(A).multiply(new OffHeapDenseMatrix(B));
+        assertTrue(AreMatrices.equal(expected, AB, 1e-10));
+    }
+
+    @Test
+    public void test_0030() {
+        DenseMatrix A = random(130, 300, 4);
+        DenseMatrix B = random(130, 300, 5);
+        OffHeapDenseMatrix C = new OffHeapDenseMatrix(A);
+
+        assertTrue(AreMatrices.equal(A.t(), C.t(), 0));
+        assertTrue(AreMatrices.equal(A.add(B), C.add(B), 0));
+        assertTrue(AreMatrices.equal(A.minus(B), C.minus(new OffHeapDenseMatrix(B)), 0));
+        assertTrue(AreMatrices.equal(A.scaled(2.5), C.scaled(2.5), 0));
+        assertTrue(AreMatrices.equal(A.opposite(), C.opposite(), 0));
+        assertTrue(AreMatrices.equal(A.ZERO(), C.ZERO(), 0));
+        assertTrue(AreMatrices.equal(A.ONE(), C.ONE(), 0));
+
+        Vector v = random(300, 1, 6).getColumn(1);
+        assertTrue(AreMatrices.equal(A.multiply(v), C.multiply(v), 1e-12));
+    }
+
+    /**
+     * A matrix spanning several buffer chunks.
+     */
+    @Test
+    public void test_0040() {
+        DenseMatrix A = random(70, 90, 7);
+        OffHeapDenseMatrix B = new OffHeapDenseMatrix(LongIndexedBuffer.allocateDirect(70 * 90, 9), 70, 90);
+        for (int i = 1; i <= 70; ++i) {
+            for (int j = 1; j <= 90; ++j) {
+                B.set(i, j, A.get(i, j));
+            }
+        }
+
+        assertEquals(A, B.toDense());
+        assertTrue(AreMatrices.equal(A.t(), B.t(), 0));
+        assertTrue(AreMatrices.equal(A.multiply(A.t()), B.multiply(B.t()), 1e-10));
+        assertEquals(new DenseVector(A.getRow(33).toArray()), B.getRow(33));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class CenteredCrossProductTest {
+
+    private static DenseMatrix random(int n, int p, long seed) {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(seed);
+        double[][] A = new double[n][p];
+        for (int k = 0; k < n; ++k) {
+            for (int i = 0; i < p; ++i) {
+                A[k][i] = 100 + rng.nextDouble() * (i + 1);
+                if (i > 0) {
+                    A[k][i] += 0.5 * A[k][i - 1];
+                }
+            }
+        }
+        return new DenseMatrix(A);
+    }
+
+    private static double cov(DenseMatrix A, int i, int j, boolean isPairwiseComplete) {
+        int n = A.nRows();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int m = 0;
+        for (int k = 1; k <= n; ++k) {
+            double a = A.get(k, i);
+            double b = A.get(k, j);
+            if (isPairwiseComplete && (Double.isNaN(a) || Double.isNaN(b))) {
+                continue;
+            }
+            x[m] = a;
+            y[m] = b;
+            ++m;
+        }
+        return new Covariance(new double[][]{java.util.Arrays.copyOf(x, m), java.util.Arrays.copyOf(y, m)}).value();
+    }
+
+    /**
+     * The blocked cross product, spanning several tiles and chunks, matches the pairwise covariances,
+     * both sequentially and in parallel.
+     */
+    @Test
+    public void test_0010() {
+        DenseMatrix A = random(2500, 110, 1234567890L);
+
+        CovarianceMatrix sequential = new CovarianceMatrix(A, false, false);
+        CovarianceMatrix parallel = new CovarianceMatrix(A, false, true);
+
+        for (int i = 1; i <= A.nCols(); i += 7) {
+            for (int j = 1; j <= A.nCols(); j += 5) {
+                double expected = cov(A, i, j, false);
+                assertEquals(expected, sequential.get(i, j), 1e-10 * Math.max(1, Math.abs(expected)));
+                assertEquals(sequential.get(i, j), sequential.get(j, i), 0);
+            }
+        }
+        for (int i = 1; i <= A.nCols(); ++i) {
+            for (int j = 1; j <= A.nCols(); ++j) {
+                assertEquals(sequential.get(i, j), parallel.get(i, j), 0);
+            }
+        }
+    }
+
+    @Test
+    public void test_0020() {
+        DenseMatrix A = random(300, 60, 1L);
+        for (int k = 1; k <= 300; k += 11) {
+            A.set(k, 1 + k % 60, Double.NaN);
+        }
+
+        CovarianceMatrix pairwise = new CovarianceMatrix(A, true, true);
+        CovarianceMatrix complete = new CovarianceMatrix(A, false, true);
+
+        for (int i = 1; i <= 60; i += 3) {
+            for (int j = 1; j <= 60; j += 4) {
+                double expected = cov(A, i, j, true);
+                assertEquals(expected, pairwise.get(i, j), 1e-10 * Math.max(1, Math.abs(expected)));
+            }
+        }
+
+        assertTrue(Double.isNaN(complete.get(2, 3)));//column 12 has a missing value at row 12
+        assertTrue(Double.isNaN(complete.get(13, 1)));
+    }
+
+    /**
+     * A matrix of at most a chunk of rows has exactly the pairwise covariances,
+     * so that ill-conditioned users, e.g., factor analysis, see the same correlations as before.
+     */
+    @Test
+    public void test_0030() {
+        DenseMatrix A = random(18, 6, 30L);
+
+        CovarianceMatrix cov = new CovarianceMatrix(A);
+        for (int i = 1; i <= A.nCols(); ++i) {
+            for (int j = i; j <= A.nCols(); ++j) {
+                assertEquals(cov(A, i, j, false), cov.get(i, j), 0);
+            }
+        }
+    }
+
+    /**
+     * Only {@link CovarianceMatrix#pairByPair} computes the covariances exactly as {@code Covariance} does for long columns;
+     * the default blocked cross product differs in the last few bits.
+     */
+    @Test
+    public void test_0040() {
+        DenseMatrix A = random(3000, 5, 40L);
+
+        CovarianceMatrix exact = CovarianceMatrix.pairByPair(A);
+        CovarianceMatrix blocked = new CovarianceMatrix(A);
+        for (int i = 1; i <= A.nCols(); ++i) {
+            for (int j = 1; j <= A.nCols(); ++j) {
+                double expected = cov(A, i, j, false);
+                assertEquals(expected, exact.get(i, j), 0);
+                assertEquals(expected, blocked.get(i, j), 1e-10 * Math.max(1, Math.abs(expected)));
+            }
+        }
+    }
+}
@@ -100,4 +100,22 @@ public class CovarianceTest {
         assertEquals(Double.NaN, stat.value(), 0);
         assertEquals(1, stat.N());
     }
+
+    /**
+     * Test of class Covariance: the ranges of the two halves of a concatenated data array are the same as a copy of it.
+     */
+    @Test
+    public void testCovariance_0040() {
+        double[] data = new double[]{99, 1, 2, 3, 4, 4, 1, 5, 3, -99};
+
+        Covariance range = new Covariance();
+        range.addAll(data, 1, data, 5, 4);
+        Covariance copy = new Covariance();
+        copy.addData(1, 2, 3, 4, 4, 1, 5, 3);
+
+        assertEquals(4, range.N());
+        assertEquals(copy.value(), range.value(), 0);
+        assertEquals(copy.correlation(), range.correlation(), 0);
+        assertEquals(1. / 6, range.value(), 1e-15);
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class OnlineCovarianceTest {
+
+    static double[][] data(int n, int p, long seed) {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(seed);
+        double[][] x = new double[n][p];
+        for (int k = 0; k < n; ++k) {
+            for (int i = 0; i < p; ++i) {
+                x[k][i] = 1000 + (i + 1) * rng.nextDouble() + (i > 0 ? 0.3 * x[k][i - 1] : 0);
+            }
+        }
+        return x;
+    }
+
+    static void assertMatrixEquals(Matrix expected, Matrix actual, double epsilon) {
+        assertEquals(expected.nRows(), actual.nRows());
+        assertEquals(expected.nCols(), actual.nCols());
+        for (int i = 1; i <= expected.nRows(); ++i) {
+            for (int j = 1; j <= expected.nCols(); ++j) {
+                assertEquals(expected.get(i, j), actual.get(i, j), epsilon);
+            }
+        }
+    }
+
+    @Test
+    public void test_0010() {
+        double[][] x = data(500, 6, 1234567890L);
+
+        OnlineCovariance instance = new OnlineCovariance(6);
+        instance.addData(x);
+
+        assertEquals(500, instance.N());
+        assertMatrixEquals(new CovarianceMatrix(new DenseMatrix(x)), instance.covariance(), 1e-10);
+    }
+
+    /**
+     * Merging the estimators of the two halves of a sample is the same as estimating the whole sample.
+     */
+    @Test
+    public void test_0020() {
+        double[][] x = data(301, 5, 1L);
+
+        OnlineCovariance all = new OnlineCovariance(5);
+        all.addData(x);
+
+        OnlineCovariance first = new OnlineCovariance(5);
+        OnlineCovariance second = new OnlineCovariance(5);
+        for (int k = 0; k < x.length; ++k) {
+            (k < 100 ? first : second).addData(x[k]);
+        }
+        first.merge(second);
+
+        assertEquals(all.N(), first.N());
+        assertArrayEquals(all.mean(), first.mean(), 1e-10);
+        assertMatrixEquals(all.covariance(), first.covariance(), 1e-10);
+
+        OnlineCovariance empty = new OnlineCovariance(5);
+        empty.merge(all);
+        assertMatrixEquals(all.covariance(), empty.covariance(), 0);
+    }
+
+    /**
+     * The exponentially weighted covariance matches the direct weighted computation,
+     * also when merging consecutive segments.
+     */
+    @Test
+    public void test_0030() {
+        final double lambda = 0.97;
+        double[][] x = data(200, 4, 2L);
+        final int n = x.length;
+
+        double W = 0;
+        double[] m = new double[4];
+        for (int k = 0; k < n; ++k) {
+            double w = Math.pow(lambda, n - 1 - k);
+            W += w;
+            for (int i = 0; i < 4; ++i) {
+                m[i] += w * x[k][i];
+            }
+        }
+        for (int i = 0; i < 4; ++i) {
+            m[i] /= W;
+        }
+        double[][] expected = new double[4][4];
+        for (int k = 0; k < n; ++k) {
+            double w = Math.pow(lambda, n - 1 - k);
+            for (int i = 0; i < 4; ++i) {
+                for (int j = 0; j < 4; ++j) {
+                    expected[i][j] += w * (x[k][i] - m[i]) * (x[k][j] - m[j]) / W;
+                }
+            }
+        }
+
+        ExponentiallyWeightedCovariance instance = new ExponentiallyWeightedCovariance(4, lambda);
+        ExponentiallyWeightedCovariance first = new ExponentiallyWeightedCovariance(4, lambda);
+        ExponentiallyWeightedCovariance second = new ExponentiallyWeightedCovariance(4, lambda);
+        for (int k = 0; k < n; ++k) {
+            instance.addData(x[k]);
+            (k < 120 ? first : second).addData(x[k]);
+        }
+        first.merge(second);
+
+        assertArrayEquals(m, instance.mean(), 1e-9);
+        assertMatrixEquals(new DenseMatrix(expected), instance.covariance(), 1e-9);
+        assertArrayEquals(m, first.mean(), 1e-9);
+        assertMatrixEquals(new DenseMatrix(expected), first.covariance(), 1e-9);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.matrix.doubles.factorization.triangle.Cholesky;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.triangle.LowerTriangularMatrix;
+import static com.numericalmethod.suanshu.stats.descriptive.OnlineCovarianceTest.assertMatrixEquals;
+import static com.numericalmethod.suanshu.stats.descriptive.OnlineCovarianceTest.data;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ShrinkageCovarianceTest {
+
+    /**
+     * the Ledoit-Wolf intensity computed in two passes, as in scikit-learn
+     */
+    private static double ledoitWolf(double[][] x) {
+        final int n = x.length, p = x[0].length;
+        double[] m = new double[p];
+        for (double[] xk : x) {
+            for (int i = 0; i < p; ++i) {
+                m[i] += xk[i] / n;
+            }
+        }
+        double[][] S = new double[p][p];
+        double sum4 = 0;
+        for (double[] xk : x) {
+            for (int i = 0; i < p; ++i) {
+                for (int j = 0; j < p; ++j) {
+                    double yy = (xk[i] - m[i]) * (xk[j] - m[j]);
+                    S[i][j] += yy / n;
+                    sum4 += yy * yy;
+                }
+            }
+        }
+        double mu = 0;
+        for (int i = 0; i < p; ++i) {
+            mu += S[i][i] / p;
+        }
+        double delta2 = 0, normS2 = 0;
+        for (int i = 0; i < p; ++i) {
+            for (int j = 0; j < p; ++j) {
+                double d = S[i][j] - (i == j ? mu : 0);
+                delta2 += d * d;
+                normS2 += S[i][j] * S[i][j];
+            }
+        }
+        double beta2 = (sum4 / n - normS2) / n;
+        return Math.min(beta2, delta2) / delta2;
+    }
+
+    @Test
+    public void test_0010() {
+        double[][] x = data(40, 10, 1234567890L);
+
+        ShrinkageCovariance instance = new ShrinkageCovariance(10);
+        instance.addData(x);
+
+        double expected = ledoitWolf(x);
+        assertTrue(expected > 0 && expected < 1);
+        assertEquals(expected, instance.ledoitWolfShrinkage(), 1e-8);
+
+        double s = instance.ledoitWolfShrinkage();
+        DenseMatrix S = instance.mleCovariance();
+        DenseMatrix LW = instance.ledoitWolf();
+        double mu = 0;
+        for (int i = 1; i <= 10; ++i) {
+            mu += S.get(i, i) / 10;
+        }
+        assertEquals((1 - s) * S.get(1, 2), LW.get(1, 2), 1e-10);
+        assertEquals((1 - s) * S.get(3, 3) + s * mu, LW.get(3, 3), 1e-10);
+    }
+
+    /**
+     * Merging the estimators of parts of a sample, with different shifts, is the same as estimating the whole sample.
+     */
+    @Test
+    public void test_0020() {
+        double[][] x = data(90, 7, 2L);
+
+        ShrinkageCovariance all = new ShrinkageCovariance(7);
+        all.addData(x);
+
+        ShrinkageCovariance[] parts = new ShrinkageCovariance[]{
+            new ShrinkageCovariance(7), new ShrinkageCovariance(7), new ShrinkageCovariance(7)};
+        for (int k = 0; k < x.length; ++k) {
+            parts[k * 3 / x.length].addData(x[k]);
+        }
+        ShrinkageCovariance merged = new ShrinkageCovariance(7);
+        merged.merge(parts[2]);
+        merged.merge(parts[0]);
+        merged.merge(parts[1]);
+
+        assertEquals(all.ledoitWolfShrinkage(), merged.ledoitWolfShrinkage(), 1e-8);
+        assertEquals(all.oasShrinkage(), merged.oasShrinkage(), 1e-10);
+        assertMatrixEquals(all.ledoitWolf(), merged.ledoitWolf(), 1e-8);
+    }
+
+    /**
+     * With fewer observations than dimensions, the sample covariance is singular but the shrunk ones are not.
+     */
+    @Test
+    public void test_0030() {
+        double[][] x = data(8, 12, 3L);
+
+        ShrinkageCovariance instance = new ShrinkageCovariance(12);
+        instance.addData(x);
+
+        double s = instance.oasShrinkage();
+        assertTrue(s > 0 && s <= 1);
+        DenseMatrix oas = instance.oas();
+        DenseMatrix lw = instance.ledoitWolf();
+        for (int i = 1; i <= 12; ++i) {
+            assertTrue(oas.get(i, i) > 0);
+            assertTrue(lw.get(i, i) > 0);
+        }
+
+        //positive definite, hence a Cholesky decomposition exists
+        LowerTriangularMatrix L1 = new Cholesky(oas).L();
+        LowerTriangularMatrix L2 = new Cholesky(lw).L();
+        for (int i = 1; i <= 12; ++i) {
+            assertTrue(L1.get(i, i) > 0);
+            assertTrue(L2.get(i, i) > 0);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.stats.descriptive.moment.*;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Max;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Min;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import java.lang.management.ManagementFactory;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Test the single-value and range update paths of the descriptive statistics,
+ * and that the single-value path does not allocate.
+ *
+ * @author Haksun Li
+ */
+public class StatisticAllocationTest {
+
+    private static double[] data(int n) {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(1234567890L);
+        double[] x = new double[n];
+        for (int i = 0; i < n; ++i) {
+            double z = rng.nextDouble();
+            x[i] = 10 + z + 0.2 * z * z;
+        }
+        return x;
+    }
+
+    /**
+     * Adding the data one by one or by ranges gives the same statistics as adding them in one batch.
+     */
+    @Test
+    public void test_0010() {
+        double[] x = data(1000);
+        double[] y = data(1001);
+
+        Mean mean = new Mean();
+        Variance var = new Variance();
+        Moments moments = new Moments(4);
+        Skewness skew = new Skewness();
+        Kurtosis kurtosis = new Kurtosis();
+        Min min = new Min();
+        Max max = new Max();
+        Covariance cov = new Covariance();
+        for (int i = 0; i < 500; ++i) {
+            mean.add(x[i]);
+            var.add(x[i]);
+            moments.add(x[i]);
+            skew.add(x[i]);
+            kurtosis.add(x[i]);
+            min.add(x[i]);
+            max.add(x[i]);
+            cov.add(x[i], y[i + 1]);
+        }
+        mean.addAll(x, 500, 500);
+        var.addAll(x, 500, 500);
+        moments.addAll(x, 500, 500);
+        skew.addAll(x, 500, 500);
+        kurtosis.addAll(x, 500, 500);
+        min.addAll(x, 500, 500);
+        max.addAll(x, 500, 500);
+        cov.addAll(x, java.util.Arrays.copyOfRange(y, 1, 1001), 500, 500);
+
+        assertEquals(1000, mean.N());
+        assertEquals(new Mean(x).value(), mean.value(), 1e-12);
+        assertEquals(new Variance(x).value(), var.value(), 1e-12);
+        Moments expected = new Moments(4, x);
+        for (int k = 1; k <= 4; ++k) {
+            assertEquals(expected.centralMoment(k), moments.centralMoment(k), 1e-10);
+        }
+        assertEquals(new Skewness(x).value(), skew.value(), 1e-10);
+        assertEquals(new Kurtosis(x).value(), kurtosis.value(), 1e-10);
+        assertEquals(new Min(x).value(), min.value(), 0);
+        assertEquals(new Max(x).value(), max.value(), 0);
+        Covariance covExpected = new Covariance(new double[][]{x, java.util.Arrays.copyOfRange(y, 1, 1001)});
+        assertEquals(covExpected.value(), cov.value(), 1e-12);
+        assertEquals(covExpected.correlation(), cov.correlation(), 1e-12);
+    }
+
+    /**
+     * The single-value updates do not allocate.
+     * The allocation is measured by the HotSpot thread allocation counter, when available.
+     */
+    @Test
+    public void test_0020() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return;//not measurable
+        }
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!mx.isThreadAllocatedMemorySupported() || !mx.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+
+        final double[] x = data(10000);
+        final int nReps = 100;
+        Variance var = new Variance();
+        Moments moments = new Moments(4);
+        Skewness skew = new Skewness();
+        Covariance cov = new Covariance();
+        for (int warmup = 0; warmup < 20; ++warmup) {//let the JIT compile the loops
+            for (double xi : x) {
+                var.add(xi);
+                moments.add(xi);
+                skew.add(xi);
+                cov.add(xi, -xi);
+            }
+        }
+
+        long tid = Thread.currentThread().getId();
+        long before = mx.getThreadAllocatedBytes(tid);
+        for (int rep = 0; rep < nReps; ++rep) {
+            for (double xi : x) {
+                var.add(xi);
+                moments.add(xi);
+                skew.add(xi);
+                cov.add(xi, -xi);
+            }
+        }
+        long addBytes = mx.getThreadAllocatedBytes(tid) - before;
+
+        assertTrue(addBytes < 64 * 1024);//essentially 0 bytes per call, allowing for the measurement itself
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive;
+
+import com.numericalmethod.suanshu.stats.descriptive.moment.*;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Max;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Min;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class StatisticReducerTest {
+
+    private static double[] data(int n, long seed) {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(seed);
+        double[] x = new double[n];
+        for (int i = 0; i < n; ++i) {
+            double z = rng.nextDouble();
+            x[i] = 100 + z + 0.3 * z * z;//skewed
+        }
+        return x;
+    }
+
+    @Test
+    public void test_0010() {
+        double[] x = data(1001, 1234567890L);
+        double[] x1 = Arrays.copyOfRange(x, 0, 300);
+        double[] x2 = Arrays.copyOfRange(x, 300, x.length);
+
+        Mean mean = new Mean(x1);
+        mean.merge(new Mean(x2));
+        assertEquals(new Mean(x).value(), mean.value(), 1e-12);
+        assertEquals(1001, mean.N());
+
+        Variance var = new Variance(x1);
+        var.merge(new Variance(x2));
+        assertEquals(new Variance(x).value(), var.value(), 1e-12);
+
+        Moments moments = new Moments(4, x1);
+        moments.merge(new Moments(4, x2));
+        Moments expected = new Moments(4, x);
+        for (int k = 1; k <= 4; ++k) {
+            assertEquals(expected.centralMoment(k), moments.centralMoment(k), 1e-10);
+        }
+
+        Skewness skew = new Skewness(x1);
+        skew.merge(new Skewness(x2));
+        assertEquals(new Skewness(x).value(), skew.value(), 1e-10);
+
+        Kurtosis kurtosis = new Kurtosis(x1);
+        kurtosis.merge(new Kurtosis(x2));
+        assertEquals(new Kurtosis(x).value(), kurtosis.value(), 1e-10);
+
+        Min min = new Min(x2);
+        min.merge(new Min(x1));
+        assertEquals(new Min(x).value(), min.value(), 0);
+
+        Max max = new Max(x1);
+        max.merge(new Max(x2));
+        assertEquals(new Max(x).value(), max.value(), 0);
+        assertEquals(1001, max.N());
+    }
+
+    /**
+     * Merging updates the variances of a covariance, hence the correlation.
+     */
+    @Test
+    public void test_0020() {
+        double[] x = data(500, 1L);
+        double[] y = data(500, 2L);
+        for (int i = 0; i < y.length; ++i) {
+            y[i] += 0.5 * x[i];
+        }
+
+        Covariance expected = new Covariance(new double[][]{x, y});
+
+        Covariance merged = new Covariance(new double[][]{Arrays.copyOfRange(x, 0, 200), Arrays.copyOfRange(y, 0, 200)});
+        Covariance copy = new Covariance(merged);
+        merged.merge(new Covariance(new double[][]{Arrays.copyOfRange(x, 200, 500), Arrays.copyOfRange(y, 200, 500)}));
+        assertEquals(expected.value(), merged.value(), 1e-12);
+        assertEquals(expected.correlation(), merged.correlation(), 1e-12);
+
+        copy.addData(new double[][]{Arrays.copyOfRange(x, 200, 500), Arrays.copyOfRange(y, 200, 500)});
+        assertEquals(expected.correlation(), copy.correlation(), 1e-12);
+
+        Covariance empty = new Covariance();
+        empty.merge(expected);
+        assertEquals(expected.correlation(), empty.correlation(), 0);
+    }
+
+    @Test
+    public void test_0030() {
+        double[] x = data(100003, 3L);
+
+        StatisticReducer<Variance> reducer = new StatisticReducer<Variance>(
+                new MergeableStatisticFactory<Variance>() {
+
+                    @Override
+                    public Variance getStatistic() {
+                        return new Variance();
+                    }
+                }, 1000, true);
+        Variance var = reducer.reduce(x);
+        assertEquals(100003, var.N());
+        assertEquals(new Variance(x).value(), var.value(), 1e-12);
+
+        StatisticReducer<Kurtosis> sequential = new StatisticReducer<Kurtosis>(
+                new MergeableStatisticFactory<Kurtosis>() {
+
+                    @Override
+                    public Kurtosis getStatistic() {
+                        return new Kurtosis();
+                    }
+                }, 777, false);
+        StatisticReducer<Kurtosis> parallel = new StatisticReducer<Kurtosis>(
+                new MergeableStatisticFactory<Kurtosis>() {
+
+                    @Override
+                    public Kurtosis getStatistic() {
+                        return new Kurtosis();
+                    }
+                }, 777, true);
+        assertEquals(sequential.reduce(x).value(), parallel.reduce(x).value(), 0);
+        assertEquals(new Kurtosis(x).value(), parallel.reduce(x).value(), 1e-9);
+    }
+
+    /**
+     * The chunks of a covariance must pair the same indices of both samples.
+     */
+    @Test
+    public void test_0040() {
+        MergeableStatisticFactory<Covariance> factory = new MergeableStatisticFactory<Covariance>() {
+
+            @Override
+            public Covariance getStatistic() {
+                return new Covariance();
+            }
+        };
+
+        double[] x = new double[10];
+        double[] y = new double[10];
+        for (int i = 0; i < 10; ++i) {
+            x[i] = i + 1;
+            y[i] = (i + 1) * (i + 1) % 7 + 2 * i;
+        }
+        Covariance expected = new Covariance(new double[][]{x, y});
+        Covariance cov = new PairedStatisticReducer<Covariance>(factory, 4, true).reduce(x, y);
+        assertEquals(10, cov.N());
+        assertEquals(expected.value(), cov.value(), 1e-12);
+        assertEquals(expected.correlation(), cov.correlation(), 1e-12);
+
+        x = data(50001, 4L);
+        y = data(50001, 5L);
+        for (int i = 0; i < x.length; ++i) {
+            y[i] += 0.5 * x[i];
+        }
+        expected = new Covariance(new double[][]{x, y});
+        cov = new PairedStatisticReducer<Covariance>(factory, 1000, true).reduce(x, y);
+        assertEquals(50001, cov.N());
+        assertEquals(expected.value(), cov.value(), 1e-12);
+    }
+
+    /**
+     * A covariance of two samples concatenated into one array is chunked by pairs.
+     */
+    @Test
+    public void test_0050() {
+        MergeableStatisticFactory<Covariance> factory = new MergeableStatisticFactory<Covariance>() {
+
+            @Override
+            public Covariance getStatistic() {
+                return new Covariance();
+            }
+        };
+
+        double[] data = new double[20];
+        for (int i = 0; i < 10; ++i) {
+            data[i] = i + 1;
+            data[10 + i] = (i + 1) * (i + 1) % 7 + 2 * i;
+        }
+        Covariance expected = new Covariance();
+        expected.addData(data);
+        Covariance cov = new PairedStatisticReducer<Covariance>(factory, 4, true).reduce(data);
+        assertEquals(10, cov.N());
+        assertEquals(expected.value(), cov.value(), 1e-12);
+        assertEquals(expected.correlation(), cov.correlation(), 1e-12);
+    }
+}
@@ -23,6 +23,9 @@
 package com.numericalmethod.suanshu.stats.descriptive.moment;
 
 import com.numericalmethod.suanshu.stats.random.univariate.exp.InverseTransformSamplingExpRng;
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.util.Base64;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -142,4 +145,23 @@ public class MomentsTest {
         assertEquals(skew2.value(),
                 skew1.value(), 1e-11);
     }
+
+    /**
+     * A stream written by the earlier version, which had no scratch buffer, can be read and updated.
+     */
+    @Test
+    public void testMoments_0040() throws Exception {
+        //new Moments(4, 1., 2., 4., 8.) serialized by the earlier Moments
+        byte[] bytes = Base64.getDecoder().decode(
+                "rO0ABXNyADxjb20ubnVtZXJpY2FsbWV0aG9kLnN1YW5zaHUuc3RhdHMuZGVzY3JpcHRpdmUubW9tZW50Lk1vbWVudHNYFBxa1YJRPwIAA0oAAU5JAAVvcmRlclsAAW10AAJbRHhwAAAAAAAAAAQAAAAEdXIAAltEPqaMFKtjWh4CAAB4cAAAAARALgAAAAAAAEA8wAAAAAAAQElQAAAAAABAeI1AAAAAAA==");
+        Moments moments = (Moments) new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+        assertEquals(4, moments.N());
+
+        moments.add(16.);
+        moments.addData(32., 64.);
+        Moments expected = new Moments(4, 1., 2., 4., 8., 16., 32., 64.);
+        for (int k = 1; k <= 4; ++k) {
+            assertEquals(expected.centralMoment(k), moments.centralMoment(k), 1e-9 * Math.abs(expected.centralMoment(k)));
+        }
+    }
 }
@@ -22,6 +22,8 @@
  */
 package com.numericalmethod.suanshu.stats.descriptive.rank;
 
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import java.util.Arrays;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -350,4 +352,67 @@ public class QuantileTest {
         assertEquals(9, stat.value(0.95), 1e-14);
         assertEquals(9, stat.value(1.0), 1e-14);
     }
+
+    /**
+     * The selection-based quantile agrees with the sort-based one for every definition,
+     * including data with ties, and does not modify the input.
+     */
+    @Test
+    public void test_select_0010() {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(1234567890L);
+
+        for (int n : new int[]{1, 2, 3, 7, 16, 17, 100, 1001}) {
+            double[] data = new double[n];
+            for (int i = 0; i < n; ++i) {
+                data[i] = i % 3 == 0 ? Math.rint(rng.nextDouble()) : rng.nextDouble();// some ties
+            }
+            double[] copy = Arrays.copyOf(data, n);
+
+            for (Quantile.QuantileType type : Quantile.QuantileType.values()) {
+                Quantile stat = new Quantile(data, type);
+                for (double q = 0; q <= 1; q += 0.01) {
+                    assertEquals(stat.value(q), Quantile.select(data, q, type), 1e-15);
+                }
+                assertEquals(stat.value(1), Quantile.select(data, 1, type), 0);
+            }
+
+            assertArrayEquals(copy, data, 0);
+        }
+    }
+
+    /**
+     * Quickselect puts the k-th order statistic at position k and partitions the array around it,
+     * also on sorted, reversed and constant input.
+     */
+    @Test
+    public void test_select_0020() {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(1234567890L);
+
+        int n = 5000;
+        double[][] inputs = new double[4][n];
+        for (int i = 0; i < n; ++i) {
+            inputs[0][i] = rng.nextDouble();
+            inputs[1][i] = i;
+            inputs[2][i] = n - i;
+            inputs[3][i] = 1;
+        }
+
+        for (double[] input : inputs) {
+            double[] sorted = Arrays.copyOf(input, n);
+            Arrays.sort(sorted);
+
+            for (int k : new int[]{0, 1, 17, n / 2, n - 2, n - 1}) {
+                double[] a = Arrays.copyOf(input, n);
+                assertEquals(sorted[k], QuickSelect.select(a, k), 0);
+                for (int i = 0; i < k; ++i) {
+                    assertTrue(a[i] <= a[k]);
+                }
+                for (int i = k + 1; i < n; ++i) {
+                    assertTrue(a[i] >= a[k]);
+                }
+            }
+        }
+    }
 }
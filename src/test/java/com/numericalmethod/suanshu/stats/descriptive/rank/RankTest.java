@@ -23,6 +23,8 @@
 package com.numericalmethod.suanshu.stats.descriptive.rank;
 
 import com.numericalmethod.suanshu.misc.SuanShuUtils;
+import java.util.Arrays;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -198,4 +200,66 @@ public class RankTest {
             assertEquals(rank[i], instance.rank(i), 1e-15);
         }
     }
+
+    /**
+     * Ties of more than two values with a 0 threshold.
+     */
+    @Test
+    public void testRank_0110() {
+        Rank instance = new Rank(new double[]{2, 1, 2, 2, 3, 1}, 0);
+        assertArrayEquals(new double[]{4, 1.5, 4, 4, 6, 1.5}, instance.ranks(), 0);
+        assertEquals(24 + 6, instance.t(), 0);
+        assertEquals(6 + 2, instance.s(), 0);
+    }
+
+    @Test
+    public void testOrder_0010() {
+        double[] values = new double[]{3.5, -1, Double.NaN, 0., -0., Double.NEGATIVE_INFINITY, 2, -1, Double.POSITIVE_INFINITY, -1e-300};
+        int[] order = Rank.order(values);
+        assertArrayEquals(new int[]{5, 1, 7, 9, 4, 3, 6, 0, 8, 2}, order);
+        assertEquals(0, Rank.order(new double[0]).length);
+    }
+
+    /**
+     * The ranks agree with those from a comparison sort.
+     */
+    @Test
+    public void testOrder_0020() {
+        Random rng = new Random(1);
+        final int n = 100000;
+        double[] values = new double[n];
+        for (int i = 0; i < n; ++i) {
+            values[i] = Math.round(rng.nextGaussian() * 1000) / 100.;
+        }
+
+        int[] order = Rank.order(values);
+        for (int i = 1; i < n; ++i) {
+            assertTrue(values[order[i - 1]] <= values[order[i]]);
+            if (values[order[i - 1]] == values[order[i]]) {
+                assertTrue(order[i - 1] < order[i]);//stable
+            }
+        }
+
+        double[] sorted = Arrays.copyOf(values, n);
+        Arrays.sort(sorted);
+        double[] ranks = new Rank(values, 0).ranks();
+        for (int i = 0; i < n; ++i) {
+            int lo = lowerBound(sorted, values[i]);
+            int hi = lowerBound(sorted, Math.nextUp(values[i]));
+            assertEquals((lo + hi + 1) / 2., ranks[i], 0);
+        }
+    }
+
+    private static int lowerBound(double[] sorted, double x) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
 }
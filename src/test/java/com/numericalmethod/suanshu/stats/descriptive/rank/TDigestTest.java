@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rank;
+
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class TDigestTest {
+
+    private static double[] data(int n, long seed) {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(seed);
+        double[] data = new double[n];
+        for (int i = 0; i < n; ++i) {
+            data[i] = rng.nextDouble();
+        }
+        return data;
+    }
+
+    /**
+     * Check that the rank of every estimated quantile is within the documented bound
+     * (2 pi / compression) * sqrt(q (1 - q)), plus 1/n for the discreteness of the sample.
+     */
+    private static void assertRankError(TDigest digest, double[] sorted) {
+        int n = sorted.length;
+        for (double q : new double[]{0.0001, 0.001, 0.01, 0.05, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 0.9999}) {
+            double x = digest.value(q);
+            int lo = lowerBound(sorted, x);
+            int hi = upperBound(sorted, x);
+            double bound = 2 * Math.PI / digest.compression * Math.sqrt(q * (1 - q)) + 1. / n;
+            double error = q * n < lo ? (lo - q * n) / n : q * n > hi ? (q * n - hi) / n : 0;
+            assertTrue(String.format("q = %f, error = %f, bound = %f", q, error, bound), error <= bound);
+        }
+        assertEquals(sorted[0], digest.value(0), 0);
+        assertEquals(sorted[n - 1], digest.value(1), 0);
+    }
+
+    private static int lowerBound(double[] sorted, double x) {
+        int i = Arrays.binarySearch(sorted, x);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private static int upperBound(double[] sorted, double x) {
+        int i = lowerBound(sorted, x);
+        while (i < sorted.length && sorted[i] <= x) {
+            ++i;
+        }
+        return i;
+    }
+
+    @Test
+    public void test_0010() {
+        double[] data = data(1000000, 1234567890L);
+        TDigest digest = new TDigest();
+        digest.addData(data);
+        assertEquals(data.length, digest.N());
+
+        double[] sorted = Arrays.copyOf(data, data.length);
+        Arrays.sort(sorted);
+        assertRankError(digest, sorted);
+
+        // the memory is bounded by the compression, not by the number of data points
+        assertTrue(digest.nCentroids() <= digest.compression + 1);
+
+        // much more accurate than the bound in practice
+        assertEquals(0, digest.value(0.5), 0.005);
+        assertEquals(2.326348, digest.value(0.99), 0.02);
+        assertEquals(-3.090232, digest.value(0.001), 0.05);
+    }
+
+    /**
+     * Merging the digests of the parts is as accurate as the digest of the whole.
+     */
+    @Test
+    public void test_0020() {
+        double[] data = data(200000, 98765L);
+        TDigest whole = new TDigest(100);
+        TDigest merged = new TDigest(100);
+
+        int parts = 16;
+        int size = data.length / parts;
+        for (int i = 0; i < parts; ++i) {
+            TDigest part = new TDigest(100);
+            part.addAll(data, i * size, size);
+            merged.merge(part);
+            assertEquals(size, part.N());// the part is not modified
+        }
+        whole.addData(data);
+
+        assertEquals(whole.N(), merged.N());
+        assertEquals(whole.min(), merged.min(), 0);
+        assertEquals(whole.max(), merged.max(), 0);
+
+        double[] sorted = Arrays.copyOf(data, data.length);
+        Arrays.sort(sorted);
+        assertRankError(whole, sorted);
+        assertRankError(merged, sorted);
+        assertTrue(merged.nCentroids() <= merged.compression + 1);
+    }
+
+    /**
+     * With few data points every centroid is a singleton and the estimate is exact at the data points.
+     */
+    @Test
+    public void test_0030() {
+        TDigest digest = new TDigest();
+        assertTrue(Double.isNaN(digest.value(0.5)));
+
+        digest.addData(5, 1, 4, 2, 3);
+        assertEquals(5, digest.nCentroids());
+        assertEquals(1, digest.value(0), 0);
+        assertEquals(1, digest.value(0.1), 1e-15);
+        assertEquals(3, digest.value(0.5), 1e-15);
+        assertEquals(5, digest.value(0.9), 1e-15);
+        assertEquals(5, digest.value(1), 0);
+
+        assertEquals(0, digest.cdf(0.5), 0);
+        assertEquals(0.5, digest.cdf(3), 1e-15);
+        assertEquals(1, digest.cdf(5), 0);
+
+        TDigest copy = new TDigest(digest);
+        copy.add(6);
+        assertEquals(5, digest.N());
+        assertEquals(6, copy.N());
+        assertEquals(6, copy.value(1), 0);
+    }
+
+    @Test
+    public void test_0040() {
+        double[] data = data(100000, 13579L);
+        TDigest digest = new TDigest(data);
+
+        for (double q = 0.01; q < 1; q += 0.01) {
+            double x = digest.value(q);
+            assertEquals(q, digest.cdf(x), 0.005);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.descriptive.rolling;
+
+import com.numericalmethod.suanshu.dsp.univariate.operation.system.doubles.MovingAverage;
+import com.numericalmethod.suanshu.stats.descriptive.Covariance;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Max;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Min;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Quantile;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class RollingStatisticTest {
+
+    private static double[] data(int n, long seed) {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(seed);
+        double[] data = new double[n];
+        for (int i = 0; i < n; ++i) {
+            data[i] = 1000 + rng.nextDouble();// a big mean to stress the numerical stability
+            if (i % 7 == 0) {
+                data[i] = Math.rint(data[i]);// ties
+            }
+        }
+        return data;
+    }
+
+    private static double[] window(double[] data, int end, int window) {
+        return Arrays.copyOfRange(data, end - window + 1, end + 1);
+    }
+
+    @Test
+    public void test_RingBuffer_0010() {
+        RingBuffer buffer = new RingBuffer(3);
+        assertTrue(Double.isNaN(buffer.add(1)));
+        assertTrue(Double.isNaN(buffer.add(2)));
+        assertFalse(buffer.isFull());
+        assertTrue(Double.isNaN(buffer.add(3)));
+        assertTrue(buffer.isFull());
+        assertEquals(1, buffer.add(4), 0);
+        assertEquals(2, buffer.add(5), 0);
+        assertArrayEquals(new double[]{3, 4, 5}, buffer.toArray(), 0);
+        assertEquals(3, buffer.oldest(), 0);
+        assertEquals(5, buffer.newest(), 0);
+        buffer.clear();
+        assertEquals(0, buffer.size());
+    }
+
+    /**
+     * Each rolling statistic equals the statistic recomputed over every window, on a stream much longer than the window.
+     */
+    @Test
+    public void test_0010() {
+        double[] x = data(5000, 1234567890L);
+
+        for (int w : new int[]{1, 2, 5, 64}) {
+            RollingMean mean = new RollingMean(w);
+            RollingVariance var = new RollingVariance(w);
+            RollingMax max = new RollingMax(w);
+            RollingMin min = new RollingMin(w);
+            RollingQuantile median = new RollingQuantile(w, 0.5);
+
+            for (int i = 0; i < x.length; ++i) {
+                mean.add(x[i]);
+                var.add(x[i]);
+                max.add(x[i]);
+                min.add(x[i]);
+                median.add(x[i]);
+
+                int n = Math.min(i + 1, w);
+                assertEquals(n, mean.size());
+                assertEquals(n, max.size());
+                double[] window = window(x, i, n);
+
+                assertEquals(new Mean(window).value(), mean.value(), 1e-10);
+                assertEquals(new Max(window).value(), max.value(), 0);
+                assertEquals(new Min(window).value(), min.value(), 0);
+                assertEquals(new Quantile(window).value(0.5), median.value(), 0);
+                if (n > 1) {
+                    assertEquals(new Variance(window).value(), var.value(), 1e-8);
+                } else {
+                    assertTrue(Double.isNaN(var.value()));
+                }
+            }
+        }
+    }
+
+    /**
+     * A rolling quantile can answer any quantile of the window, with any definition.
+     */
+    @Test
+    public void test_0020() {
+        double[] x = data(2000, 98765L);
+        int w = 33;
+
+        for (Quantile.QuantileType type : Quantile.QuantileType.values()) {
+            RollingQuantile rq = new RollingQuantile(w, 0.9, type);
+            for (int i = 0; i < x.length; ++i) {
+                rq.add(x[i]);
+                if (i % 10 == 0) {
+                    Quantile quantile = new Quantile(window(x, i, Math.min(i + 1, w)), type);
+                    for (double q : new double[]{0, 0.01, 0.25, 0.5, 0.9, 1}) {
+                        assertEquals(quantile.value(q), rq.value(q), 0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_0030() {
+        double[] x = data(3000, 13579L);
+        double[] y = data(3000, 24680L);
+        for (int i = 0; i < y.length; ++i) {
+            y[i] += 0.5 * x[i];
+        }
+
+        int w = 50;
+        RollingCovariance cov = new RollingCovariance(w);
+        RollingCorrelation cor = new RollingCorrelation(w);
+        for (int i = 0; i < x.length; ++i) {
+            cov.add(x[i], y[i]);
+            cor.add(x[i], y[i]);
+
+            if (i >= 1) {
+                int n = Math.min(i + 1, w);
+                Covariance expected = new Covariance();
+                expected.addAll(window(x, i, n), window(y, i, n), 0, n);
+                assertEquals(expected.value(), cov.value(), 1e-9);
+                assertEquals(expected.correlation(), cov.correlation(), 1e-9);
+                assertEquals(expected.correlation(), cor.value(), 1e-9);
+                assertEquals(new Variance(window(x, i, n)).value(), cov.varianceX(), 1e-9);
+                assertEquals(new Mean(window(y, i, n)).value(), cov.meanY(), 1e-10);
+            }
+        }
+
+        double[] rolling = new RollingCorrelation(w).transform(x, y);
+        assertTrue(Double.isNaN(rolling[w - 2]));
+        assertEquals(cor.value(), rolling[x.length - 1], 1e-12);
+    }
+
+    /**
+     * As a filter, the rolling mean is the equal-weight moving average of the past values.
+     */
+    @Test
+    public void test_0040() {
+        double[] x = data(500, 11111L);
+        int w = 12;
+        double[] weights = new double[w];
+        Arrays.fill(weights, 1. / w);
+
+        double[] expected = new MovingAverage(weights, MovingAverage.Side.PAST).transform(x);
+        double[] actual = new RollingMean(w).transform(x);
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < x.length; ++i) {
+            if (i < w - 1) {
+                assertTrue(Double.isNaN(actual[i]));
+                assertTrue(Double.isNaN(expected[i]));
+            } else {
+                assertEquals(expected[i], actual[i], 1e-10);
+            }
+        }
+
+        double[] max = new RollingMax(3).transform(new double[]{1, 3, 2, 5, 4, 1, 0});
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN, 3, 5, 5, 5, 4}, max, 0);
+    }
+
+    /**
+     * The evicted data point is found in the sorted window even when 0.0 and -0.0, or NaN, are in it.
+     */
+    @Test
+    public void test_0050() {
+        RollingQuantile median = new RollingQuantile(3, 0.5);
+        for (double x : new double[]{0.0, -0.0, 1.0, 2.0, -0.0, 0.0, 3.0}) {
+            median.add(x);
+        }
+        assertEquals(3, median.size());
+        assertEquals(0, median.value(), 0);// {-0.0, 0.0, 3.0}
+        assertEquals(3, median.value(1), 0);
+
+        median = new RollingQuantile(3, 0.5);
+        for (double x : new double[]{1, Double.NaN, 2, Double.NaN, 3, 4, 5}) {
+            median.add(x);
+        }
+        assertEquals(4, median.value(), 0);// {3, 4, 5}
+        assertEquals(3, median.value(0), 0);
+        assertEquals(5, median.value(1), 0);
+    }
+
+    /**
+     * A {@code NaN} or an infinity leaves no trace once evicted, before the periodic recomputation.
+     */
+    @Test
+    public void test_0060() {
+        double[] x = new double[]{1, 2, Double.NaN, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        int w = 4;
+
+        for (double bad : new double[]{Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            x[2] = bad;
+            double[] mean = new RollingMean(w).transform(x);
+            double[] var = new RollingVariance(w).transform(x);
+            double[] cov = new RollingCovariance(w).transform(x, x);
+
+            assertEquals(bad, mean[3], 0);
+            assertTrue(Double.isNaN(var[5]));
+            assertTrue(Double.isNaN(cov[5]));
+            for (int i = 6; i < x.length; ++i) {
+                double[] window = window(x, i, w);
+                assertEquals(new Mean(window).value(), mean[i], 1e-12);
+                assertEquals(new Variance(window).value(), var[i], 1e-12);
+                assertEquals(new Variance(window).value(), cov[i], 1e-12);
+            }
+        }
+
+        RollingCovariance cov = new RollingCovariance(w);
+        for (int i = 0; i < 7; ++i) {
+            cov.add(i, i == 2 ? Double.POSITIVE_INFINITY : 2 * i);// {(3, 6), (4, 8), (5, 10), (6, 12)}
+        }
+        assertEquals(10. / 3, cov.covariance(), 1e-12);
+        assertEquals(1, cov.correlation(), 1e-12);
+        assertEquals(9, cov.meanY(), 1e-12);
+    }
+
+    /**
+     * The rolling maximum and minimum are {@code NaN} while a {@code NaN} is in the window, wherever it is.
+     */
+    @Test
+    public void test_0070() {
+        double nan = Double.NaN;
+        int w = 3;
+
+        assertArrayEquals(new double[]{nan, nan, nan, nan, 3, 4}, new RollingMax(w).transform(new double[]{5, nan, 1, 2, 3, 4}), 0);
+        assertArrayEquals(new double[]{nan, nan, nan, 5, 3, 4}, new RollingMax(w).transform(new double[]{nan, 5, 1, 2, 3, 4}), 0);
+        assertArrayEquals(new double[]{nan, nan, nan, nan, 1, 2}, new RollingMin(w).transform(new double[]{5, nan, 1, 2, 3, 4}), 0);
+        assertArrayEquals(new double[]{nan, nan, nan, 1, 1, 2}, new RollingMin(w).transform(new double[]{nan, 5, 1, 2, 3, 4}), 0);
+        assertArrayEquals(new double[]{nan, nan, nan, nan, nan, 4}, new RollingMax(w).transform(new double[]{nan, 1, nan, 2, 3, 4}), 0);
+        assertArrayEquals(new double[]{nan, nan, nan, nan, nan, 2}, new RollingMin(w).transform(new double[]{nan, 1, nan, 2, 3, 4}), 0);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.random;
+
+import com.numericalmethod.suanshu.stats.random.univariate.RandomLongGenerator;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.MersenneTwister;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class RngUtilsTest {
+
+    /**
+     * a generator that replays a fixed sequence
+     */
+    private static RandomLongGenerator replay(final long... values) {
+        return new RandomLongGenerator() {
+
+            private static final long serialVersionUID = 1L;
+            private int i = 0;
+
+            @Override
+            public long nextLong() {
+                return values[i++];
+            }
+
+            @Override
+            public void seed(long... seeds) {
+                i = 0;
+            }
+
+            @Override
+            public double nextDouble() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * the upper 32 bits are ignored, and the incomplete set at the top of the range is rejected
+     */
+    @Test
+    public void test_0010() {
+        assertEquals(2, RngUtils.nextInt(replay(0x1234000000005L), 3));
+        //2^32 mod 3 = 1, so 2^32 - 1 is rejected
+        RandomLongGenerator rlg = replay(0xffffffffL, 7);
+        assertEquals(1, RngUtils.nextInt(rlg, 3));
+        assertEquals(0, RngUtils.nextInt(replay(0xffffffffL), 1));
+    }
+
+    /**
+     * all integers are equally likely
+     */
+    @Test
+    public void test_0020() {
+        RandomLongGenerator uniform = new MersenneTwister(123L);
+        final int n = 7;
+        final int N = 700000;
+        int[] counts = new int[n];
+        for (int k = 0; k < N; ++k) {
+            ++counts[RngUtils.nextInt(uniform, n)];
+        }
+        for (int i = 0; i < n; ++i) {
+            assertEquals(N / n, counts[i], 5 * Math.sqrt(N / n));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.elasticnet;
+
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ElasticNetCrossValidationTest {
+
+    /**
+     * the cross validated Lasso keeps the true factors and drops most of the others
+     */
+    @Test
+    public void test_0010() {
+        LMProblem problem = ElasticNetTest.sparseProblem(24680L, 150, 20, true);
+        ElasticNet path = new ElasticNet(problem, 1.);
+        ElasticNetCrossValidation instance = new ElasticNetCrossValidation(path, 10, 123L);
+
+        for (int k = 1; k <= path.nLambdas(); ++k) {
+            assertTrue(instance.cvm(instance.indexMin()) <= instance.cvm(k));
+        }
+        assertTrue(instance.index1se() <= instance.indexMin());
+        assertTrue(instance.lambda1se() >= instance.lambdaMin());
+
+        Vector beta = path.betaHat(instance.index1se());
+        assertEquals(3., beta.get(1), 0.5);
+        assertEquals(-2., beta.get(2), 0.5);
+        assertEquals(1.5, beta.get(5), 0.5);
+        assertTrue(path.nNonZero(instance.index1se()) < 10);
+        assertEquals(1., instance.cvm(instance.indexMin()), 0.3);// the noise variance
+    }
+
+    /**
+     * the same seed gives the same folds, regardless of the parallel scheduling
+     */
+    @Test
+    public void test_0020() {
+        LMProblem problem = ElasticNetTest.sparseProblem(13579L, 80, 10, true);
+        ElasticNet path = new ElasticNet(problem, 0.5);
+        ElasticNetCrossValidation cv1 = new ElasticNetCrossValidation(path, 5, 42L);
+        ElasticNetCrossValidation cv2 = new ElasticNetCrossValidation(path, 5, 42L);
+
+        for (int k = 1; k <= path.nLambdas(); ++k) {
+            assertEquals(cv1.cvm(k), cv2.cvm(k), 0);
+            assertEquals(cv1.cvsd(k), cv2.cvsd(k), 0);
+        }
+        assertEquals(cv1.betaHat(), cv2.betaHat());
+    }
+}
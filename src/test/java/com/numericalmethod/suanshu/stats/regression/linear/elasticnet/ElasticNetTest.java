@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.elasticnet;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.matrix.doubles.operation.Inverse;
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.stats.regression.linear.ols.OLSRegression;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ElasticNetTest {
+
+    /**
+     * a sparse linear model with correlated factors
+     */
+    static LMProblem sparseProblem(long seed, int n, int p, boolean addIntercept) {
+        Random rng = new Random(seed);
+        double[][] X = new double[n][p];
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            double common = rng.nextGaussian();
+            for (int j = 0; j < p; ++j) {
+                X[i][j] = 0.5 * common + rng.nextGaussian() * (1 + 0.1 * j);
+            }
+            y[i] = (addIntercept ? 2. : 0.) + 3. * X[i][0] - 2. * X[i][1] + 1.5 * X[i][4] + rng.nextGaussian();
+        }
+        return new LMProblem(new DenseVector(y), new DenseMatrix(X), addIntercept);
+    }
+
+    /**
+     * Check the Karush-Kuhn-Tucker conditions of the least squares solution at every penalty.
+     */
+    static void assertKKT(ElasticNetPath path, double epsilon) {
+        Observations data = path.data;
+        for (int k = 1; k <= path.nLambdas(); ++k) {
+            final double l1 = path.lambda(k) * path.alpha;
+            final double l2 = path.lambda(k) * (1 - path.alpha);
+            double[] x = new double[data.p];
+            double[] r = new double[data.n];
+            double sumR = 0;
+            for (int i = 0; i < data.n; ++i) {
+                for (int j = 0; j < data.p; ++j) {
+                    x[j] = data.x[j][i];
+                }
+                r[i] = data.y[i] - path.eta(k, x);
+                sumR += data.w[i] * r[i];
+            }
+            if (data.addIntercept) {
+                assertEquals(0., sumR, epsilon);
+            }
+
+            for (int j = 0; j < data.p; ++j) {
+                double g = 0;
+                for (int i = 0; i < data.n; ++i) {
+                    g += data.w[i] * data.z[j][i] * r[i];
+                }
+                double b = path.beta[k - 1][j] * data.xScale[j];
+                if (b != 0) {
+                    assertEquals(l1 * Math.signum(b), g - l2 * b, epsilon);
+                } else {
+                    assertTrue(Math.abs(g) <= l1 + epsilon);
+                }
+            }
+        }
+    }
+
+    /**
+     * the Lasso path satisfies the optimality conditions; it starts from the null model
+     */
+    @Test
+    public void test_0010() {
+        LMProblem problem = sparseProblem(1234L, 100, 10, true);
+        ElasticNet instance = new ElasticNet(problem, 1.);
+
+        assertEquals(ElasticNetPath.N_LAMBDAS, instance.nLambdas());
+        assertEquals(0, instance.nNonZero(1));
+        assertEquals(10, instance.nNonZero(instance.nLambdas()));
+        assertKKT(instance, 1e-6);
+    }
+
+    /**
+     * an elastic net without an intercept satisfies the optimality conditions
+     */
+    @Test
+    public void test_0020() {
+        LMProblem problem = sparseProblem(5678L, 60, 8, false);
+        ElasticNet instance = new ElasticNet(problem, 0.5);
+
+        assertKKT(instance, 1e-6);
+    }
+
+    /**
+     * ridge regression has a closed-form solution on the standardized factors
+     */
+    @Test
+    public void test_0030() {
+        LMProblem problem = sparseProblem(91011L, 50, 5, true);
+        final double lambda = 0.3;
+        ElasticNet instance = new ElasticNet(problem, 0., new double[]{lambda});
+
+        Observations data = instance.data;
+        double yMean = data.yMean();
+        DenseMatrix ZtWZ = new DenseMatrix(data.p, data.p);
+        DenseVector ZtWy = new DenseVector(data.p);
+        for (int j = 0; j < data.p; ++j) {
+            for (int l = 0; l < data.p; ++l) {
+                double sum = 0;
+                for (int i = 0; i < data.n; ++i) {
+                    sum += data.w[i] * data.z[j][i] * data.z[l][i];
+                }
+                ZtWZ.set(j + 1, l + 1, sum + (j == l ? lambda : 0));
+            }
+            double sum = 0;
+            for (int i = 0; i < data.n; ++i) {
+                sum += data.w[i] * data.z[j][i] * (data.y[i] - yMean);
+            }
+            ZtWy.set(j + 1, sum);
+        }
+        Vector b = new Inverse(ZtWZ).multiply(ZtWy);
+
+        for (int j = 0; j < data.p; ++j) {
+            assertEquals(b.get(j + 1) / data.xScale[j], instance.betaHat(1).get(j + 1), 1e-8);
+        }
+    }
+
+    /**
+     * a vanishing penalty gives the OLS estimates, intercept last
+     */
+    @Test
+    public void test_0040() {
+        LMProblem problem = sparseProblem(121314L, 80, 6, true);
+        ElasticNet instance = new ElasticNet(problem, 1., new double[]{1e-12});
+        OLSRegression ols = new OLSRegression(problem);
+
+        assertArrayEquals(ols.beta.betaHat.toArray(), instance.betaHat(1).toArray(), 1e-7);
+    }
+
+    /**
+     * the Lasso selects the true factors at a moderate penalty, in a high-dimensional problem (p > n)
+     */
+    @Test
+    public void test_0050() {
+        LMProblem problem = sparseProblem(151617L, 40, 60, true);
+        ElasticNet instance = new ElasticNet(problem, 1., new double[]{2., 1., 0.5});
+
+        Vector beta = instance.betaHat(2);
+        assertTrue(beta.get(1) > 1.5);
+        assertTrue(beta.get(2) < -0.5);
+        assertTrue(beta.get(5) > 0.3);
+        assertTrue(instance.nNonZero(2) < 20);
+        assertTrue(instance.nNonZero(1) <= instance.nNonZero(3));
+        assertKKT(instance, 1e-6);
+    }
+
+    /**
+     * the descent stops when the passes run out, and reports it
+     */
+    @Test
+    public void test_0060() {
+        LMProblem problem = sparseProblem(181920L, 80, 6, true);
+        ElasticNet converged = new ElasticNet(problem, 1., new double[]{1e-12});
+        assertTrue(converged.isConverged());
+        assertTrue(converged.isConverged(1));
+
+        ElasticNet truncated = new ElasticNet(problem, 1., new double[]{1e-12}, 2);
+        assertFalse(truncated.isConverged());
+        assertFalse(truncated.isConverged(1));
+        assertTrue(truncated.betaHat(1).get(1) != 0);
+    }
+}
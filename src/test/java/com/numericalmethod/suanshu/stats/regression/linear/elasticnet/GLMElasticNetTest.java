@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.elasticnet;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.GLMProblem;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.GeneralizedLinearModel;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Binomial;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Family;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.Poisson;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.link.LinkFunction;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class GLMElasticNetTest {
+
+    private static GLMProblem logisticProblem(long seed, int n, int p) {
+        Random rng = new Random(seed);
+        double[][] X = new double[n][p];
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < p; ++j) {
+                X[i][j] = rng.nextGaussian();
+            }
+            double eta = 0.5 + 1.5 * X[i][0] - X[i][2];
+            y[i] = rng.nextDouble() < 1 / (1 + Math.exp(-eta)) ? 1 : 0;
+        }
+        return new GLMProblem(new LMProblem(new DenseVector(y), new DenseMatrix(X), true), new Binomial());
+    }
+
+    /**
+     * Check the Karush-Kuhn-Tucker conditions of the penalized likelihood at every penalty.
+     */
+    private static void assertKKT(GLMElasticNet path, double epsilon) {
+        Observations data = path.data;
+        Family family = path.family;
+        LinkFunction link = family.link();
+        for (int k = 1; k <= path.nLambdas(); ++k) {
+            final double l1 = path.lambda(k) * path.alpha;
+            final double l2 = path.lambda(k) * (1 - path.alpha);
+            double[] x = new double[data.p];
+            double[] score = new double[data.n];
+            double sumScore = 0;
+            for (int i = 0; i < data.n; ++i) {
+                for (int j = 0; j < data.p; ++j) {
+                    x[j] = data.x[j][i];
+                }
+                double mu = link.inverse(path.eta(k, x));
+                score[i] = data.w[i] * (data.y[i] - mu) / (family.variance(mu) * link.derivative(mu));
+                sumScore += score[i];
+            }
+            assertEquals(0., sumScore, epsilon);
+
+            for (int j = 0; j < data.p; ++j) {
+                double g = 0;
+                for (int i = 0; i < data.n; ++i) {
+                    g += data.z[j][i] * score[i];
+                }
+                double b = path.beta[k - 1][j] * data.xScale[j];
+                if (b != 0) {
+                    assertEquals(l1 * Math.signum(b), g - l2 * b, epsilon);
+                } else {
+                    assertTrue(Math.abs(g) <= l1 + epsilon);
+                }
+            }
+        }
+    }
+
+    /**
+     * the Lasso logistic path satisfies the optimality conditions
+     */
+    @Test
+    public void test_0010() {
+        GLMElasticNet instance = new GLMElasticNet(logisticProblem(2468L, 200, 8), 1.);
+
+        assertEquals(0, instance.nNonZero(1));
+        assertKKT(instance, 1e-6);
+    }
+
+    /**
+     * an elastic-net Poisson path satisfies the optimality conditions
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(1357L);
+        final int n = 150;
+        double[][] X = new double[n][5];
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < 5; ++j) {
+                X[i][j] = rng.nextGaussian() * 0.5;
+            }
+            double mu = Math.exp(1. + 0.8 * X[i][1] - 0.5 * X[i][3]);
+            int count = 0;// Knuth's Poisson sampler
+            for (double prod = rng.nextDouble(); prod > Math.exp(-mu); prod *= rng.nextDouble()) {
+                ++count;
+            }
+            y[i] = count;
+        }
+        GLMProblem problem = new GLMProblem(new DenseVector(y), new DenseMatrix(X), true, new Poisson());
+        GLMElasticNet instance = new GLMElasticNet(problem, 0.5);
+
+        assertKKT(instance, 1e-6);
+    }
+
+    /**
+     * a vanishing penalty gives the maximum likelihood estimates, intercept last
+     */
+    @Test
+    public void test_0030() {
+        GLMProblem problem = logisticProblem(97531L, 120, 3);
+        GLMElasticNet instance = new GLMElasticNet(problem, 1., new double[]{1e-12});
+        GeneralizedLinearModel mle = new GeneralizedLinearModel(problem);
+
+        assertArrayEquals(mle.beta.betaHat.toArray(), instance.betaHat(1).toArray(), 1e-6);
+    }
+
+    /**
+     * the descent stops when the passes run out, and reports it
+     */
+    @Test
+    public void test_0040() {
+        GLMProblem problem = logisticProblem(86420L, 120, 3);
+        assertTrue(new GLMElasticNet(problem, 1., new double[]{1e-12}).isConverged());
+
+        GLMElasticNet truncated = new GLMElasticNet(problem, 1., new double[]{1e-12}, 2);
+        assertFalse(truncated.isConverged());
+        assertFalse(truncated.isConverged(1));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.glm;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.*;
+import com.numericalmethod.suanshu.stats.regression.linear.glm.distribution.link.Sqrt;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ParallelIWLSTest {
+
+    /**
+     * the same as {@link IWLS}, c.f., {@link GeneralizedLinearModelTest#test_0010()}
+     */
+    @Test
+    public void test_0010() {
+        GLMProblem problem = new GLMProblem(new DenseVector(new double[]{2, 1, 4, 5, 7}),
+                new DenseMatrix(new double[][]{
+                    {1.52, 2.11},
+                    {3.22, 4.32},
+                    {4.32, 1.23},
+                    {10.1034, 8.43},
+                    {12.1, 7.31}
+                }),
+                true,
+                new Poisson(new Sqrt()));
+        GeneralizedLinearModel instance = new GeneralizedLinearModel(problem, new ParallelIWLS(1e-10, 100));
+
+        assertArrayEquals(new double[]{0.220000, -0.164378, 1.261568},
+                instance.beta.betaHat.toArray(), 1e-6);
+        assertArrayEquals(new double[]{1.560324, 1.587231, 4.039222, 4.404148, 7.409074},
+                instance.residuals.fitted.toArray(), 1e-6);
+        assertArrayEquals(new double[]{0.106852, 0.155915, 0.435700},
+                instance.beta.stderr.toArray(), 1e-6);
+        assertEquals(0.4647449603635064, instance.residuals.deviance, 1e-12);
+        assertEquals(21.6323883675599, instance.AIC, 1e-12);
+    }
+
+    /**
+     * the same as {@link IWLS}, c.f., {@link GeneralizedLinearModelTest#test_0020()}
+     */
+    @Test
+    public void test_0020() {
+        GLMProblem problem = new GLMProblem(
+                new DenseVector(new double[]{2, 1, 4, 5.3, 7.4}),
+                new DenseMatrix(new double[][]{
+                    {1.52},
+                    {3.22},
+                    {4.32},
+                    {10.1034},
+                    {12.1}
+                }),
+                true, new Gamma());
+        GeneralizedLinearModel instance = new GeneralizedLinearModel(problem, new ParallelIWLS(1e-10, 100));
+
+        assertArrayEquals(new double[]{-0.034346, 0.544317},
+                instance.beta.betaHat.toArray(), 1e-6);
+        assertArrayEquals(new double[]{0.014836, 0.158602},
+                instance.beta.stderr.toArray(), 1e-5);
+        assertEquals(0.790668071251061, instance.residuals.deviance, 1e-12);
+    }
+
+    /**
+     * a big logistic regression fitted in parallel blocks satisfies the score equations, X'(y - μ) = 0
+     */
+    @Test
+    public void test_0030() {
+        Random rng = new Random(31415926L);
+        final int n = 40000;
+        double[][] X = new double[n][3];
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            double eta = -0.5;
+            for (int j = 0; j < 3; ++j) {
+                X[i][j] = rng.nextGaussian();
+                eta += (j - 1) * 0.8 * X[i][j];
+            }
+            y[i] = rng.nextDouble() < 1 / (1 + Math.exp(-eta)) ? 1 : 0;
+        }
+        GLMProblem problem = new GLMProblem(new DenseVector(y), new DenseMatrix(X), true, new Binomial());
+
+        ParallelIWLS instance = new ParallelIWLS(1e-12, 50);
+        instance.fit(problem, new DenseVector(4));
+        Vector mu = instance.mu();
+
+        double[] score = new double[4];
+        for (int i = 0; i < n; ++i) {
+            double e = y[i] - mu.get(i + 1);
+            for (int j = 0; j < 3; ++j) {
+                score[j] += X[i][j] * e;
+            }
+            score[3] += e;
+        }
+        assertArrayEquals(new double[4], score, 1e-8);
+        assertArrayEquals(new double[]{-0.8, 0., 0.8, -0.5}, instance.betaHat().toArray(), 0.05);
+    }
+}
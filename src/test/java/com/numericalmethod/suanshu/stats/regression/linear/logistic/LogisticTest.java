@@ -113,4 +113,36 @@ public class LogisticTest {
         assertEquals(9.56071346580660, instance.residuals.nullDeviance, 1e-14);//summary(fitted)
         assertEquals(16.32504313159363, instance.AIC, 1e-14);//summary(fitted)
     }
+
+    /**
+     * Perfectly separable data have no finite MLE; R warns that the fitted probabilities are numerically 0 or 1.
+     *
+    y<-c(0,0,0,0,1,1,1,1)
+    x<-c(1,2,3,4,5,6,7,8)
+    fitted<-glm(y~x,family=binomial)
+     */
+    @Test
+    public void test_0030() throws Exception {
+        LMProblem problem = new LMProblem(
+                new DenseVector(new double[]{0, 0, 0, 0, 1, 1, 1, 1}),
+                new DenseMatrix(new double[][]{
+                    {1},
+                    {2},
+                    {3},
+                    {4},
+                    {5},
+                    {6},
+                    {7},
+                    {8}
+                }),
+                true);
+        Logistic instance = new Logistic(problem);
+
+        double[] betaHat = instance.beta.betaHat.toArray();
+        assertTrue(betaHat[0] > 0);
+        assertEquals(4.5, -betaHat[1] / betaHat[0], 1e-6);//the separating point
+        assertArrayEquals(new double[]{0, 0, 0, 0, 1, 1, 1, 1},
+                instance.residuals.fitted.toArray(), 1e-8);
+        assertEquals(0, instance.residuals.deviance, 1e-8);
+    }
 }
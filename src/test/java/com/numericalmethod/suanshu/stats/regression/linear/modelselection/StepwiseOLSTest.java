@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.modelselection;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.stats.regression.linear.modelselection.StepwiseOLS.Criterion;
+import com.numericalmethod.suanshu.stats.regression.linear.modelselection.StepwiseOLS.Direction;
+import com.numericalmethod.suanshu.stats.regression.linear.ols.OLSRegression;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static com.numericalmethod.suanshu.matrix.doubles.operation.CreateMatrix.columns;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class StepwiseOLSTest {
+
+    private static LMProblem problem(long seed, int n, int p, boolean weighted) {
+        Random rng = new Random(seed);
+        double[][] X = new double[n][p];
+        double[] y = new double[n];
+        double[] w = new double[n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < p; ++j) {
+                X[i][j] = rng.nextGaussian() + (j > 0 ? 0.3 * X[i][j - 1] : 0);
+            }
+            y[i] = 1. + 2. * X[i][1] - 1. * X[i][3] + 0.4 * X[i][6] + rng.nextGaussian();
+            w[i] = 0.5 + rng.nextDouble();
+        }
+        return new LMProblem(new DenseVector(y), new DenseMatrix(X), true, weighted ? new DenseVector(w) : null);
+    }
+
+    /**
+     * the criterion of a model, by fitting an OLS regression
+     */
+    private static double score(LMProblem problem, List<Integer> factors, Criterion criterion) {
+        int[] cols = new int[factors.size()];
+        for (int j = 0; j < cols.length; ++j) {
+            cols[j] = factors.get(j);
+        }
+        OLSRegression ols = new OLSRegression(new LMProblem(problem.y, columns(problem.A, cols), true, problem.weights));
+        switch (criterion) {
+            case BIC:
+                return ols.informationCriteria.BIC;
+            case ADJUSTED_R2:
+                return -ols.residuals.AR2;
+            default:
+                return ols.informationCriteria.AIC;
+        }
+    }
+
+    /**
+     * the forward selection by refitting an OLS regression for every candidate
+     */
+    private static int[] bruteForceForward(LMProblem problem, Criterion criterion) {
+        final int p = problem.A.nCols() - 1;
+        List<Integer> model = new ArrayList<Integer>();
+        double current = Double.POSITIVE_INFINITY;
+        while (model.size() < p) {
+            int best = 0;
+            double bestScore = Double.POSITIVE_INFINITY;
+            for (int j = 1; j <= p; ++j) {
+                if (!model.contains(j)) {
+                    List<Integer> trial = new ArrayList<Integer>(model);
+                    trial.add(j);
+                    Collections.sort(trial);
+                    double s = score(problem, trial, criterion);
+                    if (s < bestScore) {
+                        best = j;
+                        bestScore = s;
+                    }
+                }
+            }
+            if (!model.isEmpty() && !(bestScore < current)) {
+                break;
+            }
+            model.add(best);
+            Collections.sort(model);
+            current = bestScore;
+        }
+        return toArray(model);
+    }
+
+    /**
+     * the backward selection by refitting an OLS regression for every candidate
+     */
+    private static int[] bruteForceBackward(LMProblem problem, Criterion criterion) {
+        final int p = problem.A.nCols() - 1;
+        List<Integer> model = new ArrayList<Integer>();
+        for (int j = 1; j <= p; ++j) {
+            model.add(j);
+        }
+        double current = score(problem, model, criterion);
+        while (model.size() > 1) {
+            int best = 0;
+            double bestScore = Double.POSITIVE_INFINITY;
+            for (int j : model) {
+                List<Integer> trial = new ArrayList<Integer>(model);
+                trial.remove(Integer.valueOf(j));
+                double s = score(problem, trial, criterion);
+                if (s < bestScore) {
+                    best = j;
+                    bestScore = s;
+                }
+            }
+            if (!(bestScore < current)) {
+                break;
+            }
+            model.remove(Integer.valueOf(best));
+            current = bestScore;
+        }
+        return toArray(model);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] result = new int[list.size()];
+        for (int j = 0; j < result.length; ++j) {
+            result[j] = list.get(j);
+        }
+        return result;
+    }
+
+    private static void assertSame(LMProblem problem, Direction direction, Criterion criterion) {
+        StepwiseOLS instance = new StepwiseOLS(problem, direction, criterion);
+        int[] expected = direction == Direction.FORWARD ? bruteForceForward(problem, criterion) : bruteForceBackward(problem, criterion);
+
+        assertArrayEquals(expected, instance.selected());
+        assertEquals(score(problem, toList(expected), criterion), instance.score(), 1e-9);
+    }
+
+    private static List<Integer> toList(int[] array) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int j : array) {
+            list.add(j);
+        }
+        return list;
+    }
+
+    /**
+     * forward selection is the same as refitting for every candidate, for all criteria
+     */
+    @Test
+    public void test_0010() {
+        LMProblem problem = problem(100L, 60, 8, false);
+        for (Criterion criterion : Criterion.values()) {
+            assertSame(problem, Direction.FORWARD, criterion);
+        }
+    }
+
+    /**
+     * backward selection is the same as refitting for every candidate, for all criteria
+     */
+    @Test
+    public void test_0020() {
+        LMProblem problem = problem(200L, 60, 8, false);
+        for (Criterion criterion : Criterion.values()) {
+            assertSame(problem, Direction.BACKWARD, criterion);
+        }
+    }
+
+    /**
+     * weighted
+     */
+    @Test
+    public void test_0030() {
+        LMProblem problem = problem(300L, 50, 7, true);
+        assertSame(problem, Direction.FORWARD, Criterion.AIC);
+        assertSame(problem, Direction.BACKWARD, Criterion.BIC);
+    }
+
+    /**
+     * the true factors are selected; a collinear factor is never added
+     */
+    @Test
+    public void test_0040() {
+        LMProblem original = problem(400L, 200, 8, false);
+        Matrix X = columns(original.A, 1, 8);
+        DenseMatrix Xc = new DenseMatrix(200, 9);
+        for (int i = 1; i <= 200; ++i) {
+            for (int j = 1; j <= 8; ++j) {
+                Xc.set(i, j, X.get(i, j));
+            }
+            Xc.set(i, 9, X.get(i, 2) - X.get(i, 4));// collinear
+        }
+        LMProblem problem = new LMProblem(original.y, Xc, true);
+
+        StepwiseOLS forward = new StepwiseOLS(problem, Direction.FORWARD, Criterion.BIC);
+        int[] selected = forward.selected();
+        assertTrue(selected.length <= 3);
+        Vector beta = forward.getModel().beta.betaHat;
+        assertEquals(selected.length + 1, beta.size());
+
+        StepwiseOLS backward = new StepwiseOLS(problem, Direction.BACKWARD, Criterion.BIC);
+        assertEquals(forward.getModel().residuals.RSS, backward.getModel().residuals.RSS, 1e-8);
+    }
+}
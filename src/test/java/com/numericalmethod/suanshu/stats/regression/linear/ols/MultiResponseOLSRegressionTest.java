@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class MultiResponseOLSRegressionTest {
+
+    private static void assertSame(Matrix Y, Matrix X, boolean addIntercept, Vector w, double epsilon) {
+        MultiResponseOLSRegression instance = new MultiResponseOLSRegression(Y, X, addIntercept, w);
+        assertEquals(Y.nCols(), instance.nResponses());
+
+        for (int j = 1; j <= Y.nCols(); ++j) {
+            LMProblem problem = w == null
+                                ? new LMProblem(Y.getColumn(j), X, addIntercept)
+                                : new LMProblem(Y.getColumn(j), X, addIntercept, w);
+            OLSRegression expected = new OLSRegression(problem);
+
+            assertArrayEquals(expected.beta.betaHat.toArray(), instance.betaHat.getColumn(j).toArray(), epsilon);
+            assertArrayEquals(expected.beta.stderr.toArray(), instance.stderr.getColumn(j).toArray(), epsilon);
+            assertArrayEquals(expected.beta.t.toArray(), instance.t.getColumn(j).toArray(), epsilon * 100);
+            assertArrayEquals(expected.beta.stderr.toArray(), instance.beta(j).stderr.toArray(), epsilon);
+            assertEquals(expected.residuals.RSS, instance.RSS.get(j), epsilon);
+            assertEquals(expected.residuals.stderr * expected.residuals.stderr, instance.residualVariance.get(j), epsilon);
+            assertEquals(expected.residuals.R2, instance.R2.get(j), epsilon);
+        }
+    }
+
+    private static Matrix randomFactors(Random rng, int n, int k) {
+        DenseMatrix X = new DenseMatrix(n, k);
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= k; ++j) {
+                X.set(i, j, rng.nextGaussian());
+            }
+        }
+        return X;
+    }
+
+    private static Matrix randomResponses(Random rng, Matrix X, int m) {
+        DenseMatrix Y = new DenseMatrix(X.nRows(), m);
+        for (int j = 1; j <= m; ++j) {
+            double alpha = rng.nextGaussian();
+            double[] beta = new double[X.nCols()];
+            for (int k = 0; k < beta.length; ++k) {
+                beta[k] = rng.nextGaussian();
+            }
+            for (int i = 1; i <= X.nRows(); ++i) {
+                double y = alpha + 0.5 * rng.nextGaussian();
+                for (int k = 1; k <= X.nCols(); ++k) {
+                    y += beta[k - 1] * X.get(i, k);
+                }
+                Y.set(i, j, y);
+            }
+        }
+        return Y;
+    }
+
+    /**
+     * each response is the same as an OLS regression, with and without an intercept
+     */
+    @Test
+    public void test_0010() {
+        Random rng = new Random(20130901L);
+        Matrix X = randomFactors(rng, 40, 3);
+        Matrix Y = randomResponses(rng, X, 5);
+
+        assertSame(Y, X, true, null, 1e-12);
+        assertSame(Y, X, false, null, 1e-12);
+    }
+
+    /**
+     * weighted
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(20130902L);
+        Matrix X = randomFactors(rng, 30, 2);
+        Matrix Y = randomResponses(rng, X, 4);
+        double[] w = new double[30];
+        for (int i = 0; i < w.length; ++i) {
+            w[i] = 0.2 + rng.nextDouble();
+        }
+
+        assertSame(Y, X, true, new DenseVector(w), 1e-12);
+    }
+
+    /**
+     * many responses are solved in parallel blocks
+     */
+    @Test
+    public void test_0030() {
+        Random rng = new Random(20130903L);
+        Matrix X = randomFactors(rng, 60, 4);
+        Matrix Y = randomResponses(rng, X, 150);
+
+        assertSame(Y, X, true, null, 1e-11);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class RecursiveLeastSquaresTest {
+
+    /**
+     * without forgetting, the estimates after each step are the OLS estimates on the data so far
+     */
+    @Test
+    public void test_0010() {
+        Random rng = new Random(13579L);
+        final int n = 30;
+        double[] y = new double[n];
+        double[][] X = new double[n][2];
+        for (int i = 0; i < n; ++i) {
+            X[i][0] = rng.nextGaussian();
+            X[i][1] = rng.nextGaussian();
+            y[i] = 0.3 - 1.2 * X[i][0] + 0.7 * X[i][1] + 0.1 * rng.nextGaussian();
+        }
+
+        RecursiveLeastSquares instance = new RecursiveLeastSquares(2, true);
+        for (int i = 0; i < n; ++i) {
+            instance.add(y[i], X[i]);
+            assertEquals(i >= 2, instance.isReady());
+
+            if (i >= 5) {
+                OLSRegression expected = new OLSRegression(new LMProblem(
+                        new DenseVector(Arrays.copyOf(y, i + 1)),
+                        new DenseMatrix(Arrays.copyOf(X, i + 1)),
+                        true));
+                assertArrayEquals(expected.beta.betaHat.toArray(), instance.betaHat().toArray(), 1e-12);
+                assertArrayEquals(expected.beta.stderr.toArray(), instance.beta().stderr.toArray(), 1e-12);
+                assertEquals(expected.residuals.RSS, instance.RSS(), 1e-12);
+                assertEquals(expected.residuals.R2, instance.R2(), 1e-12);
+                assertEquals(expected.residuals.stderr, instance.stderr(), 1e-12);
+            }
+        }
+    }
+
+    /**
+     * with forgetting, the estimates are the weighted OLS estimates with exponentially decaying weights
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(24680L);
+        final int n = 40;
+        final double lambda = 0.9;
+        double[] y = new double[n];
+        double[][] X = new double[n][2];
+        for (int i = 0; i < n; ++i) {
+            X[i][0] = rng.nextGaussian();
+            X[i][1] = rng.nextGaussian();
+            y[i] = 2. * X[i][0] + (i < 20 ? 1. : -1.) * X[i][1] + 0.1 * rng.nextGaussian();
+        }
+
+        RecursiveLeastSquares instance = new RecursiveLeastSquares(2, false, lambda);
+        for (int i = 0; i < n; ++i) {
+            instance.add(y[i], X[i]);
+        }
+
+        double[] w = new double[n];
+        double nEffective = 0;
+        for (int i = 0; i < n; ++i) {
+            w[i] = Math.pow(lambda, n - 1 - i);
+            nEffective += w[i];
+        }
+        OLSRegression expected = new OLSRegression(new LMProblem(new DenseVector(y), new DenseMatrix(X), false, new DenseVector(w)));
+
+        assertEquals(n, instance.nObs());
+        assertEquals(nEffective, instance.nEffective(), 1e-12);
+        assertArrayEquals(expected.beta.betaHat.toArray(), instance.betaHat().toArray(), 1e-12);
+        assertEquals(expected.residuals.RSS, instance.RSS(), 1e-12);
+        assertEquals(expected.residuals.TSS, instance.TSS(), 1e-12);
+        assertTrue(instance.betaHat().get(2) < -0.5);// tracks the change in the coefficient
+    }
+}
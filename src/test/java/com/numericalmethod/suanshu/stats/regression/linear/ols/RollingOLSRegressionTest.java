@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class RollingOLSRegressionTest {
+
+    private static void assertWindow(double[] y, double[][] X, int from, int to, boolean addIntercept, RollingOLSRegression instance) {
+        OLSRegression expected = new OLSRegression(new LMProblem(
+                new DenseVector(Arrays.copyOfRange(y, from, to)),
+                new DenseMatrix(Arrays.copyOfRange(X, from, to)),
+                addIntercept));
+
+        assertEquals(to - from, instance.nObs());
+        assertArrayEquals(expected.beta.betaHat.toArray(), instance.betaHat().toArray(), 1e-10);
+        Beta beta = instance.beta();
+        assertArrayEquals(expected.beta.stderr.toArray(), beta.stderr.toArray(), 1e-10);
+        assertArrayEquals(expected.beta.t.toArray(), beta.t.toArray(), 1e-8);
+        assertEquals(expected.residuals.RSS, instance.RSS(), 1e-10);
+        assertEquals(expected.residuals.TSS, instance.TSS(), 1e-10);
+        assertEquals(expected.residuals.R2, instance.R2(), 1e-10);
+        assertEquals(expected.residuals.AR2, instance.AR2(), 1e-10);
+        assertEquals(expected.residuals.stderr, instance.stderr(), 1e-10);
+    }
+
+    /**
+     * every window is the same as an OLS regression on the window
+     */
+    @Test
+    public void test_0010() {
+        Random rng = new Random(112233L);
+        final int n = 300;
+        final int window = 25;
+        double[] y = new double[n];
+        double[][] X = new double[n][3];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < 3; ++j) {
+                X[i][j] = rng.nextGaussian() * (1 + j);
+            }
+            y[i] = 1. + Math.sin(i / 50.) * X[i][0] - 0.5 * X[i][2] + rng.nextGaussian();
+        }
+
+        RollingOLSRegression instance = new RollingOLSRegression(window, 3, true);
+        for (int i = 0; i < n; ++i) {
+            instance.add(y[i], X[i]);
+            assertEquals(i + 1 >= window, instance.isFull());
+            if (i >= 10) {
+                assertWindow(y, X, Math.max(0, i + 1 - window), i + 1, true, instance);
+            }
+        }
+    }
+
+    /**
+     * without an intercept; a batch is the same as adding the rows one by one
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(445566L);
+        final int n = 100;
+        double[] y = new double[n];
+        double[][] X = new double[n][2];
+        for (int i = 0; i < n; ++i) {
+            X[i][0] = rng.nextGaussian();
+            X[i][1] = 100. + rng.nextGaussian();// nearly collinear with the level
+            y[i] = 0.5 * X[i][0] + 0.01 * X[i][1] + 0.1 * rng.nextGaussian();
+        }
+
+        RollingOLSRegression instance = new RollingOLSRegression(20, 2, false);
+        instance.add(new DenseVector(y), new DenseMatrix(X));
+
+        assertWindow(y, X, n - 20, n, false, instance);
+    }
+
+    /**
+     * an exact fit cannot be downdated and is recomputed from the window
+     */
+    @Test
+    public void test_0030() {
+        RollingOLSRegression instance = new RollingOLSRegression(5, 1, true);
+        double[] y = new double[12];
+        double[][] X = new double[12][1];
+        for (int i = 0; i < 12; ++i) {
+            X[i][0] = i * i;
+            y[i] = 3. - 2. * X[i][0];
+            instance.add(y[i], X[i]);
+        }
+
+        assertArrayEquals(new double[]{-2., 3.}, instance.betaHat().toArray(), 1e-10);
+        assertEquals(0., instance.RSS(), 1e-10);
+    }
+}
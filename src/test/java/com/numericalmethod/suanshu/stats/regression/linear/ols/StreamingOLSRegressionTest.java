@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.regression.linear.ols;
+
+import com.numericalmethod.suanshu.matrix.doubles.AreMatrices;
+import com.numericalmethod.suanshu.matrix.doubles.Matrix;
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.regression.linear.LMProblem;
+import com.numericalmethod.suanshu.vector.doubles.Vector;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class StreamingOLSRegressionTest {
+
+    private static final Vector y = new DenseVector(new double[]{2.32, 0.452, 4.53, 12.34, 32.2});
+    private static final Matrix X = new DenseMatrix(new double[][]{
+                {1.52, 2.23, 4.31},
+                {3.22, 6.34, 3.46},
+                {4.32, 12.2, 23.1},
+                {10.1034, 43.2, 22.3},
+                {12.1, 2.12, 3.27}
+            });
+    private static final Vector w = new DenseVector(new double[]{0.5, 1.2, 2.0, 0.8, 1.5});
+
+    private static void assertSame(OLSRegression expected, StreamingOLSRegression actual, double epsilon) {
+        assertEquals(expected.problem.y.size(), actual.nObs());
+        assertArrayEquals(expected.beta.betaHat.toArray(), actual.betaHat().toArray(), epsilon);
+
+        Beta beta = actual.beta();
+        assertArrayEquals(expected.beta.stderr.toArray(), beta.stderr.toArray(), epsilon);
+        assertArrayEquals(expected.beta.t.toArray(), beta.t.toArray(), epsilon);
+
+        assertEquals(expected.residuals.RSS, actual.RSS(), epsilon);
+        assertEquals(expected.residuals.TSS, actual.TSS(), epsilon);
+        assertEquals(expected.residuals.R2, actual.R2(), epsilon);
+        assertEquals(expected.residuals.AR2, actual.AR2(), epsilon);
+        assertEquals(expected.residuals.stderr, actual.stderr(), epsilon);
+        assertEquals(expected.residuals.f, actual.f(), epsilon);
+
+        InformationCriteria ic = actual.informationCriteria();
+        assertEquals(expected.informationCriteria.AIC, ic.AIC, epsilon);
+        assertEquals(expected.informationCriteria.BIC, ic.BIC, epsilon);
+    }
+
+    private static StreamingOLSRegression rowByRow(Vector y, Matrix X, Vector w, boolean addIntercept) {
+        StreamingOLSRegression instance = new StreamingOLSRegression(X.nCols(), addIntercept);
+        for (int i = 1; i <= X.nRows(); ++i) {
+            double[] x = new double[X.nCols()];
+            for (int j = 1; j <= X.nCols(); ++j) {
+                x[j - 1] = X.get(i, j);
+            }
+            instance.add(y.get(i), x, w != null ? w.get(i) : 1);
+        }
+        return instance;
+    }
+
+    /**
+     * with an intercept, compared to lm(y~x1+x2+x3)
+     */
+    @Test
+    public void test_0010() {
+        OLSRegression expected = new OLSRegression(new LMProblem(y, X, true));
+        StreamingOLSRegression instance = rowByRow(y, X, null, true);
+
+        assertSame(expected, instance, 1e-12);
+        assertArrayEquals(
+                new double[]{3.05526367241960983, -0.34757163218629139, 0.01921862042814120, -4.35792401241910454},
+                instance.betaHat().toArray(), 1e-12);
+    }
+
+    /**
+     * without an intercept
+     */
+    @Test
+    public void test_0020() {
+        OLSRegression expected = new OLSRegression(new LMProblem(y, X, false));
+        StreamingOLSRegression instance = rowByRow(y, X, null, false);
+
+        assertSame(expected, instance, 1e-12);
+    }
+
+    /**
+     * weighted, with and without an intercept
+     */
+    @Test
+    public void test_0030() {
+        assertSame(new OLSRegression(new LMProblem(y, X, true, w)), rowByRow(y, X, w, true), 1e-12);
+        assertSame(new OLSRegression(new LMProblem(y, X, false, w)), rowByRow(y, X, w, false), 1e-12);
+    }
+
+    /**
+     * a batch is the same as adding the rows one by one
+     */
+    @Test
+    public void test_0040() {
+        StreamingOLSRegression instance = new StreamingOLSRegression(3);
+        instance.add(y, X, w);
+
+        assertSame(new OLSRegression(new LMProblem(y, X, true, w)), instance, 1e-12);
+    }
+
+    /**
+     * merging two halves is the same as one pass
+     */
+    @Test
+    public void test_0050() {
+        Random rng = new Random(1234567890L);
+        final int n = 200;
+        double[] ys = new double[n];
+        double[][] xs = new double[n][4];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < 4; ++j) {
+                xs[i][j] = rng.nextGaussian() * (j + 1);
+            }
+            ys[i] = 1.5 + 2. * xs[i][0] - 0.5 * xs[i][1] + 0.1 * xs[i][3] + rng.nextGaussian();
+        }
+
+        StreamingOLSRegression first = new StreamingOLSRegression(4);
+        StreamingOLSRegression second = new StreamingOLSRegression(4);
+        for (int i = 0; i < n; ++i) {
+            (i < 77 ? first : second).add(ys[i], xs[i]);
+        }
+        first.merge(second);
+
+        assertSame(new OLSRegression(new LMProblem(new DenseVector(ys), new DenseMatrix(xs), true)), first, 1e-10);
+        Matrix R = rowByRow(new DenseVector(ys), new DenseMatrix(xs), null, true).R();
+        assertTrue(AreMatrices.equal(R.t().multiply(R), first.R().t().multiply(first.R()), 1e-9));
+    }
+
+    /**
+     * a big batch is accumulated in parallel
+     */
+    @Test
+    public void test_0060() {
+        Random rng = new Random(9876543210L);
+        final int n = 50000;
+        double[] ys = new double[n];
+        double[][] xs = new double[n][3];
+        double[] ws = new double[n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < 3; ++j) {
+                xs[i][j] = rng.nextGaussian();
+            }
+            ys[i] = -1. + 3. * xs[i][0] + 0.25 * xs[i][2] + rng.nextGaussian();
+            ws[i] = 0.5 + rng.nextDouble();
+        }
+        Vector Y = new DenseVector(ys);
+        Matrix A = new DenseMatrix(xs);
+        Vector W = new DenseVector(ws);
+
+        StreamingOLSRegression batch = new StreamingOLSRegression(3);
+        batch.add(Y, A, W);
+        StreamingOLSRegression sequential = rowByRow(Y, A, W, true);
+
+        assertEquals(n, batch.nObs());
+        assertArrayEquals(sequential.betaHat().toArray(), batch.betaHat().toArray(), 1e-10);
+        assertArrayEquals(sequential.beta().stderr.toArray(), batch.beta().stderr.toArray(), 1e-10);
+        assertEquals(sequential.RSS(), batch.RSS(), 1e-6);
+        assertEquals(sequential.TSS(), batch.TSS(), 1e-6);
+        assertEquals(sequential.informationCriteria().AIC, batch.informationCriteria().AIC, 1e-6);
+        assertArrayEquals(new double[]{3., 0., 0.25, -1.}, batch.betaHat().toArray(), 0.02);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.discrete;
+
+import com.numericalmethod.suanshu.number.Counter;
+import com.numericalmethod.suanshu.number.DoubleUtils;
+import com.numericalmethod.suanshu.stats.distribution.ProbabilityMassFunction;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class AliasMethodTest {
+
+    @Test
+    public void test_0010() {
+        double[] weights = new double[]{1, 2, 3, 4, 0, 10};//need not sum to 1
+        AliasMethod instance = new AliasMethod(weights);
+        instance.seed(1234567890L);
+
+        int N = 1000000;
+        int[] indices = instance.nextIndices(N);
+        int[] counts = new int[weights.length];
+        for (int i : indices) {
+            ++counts[i];
+        }
+
+        assertEquals(0.05, (double) counts[0] / N, 2e-3);
+        assertEquals(0.10, (double) counts[1] / N, 2e-3);
+        assertEquals(0.15, (double) counts[2] / N, 2e-3);
+        assertEquals(0.20, (double) counts[3] / N, 2e-3);
+        assertEquals(0, counts[4]);
+        assertEquals(0.50, (double) counts[5] / N, 2e-3);
+    }
+
+    @Test
+    public void test_0020() {
+        AliasMethod instance = new AliasMethod(new double[]{0, 0, 5});
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(2, instance.nextIndex());
+        }
+    }
+
+    @Test
+    public void test_0030() {
+        AliasSampling<Integer> instance = new AliasSampling<Integer>(
+                DoubleUtils.intArray2List(new int[]{1, 2, 3, 4, 5}),
+                new ProbabilityMassFunction<Integer>() {
+
+                    public double evaluate(Integer x) {
+                        return x / 15.;
+                    }
+                });
+        instance.seed(1234567890L);
+
+        Counter counter = new Counter();
+        int N = 100000;
+        for (Integer x : instance.getSamples(N)) {
+            counter.add(x);
+        }
+
+        for (int x = 1; x <= 5; ++x) {
+            assertEquals(x / 15., (double) counter.count(x) / N, 5e-3);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_0040() {
+        new AliasMethod(new double[]{1, -1});
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
+
+import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.StatisticFactory;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ParallelBootstrapEstimatorTest {
+
+    private static final StatisticFactory MEAN = new StatisticFactory() {
+
+        @Override
+        public Statistic getStatistic() {
+            return new Mean();
+        }
+    };
+
+    @Test
+    public void test_0010() {
+        double[] sample = new double[]{1., 2., 3., 4., 5.,};
+        NonParametricBootstrap bootstrap = new NonParametricBootstrap(sample);
+
+        ParallelBootstrapEstimator instance = new ParallelBootstrapEstimator(sample, bootstrap, new WeightedMean(), 100000, 1234567890L, false);
+
+        assertEquals(3., instance.thetaHat(), 1e-15);
+        assertEquals(3., instance.value(), 1e-2);
+        assertEquals(0.4, instance.variance(), 1e-2);// var = 2 / 5
+    }
+
+    /**
+     * The weighted statistic gives the same replicates as the statistic computed from the resampled observations.
+     * The replicates do not depend on whether they are computed in parallel.
+     */
+    @Test
+    public void test_0020() {
+        double[] sample = new double[]{1.5, -2., 3.2, 4., 0.5, 7., -1.1};
+        NonParametricBootstrap bootstrap = new NonParametricBootstrap(sample);
+        int B = 10000;
+
+        double[] weighted = new ParallelBootstrapEstimator(sample, bootstrap, new WeightedMean(), B, 123L, false).replicates();
+        double[] copied = new ParallelBootstrapEstimator(sample, bootstrap, MEAN, B, 123L, false).replicates();
+        double[] parallel = new ParallelBootstrapEstimator(sample, bootstrap, new WeightedMean(), B, 123L, true).replicates();
+
+        for (int b = 0; b < B; ++b) {
+            assertEquals(copied[b], weighted[b], 1e-14);
+            assertEquals(weighted[b], parallel[b], 0);
+        }
+    }
+
+    @Test
+    public void test_0030() {
+        double[] sample = new double[]{1.5, -2., 3.2, 4., 0.5, 7., -1.1};
+        ParallelBootstrapEstimator instance = new ParallelBootstrapEstimator(sample, new NonParametricBootstrap(sample), new WeightedVariance(), 10, 1L, false);
+        assertEquals(new Variance(sample).value(), instance.thetaHat(), 1e-14);
+    }
+
+    /**
+     * For the mean of a normal sample, both confidence intervals are close to the t-interval.
+     */
+    @Test
+    public void test_0040() {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(1234567890L);
+        double[] sample = new double[200];
+        for (int i = 0; i < sample.length; ++i) {
+            sample[i] = 10 + 2 * rng.nextDouble();
+        }
+
+        ParallelBootstrapEstimator instance = new ParallelBootstrapEstimator(sample, new NonParametricBootstrap(sample), new WeightedMean(), 20000, 1234567890L, true);
+
+        double mean = new Mean(sample).value();
+        double se = Math.sqrt(new Variance(sample).value() / sample.length);
+        double[] percentile = instance.percentileInterval(0.95);
+        double[] bca = instance.bcaInterval(0.95);
+        assertEquals(mean - 1.96 * se, percentile[0], 0.05 * se * 1.96);
+        assertEquals(mean + 1.96 * se, percentile[1], 0.05 * se * 1.96);
+        assertEquals(mean - 1.96 * se, bca[0], 0.05 * se * 1.96);
+        assertEquals(mean + 1.96 * se, bca[1], 0.05 * se * 1.96);
+    }
+
+    /**
+     * For the variance of a skewed (exponential) sample, BCa shifts the interval to the right of the percentile interval.
+     */
+    @Test
+    public void test_0050() {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(1234567890L);
+        double[] sample = new double[50];
+        for (int i = 0; i < sample.length; ++i) {
+            double z = rng.nextDouble();
+            sample[i] = z * z;
+        }
+
+        ParallelBootstrapEstimator instance = new ParallelBootstrapEstimator(sample, new NonParametricBootstrap(sample), new WeightedVariance(), 20000, 1234567890L, false);
+
+        double[] percentile = instance.percentileInterval(0.90);
+        double[] bca = instance.bcaInterval(0.90);
+        assertTrue(percentile[0] < instance.thetaHat() && instance.thetaHat() < percentile[1]);
+        assertTrue(bca[0] > percentile[0]);
+        assertTrue(bca[1] > percentile[1]);
+    }
+}
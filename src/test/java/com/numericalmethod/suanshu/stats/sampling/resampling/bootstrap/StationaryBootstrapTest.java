@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.resampling.bootstrap;
+
+import com.numericalmethod.suanshu.stats.descriptive.Statistic;
+import com.numericalmethod.suanshu.stats.descriptive.StatisticFactory;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import com.numericalmethod.suanshu.stats.random.univariate.uniform.MersenneTwister;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class StationaryBootstrapTest {
+
+    /**
+     * an AR(1) series with a strong positive autocorrelation
+     */
+    private static double[] ar1(int n, double phi, long seed) {
+        StandardNormalRng rng = new StandardNormalRng();
+        rng.seed(seed);
+        double[] x = new double[n];
+        x[0] = rng.nextDouble();
+        for (int t = 1; t < n; ++t) {
+            x[t] = phi * x[t - 1] + rng.nextDouble();
+        }
+        return x;
+    }
+
+    private static final StatisticFactory MEAN = new StatisticFactory() {
+
+        @Override
+        public Statistic getStatistic() {
+            return new Mean();
+        }
+    };
+
+    /**
+     * The resampled indices are consecutive (circularly) within a block.
+     */
+    @Test
+    public void test_0010() {
+        double[] sample = new double[100];
+        StationaryBootstrap instance = new StationaryBootstrap(sample, 10);
+
+        int[] indices = new int[100];
+        instance.nextIndices(new MersenneTwister(1L), indices);
+
+        int nBlocks = 1;
+        for (int i = 1; i < indices.length; ++i) {
+            assertTrue(indices[i] >= 0 && indices[i] < 100);
+            if (indices[i] != (indices[i - 1] + 1) % 100) {
+                ++nBlocks;
+            }
+        }
+        assertTrue(nBlocks > 3 && nBlocks < 20);//about 10 blocks
+    }
+
+    @Test
+    public void test_0020() {
+        double[] sample = new double[100];
+        MovingBlockBootstrap instance = new MovingBlockBootstrap(sample, 7);
+
+        int[] indices = new int[100];
+        instance.nextIndices(new MersenneTwister(1L), indices);
+
+        for (int i = 0; i < indices.length; ++i) {
+            assertTrue(indices[i] >= 0 && indices[i] < 100);
+            if (i % 7 != 0) {
+                assertEquals(indices[i - 1] + 1, indices[i]);
+            }
+        }
+    }
+
+    /**
+     * The i.i.d. bootstrap underestimates the variance of the mean of a positively autocorrelated series.
+     * The block bootstraps get close to the long-run variance, (1 / (1 - φ)^2) / n.
+     */
+    @Test
+    public void test_0030() {
+        final int n = 2000;
+        final double phi = 0.6;
+        double[] x = ar1(n, phi, 1234567890L);
+        double longRun = 1. / ((1 - phi) * (1 - phi)) / n;
+
+        double iid = new ParallelBootstrapEstimator(x, new NonParametricBootstrap(x), MEAN, 2000, 1L, true).variance();
+        double mbb = new ParallelBootstrapEstimator(x, new MovingBlockBootstrap(x, 40), MEAN, 2000, 1L, true).variance();
+        double sb = new ParallelBootstrapEstimator(x, new StationaryBootstrap(x, 40), MEAN, 2000, 1L, true).variance();
+
+        assertTrue(iid < 0.3 * longRun);
+        assertTrue(mbb > 2.5 * iid);
+        assertTrue(sb > 2.5 * iid);
+        assertEquals(longRun, mbb, 0.4 * longRun);//the estimates vary with the realized series
+        assertEquals(longRun, sb, 0.4 * longRun);
+    }
+
+    @Test
+    public void test_0040() {
+        double[] x = ar1(100, 0.5, 1L);
+        StationaryBootstrap instance = new StationaryBootstrap(x, 5);
+        instance.seed(1L);
+        double[] resample = instance.getResample();
+        assertEquals(100, resample.length);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.sampling.reservoir;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ReservoirSamplingTest {
+
+    /**
+     * Every item in the stream is in the sample with the same probability, k / N.
+     */
+    @Test
+    public void test_0010() {
+        final int N = 100, k = 10, nReps = 20000;
+        int[] counts = new int[N];
+        for (int rep = 0; rep < nReps; ++rep) {
+            ReservoirSampling instance = new ReservoirSampling(k);
+            instance.seed(rep + 1);
+            for (int i = 0; i < N; ++i) {
+                instance.add(i);
+            }
+
+            double[] sample = instance.sample();
+            assertEquals(k, sample.length);
+            for (double x : sample) {
+                ++counts[(int) x];
+            }
+        }
+
+        for (int i = 0; i < N; ++i) {
+            assertEquals(0.1, (double) counts[i] / nReps, 0.01);
+        }
+    }
+
+    /**
+     * Adding items in bulk gives the same sample as adding them one by one.
+     */
+    @Test
+    public void test_0020() {
+        double[] data = new double[100000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = i;
+        }
+
+        ReservoirSampling one = new ReservoirSampling(50);
+        one.seed(1234567890L);
+        for (double x : data) {
+            one.add(x);
+        }
+
+        ReservoirSampling bulk = new ReservoirSampling(50);
+        bulk.seed(1234567890L);
+        bulk.addAll(java.util.Arrays.copyOfRange(data, 0, 30));
+        bulk.addAll(java.util.Arrays.copyOfRange(data, 30, 70000));
+        bulk.addAll(java.util.Arrays.copyOfRange(data, 70000, data.length));
+
+        assertEquals(data.length, bulk.N());
+        assertArrayEquals(one.sample(), bulk.sample(), 0);
+    }
+
+    @Test
+    public void test_0030() {
+        ReservoirSampling instance = new ReservoirSampling(10);
+        instance.addAll(1, 2, 3);
+        assertArrayEquals(new double[]{1, 2, 3}, instance.sample(), 0);
+    }
+
+    /**
+     * With a reservoir of one item, an item is selected with a probability proportional to its weight.
+     */
+    @Test
+    public void test_0040() {
+        double[] data = new double[]{0, 1, 2, 3, 4};
+        double[] weights = new double[]{1, 2, 3, 4, 0};
+        int nReps = 40000;
+        int[] counts = new int[data.length];
+        for (int rep = 0; rep < nReps; ++rep) {
+            WeightedReservoirSampling instance = new WeightedReservoirSampling(1);
+            instance.seed(rep + 1);
+            instance.addAll(data, weights);
+            ++counts[(int) instance.sample()[0]];
+        }
+
+        assertEquals(0.1, (double) counts[0] / nReps, 0.01);
+        assertEquals(0.2, (double) counts[1] / nReps, 0.01);
+        assertEquals(0.3, (double) counts[2] / nReps, 0.01);
+        assertEquals(0.4, (double) counts[3] / nReps, 0.01);
+        assertEquals(0, counts[4]);
+    }
+
+    /**
+     * An item with an overwhelming weight is almost always in the sample;
+     * equal weights give the uniform inclusion probability k / N.
+     */
+    @Test
+    public void test_0050() {
+        final int N = 1000, k = 20, nReps = 2000;
+        int[] counts = new int[N];
+        for (int rep = 0; rep < nReps; ++rep) {
+            WeightedReservoirSampling instance = new WeightedReservoirSampling(k);
+            instance.seed(rep + 1);
+            for (int i = 0; i < N; ++i) {
+                instance.add(i, i == 500 ? 1e6 : 1);
+            }
+            double[] sample = instance.sample();
+            assertEquals(k, sample.length);
+            for (double x : sample) {
+                ++counts[(int) x];
+            }
+        }
+
+        assertEquals(nReps, counts[500]);
+        int sum = 0;
+        for (int i = 0; i < 100; ++i) {
+            sum += counts[i];
+        }
+        assertEquals(19. / 999, sum / 100. / nReps, 0.002);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.integration.sde;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.descriptive.Covariance;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Mean;
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+import com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.BatchSDE;
+import com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients.BatchDiffusion;
+import com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients.BatchDrift;
+import com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients.ConstantBatchDiffusion;
+import com.numericalmethod.suanshu.stats.stochasticprocess.multivariate.sde.coefficients.ConstantBatchDrift;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.EvenlySpacedGrid;
+import com.numericalmethod.suanshu.vector.doubles.dense.DenseVector;
+import static java.lang.Math.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class BatchEulerTest {
+
+    /**
+     * Correlated Brownian motions with drifts; the Brownian increments are correlated by the Cholesky factor.
+     */
+    @Test
+    public void test_0010() {
+        final double sd11 = 1.5;
+        final double sd22 = 3.7;
+        final double rho = 0.5;
+
+        BatchSDE sde = new BatchSDE(
+                new ConstantBatchDrift(new DenseVector(0.1, -0.2)),
+                new ConstantBatchDiffusion(new DenseMatrix(new double[][]{//Cholesky decomposition
+                    {sd11, 0},
+                    {sd22 * rho, sd22 * sqrt(1 - rho * rho)}
+                })));
+
+        BatchEuler instance = new BatchEuler(sde, new EvenlySpacedGrid(0, 1, 10), 1000, false);
+        instance.seed(1234567890L);
+        double[][] XT = instance.terminalValues(new double[]{1, 2}, 20000);
+
+        assertEquals(2, XT.length);
+        assertEquals(20000, XT[0].length);
+        assertEquals(1 + 0.1, new Mean(XT[0]).value(), 0.05);
+        assertEquals(2 - 0.2, new Mean(XT[1]).value(), 0.1);
+        assertEquals(sd11 * sd11, new Variance(XT[0]).value(), 0.1);
+        assertEquals(sd22 * sd22, new Variance(XT[1]).value(), 0.5);
+        assertEquals(rho * sd11 * sd22, new Covariance(XT).value(), 0.2);
+    }
+
+    /**
+     * The paths do not depend on whether the blocks are simulated in parallel.
+     */
+    @Test
+    public void test_0020() {
+        BatchSDE sde = new BatchSDE(
+                new ConstantBatchDrift(new DenseVector(0.1, -0.2)),
+                new ConstantBatchDiffusion(new DenseMatrix(new double[][]{
+                    {0.3, 0, 0.1},
+                    {0.2, 0.4, 0}
+                })));
+
+        BatchEuler seq = new BatchEuler(sde, new EvenlySpacedGrid(0, 1, 50), 333, false);
+        seq.seed(1234567890L);
+        double[][] XT1 = seq.terminalValues(new double[]{1, 2}, 10000);
+
+        BatchEuler par = new BatchEuler(sde, new EvenlySpacedGrid(0, 1, 50), 333, true);
+        par.seed(1234567890L);
+        double[][] XT2 = par.terminalValues(new double[]{1, 2}, 10000);
+
+        assertArrayEquals(XT1[0], XT2[0], 0);
+        assertArrayEquals(XT1[1], XT2[1], 0);
+    }
+
+    /**
+     * Two correlated geometric Brownian motions, with state-dependent coefficients evaluated over a block.
+     */
+    @Test
+    public void test_0030() {
+        final double r = 0.05;
+        final double[] sigma = new double[]{0.2, 0.3};
+        final double rho = -0.4;
+
+        BatchSDE gbm = new BatchSDE(
+                new BatchDrift() {
+
+                    @Override
+                    public void evaluate(double t, double[][] Xt, int nPaths, double[][] mu) {
+                        for (int i = 0; i < Xt.length; ++i) {
+                            for (int p = 0; p < nPaths; ++p) {
+                                mu[i][p] = r * Xt[i][p];
+                            }
+                        }
+                    }
+                },
+                new BatchDiffusion() {
+
+                    @Override
+                    public void evaluate(double t, double[][] Xt, double[][] dWt, int nPaths, double[][] dXt) {
+                        for (int p = 0; p < nPaths; ++p) {
+                            dXt[0][p] = sigma[0] * Xt[0][p] * dWt[0][p];
+                            dXt[1][p] = sigma[1] * Xt[1][p] * (rho * dWt[0][p] + sqrt(1 - rho * rho) * dWt[1][p]);
+                        }
+                    }
+
+                    @Override
+                    public int nRows() {
+                        return 2;
+                    }
+
+                    @Override
+                    public int nCols() {
+                        return 2;
+                    }
+                });
+
+        BatchEuler instance = new BatchEuler(gbm, new EvenlySpacedGrid(0, 1, 252), 4096, true);
+        instance.seed(1234567890L);
+
+        final double[][] max = new double[2][50000];
+        instance.simulate(new double[]{100, 100}, 50000, new BatchObserver() {
+
+            @Override
+            public void observe(int index, double t, double[][] Xt, int offset, int nPaths) {
+                for (int i = 0; i < 2; ++i) {
+                    for (int p = 0; p < nPaths; ++p) {
+                        max[i][offset + p] = max(max[i][offset + p], Xt[i][p]);
+                    }
+                }
+            }
+        });
+
+        for (int p = 0; p < 50000; ++p) {
+            assertTrue(max[0][p] >= 100);
+            assertTrue(max[1][p] >= 100);
+        }
+        assertTrue(new Mean(max[0]).value() > 100 * exp(r));
+
+        instance.seed(1234567890L);
+        double[][] XT = instance.terminalValues(new double[]{100, 100}, 50000);
+        assertEquals(100 * exp(r), new Mean(XT[0]).value(), 0.5);
+        assertEquals(100 * exp(r), new Mean(XT[1]).value(), 0.5);
+
+        double[][] logReturns = new double[2][50000];
+        for (int p = 0; p < 50000; ++p) {
+            logReturns[0][p] = log(XT[0][p] / 100);
+            logReturns[1][p] = log(XT[1][p] / 100);
+        }
+        assertEquals(rho, new Covariance(logReturns).correlation(), 0.02);
+    }
+}
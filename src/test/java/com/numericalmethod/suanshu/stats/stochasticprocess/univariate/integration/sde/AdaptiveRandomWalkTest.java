@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.EvenlySpacedGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.TimeGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.brownian.Brownian;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.GeometricBrownian;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.ItoTaylor15;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.SDE;
+import org.junit.Test;
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class AdaptiveRandomWalkTest {
+
+    /**
+     * The adaptive Milstein scheme tracks the exact GBM solution, driven by the same Brownian path on the grid.
+     */
+    @Test
+    public void test_0010() {
+        final double r = 0.05, sigma = 0.5;
+        SDE gbm = new GeometricBrownian(r, sigma);
+        TimeGrid grid = new EvenlySpacedGrid(0, 1, 4);
+
+        RandomWalk Bt = new RandomWalk(new Brownian(), grid);
+        Milstein milstein = new Milstein(gbm, grid);
+        AdaptiveRandomWalk adaptive = new AdaptiveRandomWalk(milstein.sde, grid, 1e-4, 12);
+
+        Bt.seed(1234567890L);
+        milstein.seed(1234567890L);
+        adaptive.seed(1234567890L);
+
+        double errMilstein = 0, errAdaptive = 0;
+        int n = 200;
+        for (int i = 0; i < n; ++i) {
+            double[] wt = Bt.nextRealization(0).toArray();
+            double[] xt1 = milstein.nextRealization(1).toArray();
+            double[] xt2 = adaptive.nextRealization(1).toArray();
+
+            assertEquals(grid.size(), xt2.length);
+            assertEquals(1, xt2[0], 0);
+            for (int j = 0; j < wt.length; ++j) {
+                double exact = exp((r - 0.5 * sigma * sigma) * grid.t(j + 1) + sigma * wt[j]);
+                errMilstein += abs(xt1[j] - exact);
+                errAdaptive += abs(xt2[j] - exact);
+            }
+        }
+
+        assertTrue(errAdaptive < 0.1 * errMilstein);
+    }
+
+    /**
+     * With {@code maxDepth} = 0, there is no refinement and the construction is the same as the Random Walk construction.
+     */
+    @Test
+    public void test_0020() {
+        SDE gbm = new GeometricBrownian(0.05, 0.5);
+        TimeGrid grid = new EvenlySpacedGrid(0, 1, 10);
+
+        Euler euler = new Euler(gbm, grid);
+        AdaptiveRandomWalk adaptive = new AdaptiveRandomWalk(euler.sde, grid, 1e-3, 0);
+        euler.seed(1234567890L);
+        adaptive.seed(1234567890L);
+
+        assertArrayEquals(euler.nextRealization(1).toArray(), adaptive.nextRealization(1).toArray(), 1e-14);
+    }
+
+    /**
+     * The order 1.5 constructions draw the second innovation from the realization.
+     */
+    @Test
+    public void test_0030() {
+        final double r = 0.05;
+        SDE gbm = new GeometricBrownian(r, 0.3);
+
+        Construction it15 = new com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde.ItoTaylor15(gbm, new EvenlySpacedGrid(0, 1, 10));
+        it15.seed(1234567890L);
+        Expectation e1 = new Expectation(it15, 1, 20000);
+        assertEquals(exp(r), e1.value(), 0.01);
+
+        Construction srk = new StochasticRungeKutta15(gbm, new EvenlySpacedGrid(0, 1, 10));
+        srk.seed(1234567890L);
+        Expectation e2 = new Expectation(srk, 1, 20000);
+        assertEquals(exp(r), e2.value(), 0.01);
+
+        //the same seed gives the same realizations
+        it15.seed(1234567890L);
+        double[] x1 = it15.nextRealization(1).toArray();
+        it15.seed(1234567890L);
+        double[] x2 = it15.nextRealization(1).toArray();
+        assertArrayEquals(x1, x2, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_0040() {
+        new AdaptiveRandomWalk(new ItoTaylor15(new GeometricBrownian(0.05, 0.5)), new EvenlySpacedGrid(0, 1, 10), 1e-3, 10);
+    }
+}
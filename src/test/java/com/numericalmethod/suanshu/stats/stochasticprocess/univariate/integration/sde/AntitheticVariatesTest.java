@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+import com.numericalmethod.suanshu.stats.distribution.univariate.NormalDistribution;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.EvenlySpacedGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.UnitGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.brownian.Brownian;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.GeometricBrownian;
+import org.junit.Test;
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class AntitheticVariatesTest {
+
+    private static final UnivariateRealFunction call100 = new UnivariateRealFunction() {
+
+        @Override
+        public double evaluate(double x) {
+            return max(x - 100, 0);
+        }
+    };
+
+    /**
+     * the undiscounted Black-Scholes call price, E[max(S<sub>T</sub> - K, 0)]
+     */
+    static double call(double S0, double K, double r, double sigma, double T) {
+        double d1 = (log(S0 / K) + (r + 0.5 * sigma * sigma) * T) / (sigma * sqrt(T));
+        double d2 = d1 - sigma * sqrt(T);
+        NormalDistribution N = new NormalDistribution();
+        return S0 * exp(r * T) * N.cdf(d1) - K * N.cdf(d2);
+    }
+
+    /**
+     * The antithetic pair of a realization is driven by the negated innovations.
+     */
+    @Test
+    public void test_0010() {
+        RandomWalk Bt = new RandomWalk(new Brownian(), new UnitGrid(10));
+        Bt.seed(1234567890L);
+
+        RandomWalk.Realization bt = Bt.nextRealization(0);
+        RandomWalk.Realization antithetic = Bt.antithetic(bt);
+        assertEquals(bt.id, antithetic.id);
+        assertTrue(antithetic.antithetic);
+
+        double[] b1 = bt.toArray();
+        double[] b2 = antithetic.toArray();
+        for (int i = 0; i < b1.length; ++i) {
+            assertEquals(-b1[i], b2[i], 1e-15);
+        }
+
+        double[] b3 = Bt.antithetic(antithetic).toArray();
+        assertArrayEquals(b1, b3, 0);
+    }
+
+    /**
+     * The antithetic pairs of a Brownian motion average to the initial value exactly.
+     */
+    @Test
+    public void test_0020() {
+        RandomWalk Bt = new RandomWalk(new Brownian(), new UnitGrid(1));
+        Bt.seed(1234567890L);
+
+        AntitheticVariates instance = new AntitheticVariates(Bt, 1.5, 100);
+        assertEquals(1.5, instance.value(), 1e-14);
+        assertEquals(0, instance.variance(), 1e-14);
+    }
+
+    /**
+     * Compare the variance of a pair average with that of two independent samples for a European call.
+     */
+    @Test
+    public void test_0030() {
+        final double r = 0.05, sigma = 0.2, T = 1;
+        RandomWalk Xt = new Euler(new GeometricBrownian(r, sigma), new EvenlySpacedGrid(0, T, 50));
+        Xt.seed(1234567890L);
+
+        AntitheticVariates antithetic = new AntitheticVariates(Xt, call100, 100, 5000);
+        double expected = call(100, 100, r, sigma, T);
+        assertEquals(expected, antithetic.value(), 4 * antithetic.stdErr());
+
+        Xt.seed(1234567890L);
+        double plainVariance = 0;
+        double plainMean = 0;
+        int n = 10000;
+        for (int i = 1; i <= n; ++i) {
+            double y = call100.evaluate(Xt.nextRealization(100).lastValue());
+            double d = y - plainMean;
+            plainMean += d / i;
+            plainVariance += d * (y - plainMean);
+        }
+        plainVariance /= n - 1;
+
+        //same number of paths: 5000 pairs vs. 10000 independent paths
+        assertTrue(antithetic.variance() < 0.5 * plainVariance * 0.7);
+    }
+}
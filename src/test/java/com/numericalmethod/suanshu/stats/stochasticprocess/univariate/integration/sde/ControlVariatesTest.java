@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.EvenlySpacedGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.GeometricBrownian;
+import org.junit.Test;
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ControlVariatesTest {
+
+    /**
+     * Use the terminal value, E[S<sub>T</sub>] = S<sub>0</sub> * exp(rT), as the control for a European call.
+     */
+    @Test
+    public void test_0010() {
+        final double r = 0.05, sigma = 0.2, T = 1;
+        Euler Xt = new Euler(new GeometricBrownian(r, sigma), new EvenlySpacedGrid(0, T, 50));
+        Xt.seed(1234567890L);
+
+        UnivariateRealFunction call = new UnivariateRealFunction() {
+
+            @Override
+            public double evaluate(double x) {
+                return max(x - 100, 0);
+            }
+        };
+
+        //Euler scheme for GBM has E[S_T] = S_0 * (1 + r * dt)^n
+        double EXT = 100 * pow(1 + r * T / 50, 50);
+        ControlVariates instance = new ControlVariates(Xt, call, EXT, 100, 10000);
+
+        double expected = AntitheticVariatesTest.call(100, 100, r, sigma, T);
+        assertEquals(expected, instance.value(), 4 * instance.stdErr());
+        assertTrue(instance.rho > 0.9);
+        assertTrue(instance.b > 0.5 && instance.b < 0.8);//roughly the delta of the call
+
+        //the variance is reduced by (1 - ρ^2)
+        Xt.seed(1234567890L);
+        ControlVariates uncontrolled = new ControlVariates(Xt, call,
+                                                           new UnivariateRealFunction() {
+
+            @Override
+            public double evaluate(double x) {
+                return 0;
+            }
+        }, 0, 100, 10000);
+        assertEquals(0, uncontrolled.b, 0);
+        assertEquals((1 - instance.rho * instance.rho) * uncontrolled.variance(), instance.variance(), 1e-8);
+        assertTrue(instance.variance() < 0.25 * uncontrolled.variance());
+    }
+
+    /**
+     * When the integrand is the control, the estimate is exact.
+     */
+    @Test
+    public void test_0020() {
+        Euler Xt = new Euler(new GeometricBrownian(0.1, 0.3), new EvenlySpacedGrid(0, 1, 10));
+        Xt.seed(1234567890L);
+
+        UnivariateRealFunction id = new UnivariateRealFunction() {
+
+            @Override
+            public double evaluate(double x) {
+                return x;
+            }
+        };
+
+        double EXT = 100 * pow(1 + 0.1 / 10, 10);
+        ControlVariates instance = new ControlVariates(Xt, id, EXT, 100, 100);
+        assertEquals(EXT, instance.value(), 1e-10);
+        assertEquals(1, instance.b, 1e-10);
+        assertEquals(0, instance.variance(), 1e-10);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+import com.numericalmethod.suanshu.stats.stochasticprocess.timepoints.EvenlySpacedGrid;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Ft;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.GeometricBrownian;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.SDE;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.coefficients.Drift;
+import org.junit.Test;
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ImportanceSamplingTest {
+
+    /**
+     * Price a deep out-of-the-money call by shifting the drift into the money.
+     */
+    @Test
+    public void test_0010() {
+        final double r = 0.05, sigma = 0.2, T = 1, K = 160;
+        SDE gbm = new GeometricBrownian(r, sigma);
+        UnivariateRealFunction call = new UnivariateRealFunction() {
+
+            @Override
+            public double evaluate(double x) {
+                return max(x - K, 0);
+            }
+        };
+
+        ImportanceSampling plain = new ImportanceSampling(gbm, gbm.mu, new EvenlySpacedGrid(0, T, 50), call, 100, 10000, 1234567890L);
+
+        ImportanceSampling is = new ImportanceSampling(gbm,
+                                                       new Drift() {
+
+            @Override
+            public double evaluate(Ft ft) {
+                return 0.5 * ft.Xt();//E[S_T] ≈ 165
+            }
+        }, new EvenlySpacedGrid(0, T, 50), call, 100, 10000, 1234567890L);
+
+        double expected = AntitheticVariatesTest.call(100, K, r, sigma, T);
+        assertEquals(expected, is.value(), 4 * is.stdErr());
+        assertEquals(expected, plain.value(), 4 * plain.stdErr());
+        assertTrue(is.variance() < 0.05 * plain.variance());
+    }
+
+    /**
+     * The likelihood ratios average to 1.
+     */
+    @Test
+    public void test_0020() {
+        SDE gbm = new GeometricBrownian(0.05, 0.2);
+        ImportanceSampling instance = new ImportanceSampling(gbm,
+                                                             new Drift() {
+
+            @Override
+            public double evaluate(Ft ft) {
+                return -0.1 * ft.Xt();
+            }
+        }, new EvenlySpacedGrid(0, 1, 20),
+                                                             new UnivariateRealFunction() {
+
+            @Override
+            public double evaluate(double x) {
+                return 1;
+            }
+        }, 100, 10000, 1234567890L);
+
+        assertEquals(1, instance.value(), 4 * instance.stdErr());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.integration.sde;
+
+import com.numericalmethod.suanshu.analysis.function.rn2r1.univariate.UnivariateRealFunction;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Euler;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.Ft;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.GeometricBrownian;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.ItoTaylor15;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.SDE;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.coefficients.Diffusion;
+import com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde.coefficients.Drift;
+import org.junit.Test;
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class MultilevelMonteCarloTest {
+
+    private static final UnivariateRealFunction call100 = new UnivariateRealFunction() {
+
+        @Override
+        public double evaluate(double x) {
+            return max(x - 100, 0);
+        }
+    };
+
+    /**
+     * The level variances decay as the grid refines.
+     */
+    @Test
+    public void test_0010() {
+        MultilevelMonteCarlo instance = new MultilevelMonteCarlo(
+                new Euler(new GeometricBrownian(0.05, 0.2)),
+                call100,
+                0, 1, 2, 2,
+                100,
+                new int[]{2000, 2000, 2000, 2000, 2000},
+                1234567890L);
+
+        assertEquals(4, instance.L());
+        assertEquals(2000, instance.N(3));
+        assertEquals(32 + 1, instance.grid(4).size());
+        for (int l = 2; l <= instance.L(); ++l) {
+            assertTrue(instance.variance(l) < instance.variance(l - 1));
+        }
+        assertTrue(instance.variance(1) < 0.1 * instance.variance(0));
+    }
+
+    /**
+     * Choose the numbers of samples to achieve a target accuracy.
+     */
+    @Test
+    public void test_0020() {
+        double epsilon = 0.1;
+        MultilevelMonteCarlo instance = new MultilevelMonteCarlo(
+                new Euler(new GeometricBrownian(0.05, 0.2)),
+                call100,
+                0, 1, 2, 2, 5,
+                100,
+                epsilon, 100,
+                1234567890L);
+
+        assertTrue(instance.variance() <= epsilon * epsilon / 2 * 1.05);
+        for (int l = 1; l <= instance.L(); ++l) {
+            assertTrue(instance.N(l) <= instance.N(l - 1));
+        }
+
+        double expected = AntitheticVariatesTest.call(100, 100, 0.05, 0.2, 1);
+        assertEquals(expected, instance.value(), 4 * instance.stdErr() + 0.1);//sampling and discretization errors
+    }
+
+    /**
+     * The fine and coarse paths of a strong order 1.5 scheme are driven by the second Gaussian innovation too,
+     * so the level variances decay as <i>dt<sup>3</sup></i>, i.e., by more than 8 times per level,
+     * instead of by about 4 times as for a strong order 1 scheme.
+     * The multiple Itô integral matters for an Ornstein-Uhlenbeck process, unlike for a GBM.
+     */
+    @Test
+    public void test_0030() {
+        SDE ou = new SDE(
+                new Drift() {
+
+                    @Override
+                    public double evaluate(Ft ft) {
+                        return 2 * (1 - ft.Xt());
+                    }
+                },
+                new Diffusion() {
+
+                    @Override
+                    public double evaluate(Ft ft) {
+                        return 0.5;
+                    }
+                });
+
+        MultilevelMonteCarlo instance = new MultilevelMonteCarlo(
+                new ItoTaylor15(ou),
+                new UnivariateRealFunction() {
+
+                    @Override
+                    public double evaluate(double x) {
+                        return x;
+                    }
+                },
+                0, 1, 2, 2,
+                0,
+                new int[]{2000, 2000, 2000, 2000, 2000},
+                1234567890L);
+
+        for (int l = 2; l <= instance.L(); ++l) {
+            assertTrue(instance.variance(l) < 0.125 * instance.variance(l - 1));
+        }
+        assertEquals(1 - exp(-2), instance.value(), 4 * instance.stdErr() + 0.01);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.stochasticprocess.univariate.sde;
+
+import com.numericalmethod.suanshu.stats.random.univariate.normal.StandardNormalRng;
+import org.junit.Test;
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ItoTaylor15Test {
+
+    /**
+     * Compute the mean absolute error at T of a scheme for a GBM, whose exact solution is known.
+     */
+    private static double[] strongErrors(DiscretizedSDE[] schemes, double r, double sigma, int nSteps, int nPaths) {
+        StandardNormalRng rnorm = new StandardNormalRng();
+        rnorm.seed(1234567890L);
+
+        double x0 = 1;
+        double dt = 1. / nSteps;
+        double[] errors = new double[schemes.length];
+        FtDZt[] fts = new FtDZt[schemes.length];
+        double[] xt = new double[schemes.length];
+
+        for (int p = 0; p < nPaths; ++p) {
+            for (int k = 0; k < schemes.length; ++k) {
+                fts[k] = new FtDZt();
+                xt[k] = x0;
+            }
+
+            double Wt = 0;
+            for (int i = 0; i < nSteps; ++i) {
+                double Zt = rnorm.nextDouble();
+                double Zt2 = rnorm.nextDouble();
+                Wt += sqrt(dt) * Zt;
+
+                for (int k = 0; k < schemes.length; ++k) {
+                    fts[k].setDt(dt);
+                    fts[k].setXt(xt[k]);
+                    fts[k].setZt(Zt);
+                    fts[k].setZt2(Zt2);
+                    xt[k] += schemes[k].dXt(fts[k]);
+                }
+            }
+
+            double exact = x0 * exp((r - 0.5 * sigma * sigma) + sigma * Wt);
+            for (int k = 0; k < schemes.length; ++k) {
+                errors[k] += abs(xt[k] - exact) / nPaths;
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * The order 1.5 schemes are much more accurate than the Euler and Milstein schemes on the same grid.
+     */
+    @Test
+    public void test_0010() {
+        SDE gbm = new GeometricBrownian(0.05, 0.5);
+        double[] errors = strongErrors(new DiscretizedSDE[]{
+                    new Euler(gbm),
+                    new Milstein(gbm),
+                    new ItoTaylor15(gbm),
+                    new StochasticRungeKutta15(gbm)
+                }, 0.05, 0.5, 32, 500);
+
+        assertTrue(errors[1] < 0.5 * errors[0]);
+        assertTrue(errors[2] < 0.25 * errors[1]);
+        assertTrue(errors[3] < 0.25 * errors[1]);
+    }
+
+    /**
+     * The strong error of the order 1.5 schemes decreases by about 2<sup>1.5</sup> when the step size halves.
+     */
+    @Test
+    public void test_0020() {
+        SDE gbm = new GeometricBrownian(0.05, 0.5);
+        DiscretizedSDE[] schemes = new DiscretizedSDE[]{new ItoTaylor15(gbm), new StochasticRungeKutta15(gbm)};
+        double[] e16 = strongErrors(schemes, 0.05, 0.5, 16, 500);
+        double[] e32 = strongErrors(schemes, 0.05, 0.5, 32, 500);
+        double[] e64 = strongErrors(schemes, 0.05, 0.5, 64, 500);
+
+        for (int k = 0; k < schemes.length; ++k) {
+            assertTrue(e32[k] < e16[k]);
+            double order = log(e16[k] / e64[k]) / log(4);
+            assertEquals(1.5, order, 0.2);
+        }
+    }
+
+    /**
+     * The filtration carries the second innovation; dZ has the right moments.
+     */
+    @Test
+    public void test_0030() {
+        StandardNormalRng rnorm = new StandardNormalRng();
+        rnorm.seed(1234567890L);
+
+        FtDZt ft = new FtDZt();
+        double dt = 0.1;
+        double varZ = 0, covWZ = 0;
+        int n = 100000;
+        for (int i = 0; i < n; ++i) {
+            ft.setDt(dt);
+            ft.setZt(rnorm.nextDouble());
+            ft.setZt2(rnorm.nextDouble());
+            varZ += ft.dZt() * ft.dZt() / n;
+            covWZ += ft.dZt() * ft.dWt() / n;
+        }
+
+        assertEquals(dt * dt * dt / 3, varZ, 1e-5);
+        assertEquals(dt * dt / 2, covWZ, 1e-4);
+        assertEquals(n * dt, ft.t(), 1e-6);
+
+        FtDZt copy = ft.deepCopy();
+        assertEquals(ft.dZt(), copy.dZt(), 0);
+        assertEquals(ft.Wt(), copy.Wt(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_0040() {
+        new ItoTaylor15(new GeometricBrownian(0.05, 0.5)).dXt(new Ft());
+    }
+}
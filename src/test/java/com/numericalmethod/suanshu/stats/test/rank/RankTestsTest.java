@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.test.rank;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.descriptive.rank.Rank;
+import com.numericalmethod.suanshu.stats.test.rank.wilcoxon.WilcoxonRankSum;
+import com.numericalmethod.suanshu.stats.test.rank.wilcoxon.WilcoxonSignedRank;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class RankTestsTest {
+
+    private static DenseMatrix random(int nRows, int nCols, long seed) {
+        Random rng = new Random(seed);
+        DenseMatrix X = new DenseMatrix(nRows, nCols);
+        for (int i = 1; i <= nRows; ++i) {
+            for (int j = 1; j <= nCols; ++j) {
+                X.set(i, j, Math.round(rng.nextGaussian() * 10) / 10.);//with ties
+            }
+        }
+        return X;
+    }
+
+    @Test
+    public void test_0010() {
+        DenseMatrix X = random(300, 50, 1);
+        Rank[] ranks = RankTests.ranks(X);
+        assertEquals(50, ranks.length);
+        for (int j = 1; j <= 50; ++j) {
+            Rank expected = new Rank(X.getColumn(j).toArray());
+            assertArrayEquals(expected.ranks(), ranks[j - 1].ranks(), 0);
+            assertEquals(expected.t(), ranks[j - 1].t(), 0);
+        }
+    }
+
+    @Test
+    public void test_0020() {
+        DenseMatrix X = random(40, 30, 2);
+        DenseMatrix Y = random(35, 30, 3);
+
+        WilcoxonRankSum[] rankSum = RankTests.wilcoxonRankSum(X, Y, 0.1, false, true);
+        SiegelTukey[] siegelTukey = RankTests.siegelTukey(X, Y, 0, false);
+        KruskalWallis[] kruskalWallis = RankTests.kruskalWallis(X, Y);
+        VanDerWaerden[] vanDerWaerden = RankTests.vanDerWaerden(X, Y);
+        for (int j = 1; j <= 30; ++j) {
+            double[] x = X.getColumn(j).toArray();
+            double[] y = Y.getColumn(j).toArray();
+            assertEquals(new WilcoxonRankSum(x, y, 0.1, false, true).pValue(), rankSum[j - 1].pValue(), 0);
+            assertEquals(new SiegelTukey(x, y, 0, false).pValue(), siegelTukey[j - 1].pValue(), 0);
+            assertEquals(new KruskalWallis(x, y).pValue(), kruskalWallis[j - 1].pValue(), 0);
+            assertEquals(new VanDerWaerden(x, y).pValue(), vanDerWaerden[j - 1].pValue(), 0);
+        }
+    }
+
+    @Test
+    public void test_0030() {
+        DenseMatrix X = random(40, 20, 4);
+        DenseMatrix Y = random(40, 20, 5);
+
+        WilcoxonSignedRank[] paired = RankTests.wilcoxonSignedRank(X, Y, 0, false);
+        WilcoxonSignedRank[] single = RankTests.wilcoxonSignedRank(X, null, 0.05, false);
+        for (int j = 1; j <= 20; ++j) {
+            double[] x = X.getColumn(j).toArray();
+            double[] y = Y.getColumn(j).toArray();
+            assertEquals(new WilcoxonSignedRank(x, y, 0, false).statistics(), paired[j - 1].statistics(), 0);
+            assertEquals(new WilcoxonSignedRank(x, null, 0.05, false).pValue(), single[j - 1].pValue(), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_0040() {
+        RankTests.wilcoxonRankSum(random(10, 3, 6), random(10, 4, 7), 0, true, false);
+    }
+}
@@ -24,6 +24,7 @@ package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
 
 import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
 import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -99,4 +100,23 @@ public class AutoCorrelationTest {
         assertEquals(-0.206, instance.evaluate(19), 1e-3);
         assertEquals(-0.047, instance.evaluate(20), 1e-3);
     }
+
+    /**
+     * all lags computed at once by FFT are the same as computed one by one
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(20);
+        double[] x = new double[1500];
+        for (int t = 0; t < x.length; ++t) {
+            x[t] = rng.nextGaussian() + (t > 0 ? -0.5 * x[t - 1] : 0);
+        }
+
+        AutoCorrelation instance = new AutoCorrelation(new SimpleTimeSeries(x));
+        double[] rho = instance.values(1000);
+        assertEquals(1, rho[0], 1e-15);
+        for (int k = 0; k <= 1000; ++k) {
+            assertEquals(instance.evaluate(k), rho[k], 1e-12);
+        }
+    }
 }
@@ -24,6 +24,7 @@ package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
 
 import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
 import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -99,4 +100,28 @@ public class AutoCovarianceTest {
         assertEquals(-0.19784, instance.evaluate(19), 1e-5);
         assertEquals(-0.04490, instance.evaluate(20), 1e-5);
     }
+
+    /**
+     * all lags computed at once by FFT are the same as computed one by one
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(10);
+        double[] x = new double[2000];
+        for (int t = 1; t < x.length; ++t) {
+            x[t] = 0.7 * x[t - 1] + rng.nextGaussian() + 3;
+        }
+        TimeSeries xt = new SimpleTimeSeries(x);
+
+        for (AutoCovariance.Type type : AutoCovariance.Type.values()) {
+            AutoCovariance instance = new AutoCovariance(xt, type);
+            for (int maxLag : new int[]{0, 5, 1999}) {
+                double[] gamma = instance.values(maxLag);
+                assertEquals(maxLag + 1, gamma.length);
+                for (int k = 0; k <= maxLag; ++k) {
+                    assertEquals(instance.evaluate(k), gamma[k], 1e-12);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
+
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class CrossCovarianceTest {
+
+    /**
+     * x.t = c(1, 3, 2, 5, 4); y.t = c(2, 1, 4, 3, 6)
+     * ccf(x.t, y.t, type = "covariance", plot = FALSE)
+     */
+    @Test
+    public void test_0010() {
+        TimeSeries xt = new SimpleTimeSeries(new double[]{1, 3, 2, 5, 4});
+        TimeSeries yt = new SimpleTimeSeries(new double[]{2, 1, 4, 3, 6});
+        CrossCovariance instance = new CrossCovariance(xt, yt);
+
+        //x.bar = 3, y.bar = 3.2
+        assertEquals((-2 * -1.2 + 0 * -2.2 + -1 * 0.8 + 2 * -0.2 + 1 * 2.8) / 5, instance.evaluate(0), 1e-15);
+        assertEquals((0 * -1.2 + -1 * -2.2 + 2 * 0.8 + 1 * -0.2) / 5, instance.evaluate(1), 1e-15);
+        assertEquals((-2 * -2.2 + 0 * 0.8 + -1 * -0.2 + 2 * 2.8) / 5, instance.evaluate(-1), 1e-15);
+    }
+
+    /**
+     * all lags computed at once by FFT are the same as computed one by one
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(20);
+        double[] x = new double[1200];
+        double[] y = new double[1200];
+        for (int t = 0; t < x.length; ++t) {
+            x[t] = rng.nextGaussian();
+            y[t] = (t >= 3 ? 0.8 * x[t - 3] : 0) + rng.nextGaussian() + 1;
+        }
+        TimeSeries xt = new SimpleTimeSeries(x);
+        TimeSeries yt = new SimpleTimeSeries(y);
+
+        for (AutoCovariance.Type type : AutoCovariance.Type.values()) {
+            CrossCovariance instance = new CrossCovariance(xt, yt, type);
+            CrossCovariance reversed = new CrossCovariance(yt, xt, type);
+            for (int maxLag : new int[]{2, 1199}) {
+                double[] gamma = instance.values(maxLag);
+                assertEquals(2 * maxLag + 1, gamma.length);
+                for (int k = -maxLag; k <= maxLag; ++k) {
+                    assertEquals(instance.evaluate(k), gamma[k + maxLag], 1e-12);
+                    assertEquals(reversed.evaluate(-k), gamma[k + maxLag], 1e-12);
+                }
+            }
+        }
+
+        //y leads x by 3
+        double[] gamma = new CrossCovariance(xt, yt).values(10);
+        assertEquals(0.8, gamma[10 - 3], 0.1);
+
+        //the cross-covariance of a series with itself is the auto-covariance
+        CrossCovariance xx = new CrossCovariance(xt, xt);
+        AutoCovariance acvf = new AutoCovariance(xt);
+        for (int k = 0; k < 20; ++k) {
+            assertEquals(acvf.evaluate(k), xx.evaluate(k), 1e-14);
+            assertEquals(acvf.evaluate(k), xx.evaluate(-k), 1e-14);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class PeriodogramTest {
+
+    /**
+     * the periodogram is the squared modulus of the DFT at the Fourier frequencies
+     */
+    @Test
+    public void test_0010() {
+        Random rng = new Random(10);
+        for (int n : new int[]{2, 7, 100, 256}) {
+            double[] x = new double[n];
+            double mu = 0;
+            for (int t = 0; t < n; ++t) {
+                x[t] = rng.nextGaussian() + 5;
+                mu += x[t] / n;
+            }
+
+            Periodogram instance = new Periodogram(x);
+            double[] f = instance.frequencies();
+            double[] I = instance.spectrum();
+            assertEquals(n / 2, I.length);
+            for (int j = 1; j <= n / 2; ++j) {
+                assertEquals((double) j / n, f[j - 1], 1e-15);
+                double re = 0, im = 0;
+                for (int t = 1; t <= n; ++t) {
+                    re += (x[t - 1] - mu) * Math.cos(2 * Math.PI * j * t / n);
+                    im -= (x[t - 1] - mu) * Math.sin(2 * Math.PI * j * t / n);
+                }
+                assertEquals((re * re + im * im) / n, I[j - 1], 1e-10);
+            }
+        }
+    }
+
+    /**
+     * the periodogram of a sinusoid at a Fourier frequency is a spike
+     */
+    @Test
+    public void test_0020() {
+        final int n = 120;
+        double[] x = new double[n];
+        for (int t = 0; t < n; ++t) {
+            x[t] = 2 * Math.cos(2 * Math.PI * 10 * t / n);
+        }
+
+        double[] I = new Periodogram(x).spectrum();
+        for (int j = 1; j <= n / 2; ++j) {
+            assertEquals(j == 10 ? n : 0, I[j - 1], 1e-10);//|n A / 2|^2 / n
+        }
+    }
+}
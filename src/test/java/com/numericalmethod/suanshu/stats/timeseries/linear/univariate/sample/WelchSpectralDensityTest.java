@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample;
+
+import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.sample.WelchSpectralDensity.Window;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class WelchSpectralDensityTest {
+
+    /**
+     * one rectangular segment gives the periodogram
+     */
+    @Test
+    public void test_0010() {
+        Random rng = new Random(10);
+        double[] x = new double[300];
+        for (int t = 0; t < x.length; ++t) {
+            x[t] = rng.nextGaussian();
+        }
+
+        WelchSpectralDensity instance = new WelchSpectralDensity(x, 300, 0, Window.RECTANGULAR);
+        Periodogram periodogram = new Periodogram(x);
+        assertEquals(1, instance.nSegments());
+        assertArrayEquals(periodogram.frequencies(), instance.frequencies(), 0);
+        assertArrayEquals(periodogram.spectrum(), instance.spectrum(), 1e-12);
+    }
+
+    /**
+     * the spectral density of an AR(1) process is σ<sup>2</sup> / |1 - φ e<sup>-2πif</sup>|<sup>2</sup>
+     */
+    @Test
+    public void test_0020() {
+        Random rng = new Random(20);
+        double[] x = new double[100000];
+        for (int t = 1; t < x.length; ++t) {
+            x[t] = 0.5 * x[t - 1] + rng.nextGaussian();
+        }
+
+        WelchSpectralDensity instance = new WelchSpectralDensity(x, 256);
+        assertEquals(780, instance.nSegments());
+        double[] f = instance.frequencies();
+        double[] S = instance.spectrum();
+        assertEquals(128, S.length);
+        for (int j = 0; j < S.length; ++j) {
+            double expected = 1. / (1.25 - Math.cos(2 * Math.PI * f[j]));
+            assertEquals(expected, S[j], 0.15 * expected);
+        }
+    }
+
+    /**
+     * the segments that do not fit entirely are dropped
+     */
+    @Test
+    public void test_0030() {
+        double[] x = new double[105];
+        for (int t = 0; t < x.length; ++t) {
+            x[t] = Math.sin(t);
+        }
+
+        assertEquals(3, new WelchSpectralDensity(x, 40, 10, Window.HANN).nSegments());
+        assertEquals(4, new WelchSpectralDensity(x, 40).nSegments());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.arma;
+
+import com.numericalmethod.suanshu.matrix.doubles.matrixtype.dense.DenseMatrix;
+import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.arma.BatchARMAFitting.Fit;
+import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.arma.BatchARMAFitting.Method;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class BatchARMAFittingTest {
+
+    /**
+     * an ARMA(1, 1) series with unit white noise variance
+     */
+    private static double[] simulate(double phi, double theta, int n, long seed) {
+        Random rng = new Random(seed);
+        double[] x = new double[n + 200];
+        double e0 = 0;
+        for (int t = 1; t < x.length; ++t) {
+            double e = rng.nextGaussian();
+            x[t] = phi * x[t - 1] + e + theta * e0;
+            e0 = e;
+        }
+        return Arrays.copyOfRange(x, 200, x.length);
+    }
+
+    private static List<TimeSeries> universe(int nSeries, int n) {
+        List<TimeSeries> series = new ArrayList<TimeSeries>();
+        for (int i = 0; i < nSeries; ++i) {
+            series.add(new SimpleTimeSeries(simulate(0.2 + 0.05 * i, 0.3, n, 100L + i)));
+        }
+        return series;
+    }
+
+    /**
+     * a batch gives the same fits as fitting the series one by one
+     */
+    @Test
+    public void test_0010() {
+        List<TimeSeries> series = universe(8, 1000);
+        List<Fit> fits = new BatchARMAFitting(1, 0, 1).fit(series);
+
+        assertEquals(8, fits.size());
+        for (int i = 0; i < 8; ++i) {
+            Fit fit = fits.get(i);
+            assertNull(fit.error());
+            assertTrue(fit.isConverged());
+            assertTrue(fit.nIterations() > 0);
+            assertTrue(fit.elapsedNanos() > 0);
+
+            ExactMaximumLikelihood expected = new ExactMaximumLikelihood(series.get(i), 1, 0, 1);
+            assertArrayEquals(expected.getFittedARMA().AR(), fit.getFittedARMA().AR(), 0);
+            assertArrayEquals(expected.getFittedARMA().MA(), fit.getFittedARMA().MA(), 0);
+            double psi1 = fit.getFittedARMA().AR(1) + fit.getFittedARMA().MA(1);//the first ψ weight is well identified
+            assertEquals(0.2 + 0.05 * i + 0.3, psi1, 0.1);
+        }
+    }
+
+    /**
+     * warm starts from yesterday's fits take fewer iterations and give the same estimates
+     */
+    @Test
+    public void test_0020() {
+        List<TimeSeries> yesterday = universe(6, 2000);
+        List<TimeSeries> today = new ArrayList<TimeSeries>();
+        for (TimeSeries xt : yesterday) {
+            double[] x = xt.toArray();
+            double[] x1 = Arrays.copyOf(x, x.length + 10);
+            for (int t = x.length; t < x1.length; ++t) {
+                x1[t] = 0.5 * x1[t - 1];
+            }
+            today.add(new SimpleTimeSeries(x1));
+        }
+
+        BatchARMAFitting batch = new BatchARMAFitting(1, 0, 1);
+        List<ARMAModel> warmStarts = new ArrayList<ARMAModel>();
+        for (Fit fit : batch.fit(yesterday)) {
+            warmStarts.add(fit.getFittedARMA());
+        }
+
+        List<Fit> cold = batch.fit(today);
+        List<Fit> warm = batch.fit(today, warmStarts);
+        int coldIterations = 0;
+        int warmIterations = 0;
+        for (int i = 0; i < 6; ++i) {
+            assertTrue(warm.get(i).isConverged());
+            assertArrayEquals(cold.get(i).getFittedARMA().AR(), warm.get(i).getFittedARMA().AR(), 1e-4);
+            assertArrayEquals(cold.get(i).getFittedARMA().MA(), warm.get(i).getFittedARMA().MA(), 1e-4);
+            coldIterations += cold.get(i).nIterations();
+            warmIterations += warm.get(i).nIterations();
+        }
+        assertTrue(warmIterations < coldIterations);
+    }
+
+    /**
+     * a failing series does not stop the batch; a null warm start is a cold start
+     */
+    @Test
+    public void test_0030() {
+        List<TimeSeries> series = new ArrayList<TimeSeries>(universe(3, 500));
+        series.add(1, new SimpleTimeSeries(new double[]{1., 2.}));//too short
+
+        List<ARMAModel> warmStarts = new ArrayList<ARMAModel>();
+        warmStarts.add(new ARMAModel(new double[]{0.2}, new double[]{0.3}));
+        warmStarts.add(null);
+        warmStarts.add(null);
+        warmStarts.add(new ARMAModel(new double[]{0.3}, new double[]{0.3}));
+
+        List<Fit> fits = new BatchARMAFitting(1, 0, 1).fit(series, warmStarts);
+        assertNotNull(fits.get(0).getFittedARMA());
+        assertNull(fits.get(1).fitting());
+        assertTrue(fits.get(1).error() instanceof IllegalArgumentException);
+        assertNotNull(fits.get(2).getFittedARMA());
+        assertNotNull(fits.get(3).getFittedARMA());
+    }
+
+    /**
+     * the columns of a matrix, fitted by CSS
+     */
+    @Test
+    public void test_0040() {
+        final int n = 800;
+        DenseMatrix X = new DenseMatrix(n, 3);
+        for (int j = 1; j <= 3; ++j) {
+            double[] x = simulate(0.5, 0., n, 200L + j);
+            for (int t = 1; t <= n; ++t) {
+                X.set(t, j, x[t - 1]);
+            }
+        }
+
+        List<Fit> fits = new BatchARMAFitting(1, 0, 0, Method.CONDITIONAL_SUM_OF_SQUARES, 500).fit(X);
+        for (int j = 1; j <= 3; ++j) {
+            Fit fit = fits.get(j - 1);
+            assertTrue(fit.fitting() instanceof ConditionalSumOfSquares);
+            assertTrue(fit.isConverged());
+            assertTrue(fit.nIterations() < 500);
+            assertEquals(0.5, fit.getFittedARMA().AR(1), 0.1);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.arma;
+
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import java.util.Random;
+import org.junit.Test;
+
+import static java.lang.Math.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ExactMaximumLikelihoodTest {
+
+    /**
+     * simulate a zero-mean ARMA(p, q) series with unit white noise variance
+     */
+    private static double[] simulate(double[] phi, double[] theta, int n, long seed) {
+        final int burnIn = 1000;
+        Random rng = new Random(seed);
+        double[] x = new double[n + burnIn];
+        double[] e = new double[n + burnIn];
+        for (int t = 0; t < x.length; ++t) {
+            e[t] = rng.nextGaussian();
+            x[t] = e[t];
+            for (int j = 1; j <= phi.length && t - j >= 0; ++j) {
+                x[t] += phi[j - 1] * x[t - j];
+            }
+            for (int j = 1; j <= theta.length && t - j >= 0; ++j) {
+                x[t] += theta[j - 1] * e[t - j];
+            }
+        }
+        double[] result = new double[n];
+        System.arraycopy(x, burnIn, result, 0, n);
+        return result;
+    }
+
+    /**
+     * the autocovariances of an ARMA(p, q) process with unit white noise variance, from the ψ weights
+     */
+    private static double[] autocovariance(double[] phi, double[] theta, int nLags) {
+        final int m = 5000;
+        double[] psi = new double[m];
+        for (int j = 0; j < m; ++j) {
+            psi[j] = j == 0 ? 1. : j <= theta.length ? theta[j - 1] : 0.;
+            for (int i = 1; i <= phi.length && j - i >= 0; ++i) {
+                psi[j] += phi[i - 1] * psi[j - i];
+            }
+        }
+        double[] gamma = new double[nLags];
+        for (int h = 0; h < nLags; ++h) {
+            for (int j = 0; j + h < m; ++j) {
+                gamma[h] += psi[j] * psi[j + h];
+            }
+        }
+        return gamma;
+    }
+
+    /**
+     * the Kalman filter gives the exact likelihood: S = x'Γ^-1 x and Σlog(F_t) = log|Γ|
+     */
+    @Test
+    public void test_0010() {
+        double[] phi = new double[]{0.5, -0.3};
+        double[] theta = new double[]{0.4, 0.2, -0.1};
+        final int n = 40;
+        double[] x = simulate(phi, theta, n, 1234L);
+
+        double[] gamma = autocovariance(phi, theta, n);
+        double[][] L = new double[n][n];//Cholesky factor of Γ
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j <= i; ++j) {
+                double s = gamma[i - j];
+                for (int k = 0; k < j; ++k) {
+                    s -= L[i][k] * L[j][k];
+                }
+                L[i][j] = i == j ? sqrt(s) : s / L[j][j];
+            }
+        }
+        double logDet = 0;
+        double quadratic = 0;
+        double[] z = new double[n];
+        for (int i = 0; i < n; ++i) {
+            double s = x[i];
+            for (int k = 0; k < i; ++k) {
+                s -= L[i][k] * z[k];
+            }
+            z[i] = s / L[i][i];
+            quadratic += z[i] * z[i];
+            logDet += 2. * log(L[i][i]);
+        }
+
+        ExactMaximumLikelihood.Likelihood likelihood = new ExactMaximumLikelihood.Likelihood(x, 2, 3);
+        double f = likelihood.evaluate(new double[]{0.5, -0.3, 0.4, 0.2, -0.1}, null);
+
+        assertEquals(quadratic, likelihood.S, 1e-8);
+        assertEquals(logDet, likelihood.sumLogF, 1e-8);
+        assertEquals(log(quadratic / n) + logDet / n, f, 1e-10);
+    }
+
+    /**
+     * the analytic gradient is the same as finite differencing
+     */
+    @Test
+    public void test_0020() {
+        double[] x = simulate(new double[]{0.6, 0.2}, new double[]{-0.5}, 300, 2345L);
+        ExactMaximumLikelihood.Likelihood likelihood = new ExactMaximumLikelihood.Likelihood(x, 2, 1);
+
+        double[] beta = new double[]{0.5, 0.1, -0.3};
+        double[] gradient = new double[3];
+        likelihood.evaluate(beta, gradient);
+
+        final double h = 1e-6;
+        for (int j = 0; j < 3; ++j) {
+            double[] b = beta.clone();
+            b[j] = beta[j] + h;
+            double fPlus = likelihood.evaluate(b, null);
+            b[j] = beta[j] - h;
+            double fMinus = likelihood.evaluate(b, null);
+            assertEquals((fPlus - fMinus) / (2. * h), gradient[j], 1e-7);
+        }
+    }
+
+    /**
+     * the gradient through the steady state; pure MA, whose filter converges slowly
+     */
+    @Test
+    public void test_0030() {
+        double[] x = simulate(new double[]{}, new double[]{0.7, 0.1}, 500, 3456L);
+        ExactMaximumLikelihood.Likelihood likelihood = new ExactMaximumLikelihood.Likelihood(x, 0, 2);
+
+        double[] beta = new double[]{0.6, 0.2};
+        double[] gradient = new double[2];
+        likelihood.evaluate(beta, gradient);
+
+        final double h = 1e-6;
+        for (int j = 0; j < 2; ++j) {
+            double[] b = beta.clone();
+            b[j] = beta[j] + h;
+            double fPlus = likelihood.evaluate(b, null);
+            b[j] = beta[j] - h;
+            double fMinus = likelihood.evaluate(b, null);
+            assertEquals((fPlus - fMinus) / (2. * h), gradient[j], 1e-7);
+        }
+    }
+
+    /**
+     * fit an ARMA(2, 1) model to a long series; compare with CSS
+     */
+    @Test
+    public void test_0040() {
+        double[] phi = new double[]{0.5, -0.3};
+        double[] theta = new double[]{0.4};
+        double[] x = simulate(phi, theta, 20000, 4567L);
+        for (int t = 0; t < x.length; ++t) {
+            x[t] += 2.;
+        }
+        SimpleTimeSeries xt = new SimpleTimeSeries(x);
+
+        ExactMaximumLikelihood mle = new ExactMaximumLikelihood(xt, 2, 0, 1);
+        ARMAModel model = mle.getFittedARMA();
+        assertArrayEquals(phi, model.AR(), 0.03);
+        assertArrayEquals(theta, model.MA(), 0.03);
+        assertEquals(1., mle.var(), 0.03);
+        assertEquals(2. * (1 - model.AR(1) - model.AR(2)), model.mu(), 0.05);
+
+        //standard errors are about 1/sqrt(n) in size and cover the truth
+        double[] stderr = mle.stderr().toArray();
+        double[] estimates = new double[]{model.AR(1), model.AR(2), model.MA(1)};
+        double[] truth = new double[]{0.5, -0.3, 0.4};
+        for (int j = 0; j < 3; ++j) {
+            assertTrue(stderr[j] > 0 && stderr[j] < 0.05);
+            assertEquals(truth[j], estimates[j], 4. * stderr[j]);
+        }
+
+        assertEquals(-2. * mle.logLikelihood() + 8., mle.AIC(), 1e-10);
+
+        ConditionalSumOfSquares css = new ConditionalSumOfSquares(xt, 2, 0, 1);
+        ARMAModel cssModel = css.getFittedARMA();
+        assertArrayEquals(cssModel.AR(), model.AR(), 0.05);
+        assertArrayEquals(cssModel.MA(), model.MA(), 0.05);
+    }
+
+    /**
+     * ARIMA(1, 1, 1); the score vanishes at the fitted model
+     */
+    @Test
+    public void test_0050() {
+        double[] dx = simulate(new double[]{0.6}, new double[]{0.3}, 5000, 5678L);
+        double[] x = new double[dx.length + 1];
+        for (int t = 1; t < x.length; ++t) {
+            x[t] = x[t - 1] + dx[t - 1];
+        }
+
+        ExactMaximumLikelihood mle = new ExactMaximumLikelihood(new SimpleTimeSeries(x), 1, 1, 1);
+        ARMAModel model = mle.getFittedARMA();
+        assertEquals(0.6, model.AR(1), 0.05);
+        assertEquals(0.3, model.MA(1), 0.05);
+        assertEquals(1., mle.var(), 0.05);
+
+        double mean = 0;
+        for (int t = 0; t < dx.length; ++t) {
+            mean += dx[t] / dx.length;
+        }
+        double[] y = new double[dx.length];
+        for (int t = 0; t < y.length; ++t) {
+            y[t] = dx[t] - mean;
+        }
+        double[] gradient = new double[2];
+        new ExactMaximumLikelihood.Likelihood(y, 1, 1).evaluate(new double[]{model.AR(1), model.MA(1)}, gradient);
+        assertArrayEquals(new double[]{0., 0.}, gradient, 1e-6);
+    }
+}
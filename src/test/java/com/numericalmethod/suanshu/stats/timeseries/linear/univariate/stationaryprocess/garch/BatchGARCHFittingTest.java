@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.garch;
+
+import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.garch.BatchGARCHFitting.Fit;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class BatchGARCHFittingTest {
+
+    /**
+     * a GARCH(1, 1) series
+     */
+    private static double[] simulate(double a0, double a1, double b1, int n, long seed) {
+        Random rng = new Random(seed);
+        double[] x = new double[n];
+        double h = a0 / (1 - a1 - b1);
+        double e2 = h;
+        for (int t = 0; t < n; ++t) {
+            h = a0 + a1 * e2 + b1 * h;
+            x[t] = Math.sqrt(h) * rng.nextGaussian();
+            e2 = x[t] * x[t];
+        }
+        return x;
+    }
+
+    private static List<TimeSeries> universe(int nSeries, int n) {
+        List<TimeSeries> series = new ArrayList<TimeSeries>();
+        for (int i = 0; i < nSeries; ++i) {
+            series.add(new SimpleTimeSeries(simulate(0.1, 0.1, 0.8, n, 300L + i)));
+        }
+        return series;
+    }
+
+    /**
+     * a batch gives the same fits as fitting the series one by one
+     */
+    @Test
+    public void test_0010() {
+        List<TimeSeries> series = universe(4, 1000);
+        List<Fit> fits = new BatchGARCHFitting(1, 1).fit(series);
+
+        assertEquals(4, fits.size());
+        for (int i = 0; i < 4; ++i) {
+            Fit fit = fits.get(i);
+            assertNull(fit.error());
+            assertTrue(fit.elapsedNanos() > 0);
+
+            GARCHModel expected = new GARCH(series.get(i), 1, 1).getModel();
+            assertEquals(expected.a0(), fit.getModel().a0(), 0);
+            assertArrayEquals(expected.alpha(), fit.getModel().alpha(), 0);
+            assertArrayEquals(expected.beta(), fit.getModel().beta(), 0);
+        }
+    }
+
+    /**
+     * warm starts converge to about the same estimates as cold starts
+     */
+    @Test
+    public void test_0020() {
+        List<TimeSeries> series = universe(4, 2000);
+        BatchGARCHFitting batch = new BatchGARCHFitting(1, 1);
+        List<Fit> cold = batch.fit(series);
+
+        List<GARCHModel> warmStarts = new ArrayList<GARCHModel>();
+        for (int i = 0; i < 4; ++i) {
+            warmStarts.add(new GARCHModel(0.1, new double[]{0.1}, new double[]{0.8}));
+        }
+        List<Fit> warm = batch.fit(series, warmStarts);
+
+        for (int i = 0; i < 4; ++i) {
+            assertTrue(warm.get(i).isConverged());
+            assertEquals(cold.get(i).getModel().a0(), warm.get(i).getModel().a0(), 5e-3);
+            assertArrayEquals(cold.get(i).getModel().alpha(), warm.get(i).getModel().alpha(), 5e-3);
+            assertArrayEquals(cold.get(i).getModel().beta(), warm.get(i).getModel().beta(), 5e-3);
+        }
+    }
+
+    /**
+     * a warm start must have the same orders
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void test_0030() {
+        List<GARCHModel> warmStarts = new ArrayList<GARCHModel>();
+        warmStarts.add(new GARCHModel(0.1, new double[]{0.1, 0.05}, new double[]{0.8}));
+        new BatchGARCHFitting(1, 1).fit(universe(1, 100), warmStarts);
+    }
+
+    /**
+     * a fitting that ends in an invalid parameter set, e.g., of a series with a missing value,
+     * is reported as a failure, and printing it does not throw
+     */
+    @Test
+    public void test_0040() {
+        double[] x = simulate(0.1, 0.1, 0.8, 200, 400L);
+        x[50] = Double.NaN;
+        GARCH invalid = new GARCH(new SimpleTimeSeries(x), 1, 1);
+        assertNull(invalid.getModel());
+        assertEquals("invalid GARCH fit", invalid.toString());
+
+        List<TimeSeries> series = universe(1, 500);
+        series.add(new SimpleTimeSeries(x));
+        List<Fit> fits = new BatchGARCHFitting(1, 1).fit(series);
+
+        assertNull(fits.get(0).error());
+        assertNotNull(fits.get(0).getModel());
+        assertTrue(fits.get(1).error() instanceof IllegalStateException);
+        assertNull(fits.get(1).getModel());
+        assertTrue(fits.get(1).toString().startsWith("failed: "));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.garch;
+
+import com.numericalmethod.suanshu.stats.descriptive.moment.Variance;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class GARCHFilterTest {
+
+    /**
+     * a GARCH(1, 1) series
+     */
+    private static double[] simulate(double a0, double a1, double b1, int n, long seed) {
+        Random rng = new Random(seed);
+        double[] x = new double[n];
+        double h = a0 / (1 - a1 - b1);
+        double e2 = h;
+        for (int t = 0; t < n; ++t) {
+            h = a0 + a1 * e2 + b1 * h;
+            x[t] = Math.sqrt(h) * rng.nextGaussian();
+            e2 = x[t] * x[t];
+        }
+        return x;
+    }
+
+    /**
+     * the conditional variances h[0], ..., h[n] computed in batch as in {@link GARCH},
+     * initialized to {@code var}
+     */
+    private static double[] batch(GARCHModel model, double[] x, double var) {
+        double[] a = model.alpha();
+        double[] b = model.beta();
+        int maxPQ = model.maxPQ();
+        double[] h = new double[x.length + 1];
+        for (int t = 0; t <= x.length; ++t) {
+            if (t < maxPQ) {
+                h[t] = var;
+                continue;
+            }
+            double ae2 = 0;
+            for (int i = 0; i < a.length; ++i) {
+                ae2 += a[i] * x[t - 1 - i] * x[t - 1 - i];
+            }
+            double bh = 0;
+            for (int i = 0; i < b.length; ++i) {
+                bh += b[i] * h[t - 1 - i];
+            }
+            h[t] = model.a0() + ae2 + bh;
+        }
+        return h;
+    }
+
+    /**
+     * streaming the observations one by one gives the same conditional variances as the batch recursion
+     */
+    @Test
+    public void test_0010() {
+        GARCHModel model = new GARCHModel(0.05, new double[]{0.1, 0.05}, new double[]{0.6, 0.1, 0.05});
+        double[] x = simulate(0.1, 0.1, 0.8, 600, 1L);
+        double[] h = batch(model, x, new Variance(Arrays.copyOf(x, 100)).value());
+
+        GARCHFilter filter = new GARCHFilter(model, Arrays.copyOf(x, 100), 500, 100);
+        assertEquals(h[100], filter.variance(), 1e-14);
+        for (int t = 100; t < x.length; ++t) {
+            assertEquals(h[t + 1], filter.add(x[t]), 1e-14);
+        }
+        assertEquals(600, filter.nObs());
+        assertArrayEquals(Arrays.copyOfRange(x, 100, 600), filter.window(), 0);
+    }
+
+    /**
+     * the h-step forecasts of a GARCH(1, 1) model decay to the unconditional variance geometrically
+     */
+    @Test
+    public void test_0020() {
+        GARCHModel model = new GARCHModel(0.1, new double[]{0.1}, new double[]{0.8});
+        GARCHFilter filter = new GARCHFilter(model, simulate(0.1, 0.1, 0.8, 300, 2L), 300, 100);
+        filter.add(3.);//a shock
+
+        double h1 = filter.variance();
+        double var = model.var();
+        double[] f = filter.forecast(50);
+        for (int k = 1; k <= 50; ++k) {
+            assertEquals(var + Math.pow(0.9, k - 1) * (h1 - var), f[k - 1], 1e-12);
+        }
+    }
+
+    /**
+     * the multi-step forecasts of a higher order model equal the recursion with the future shocks at their expectations
+     */
+    @Test
+    public void test_0030() {
+        GARCHModel model = new GARCHModel(0.05, new double[]{0.1, 0.05}, new double[]{0.6, 0.1});
+        double[] x = simulate(0.1, 0.1, 0.8, 300, 3L);
+        GARCHFilter filter = new GARCHFilter(model, x, 300, 100);
+        double[] f = filter.forecast(5);
+
+        //feeding the forecasts as the squared shocks reproduces them
+        GARCHFilter copy = new GARCHFilter(model, x, 300, 100);
+        for (int k = 1; k < 5; ++k) {
+            assertEquals(f[k - 1], copy.variance(), 1e-14);
+            copy.add(Math.sqrt(copy.variance()));
+        }
+        assertEquals(f[4], copy.variance(), 1e-14);
+    }
+
+    /**
+     * a re-estimation fits the window, warm started from the current model
+     */
+    @Test
+    public void test_0040() {
+        double[] x = simulate(0.1, 0.1, 0.8, 1500, 4L);
+        GARCHModel initial = new GARCHModel(0.2, new double[]{0.2}, new double[]{0.5});
+        GARCHFilter filter = new GARCHFilter(initial, x, 1000, 300);
+
+        GARCHModel model = filter.reestimate();
+        assertSame(model, filter.getModel());
+        GARCHModel expected = new GARCH(new SimpleTimeSeries(Arrays.copyOfRange(x, 500, 1500)), initial, 300, GARCH.GRADIENT.ANALYTICAL).getModel();
+        assertEquals(expected.a0(), model.a0(), 0);
+        assertArrayEquals(expected.alpha(), model.alpha(), 0);
+        assertArrayEquals(expected.beta(), model.beta(), 0);
+
+        //the state is rebuilt with the new model
+        double[] window = Arrays.copyOfRange(x, 500, 1500);
+        double[] h = batch(model, window, new Variance(window).value());
+        assertEquals(h[1000], filter.variance(), 1e-14);
+    }
+
+    /**
+     * the periodic re-estimations run in the background while observations are added
+     */
+    @Test
+    public void test_0050() throws Exception {
+        double[] x = simulate(0.1, 0.1, 0.8, 2000, 5L);
+        GARCHModel initial = new GARCHModel(0.2, new double[]{0.2}, new double[]{0.5});
+        GARCHFilter filter = new GARCHFilter(initial, Arrays.copyOf(x, 500), 500, 300);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            filter.setReestimation(executor, 250);
+            for (int t = 500; t < x.length; ++t) {
+                double h = filter.add(x[t]);
+                assertTrue(h > 0);
+            }
+            filter.setReestimation(null, 0);
+
+            FutureTask<GARCHModel> last = filter.reestimate(executor);
+            GARCHModel model = last.get(60, TimeUnit.SECONDS);
+            assertSame(model, filter.getModel());
+            assertNotSame(initial, model);
+            assertEquals(0.9, model.alpha()[0] + model.beta()[0], 0.1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
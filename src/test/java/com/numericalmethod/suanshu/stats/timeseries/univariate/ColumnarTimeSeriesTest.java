@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) Numerical Method Inc.
+ * http://www.numericalmethod.com/
+ * 
+ * THIS SOFTWARE IS LICENSED, NOT SOLD.
+ * 
+ * YOU MAY USE THIS SOFTWARE ONLY AS DESCRIBED IN THE LICENSE.
+ * IF YOU ARE NOT AWARE OF AND/OR DO NOT AGREE TO THE TERMS OF THE LICENSE,
+ * DO NOT USE THIS SOFTWARE.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITH NO WARRANTY WHATSOEVER,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING, WITHOUT LIMITATION,
+ * ANY WARRANTIES OF ACCURACY, ACCESSIBILITY, COMPLETENESS,
+ * FITNESS FOR A PARTICULAR PURPOSE, MERCHANTABILITY, NON-INFRINGEMENT, 
+ * TITLE AND USEFULNESS.
+ * 
+ * IN NO EVENT AND UNDER NO LEGAL THEORY,
+ * WHETHER IN ACTION, CONTRACT, NEGLIGENCE, TORT, OR OTHERWISE,
+ * SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIMS, DAMAGES OR OTHER LIABILITIES,
+ * ARISING AS A RESULT OF USING OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.numericalmethod.suanshu.stats.timeseries.univariate;
+
+import com.numericalmethod.suanshu.misc.R;
+import com.numericalmethod.suanshu.stats.timeseries.linear.univariate.stationaryprocess.arma.ConditionalSumOfSquares;
+import com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.SimpleTimeSeries;
+import com.numericalmethod.suanshu.time.JodaTimeUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Haksun Li
+ */
+public class ColumnarTimeSeriesTest {
+
+    @Test
+    public void test_0010() {
+        DateTime[] times = new DateTime[]{
+            JodaTimeUtils.getDate(2011, 11, 27, DateTimeZone.UTC),
+            JodaTimeUtils.getDate(2011, 11, 28, DateTimeZone.UTC)
+        };
+        ColumnarTimeSeries ts = new ColumnarTimeSeries(new DateTimeTimeSeries(times, new double[]{27., 28.}));
+        assertEquals(2, ts.size());
+        assertEquals(27., ts.get(1), 0);
+        assertEquals(28., ts.get(2), 0);
+        assertEquals(times[1].getMillis(), ts.time(2));
+        assertEquals(27., ts.valueAt(times[0].getMillis()), 0);
+        assertEquals(28., ts.valueAt(times[1].getMillis()), 0);
+    }
+
+    /**
+     * The views over several chunks agree with the copies made by {@code SimpleTimeSeries} and {@code R.diff}.
+     */
+    @Test
+    public void test_0020() {
+        int n = 100000;// spans several chunks
+        ColumnarTimeSeries ts = new ColumnarTimeSeries();
+        double[] values = new double[n];
+        for (int i = 0; i < n; ++i) {
+            values[i] = Math.sin(i / 100.) + i % 7;
+            ts.append(1000L * i, values[i]);
+        }
+        SimpleTimeSeries simple = new SimpleTimeSeries(values);
+
+        assertEquals(n, ts.size());
+        assertArrayEquals(values, ts.toArray(), 0);
+        assertEquals(simple.lag(3).size(), ts.lag(3).size());
+        assertArrayEquals(simple.lag(3).toArray(), ts.lag(3).toArray(), 0);
+        assertArrayEquals(simple.lag(5, 20000).toArray(), ts.lag(5, 20000).toArray(), 0);
+        assertArrayEquals(simple.drop(17000).toArray(), ts.drop(17000).toArray(), 0);
+        assertEquals(1000L * 17000, ts.drop(17000).time(1));
+
+        for (int d = 1; d <= 3; ++d) {
+            ColumnarTimeSeries diff = ts.diff(d);
+            assertArrayEquals(R.diff(values, 1, d), diff.toArray(), 1e-12);
+            assertEquals(1000L * d, diff.time(1));
+            assertEquals(1000L * (n - 1), diff.time(diff.size()));
+        }
+
+        // views compose: slicing a difference and differencing a slice
+        ColumnarTimeSeries a = ts.diff(1).slice(20000, 30000).diff(1);
+        ColumnarTimeSeries b = ts.slice(20000, 30001).diff(2);
+        assertEquals(b.size(), a.size());
+        assertArrayEquals(b.toArray(), a.toArray(), 1e-12);
+        assertArrayEquals(b.timestamps(), a.timestamps());
+        assertEquals(b, a);
+
+        assertEquals(values[12345], ts.valueAt(1000L * 12345), 0);
+    }
+
+    @Test
+    public void test_0030() {
+        ColumnarTimeSeries ts = new ColumnarTimeSeries(new long[]{1, 2, 3}, new double[]{10, 20, 30});
+        ColumnarTimeSeries view = ts.drop(1);
+        com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries values = ts.values();
+
+        ts.append(4, 40);// does not change the earlier views
+        assertEquals(2, view.size());
+        assertEquals(3, values.size());
+        assertEquals(4, ts.size());
+        assertArrayEquals(new long[]{1, 2, 3, 4}, ts.timestamps());
+
+        assertEquals(20, values.get(2), 0);
+        Iterator<com.numericalmethod.suanshu.stats.timeseries.univariate.realtime.TimeSeries.Entry> it = values.iterator();
+        assertEquals(1, it.next().getTime().intValue());
+        assertEquals(20, it.next().getValue(), 0);
+
+        Iterator<TimeSeries.Entry<Long>> entries = view.iterator();
+        TimeSeries.Entry<Long> entry = entries.next();
+        assertEquals(2L, entry.getTime().longValue());
+        assertEquals(20, entry.getValue(), 0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void test_0040() {
+        ColumnarTimeSeries ts = new ColumnarTimeSeries(new long[]{1, 2, 3}, new double[]{10, 20, 30});
+        ts.lag(1).append(4, 40);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_0050() {
+        ColumnarTimeSeries ts = new ColumnarTimeSeries(new long[]{1, 2, 3}, new double[]{10, 20, 30});
+        ts.append(2, 40);// time goes backward
+    }
+
+    /**
+     * A fitter gives the same fit from the integer-indexed view as from a copy.
+     */
+    @Test
+    public void test_0060() {
+        int n = 300;
+        long[] times = new long[n];
+        double[] values = new double[n];
+        double x = 0, e = 0;
+        for (int i = 0; i < n; ++i) {
+            e = Math.sin(7.3 * i * i) * 0.5;// deterministic noise
+            x = 0.6 * x + e;
+            times[i] = i;
+            values[i] = x;
+        }
+        ColumnarTimeSeries ts = new ColumnarTimeSeries(times, values);
+
+        ConditionalSumOfSquares expected = new ConditionalSumOfSquares(new SimpleTimeSeries(values), 1, 0, 0);
+        ConditionalSumOfSquares actual = new ConditionalSumOfSquares(UnivariateTimeSeriesUtils.toIntegerIndexed(ts), 1, 0, 0);
+        assertArrayEquals(expected.getFittedARMA().AR(), actual.getFittedARMA().AR(), 0);
+        assertEquals(expected.var(), actual.var(), 0);
+
+        assertTrue(Arrays.equals(values, UnivariateTimeSeriesUtils.toIntegerIndexed(ts).toArray()));
+    }
+
+    private static byte[] serialize(Object obj) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(obj);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws Exception {
+        return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+    }
+
+    /**
+     * A short series is small when serialized; a long one survives serialization across the chunks.
+     */
+    @Test
+    public void test_0070() throws Exception {
+        ColumnarTimeSeries one = new ColumnarTimeSeries(new long[]{1}, new double[]{10});
+        byte[] bytes = serialize(one);
+        assertTrue(bytes.length < 1024);// not a whole chunk
+        assertEquals(one, deserialize(bytes));
+
+        int n = 40000;// the first chunk grows to its full size, then more chunks
+        ColumnarTimeSeries ts = new ColumnarTimeSeries();
+        for (int i = 0; i < n; ++i) {
+            ts.append(i, Math.cos(i));
+        }
+        ColumnarTimeSeries copy = (ColumnarTimeSeries) deserialize(serialize(ts));
+        assertEquals(n, copy.size());
+        assertArrayEquals(ts.toArray(), copy.toArray(), 0);
+        assertArrayEquals(ts.timestamps(), copy.timestamps());
+
+        copy.append(n, 1);
+        assertEquals(n + 1, copy.size());
+        assertEquals(ts.diff(1).slice(100, 30000), ((ColumnarTimeSeries) deserialize(serialize(ts.diff(1)))).slice(100, 30000));
+    }
+}
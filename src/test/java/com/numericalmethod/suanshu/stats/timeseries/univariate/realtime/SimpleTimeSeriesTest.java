@@ -22,6 +22,14 @@
  */
 package com.numericalmethod.suanshu.stats.timeseries.univariate.realtime;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Iterator;
 import com.numericalmethod.suanshu.misc.R;
 import org.junit.Test;
@@ -218,4 +226,76 @@ public class SimpleTimeSeriesTest {
         assertEquals(1, t1.get(1), 0.0);
         assertEquals(10, t1.get(10), 0.0);
     }
+
+    /**
+     * Views of views share the data and behave like copies.
+     */
+    @Test
+    public void test_0620() {
+        SimpleTimeSeries t1 = new SimpleTimeSeries(new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+
+        SimpleTimeSeries t2 = t1.drop(2).lag(3);
+        assertEquals(new SimpleTimeSeries(new double[]{3, 4, 5, 6, 7}), t2);
+        assertEquals(new SimpleTimeSeries(new double[]{3, 4, 5, 6, 7}).hashCode(), t2.hashCode());
+        assertEquals(3, t2.get(1), 0.0);
+        assertEquals(7, t2.get(5), 0.0);
+        assertArrayEquals(new double[]{1, 1, 1, 1}, t2.diff(1).toArray(), 0.0);
+
+        Iterator<TimeSeries.Entry> it = t2.iterator();
+        TimeSeries.Entry entry = it.next();
+        assertEquals(1, entry.getTime().intValue());
+        assertEquals(3, entry.getValue(), 0.0);
+    }
+
+    private static Object roundTrip(Object obj) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(obj);
+        out.close();
+        return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+
+    /**
+     * a series and a view survive serialization
+     */
+    @Test
+    public void test_0710() throws Exception {
+        SimpleTimeSeries t1 = new SimpleTimeSeries(new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        SimpleTimeSeries t2 = (SimpleTimeSeries) roundTrip(t1);
+        assertEquals(t1, t2);
+        assertArrayEquals(t1.toArray(), t2.toArray(), 0);
+
+        SimpleTimeSeries view = t1.lag(2, 5);
+        SimpleTimeSeries copy = (SimpleTimeSeries) roundTrip(view);
+        assertEquals(view, copy);
+        assertArrayEquals(new double[]{4, 5, 6, 7, 8}, copy.toArray(), 0);
+        assertEquals(new SimpleTimeSeries(new double[]{4, 5, 6, 7}), copy.lag(1));
+    }
+
+    /**
+     * the serialized form is the same as in the earlier versions: a single field {@code ArrayList ts}
+     */
+    @Test
+    public void test_0720() {
+        ObjectStreamClass desc = ObjectStreamClass.lookup(SimpleTimeSeries.class);
+        assertEquals(1405110589928642029L, desc.getSerialVersionUID());
+
+        ObjectStreamField[] fields = desc.getFields();
+        assertEquals(1, fields.length);
+        assertEquals("ts", fields[0].getName());
+        assertEquals(ArrayList.class, fields[0].getType());
+    }
+
+    /**
+     * a stream written by the earlier versions, which stored the values in an {@code ArrayList<Double>}, can be read
+     */
+    @Test
+    public void test_0730() throws Exception {
+        //new SimpleTimeSeries(new double[]{1.5, -2, 3}) serialized by the ArrayList-based SimpleTimeSeries
+        byte[] bytes = Base64.getDecoder().decode(
+            "rO0ABXNyAFFjb20ubnVtZXJpY2FsbWV0aG9kLnN1YW5zaHUuc3RhdHMudGltZXNlcmllcy51bml2YXJpYXRlLnJlYWx0aW1lLlNpbXBsZVRpbWVTZXJpZXMTf/SjDtYV7QIAAUwAAnRzdAAVTGphdmEvdXRpbC9BcnJheUxpc3Q7eHBzcgATamF2YS51dGlsLkFycmF5TGlzdHiB0h2Zx2GdAwABSQAEc2l6ZXhwAAAAA3cEAAAAA3NyABBqYXZhLmxhbmcuRG91YmxlgLPCSilr+wQCAAFEAAV2YWx1ZXhyABBqYXZhLmxhbmcuTnVtYmVyhqyVHQuU4IsCAAB4cD/4AAAAAAAAc3EAfgAFwAAAAAAAAABzcQB+AAVACAAAAAAAAHg=");
+        SimpleTimeSeries ts = (SimpleTimeSeries) new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+        assertEquals(new SimpleTimeSeries(new double[]{1.5, -2, 3}), ts);
+        assertEquals(-2, ts.get(2), 0);
+    }
 }